@@ -0,0 +1,279 @@
+package redis.clients.jedis;
+
+import static redis.clients.jedis.Protocol.toByteArray;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import redis.clients.jedis.Protocol.Command;
+import redis.clients.jedis.params.set.SetParams;
+import redis.clients.util.SafeEncoder;
+
+/**
+ * Non-blocking counterpart of {@link Jedis}. Every command is written immediately and returns a
+ * {@link JedisFuture} that the event loop completes when the reply arrives, so one thread can have
+ * commands in flight against several nodes at once. Replies are decoded with the same
+ * {@link BuilderFactory} builders that {@link Pipeline} uses.
+ */
+public class AsyncJedis implements Closeable {
+  private static final byte[][] EMPTY_ARGS = new byte[0][];
+
+  private final NioConnectionGroup connections;
+  private final NioEventLoop loop;
+  private final boolean ownsLoop;
+
+  public AsyncJedis(final String host, final int port) {
+    this(new HostAndPort(host, port));
+  }
+
+  public AsyncJedis(final HostAndPort node) {
+    this(node, 1, new NioEventLoop(), true);
+  }
+
+  /**
+   * @param connections number of sockets opened to the node and shared by all callers. Ordering is
+   *          only guaranteed per socket, so with more than one a command that depends on an
+   *          earlier one should wait for its future first.
+   * @param loop event loop driving the sockets, which may be shared with other instances
+   */
+  public AsyncJedis(final HostAndPort node, final int connections, final NioEventLoop loop) {
+    this(node, connections, loop, false);
+  }
+
+  private AsyncJedis(final HostAndPort node, final int connections, final NioEventLoop loop,
+      final boolean ownsLoop) {
+    this.connections = new NioConnectionGroup(node, connections, loop);
+    this.loop = loop;
+    this.ownsLoop = ownsLoop;
+  }
+
+  /**
+   * Sends an arbitrary command and decodes its reply with the given builder.
+   */
+  public <T> JedisFuture<T> send(final Builder<T> builder, final ProtocolCommand cmd,
+      final byte[]... args) {
+    return connections.next().send(builder, cmd, args);
+  }
+
+  private <T> JedisFuture<T> send(final Builder<T> builder, final ProtocolCommand cmd,
+      final String... args) {
+    return send(builder, cmd, SafeEncoder.encodeMany(args));
+  }
+
+  public JedisFuture<String> ping() {
+    return send(BuilderFactory.STRING, Command.PING, EMPTY_ARGS);
+  }
+
+  public JedisFuture<String> echo(final String string) {
+    return send(BuilderFactory.STRING, Command.ECHO, string);
+  }
+
+  public JedisFuture<String> set(final String key, final String value) {
+    return send(BuilderFactory.STRING, Command.SET, key, value);
+  }
+
+  public JedisFuture<String> set(final String key, final String value, final SetParams params) {
+    return send(BuilderFactory.STRING, Command.SET,
+      params.getByteParams(SafeEncoder.encode(key), SafeEncoder.encode(value)));
+  }
+
+  public JedisFuture<String> set(final byte[] key, final byte[] value) {
+    return send(BuilderFactory.STRING, Command.SET, key, value);
+  }
+
+  public JedisFuture<String> get(final String key) {
+    return send(BuilderFactory.STRING, Command.GET, key);
+  }
+
+  public JedisFuture<byte[]> get(final byte[] key) {
+    return send(BuilderFactory.BYTE_ARRAY, Command.GET, key);
+  }
+
+  public JedisFuture<String> getSet(final String key, final String value) {
+    return send(BuilderFactory.STRING, Command.GETSET, key, value);
+  }
+
+  public JedisFuture<List<String>> mget(final String... keys) {
+    return send(BuilderFactory.STRING_LIST, Command.MGET, keys);
+  }
+
+  public JedisFuture<String> mset(final String... keysvalues) {
+    return send(BuilderFactory.STRING, Command.MSET, keysvalues);
+  }
+
+  public JedisFuture<Boolean> exists(final String key) {
+    return send(BuilderFactory.BOOLEAN, Command.EXISTS, key);
+  }
+
+  public JedisFuture<Long> del(final String... keys) {
+    return send(BuilderFactory.LONG, Command.DEL, keys);
+  }
+
+  public JedisFuture<Long> expire(final String key, final int seconds) {
+    return send(BuilderFactory.LONG, Command.EXPIRE, SafeEncoder.encode(key),
+      toByteArray(seconds));
+  }
+
+  public JedisFuture<Long> ttl(final String key) {
+    return send(BuilderFactory.LONG, Command.TTL, key);
+  }
+
+  public JedisFuture<Long> incr(final String key) {
+    return send(BuilderFactory.LONG, Command.INCR, key);
+  }
+
+  public JedisFuture<Long> incrBy(final String key, final long integer) {
+    return send(BuilderFactory.LONG, Command.INCRBY, SafeEncoder.encode(key),
+      toByteArray(integer));
+  }
+
+  public JedisFuture<Long> decr(final String key) {
+    return send(BuilderFactory.LONG, Command.DECR, key);
+  }
+
+  public JedisFuture<Long> decrBy(final String key, final long integer) {
+    return send(BuilderFactory.LONG, Command.DECRBY, SafeEncoder.encode(key),
+      toByteArray(integer));
+  }
+
+  public JedisFuture<Long> append(final String key, final String value) {
+    return send(BuilderFactory.LONG, Command.APPEND, key, value);
+  }
+
+  public JedisFuture<Long> hset(final String key, final String field, final String value) {
+    return send(BuilderFactory.LONG, Command.HSET, key, field, value);
+  }
+
+  public JedisFuture<String> hget(final String key, final String field) {
+    return send(BuilderFactory.STRING, Command.HGET, key, field);
+  }
+
+  public JedisFuture<List<String>> hmget(final String key, final String... fields) {
+    return send(BuilderFactory.STRING_LIST, Command.HMGET, prepend(key, fields));
+  }
+
+  public JedisFuture<String> hmset(final String key, final Map<String, String> hash) {
+    final byte[][] args = new byte[hash.size() * 2 + 1][];
+    args[0] = SafeEncoder.encode(key);
+    int i = 1;
+    for (Map.Entry<String, String> entry : hash.entrySet()) {
+      args[i++] = SafeEncoder.encode(entry.getKey());
+      args[i++] = SafeEncoder.encode(entry.getValue());
+    }
+    return send(BuilderFactory.STRING, Command.HMSET, args);
+  }
+
+  public JedisFuture<Map<String, String>> hgetAll(final String key) {
+    return send(BuilderFactory.STRING_MAP, Command.HGETALL, key);
+  }
+
+  public JedisFuture<Long> hdel(final String key, final String... fields) {
+    return send(BuilderFactory.LONG, Command.HDEL, prepend(key, fields));
+  }
+
+  public JedisFuture<Long> hincrBy(final String key, final String field, final long value) {
+    return send(BuilderFactory.LONG, Command.HINCRBY, SafeEncoder.encode(key),
+      SafeEncoder.encode(field), toByteArray(value));
+  }
+
+  public JedisFuture<Long> lpush(final String key, final String... strings) {
+    return send(BuilderFactory.LONG, Command.LPUSH, prepend(key, strings));
+  }
+
+  public JedisFuture<Long> rpush(final String key, final String... strings) {
+    return send(BuilderFactory.LONG, Command.RPUSH, prepend(key, strings));
+  }
+
+  public JedisFuture<String> lpop(final String key) {
+    return send(BuilderFactory.STRING, Command.LPOP, key);
+  }
+
+  public JedisFuture<String> rpop(final String key) {
+    return send(BuilderFactory.STRING, Command.RPOP, key);
+  }
+
+  public JedisFuture<Long> llen(final String key) {
+    return send(BuilderFactory.LONG, Command.LLEN, key);
+  }
+
+  public JedisFuture<List<String>> lrange(final String key, final long start, final long end) {
+    return send(BuilderFactory.STRING_LIST, Command.LRANGE, SafeEncoder.encode(key),
+      toByteArray(start), toByteArray(end));
+  }
+
+  public JedisFuture<Long> sadd(final String key, final String... members) {
+    return send(BuilderFactory.LONG, Command.SADD, prepend(key, members));
+  }
+
+  public JedisFuture<Long> srem(final String key, final String... members) {
+    return send(BuilderFactory.LONG, Command.SREM, prepend(key, members));
+  }
+
+  public JedisFuture<Set<String>> smembers(final String key) {
+    return send(BuilderFactory.STRING_SET, Command.SMEMBERS, key);
+  }
+
+  public JedisFuture<Boolean> sismember(final String key, final String member) {
+    return send(BuilderFactory.BOOLEAN, Command.SISMEMBER, key, member);
+  }
+
+  public JedisFuture<Long> scard(final String key) {
+    return send(BuilderFactory.LONG, Command.SCARD, key);
+  }
+
+  public JedisFuture<Long> zadd(final String key, final double score, final String member) {
+    return send(BuilderFactory.LONG, Command.ZADD, SafeEncoder.encode(key), toByteArray(score),
+      SafeEncoder.encode(member));
+  }
+
+  public JedisFuture<Long> zrem(final String key, final String... members) {
+    return send(BuilderFactory.LONG, Command.ZREM, prepend(key, members));
+  }
+
+  public JedisFuture<Double> zscore(final String key, final String member) {
+    return send(BuilderFactory.DOUBLE, Command.ZSCORE, key, member);
+  }
+
+  public JedisFuture<Double> zincrby(final String key, final double score, final String member) {
+    return send(BuilderFactory.DOUBLE, Command.ZINCRBY, SafeEncoder.encode(key),
+      toByteArray(score), SafeEncoder.encode(member));
+  }
+
+  public JedisFuture<Long> zcard(final String key) {
+    return send(BuilderFactory.LONG, Command.ZCARD, key);
+  }
+
+  public JedisFuture<Set<String>> zrange(final String key, final long start, final long end) {
+    return send(BuilderFactory.STRING_ZSET, Command.ZRANGE, SafeEncoder.encode(key),
+      toByteArray(start), toByteArray(end));
+  }
+
+  public JedisFuture<Set<Tuple>> zrangeWithScores(final String key, final long start,
+      final long end) {
+    return send(BuilderFactory.TUPLE_ZSET, Command.ZRANGE, SafeEncoder.encode(key),
+      toByteArray(start), toByteArray(end), Protocol.Keyword.WITHSCORES.raw);
+  }
+
+  public JedisFuture<Long> publish(final String channel, final String message) {
+    return send(BuilderFactory.LONG, Command.PUBLISH, channel, message);
+  }
+
+  private static byte[][] prepend(final String key, final String... rest) {
+    final byte[][] args = new byte[rest.length + 1][];
+    args[0] = SafeEncoder.encode(key);
+    for (int i = 0; i < rest.length; i++) {
+      args[i + 1] = SafeEncoder.encode(rest[i]);
+    }
+    return args;
+  }
+
+  @Override
+  public void close() {
+    connections.close();
+    if (ownsLoop) {
+      loop.close();
+    }
+  }
+}
@@ -0,0 +1,186 @@
+package redis.clients.jedis;
+
+import java.io.Closeable;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.jedis.exceptions.JedisException;
+import redis.clients.util.IOUtils;
+import redis.clients.util.SafeEncoder;
+
+/**
+ * Wraps a {@link Connection} so concurrent callers can share it, pipelining their commands
+ * automatically.
+ * Each caller encodes its command into the connection's output buffer; whichever caller finds no
+ * flush in progress writes out everything buffered so far with a single flush, so commands issued
+ * while a flush is on the wire share the next one. A single reader thread completes the
+ * {@link JedisFuture}s in the order the commands were buffered.
+ */
+public class AutoPipelinedConnection implements Closeable {
+  private final Connection connection;
+  private final Queue<JedisFuture<?>> inflight = new ConcurrentLinkedQueue<JedisFuture<?>>();
+  private final Semaphore outstanding = new Semaphore(0);
+  private final AtomicBoolean dirty = new AtomicBoolean();
+  private final AtomicBoolean flushing = new AtomicBoolean();
+  private final Thread reader;
+  private volatile boolean broken = false;
+
+  public AutoPipelinedConnection(final String host, final int port) {
+    this(host, port, Protocol.DEFAULT_TIMEOUT);
+  }
+
+  public AutoPipelinedConnection(final String host, final int port, final int timeout) {
+    this(host, port, timeout, null);
+  }
+
+  public AutoPipelinedConnection(final String host, final int port, final int timeout,
+      final String password) {
+    connection = new Connection(host, port);
+    connection.setConnectionTimeout(timeout);
+    connection.setSoTimeout(timeout);
+    connection.connect();
+    reader = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        readLoop();
+      }
+    }, "jedis-auto-pipeline-" + host + ":" + port);
+    reader.setDaemon(true);
+    reader.start();
+    if (password != null) {
+      execute(BuilderFactory.STRING, Protocol.Command.AUTH, SafeEncoder.encode(password));
+    }
+  }
+
+  public boolean isBroken() {
+    return broken;
+  }
+
+  /**
+   * Buffers the command and makes sure it is flushed, either by this thread or by the one already
+   * flushing. Returns without waiting for the reply.
+   */
+  public <T> JedisFuture<T> send(final Builder<T> builder, final ProtocolCommand cmd,
+      final byte[]... args) {
+    final JedisFuture<T> future = new JedisFuture<T>(builder);
+    synchronized (connection) {
+      if (broken) {
+        throw new JedisConnectionException("Connection is broken.");
+      }
+      connection.sendCommand(cmd, args);
+      inflight.add(future);
+    }
+    outstanding.release();
+    dirty.set(true);
+    flushIfIdle();
+    return future;
+  }
+
+  public <T> JedisFuture<T> send(final Builder<T> builder, final ProtocolCommand cmd,
+      final String... args) {
+    return send(builder, cmd, SafeEncoder.encodeMany(args));
+  }
+
+  /**
+   * Sends the command and waits up to soTimeout for its reply.
+   */
+  public <T> T execute(final Builder<T> builder, final ProtocolCommand cmd, final byte[]... args) {
+    final JedisFuture<T> future = send(builder, cmd, args);
+    try {
+      return future.get(connection.getSoTimeout(), TimeUnit.MILLISECONDS);
+    } catch (ExecutionException e) {
+      throw (JedisException) e.getCause();
+    } catch (TimeoutException e) {
+      throw new JedisConnectionException("Read timed out after " + connection.getSoTimeout()
+          + " ms.");
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new JedisException(e);
+    }
+  }
+
+  public <T> T execute(final Builder<T> builder, final ProtocolCommand cmd, final String... args) {
+    return execute(builder, cmd, SafeEncoder.encodeMany(args));
+  }
+
+  public String get(final String key) {
+    return execute(BuilderFactory.STRING, Protocol.Command.GET, key);
+  }
+
+  public String set(final String key, final String value) {
+    return execute(BuilderFactory.STRING, Protocol.Command.SET, key, value);
+  }
+
+  private void flushIfIdle() {
+    // a caller that loses the race leaves dirty set, and the winner re-checks it after releasing
+    // the flushing flag, so no buffered command is left behind
+    while (dirty.get() && flushing.compareAndSet(false, true)) {
+      try {
+        dirty.set(false);
+        synchronized (connection) {
+          if (!broken) {
+            connection.flush();
+          }
+        }
+      } catch (JedisConnectionException e) {
+        fail(e);
+      } finally {
+        flushing.set(false);
+      }
+    }
+  }
+
+  private void readLoop() {
+    while (!broken) {
+      try {
+        outstanding.acquire();
+      } catch (InterruptedException e) {
+        break;
+      }
+      if (broken) {
+        break;
+      }
+      Object reply;
+      try {
+        reply = connection.readProtocolWithCheckingBroken();
+      } catch (JedisDataException e) {
+        reply = e;
+      } catch (JedisConnectionException e) {
+        fail(e);
+        break;
+      }
+      final JedisFuture<?> future = inflight.poll();
+      if (future != null) {
+        future.set(reply);
+      }
+    }
+  }
+
+  private void fail(JedisConnectionException e) {
+    synchronized (connection) {
+      if (broken) {
+        return;
+      }
+      broken = true;
+    }
+    reader.interrupt();
+    // closing the socket also unblocks the reader if it is waiting for a reply
+    IOUtils.closeQuietly(connection.getSocket());
+    JedisFuture<?> future;
+    while ((future = inflight.poll()) != null) {
+      future.fail(e);
+    }
+  }
+
+  @Override
+  public void close() {
+    fail(new JedisConnectionException("Connection closed before the reply was received."));
+  }
+}
@@ -1196,6 +1196,13 @@ public void subscribe(final byte[]... channels) {
     sendCommand(Command.ASKING);
   }
 
+  /**
+   * Sends ASKING in front of the next command without waiting for its reply.
+   */
+  public void askingPipelined() {
+    sendCommandIgnoringReply(Command.ASKING);
+  }
+
   public void pfadd(final byte[] key, final byte[]... elements) {
     sendCommand(PFADD, joinParameters(key, elements));
   }
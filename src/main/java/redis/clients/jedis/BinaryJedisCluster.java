@@ -5,10 +5,18 @@ import redis.clients.util.KeyMergeUtil;
 import redis.clients.util.SafeEncoder;
 
 import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
 
@@ -23,6 +31,12 @@ public class BinaryJedisCluster implements BinaryJedisClusterCommands,
 
   protected JedisClusterConnectionHandler connectionHandler;
 
+  /**
+   * Queries the nodes of a cross-slot multi-key command in parallel. Sized to the node count at
+   * construction, so a command never runs more batches at once than there are masters.
+   */
+  protected final ExecutorService multiKeyExecutor;
+
   public BinaryJedisCluster(Set<HostAndPort> nodes, int timeout) {
     this(nodes, timeout, DEFAULT_MAX_REDIRECTIONS, new GenericObjectPoolConfig());
   }
@@ -36,6 +50,7 @@ public class BinaryJedisCluster implements BinaryJedisClusterCommands,
     this.connectionHandler = new JedisSlotBasedConnectionHandler(jedisClusterNode, poolConfig,
         timeout);
     this.maxRedirections = maxRedirections;
+    this.multiKeyExecutor = newMultiKeyExecutor(connectionHandler.getNodes().size());
   }
 
   public BinaryJedisCluster(Set<HostAndPort> jedisClusterNode, int connectionTimeout,
@@ -43,12 +58,34 @@ public class BinaryJedisCluster implements BinaryJedisClusterCommands,
     this.connectionHandler = new JedisSlotBasedConnectionHandler(jedisClusterNode, poolConfig,
         connectionTimeout, soTimeout);
     this.maxRedirections = maxRedirections;
+    this.multiKeyExecutor = newMultiKeyExecutor(connectionHandler.getNodes().size());
+  }
+
+  private static ExecutorService newMultiKeyExecutor(int nodes) {
+    int threads = Math.max(1, nodes);
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+        new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+          private final AtomicInteger count = new AtomicInteger();
+
+          @Override
+          public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "jedis-cluster-multikey-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+          }
+        });
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
   }
 
   @Override
   public void close() {
+    multiKeyExecutor.shutdown();
     if (connectionHandler != null) {
-      for (JedisPool pool : connectionHandler.getNodes().values()) {
+      connectionHandler.getSlotCacheRefresher().close();
+      List<JedisPool> pools = new ArrayList<JedisPool>(connectionHandler.getNodes().values());
+      pools.addAll(connectionHandler.getReplicaNodes().values());
+      for (JedisPool pool : pools) {
         try {
           if (pool != null) {
             pool.destroy();
@@ -64,6 +101,34 @@ public class BinaryJedisCluster implements BinaryJedisClusterCommands,
     return connectionHandler.getNodes();
   }
 
+  /**
+   * Sends read-only commands to replicas according to the policy. Reads from replicas may return
+   * stale data; the default, {@link ReadFrom#MASTER}, keeps every command on the masters.
+   */
+  public void setReadFrom(ReadFrom readFrom) {
+    connectionHandler.setReadFrom(readFrom);
+  }
+
+  public ReadFrom getReadFrom() {
+    return connectionHandler.getReadFrom();
+  }
+
+  /**
+   * Controls how often the slot cache may be refreshed after MOVED replies, and whether it is
+   * also refreshed periodically.
+   */
+  public JedisClusterSlotCacheRefresher getSlotCacheRefresher() {
+    return connectionHandler.getSlotCacheRefresher();
+  }
+
+  /**
+   * Starts a pipeline of single-key commands routed by slot. The pipeline holds one connection
+   * per node it talks to until it is closed.
+   */
+  public JedisClusterPipeline pipelined() {
+    return new JedisClusterPipeline(connectionHandler, maxRedirections, multiKeyExecutor);
+  }
+
   @Override
   public String set(final byte[] key, final byte[] value) {
     return new JedisClusterCommand<String>(connectionHandler, maxRedirections) {
@@ -91,7 +156,7 @@ public class BinaryJedisCluster implements BinaryJedisClusterCommands,
       public byte[] execute(Jedis connection) {
         return connection.get(key);
       }
-    }.runBinary(key);
+    }.runReadOnlyBinary(key);
   }
 
   @Override
@@ -101,7 +166,7 @@ public class BinaryJedisCluster implements BinaryJedisClusterCommands,
       public Boolean execute(Jedis connection) {
         return connection.exists(key);
       }
-    }.runBinary(key);
+    }.runReadOnlyBinary(key);
   }
 
   @Override
@@ -121,7 +186,7 @@ public class BinaryJedisCluster implements BinaryJedisClusterCommands,
       public String execute(Jedis connection) {
         return connection.type(key);
       }
-    }.runBinary(key);
+    }.runReadOnlyBinary(key);
   }
 
   @Override
@@ -171,7 +236,7 @@ public class BinaryJedisCluster implements BinaryJedisClusterCommands,
       public Long execute(Jedis connection) {
         return connection.ttl(key);
       }
-    }.runBinary(key);
+    }.runReadOnlyBinary(key);
   }
 
   @Override
@@ -201,7 +266,7 @@ public class BinaryJedisCluster implements BinaryJedisClusterCommands,
       public Boolean execute(Jedis connection) {
         return connection.getbit(key, offset);
       }
-    }.runBinary(key);
+    }.runReadOnlyBinary(key);
   }
 
   @Override
@@ -221,7 +286,7 @@ public class BinaryJedisCluster implements BinaryJedisClusterCommands,
       public byte[] execute(Jedis connection) {
         return connection.getrange(key, startOffset, endOffset);
       }
-    }.runBinary(key);
+    }.runReadOnlyBinary(key);
   }
 
   @Override
@@ -321,7 +386,7 @@ public class BinaryJedisCluster implements BinaryJedisClusterCommands,
       public byte[] execute(Jedis connection) {
         return connection.substr(key, start, end);
       }
-    }.runBinary(key);
+    }.runReadOnlyBinary(key);
   }
 
   @Override
@@ -341,7 +406,7 @@ public class BinaryJedisCluster implements BinaryJedisClusterCommands,
       public byte[] execute(Jedis connection) {
         return connection.hget(key, field);
       }
-    }.runBinary(key);
+    }.runReadOnlyBinary(key);
   }
 
   @Override
@@ -371,7 +436,7 @@ public class BinaryJedisCluster implements BinaryJedisClusterCommands,
       public List<byte[]> execute(Jedis connection) {
         return connection.hmget(key, fields);
       }
-    }.runBinary(key);
+    }.runReadOnlyBinary(key);
   }
 
   @Override
@@ -401,7 +466,7 @@ public class BinaryJedisCluster implements BinaryJedisClusterCommands,
       public Boolean execute(Jedis connection) {
         return connection.hexists(key, field);
       }
-    }.runBinary(key);
+    }.runReadOnlyBinary(key);
   }
 
   @Override
@@ -421,7 +486,7 @@ public class BinaryJedisCluster implements BinaryJedisClusterCommands,
       public Long execute(Jedis connection) {
         return connection.hlen(key);
       }
-    }.runBinary(key);
+    }.runReadOnlyBinary(key);
   }
 
   @Override
@@ -431,7 +496,7 @@ public class BinaryJedisCluster implements BinaryJedisClusterCommands,
       public Set<byte[]> execute(Jedis connection) {
         return connection.hkeys(key);
       }
-    }.runBinary(key);
+    }.runReadOnlyBinary(key);
   }
 
   @Override
@@ -441,7 +506,7 @@ public class BinaryJedisCluster implements BinaryJedisClusterCommands,
       public Collection<byte[]> execute(Jedis connection) {
         return connection.hvals(key);
       }
-    }.runBinary(key);
+    }.runReadOnlyBinary(key);
   }
 
   @Override
@@ -451,7 +516,7 @@ public class BinaryJedisCluster implements BinaryJedisClusterCommands,
       public Map<byte[], byte[]> execute(Jedis connection) {
         return connection.hgetAll(key);
       }
-    }.runBinary(key);
+    }.runReadOnlyBinary(key);
   }
 
   @Override
@@ -481,7 +546,7 @@ public class BinaryJedisCluster implements BinaryJedisClusterCommands,
       public Long execute(Jedis connection) {
         return connection.llen(key);
       }
-    }.runBinary(key);
+    }.runReadOnlyBinary(key);
   }
 
   @Override
@@ -491,7 +556,7 @@ public class BinaryJedisCluster implements BinaryJedisClusterCommands,
       public List<byte[]> execute(Jedis connection) {
         return connection.lrange(key, start, end);
       }
-    }.runBinary(key);
+    }.runReadOnlyBinary(key);
   }
 
   @Override
@@ -511,7 +576,7 @@ public class BinaryJedisCluster implements BinaryJedisClusterCommands,
       public byte[] execute(Jedis connection) {
         return connection.lindex(key, index);
       }
-    }.runBinary(key);
+    }.runReadOnlyBinary(key);
   }
 
   @Override
@@ -571,7 +636,7 @@ public class BinaryJedisCluster implements BinaryJedisClusterCommands,
       public Set<byte[]> execute(Jedis connection) {
         return connection.smembers(key);
       }
-    }.runBinary(key);
+    }.runReadOnlyBinary(key);
   }
 
   @Override
@@ -611,7 +676,7 @@ public class BinaryJedisCluster implements BinaryJedisClusterCommands,
       public Long execute(Jedis connection) {
         return connection.scard(key);
       }
-    }.runBinary(key);
+    }.runReadOnlyBinary(key);
   }
 
   @Override
@@ -621,7 +686,7 @@ public class BinaryJedisCluster implements BinaryJedisClusterCommands,
       public Boolean execute(Jedis connection) {
         return connection.sismember(key, member);
       }
-    }.runBinary(key);
+    }.runReadOnlyBinary(key);
   }
 
   @Override
@@ -631,7 +696,7 @@ public class BinaryJedisCluster implements BinaryJedisClusterCommands,
       public byte[] execute(Jedis connection) {
         return connection.srandmember(key);
       }
-    }.runBinary(key);
+    }.runReadOnlyBinary(key);
   }
 
   @Override
@@ -641,7 +706,7 @@ public class BinaryJedisCluster implements BinaryJedisClusterCommands,
       public Long execute(Jedis connection) {
         return connection.strlen(key);
       }
-    }.runBinary(key);
+    }.runReadOnlyBinary(key);
   }
 
   @Override
@@ -671,7 +736,7 @@ public class BinaryJedisCluster implements BinaryJedisClusterCommands,
       public Set<byte[]> execute(Jedis connection) {
         return connection.zrange(key, start, end);
       }
-    }.runBinary(key);
+    }.runReadOnlyBinary(key);
   }
 
   @Override
@@ -701,7 +766,7 @@ public class BinaryJedisCluster implements BinaryJedisClusterCommands,
       public Long execute(Jedis connection) {
         return connection.zrank(key, member);
       }
-    }.runBinary(key);
+    }.runReadOnlyBinary(key);
   }
 
   @Override
@@ -711,7 +776,7 @@ public class BinaryJedisCluster implements BinaryJedisClusterCommands,
       public Long execute(Jedis connection) {
         return connection.zrevrank(key, member);
       }
-    }.runBinary(key);
+    }.runReadOnlyBinary(key);
   }
 
   @Override
@@ -721,7 +786,7 @@ public class BinaryJedisCluster implements BinaryJedisClusterCommands,
       public Set<byte[]> execute(Jedis connection) {
         return connection.zrevrange(key, start, end);
       }
-    }.runBinary(key);
+    }.runReadOnlyBinary(key);
   }
 
   @Override
@@ -731,7 +796,7 @@ public class BinaryJedisCluster implements BinaryJedisClusterCommands,
       public Set<Tuple> execute(Jedis connection) {
         return connection.zrangeWithScores(key, start, end);
       }
-    }.runBinary(key);
+    }.runReadOnlyBinary(key);
   }
 
   @Override
@@ -741,7 +806,7 @@ public class BinaryJedisCluster implements BinaryJedisClusterCommands,
       public Set<Tuple> execute(Jedis connection) {
         return connection.zrevrangeWithScores(key, start, end);
       }
-    }.runBinary(key);
+    }.runReadOnlyBinary(key);
   }
 
   @Override
@@ -751,7 +816,7 @@ public class BinaryJedisCluster implements BinaryJedisClusterCommands,
       public Long execute(Jedis connection) {
         return connection.zcard(key);
       }
-    }.runBinary(key);
+    }.runReadOnlyBinary(key);
   }
 
   @Override
@@ -761,7 +826,7 @@ public class BinaryJedisCluster implements BinaryJedisClusterCommands,
       public Double execute(Jedis connection) {
         return connection.zscore(key, member);
       }
-    }.runBinary(key);
+    }.runReadOnlyBinary(key);
   }
 
   @Override
@@ -791,7 +856,7 @@ public class BinaryJedisCluster implements BinaryJedisClusterCommands,
       public Long execute(Jedis connection) {
         return connection.zcount(key, min, max);
       }
-    }.runBinary(key);
+    }.runReadOnlyBinary(key);
   }
 
   @Override
@@ -801,7 +866,7 @@ public class BinaryJedisCluster implements BinaryJedisClusterCommands,
       public Long execute(Jedis connection) {
         return connection.zcount(key, min, max);
       }
-    }.runBinary(key);
+    }.runReadOnlyBinary(key);
   }
 
   @Override
@@ -811,7 +876,7 @@ public class BinaryJedisCluster implements BinaryJedisClusterCommands,
       public Set<byte[]> execute(Jedis connection) {
         return connection.zrangeByScore(key, min, max);
       }
-    }.runBinary(key);
+    }.runReadOnlyBinary(key);
   }
 
   @Override
@@ -821,7 +886,7 @@ public class BinaryJedisCluster implements BinaryJedisClusterCommands,
       public Set<byte[]> execute(Jedis connection) {
         return connection.zrangeByScore(key, min, max);
       }
-    }.runBinary(key);
+    }.runReadOnlyBinary(key);
   }
 
   @Override
@@ -831,7 +896,7 @@ public class BinaryJedisCluster implements BinaryJedisClusterCommands,
       public Set<byte[]> execute(Jedis connection) {
         return connection.zrevrangeByScore(key, max, min);
       }
-    }.runBinary(key);
+    }.runReadOnlyBinary(key);
   }
 
   @Override
@@ -842,7 +907,7 @@ public class BinaryJedisCluster implements BinaryJedisClusterCommands,
       public Set<byte[]> execute(Jedis connection) {
         return connection.zrangeByScore(key, min, max, offset, count);
       }
-    }.runBinary(key);
+    }.runReadOnlyBinary(key);
   }
 
   @Override
@@ -852,7 +917,7 @@ public class BinaryJedisCluster implements BinaryJedisClusterCommands,
       public Set<byte[]> execute(Jedis connection) {
         return connection.zrevrangeByScore(key, max, min);
       }
-    }.runBinary(key);
+    }.runReadOnlyBinary(key);
   }
 
   @Override
@@ -863,7 +928,7 @@ public class BinaryJedisCluster implements BinaryJedisClusterCommands,
       public Set<byte[]> execute(Jedis connection) {
         return connection.zrangeByScore(key, min, max, offset, count);
       }
-    }.runBinary(key);
+    }.runReadOnlyBinary(key);
   }
 
   @Override
@@ -874,7 +939,7 @@ public class BinaryJedisCluster implements BinaryJedisClusterCommands,
       public Set<byte[]> execute(Jedis connection) {
         return connection.zrevrangeByScore(key, max, min, offset, count);
       }
-    }.runBinary(key);
+    }.runReadOnlyBinary(key);
   }
 
   @Override
@@ -884,7 +949,7 @@ public class BinaryJedisCluster implements BinaryJedisClusterCommands,
       public Set<Tuple> execute(Jedis connection) {
         return connection.zrangeByScoreWithScores(key, min, max);
       }
-    }.runBinary(key);
+    }.runReadOnlyBinary(key);
   }
 
   @Override
@@ -894,7 +959,7 @@ public class BinaryJedisCluster implements BinaryJedisClusterCommands,
       public Set<Tuple> execute(Jedis connection) {
         return connection.zrevrangeByScoreWithScores(key, max, min);
       }
-    }.runBinary(key);
+    }.runReadOnlyBinary(key);
   }
 
   @Override
@@ -905,7 +970,7 @@ public class BinaryJedisCluster implements BinaryJedisClusterCommands,
       public Set<Tuple> execute(Jedis connection) {
         return connection.zrangeByScoreWithScores(key, min, max, offset, count);
       }
-    }.runBinary(key);
+    }.runReadOnlyBinary(key);
   }
 
   @Override
@@ -916,7 +981,7 @@ public class BinaryJedisCluster implements BinaryJedisClusterCommands,
       public Set<byte[]> execute(Jedis connection) {
         return connection.zrevrangeByScore(key, max, min, offset, count);
       }
-    }.runBinary(key);
+    }.runReadOnlyBinary(key);
   }
 
   @Override
@@ -926,7 +991,7 @@ public class BinaryJedisCluster implements BinaryJedisClusterCommands,
       public Set<Tuple> execute(Jedis connection) {
         return connection.zrangeByScoreWithScores(key, min, max);
       }
-    }.runBinary(key);
+    }.runReadOnlyBinary(key);
   }
 
   @Override
@@ -936,7 +1001,7 @@ public class BinaryJedisCluster implements BinaryJedisClusterCommands,
       public Set<Tuple> execute(Jedis connection) {
         return connection.zrevrangeByScoreWithScores(key, max, min);
       }
-    }.runBinary(key);
+    }.runReadOnlyBinary(key);
   }
 
   @Override
@@ -947,7 +1012,7 @@ public class BinaryJedisCluster implements BinaryJedisClusterCommands,
       public Set<Tuple> execute(Jedis connection) {
         return connection.zrangeByScoreWithScores(key, min, max, offset, count);
       }
-    }.runBinary(key);
+    }.runReadOnlyBinary(key);
   }
 
   @Override
@@ -958,7 +1023,7 @@ public class BinaryJedisCluster implements BinaryJedisClusterCommands,
       public Set<Tuple> execute(Jedis connection) {
         return connection.zrevrangeByScoreWithScores(key, max, min, offset, count);
       }
-    }.runBinary(key);
+    }.runReadOnlyBinary(key);
   }
 
   @Override
@@ -969,7 +1034,7 @@ public class BinaryJedisCluster implements BinaryJedisClusterCommands,
       public Set<Tuple> execute(Jedis connection) {
         return connection.zrevrangeByScoreWithScores(key, max, min, offset, count);
       }
-    }.runBinary(key);
+    }.runReadOnlyBinary(key);
   }
 
   @Override
@@ -1061,7 +1126,7 @@ public class BinaryJedisCluster implements BinaryJedisClusterCommands,
       public Long execute(Jedis connection) {
         return connection.bitcount(key);
       }
-    }.runBinary(key);
+    }.runReadOnlyBinary(key);
   }
 
   @Override
@@ -1071,7 +1136,7 @@ public class BinaryJedisCluster implements BinaryJedisClusterCommands,
       public Long execute(Jedis connection) {
         return connection.bitcount(key, start, end);
       }
-    }.runBinary(key);
+    }.runReadOnlyBinary(key);
   }
 
   @Override
@@ -1091,7 +1156,7 @@ public class BinaryJedisCluster implements BinaryJedisClusterCommands,
       public Long execute(Jedis connection) {
         return connection.pfcount(key);
       }
-    }.runBinary(key);
+    }.runReadOnlyBinary(key);
   }
 
   @Override
@@ -1101,7 +1166,7 @@ public class BinaryJedisCluster implements BinaryJedisClusterCommands,
       public List<byte[]> execute(Jedis connection) {
         return connection.srandmember(key, count);
       }
-    }.runBinary(key);
+    }.runReadOnlyBinary(key);
   }
 
   @Override
@@ -1111,7 +1176,7 @@ public class BinaryJedisCluster implements BinaryJedisClusterCommands,
       public Long execute(Jedis connection) {
         return connection.zlexcount(key, min, max);
       }
-    }.runBinary(key);
+    }.runReadOnlyBinary(key);
   }
 
   @Override
@@ -1121,7 +1186,7 @@ public class BinaryJedisCluster implements BinaryJedisClusterCommands,
       public Set<byte[]> execute(Jedis connection) {
         return connection.zrangeByLex(key, min, max);
       }
-    }.runBinary(key);
+    }.runReadOnlyBinary(key);
   }
 
   @Override
@@ -1132,7 +1197,7 @@ public class BinaryJedisCluster implements BinaryJedisClusterCommands,
       public Set<byte[]> execute(Jedis connection) {
         return connection.zrangeByLex(key, min, max, offset, count);
       }
-    }.runBinary(key);
+    }.runReadOnlyBinary(key);
   }
 
   @Override
@@ -1142,7 +1207,7 @@ public class BinaryJedisCluster implements BinaryJedisClusterCommands,
       public Set<byte[]> execute(Jedis connection) {
         return connection.zrangeByLex(key, max, min);
       }
-    }.runBinary(key);
+    }.runReadOnlyBinary(key);
   }
 
   @Override
@@ -1153,7 +1218,7 @@ public class BinaryJedisCluster implements BinaryJedisClusterCommands,
       public Set<byte[]> execute(Jedis connection) {
         return connection.zrevrangeByLex(key, max, min, offset, count);
       }
-    }.runBinary(key);
+    }.runReadOnlyBinary(key);
   }
 
   @Override
@@ -1278,12 +1343,24 @@ public class BinaryJedisCluster implements BinaryJedisClusterCommands,
 
   @Override
   public Long del(final byte[]... keys) {
-    return new JedisClusterCommand<Long>(connectionHandler, maxRedirections) {
+    final long[] deleted = new long[1];
+    new JedisClusterMultiKeyCommand<Long>(connectionHandler, maxRedirections, multiKeyExecutor) {
       @Override
-      public Long execute(Jedis connection) {
-        return connection.del(keys);
+      protected Response<Long> pipeline(Pipeline pipeline, int[] indexes) {
+        return pipeline.del(select(keys, indexes));
       }
-    }.runBinary(keys.length, keys);
+
+      @Override
+      protected Long execute(Jedis connection, int[] indexes) {
+        return connection.del(select(keys, indexes));
+      }
+
+      @Override
+      protected void merge(int[] indexes, Long reply) {
+        deleted[0] += reply;
+      }
+    }.runBinary(keys);
+    return deleted[0];
   }
 
   @Override
@@ -1308,14 +1385,33 @@ public class BinaryJedisCluster implements BinaryJedisClusterCommands,
 
   @Override
   public List<byte[]> mget(final byte[]... keys) {
-    return new JedisClusterCommand<List<byte[]>>(connectionHandler, maxRedirections) {
+    final byte[][] values = new byte[keys.length][];
+    new JedisClusterMultiKeyCommand<List<byte[]>>(connectionHandler, maxRedirections,
+        multiKeyExecutor) {
       @Override
-      public List<byte[]> execute(Jedis connection) {
-        return connection.mget(keys);
+      protected Response<List<byte[]>> pipeline(Pipeline pipeline, int[] indexes) {
+        return pipeline.mget(select(keys, indexes));
       }
-    }.runBinary(keys.length, keys);
+
+      @Override
+      protected List<byte[]> execute(Jedis connection, int[] indexes) {
+        return connection.mget(select(keys, indexes));
+      }
+
+      @Override
+      protected void merge(int[] indexes, List<byte[]> reply) {
+        for (int i = 0; i < indexes.length; i++) {
+          values[indexes[i]] = reply.get(i);
+        }
+      }
+    }.runReadOnlyBinary(keys);
+    return Arrays.asList(values);
   }
 
+  /**
+   * Keys living on different nodes are written with one MSET per slot, so unlike on a single
+   * instance the whole call is not atomic.
+   */
   @Override
   public String mset(final byte[]... keysvalues) {
     byte[][] keys = new byte[keysvalues.length / 2][];
@@ -1324,12 +1420,24 @@ public class BinaryJedisCluster implements BinaryJedisClusterCommands,
       keys[keyIdx] = keysvalues[keyIdx * 2];
     }
 
-    return new JedisClusterCommand<String>(connectionHandler, maxRedirections) {
+    final String[] status = new String[1];
+    new JedisClusterMultiKeyCommand<String>(connectionHandler, maxRedirections, multiKeyExecutor) {
       @Override
-      public String execute(Jedis connection) {
-        return connection.mset(keysvalues);
+      protected Response<String> pipeline(Pipeline pipeline, int[] indexes) {
+        return pipeline.mset(selectPairs(keysvalues, indexes));
       }
-    }.runBinary(keys.length, keys);
+
+      @Override
+      protected String execute(Jedis connection, int[] indexes) {
+        return connection.mset(selectPairs(keysvalues, indexes));
+      }
+
+      @Override
+      protected void merge(int[] indexes, String reply) {
+        status[0] = reply;
+      }
+    }.runBinary(keys);
+    return status[0];
   }
 
   @Override
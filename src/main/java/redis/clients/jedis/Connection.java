@@ -2,6 +2,7 @@ package redis.clients.jedis;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.net.InetSocketAddress;
 import java.net.Socket;
 import java.net.SocketException;
@@ -29,6 +30,8 @@ public class Connection implements Closeable {
   private int connectionTimeout = Protocol.DEFAULT_TIMEOUT;
   private int soTimeout = Protocol.DEFAULT_TIMEOUT;
   private boolean broken = false;
+  // replies to drop before the next one is read, see sendCommandIgnoringReply
+  private int ignoredReplies = 0;
 
   public Connection() {
   }
@@ -171,6 +174,7 @@ public class Connection implements Closeable {
   }
 
   public void disconnect() {
+    ignoredReplies = 0;
     if (isConnected()) {
       try {
         outputStream.flush();
@@ -200,11 +204,26 @@ public class Connection implements Closeable {
   }
 
   public String getBulkReply() {
-    final byte[] result = getBinaryBulkReply();
-    if (null != result) {
-      return SafeEncoder.encode(result);
-    } else {
-      return null;
+    flush();
+    try {
+      return Protocol.readBulkString(inputStream);
+    } catch (JedisConnectionException exc) {
+      broken = true;
+      throw exc;
+    }
+  }
+
+  /**
+   * Streams a bulk reply into the sink instead of materializing it as a byte[].
+   * @return the number of bytes written, or -1 if the reply was a null bulk
+   */
+  public int getBulkReply(final OutputStream sink) {
+    flush();
+    try {
+      return Protocol.readBulkReply(inputStream, sink);
+    } catch (JedisConnectionException exc) {
+      broken = true;
+      throw exc;
     }
   }
 
@@ -257,6 +276,16 @@ public class Connection implements Closeable {
     return broken;
   }
 
+  /**
+   * Buffers a command whose reply is read and dropped as soon as the next reply is asked for, so
+   * the command goes out in the same write as the one that follows it.
+   */
+  protected Connection sendCommandIgnoringReply(final ProtocolCommand cmd) {
+    sendCommand(cmd);
+    ignoredReplies++;
+    return this;
+  }
+
   protected void flush() {
     try {
       outputStream.flush();
@@ -264,6 +293,15 @@ public class Connection implements Closeable {
       broken = true;
       throw new JedisConnectionException(ex);
     }
+    // every read starts with a flush
+    while (ignoredReplies > 0) {
+      ignoredReplies--;
+      try {
+        readProtocolWithCheckingBroken();
+      } catch (JedisDataException e) {
+        // the command it preceded reports the problem
+      }
+    }
   }
 
   protected Object readProtocolWithCheckingBroken() {
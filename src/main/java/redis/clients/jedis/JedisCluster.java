@@ -3,6 +3,7 @@ package redis.clients.jedis;
 import redis.clients.jedis.BinaryClient.LIST_POSITION;
 import redis.clients.util.KeyMergeUtil;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -75,7 +76,7 @@ public class JedisCluster extends BinaryJedisCluster implements JedisClusterComm
       public String execute(Jedis connection) {
         return connection.get(key);
       }
-    }.run(key);
+    }.runReadOnly(key);
   }
 
   @Override
@@ -85,7 +86,7 @@ public class JedisCluster extends BinaryJedisCluster implements JedisClusterComm
       public Boolean execute(Jedis connection) {
         return connection.exists(key);
       }
-    }.run(key);
+    }.runReadOnly(key);
   }
 
   @Override
@@ -105,7 +106,7 @@ public class JedisCluster extends BinaryJedisCluster implements JedisClusterComm
       public String execute(Jedis connection) {
         return connection.type(key);
       }
-    }.run(key);
+    }.runReadOnly(key);
   }
 
   @Override
@@ -155,7 +156,7 @@ public class JedisCluster extends BinaryJedisCluster implements JedisClusterComm
       public Long execute(Jedis connection) {
         return connection.ttl(key);
       }
-    }.run(key);
+    }.runReadOnly(key);
   }
 
   @Override
@@ -185,7 +186,7 @@ public class JedisCluster extends BinaryJedisCluster implements JedisClusterComm
       public Boolean execute(Jedis connection) {
         return connection.getbit(key, offset);
       }
-    }.run(key);
+    }.runReadOnly(key);
   }
 
   @Override
@@ -205,7 +206,7 @@ public class JedisCluster extends BinaryJedisCluster implements JedisClusterComm
       public String execute(Jedis connection) {
         return connection.getrange(key, startOffset, endOffset);
       }
-    }.run(key);
+    }.runReadOnly(key);
   }
 
   @Override
@@ -305,7 +306,7 @@ public class JedisCluster extends BinaryJedisCluster implements JedisClusterComm
       public String execute(Jedis connection) {
         return connection.substr(key, start, end);
       }
-    }.run(key);
+    }.runReadOnly(key);
   }
 
   @Override
@@ -325,7 +326,7 @@ public class JedisCluster extends BinaryJedisCluster implements JedisClusterComm
       public String execute(Jedis connection) {
         return connection.hget(key, field);
       }
-    }.run(key);
+    }.runReadOnly(key);
   }
 
   @Override
@@ -355,7 +356,7 @@ public class JedisCluster extends BinaryJedisCluster implements JedisClusterComm
       public List<String> execute(Jedis connection) {
         return connection.hmget(key, fields);
       }
-    }.run(key);
+    }.runReadOnly(key);
   }
 
   @Override
@@ -394,7 +395,7 @@ public class JedisCluster extends BinaryJedisCluster implements JedisClusterComm
       public Boolean execute(Jedis connection) {
         return connection.hexists(key, field);
       }
-    }.run(key);
+    }.runReadOnly(key);
   }
 
   @Override
@@ -414,7 +415,7 @@ public class JedisCluster extends BinaryJedisCluster implements JedisClusterComm
       public Long execute(Jedis connection) {
         return connection.hlen(key);
       }
-    }.run(key);
+    }.runReadOnly(key);
   }
 
   @Override
@@ -424,7 +425,7 @@ public class JedisCluster extends BinaryJedisCluster implements JedisClusterComm
       public Set<String> execute(Jedis connection) {
         return connection.hkeys(key);
       }
-    }.run(key);
+    }.runReadOnly(key);
   }
 
   @Override
@@ -434,7 +435,7 @@ public class JedisCluster extends BinaryJedisCluster implements JedisClusterComm
       public List<String> execute(Jedis connection) {
         return connection.hvals(key);
       }
-    }.run(key);
+    }.runReadOnly(key);
   }
 
   @Override
@@ -444,7 +445,7 @@ public class JedisCluster extends BinaryJedisCluster implements JedisClusterComm
       public Map<String, String> execute(Jedis connection) {
         return connection.hgetAll(key);
       }
-    }.run(key);
+    }.runReadOnly(key);
   }
 
   @Override
@@ -474,7 +475,7 @@ public class JedisCluster extends BinaryJedisCluster implements JedisClusterComm
       public Long execute(Jedis connection) {
         return connection.llen(key);
       }
-    }.run(key);
+    }.runReadOnly(key);
   }
 
   @Override
@@ -484,7 +485,7 @@ public class JedisCluster extends BinaryJedisCluster implements JedisClusterComm
       public List<String> execute(Jedis connection) {
         return connection.lrange(key, start, end);
       }
-    }.run(key);
+    }.runReadOnly(key);
   }
 
   @Override
@@ -504,7 +505,7 @@ public class JedisCluster extends BinaryJedisCluster implements JedisClusterComm
       public String execute(Jedis connection) {
         return connection.lindex(key, index);
       }
-    }.run(key);
+    }.runReadOnly(key);
   }
 
   @Override
@@ -564,7 +565,7 @@ public class JedisCluster extends BinaryJedisCluster implements JedisClusterComm
       public Set<String> execute(Jedis connection) {
         return connection.smembers(key);
       }
-    }.run(key);
+    }.runReadOnly(key);
   }
 
   @Override
@@ -604,7 +605,7 @@ public class JedisCluster extends BinaryJedisCluster implements JedisClusterComm
       public Long execute(Jedis connection) {
         return connection.scard(key);
       }
-    }.run(key);
+    }.runReadOnly(key);
   }
 
   @Override
@@ -614,7 +615,7 @@ public class JedisCluster extends BinaryJedisCluster implements JedisClusterComm
       public Boolean execute(Jedis connection) {
         return connection.sismember(key, member);
       }
-    }.run(key);
+    }.runReadOnly(key);
   }
 
   @Override
@@ -624,7 +625,7 @@ public class JedisCluster extends BinaryJedisCluster implements JedisClusterComm
       public String execute(Jedis connection) {
         return connection.srandmember(key);
       }
-    }.run(key);
+    }.runReadOnly(key);
   }
 
   @Override
@@ -634,7 +635,7 @@ public class JedisCluster extends BinaryJedisCluster implements JedisClusterComm
       public List<String> execute(Jedis connection) {
         return connection.srandmember(key, count);
       }
-    }.run(key);
+    }.runReadOnly(key);
   }
 
   @Override
@@ -644,7 +645,7 @@ public class JedisCluster extends BinaryJedisCluster implements JedisClusterComm
       public Long execute(Jedis connection) {
         return connection.strlen(key);
       }
-    }.run(key);
+    }.runReadOnly(key);
   }
 
   @Override
@@ -674,7 +675,7 @@ public class JedisCluster extends BinaryJedisCluster implements JedisClusterComm
       public Set<String> execute(Jedis connection) {
         return connection.zrange(key, start, end);
       }
-    }.run(key);
+    }.runReadOnly(key);
   }
 
   @Override
@@ -704,7 +705,7 @@ public class JedisCluster extends BinaryJedisCluster implements JedisClusterComm
       public Long execute(Jedis connection) {
         return connection.zrank(key, member);
       }
-    }.run(key);
+    }.runReadOnly(key);
   }
 
   @Override
@@ -714,7 +715,7 @@ public class JedisCluster extends BinaryJedisCluster implements JedisClusterComm
       public Long execute(Jedis connection) {
         return connection.zrevrank(key, member);
       }
-    }.run(key);
+    }.runReadOnly(key);
   }
 
   @Override
@@ -724,7 +725,7 @@ public class JedisCluster extends BinaryJedisCluster implements JedisClusterComm
       public Set<String> execute(Jedis connection) {
         return connection.zrevrange(key, start, end);
       }
-    }.run(key);
+    }.runReadOnly(key);
   }
 
   @Override
@@ -734,7 +735,7 @@ public class JedisCluster extends BinaryJedisCluster implements JedisClusterComm
       public Set<Tuple> execute(Jedis connection) {
         return connection.zrangeWithScores(key, start, end);
       }
-    }.run(key);
+    }.runReadOnly(key);
   }
 
   @Override
@@ -744,7 +745,7 @@ public class JedisCluster extends BinaryJedisCluster implements JedisClusterComm
       public Set<Tuple> execute(Jedis connection) {
         return connection.zrevrangeWithScores(key, start, end);
       }
-    }.run(key);
+    }.runReadOnly(key);
   }
 
   @Override
@@ -754,7 +755,7 @@ public class JedisCluster extends BinaryJedisCluster implements JedisClusterComm
       public Long execute(Jedis connection) {
         return connection.zcard(key);
       }
-    }.run(key);
+    }.runReadOnly(key);
   }
 
   @Override
@@ -764,7 +765,7 @@ public class JedisCluster extends BinaryJedisCluster implements JedisClusterComm
       public Double execute(Jedis connection) {
         return connection.zscore(key, member);
       }
-    }.run(key);
+    }.runReadOnly(key);
   }
 
   @Override
@@ -794,7 +795,7 @@ public class JedisCluster extends BinaryJedisCluster implements JedisClusterComm
       public Long execute(Jedis connection) {
         return connection.zcount(key, min, max);
       }
-    }.run(key);
+    }.runReadOnly(key);
   }
 
   @Override
@@ -804,7 +805,7 @@ public class JedisCluster extends BinaryJedisCluster implements JedisClusterComm
       public Long execute(Jedis connection) {
         return connection.zcount(key, min, max);
       }
-    }.run(key);
+    }.runReadOnly(key);
   }
 
   @Override
@@ -814,7 +815,7 @@ public class JedisCluster extends BinaryJedisCluster implements JedisClusterComm
       public Set<String> execute(Jedis connection) {
         return connection.zrangeByScore(key, min, max);
       }
-    }.run(key);
+    }.runReadOnly(key);
   }
 
   @Override
@@ -824,7 +825,7 @@ public class JedisCluster extends BinaryJedisCluster implements JedisClusterComm
       public Set<String> execute(Jedis connection) {
         return connection.zrangeByScore(key, min, max);
       }
-    }.run(key);
+    }.runReadOnly(key);
   }
 
   @Override
@@ -834,7 +835,7 @@ public class JedisCluster extends BinaryJedisCluster implements JedisClusterComm
       public Set<String> execute(Jedis connection) {
         return connection.zrevrangeByScore(key, max, min);
       }
-    }.run(key);
+    }.runReadOnly(key);
   }
 
   @Override
@@ -845,7 +846,7 @@ public class JedisCluster extends BinaryJedisCluster implements JedisClusterComm
       public Set<String> execute(Jedis connection) {
         return connection.zrangeByScore(key, min, max, offset, count);
       }
-    }.run(key);
+    }.runReadOnly(key);
   }
 
   @Override
@@ -855,7 +856,7 @@ public class JedisCluster extends BinaryJedisCluster implements JedisClusterComm
       public Set<String> execute(Jedis connection) {
         return connection.zrevrangeByScore(key, max, min);
       }
-    }.run(key);
+    }.runReadOnly(key);
   }
 
   @Override
@@ -866,7 +867,7 @@ public class JedisCluster extends BinaryJedisCluster implements JedisClusterComm
       public Set<String> execute(Jedis connection) {
         return connection.zrangeByScore(key, min, max, offset, count);
       }
-    }.run(key);
+    }.runReadOnly(key);
   }
 
   @Override
@@ -877,7 +878,7 @@ public class JedisCluster extends BinaryJedisCluster implements JedisClusterComm
       public Set<String> execute(Jedis connection) {
         return connection.zrevrangeByScore(key, max, min, offset, count);
       }
-    }.run(key);
+    }.runReadOnly(key);
   }
 
   @Override
@@ -887,7 +888,7 @@ public class JedisCluster extends BinaryJedisCluster implements JedisClusterComm
       public Set<Tuple> execute(Jedis connection) {
         return connection.zrangeByScoreWithScores(key, min, max);
       }
-    }.run(key);
+    }.runReadOnly(key);
   }
 
   @Override
@@ -897,7 +898,7 @@ public class JedisCluster extends BinaryJedisCluster implements JedisClusterComm
       public Set<Tuple> execute(Jedis connection) {
         return connection.zrevrangeByScoreWithScores(key, max, min);
       }
-    }.run(key);
+    }.runReadOnly(key);
   }
 
   @Override
@@ -908,7 +909,7 @@ public class JedisCluster extends BinaryJedisCluster implements JedisClusterComm
       public Set<Tuple> execute(Jedis connection) {
         return connection.zrangeByScoreWithScores(key, min, max, offset, count);
       }
-    }.run(key);
+    }.runReadOnly(key);
   }
 
   @Override
@@ -919,7 +920,7 @@ public class JedisCluster extends BinaryJedisCluster implements JedisClusterComm
       public Set<String> execute(Jedis connection) {
         return connection.zrevrangeByScore(key, max, min, offset, count);
       }
-    }.run(key);
+    }.runReadOnly(key);
   }
 
   @Override
@@ -929,7 +930,7 @@ public class JedisCluster extends BinaryJedisCluster implements JedisClusterComm
       public Set<Tuple> execute(Jedis connection) {
         return connection.zrangeByScoreWithScores(key, min, max);
       }
-    }.run(key);
+    }.runReadOnly(key);
   }
 
   @Override
@@ -939,7 +940,7 @@ public class JedisCluster extends BinaryJedisCluster implements JedisClusterComm
       public Set<Tuple> execute(Jedis connection) {
         return connection.zrevrangeByScoreWithScores(key, max, min);
       }
-    }.run(key);
+    }.runReadOnly(key);
   }
 
   @Override
@@ -950,7 +951,7 @@ public class JedisCluster extends BinaryJedisCluster implements JedisClusterComm
       public Set<Tuple> execute(Jedis connection) {
         return connection.zrangeByScoreWithScores(key, min, max, offset, count);
       }
-    }.run(key);
+    }.runReadOnly(key);
   }
 
   @Override
@@ -961,7 +962,7 @@ public class JedisCluster extends BinaryJedisCluster implements JedisClusterComm
       public Set<Tuple> execute(Jedis connection) {
         return connection.zrevrangeByScoreWithScores(key, max, min, offset, count);
       }
-    }.run(key);
+    }.runReadOnly(key);
   }
 
   @Override
@@ -972,7 +973,7 @@ public class JedisCluster extends BinaryJedisCluster implements JedisClusterComm
       public Set<Tuple> execute(Jedis connection) {
         return connection.zrevrangeByScoreWithScores(key, max, min, offset, count);
       }
-    }.run(key);
+    }.runReadOnly(key);
   }
 
   @Override
@@ -1012,7 +1013,7 @@ public class JedisCluster extends BinaryJedisCluster implements JedisClusterComm
       public Long execute(Jedis connection) {
         return connection.zlexcount(key, min, max);
       }
-    }.run(key);
+    }.runReadOnly(key);
   }
 
   @Override
@@ -1022,7 +1023,7 @@ public class JedisCluster extends BinaryJedisCluster implements JedisClusterComm
       public Set<String> execute(Jedis connection) {
         return connection.zrangeByLex(key, min, max);
       }
-    }.run(key);
+    }.runReadOnly(key);
   }
 
   @Override
@@ -1033,7 +1034,7 @@ public class JedisCluster extends BinaryJedisCluster implements JedisClusterComm
       public Set<String> execute(Jedis connection) {
         return connection.zrangeByLex(key, min, max, offset, count);
       }
-    }.run(key);
+    }.runReadOnly(key);
   }
 
   @Override
@@ -1043,7 +1044,7 @@ public class JedisCluster extends BinaryJedisCluster implements JedisClusterComm
       public Set<String> execute(Jedis connection) {
         return connection.zrevrangeByLex(key, max, min);
       }
-    }.run(key);
+    }.runReadOnly(key);
   }
 
   @Override
@@ -1054,7 +1055,7 @@ public class JedisCluster extends BinaryJedisCluster implements JedisClusterComm
       public Set<String> execute(Jedis connection) {
         return connection.zrevrangeByLex(key, max, min, offset, count);
       }
-    }.run(key);
+    }.runReadOnly(key);
   }
 
   @Override
@@ -1126,7 +1127,7 @@ public class JedisCluster extends BinaryJedisCluster implements JedisClusterComm
       public Long execute(Jedis connection) {
         return connection.bitcount(key);
       }
-    }.run(key);
+    }.runReadOnly(key);
   }
 
   @Override
@@ -1136,7 +1137,7 @@ public class JedisCluster extends BinaryJedisCluster implements JedisClusterComm
       public Long execute(Jedis connection) {
         return connection.bitcount(key, start, end);
       }
-    }.run(key);
+    }.runReadOnly(key);
   }
 
   @Override
@@ -1147,7 +1148,7 @@ public class JedisCluster extends BinaryJedisCluster implements JedisClusterComm
       public ScanResult<Entry<String, String>> execute(Jedis connection) {
         return connection.hscan(key, cursor);
       }
-    }.run(key);
+    }.runReadOnly(key);
   }
 
   @Override
@@ -1157,7 +1158,7 @@ public class JedisCluster extends BinaryJedisCluster implements JedisClusterComm
       public ScanResult<String> execute(Jedis connection) {
         return connection.sscan(key, cursor);
       }
-    }.run(key);
+    }.runReadOnly(key);
   }
 
   @Override
@@ -1167,7 +1168,7 @@ public class JedisCluster extends BinaryJedisCluster implements JedisClusterComm
       public ScanResult<Tuple> execute(Jedis connection) {
         return connection.zscan(key, cursor);
       }
-    }.run(key);
+    }.runReadOnly(key);
   }
 
   @Override
@@ -1187,7 +1188,7 @@ public class JedisCluster extends BinaryJedisCluster implements JedisClusterComm
       public Long execute(Jedis connection) {
         return connection.pfcount(key);
       }
-    }.run(key);
+    }.runReadOnly(key);
   }
 
   @Override
@@ -1212,12 +1213,24 @@ public class JedisCluster extends BinaryJedisCluster implements JedisClusterComm
 
   @Override
   public Long del(final String... keys) {
-    return new JedisClusterCommand<Long>(connectionHandler, maxRedirections) {
+    final long[] deleted = new long[1];
+    new JedisClusterMultiKeyCommand<Long>(connectionHandler, maxRedirections, multiKeyExecutor) {
       @Override
-      public Long execute(Jedis connection) {
-        return connection.del(keys);
+      protected Response<Long> pipeline(Pipeline pipeline, int[] indexes) {
+        return pipeline.del(select(keys, indexes));
       }
-    }.run(keys.length, keys);
+
+      @Override
+      protected Long execute(Jedis connection, int[] indexes) {
+        return connection.del(select(keys, indexes));
+      }
+
+      @Override
+      protected void merge(int[] indexes, Long reply) {
+        deleted[0] += reply;
+      }
+    }.run(keys);
+    return deleted[0];
   }
 
   @Override
@@ -1243,14 +1256,33 @@ public class JedisCluster extends BinaryJedisCluster implements JedisClusterComm
 
   @Override
   public List<String> mget(final String... keys) {
-    return new JedisClusterCommand<List<String>>(connectionHandler, maxRedirections) {
+    final String[] values = new String[keys.length];
+    new JedisClusterMultiKeyCommand<List<String>>(connectionHandler, maxRedirections,
+        multiKeyExecutor) {
       @Override
-      public List<String> execute(Jedis connection) {
-        return connection.mget(keys);
+      protected Response<List<String>> pipeline(Pipeline pipeline, int[] indexes) {
+        return pipeline.mget(select(keys, indexes));
       }
-    }.run(keys.length, keys);
+
+      @Override
+      protected List<String> execute(Jedis connection, int[] indexes) {
+        return connection.mget(select(keys, indexes));
+      }
+
+      @Override
+      protected void merge(int[] indexes, List<String> reply) {
+        for (int i = 0; i < indexes.length; i++) {
+          values[indexes[i]] = reply.get(i);
+        }
+      }
+    }.runReadOnly(keys);
+    return Arrays.asList(values);
   }
 
+  /**
+   * Keys living on different nodes are written with one MSET per slot, so unlike on a single
+   * instance the whole call is not atomic.
+   */
   @Override
   public String mset(final String... keysvalues) {
     String[] keys = new String[keysvalues.length / 2];
@@ -1259,12 +1291,24 @@ public class JedisCluster extends BinaryJedisCluster implements JedisClusterComm
       keys[keyIdx] = keysvalues[keyIdx * 2];
     }
 
-    return new JedisClusterCommand<String>(connectionHandler, maxRedirections) {
+    final String[] status = new String[1];
+    new JedisClusterMultiKeyCommand<String>(connectionHandler, maxRedirections, multiKeyExecutor) {
       @Override
-      public String execute(Jedis connection) {
-        return connection.mset(keysvalues);
+      protected Response<String> pipeline(Pipeline pipeline, int[] indexes) {
+        return pipeline.mset(selectPairs(keysvalues, indexes));
       }
-    }.run(keys.length, keys);
+
+      @Override
+      protected String execute(Jedis connection, int[] indexes) {
+        return connection.mset(selectPairs(keysvalues, indexes));
+      }
+
+      @Override
+      protected void merge(int[] indexes, String reply) {
+        status[0] = reply;
+      }
+    }.run(keys);
+    return status[0];
   }
 
   @Override
@@ -13,7 +13,7 @@ public abstract class JedisClusterCommand<T> {
 
   private JedisClusterConnectionHandler connectionHandler;
   private int redirections;
-  private ThreadLocal<Jedis> askConnection = new ThreadLocal<Jedis>();
+  private boolean readOnly = false;
 
   public JedisClusterCommand(JedisClusterConnectionHandler connectionHandler, int maxRedirections) {
     this.connectionHandler = connectionHandler;
@@ -27,7 +27,7 @@ public abstract class JedisClusterCommand<T> {
       throw new JedisClusterException("No way to dispatch this command to Redis Cluster.");
     }
 
-    return runWithRetries(SafeEncoder.encode(key), this.redirections, false, false);
+    return runWithRetries(SafeEncoder.encode(key), this.redirections, false, null);
   }
 
   public T run(int keyCount, String... keys) {
@@ -48,7 +48,21 @@ public abstract class JedisClusterCommand<T> {
       }
     }
 
-    return runWithRetries(SafeEncoder.encode(keys[0]), this.redirections, false, false);
+    return runWithRetries(SafeEncoder.encode(keys[0]), this.redirections, false, null);
+  }
+
+  /**
+   * Like {@link #run(String)}, for commands that only read: they may be served by a replica,
+   * depending on the cluster's {@link ReadFrom} policy.
+   */
+  public T runReadOnly(String key) {
+    this.readOnly = true;
+    return run(key);
+  }
+
+  public T runReadOnlyBinary(byte[] key) {
+    this.readOnly = true;
+    return runBinary(key);
   }
 
   public T runBinary(byte[] key) {
@@ -56,7 +70,7 @@ public abstract class JedisClusterCommand<T> {
       throw new JedisClusterException("No way to dispatch this command to Redis Cluster.");
     }
 
-    return runWithRetries(key, this.redirections, false, false);
+    return runWithRetries(key, this.redirections, false, null);
   }
 
   public T runBinary(int keyCount, byte[]... keys) {
@@ -77,7 +91,7 @@ public abstract class JedisClusterCommand<T> {
       }
     }
 
-    return runWithRetries(keys[0], this.redirections, false, false);
+    return runWithRetries(keys[0], this.redirections, false, null);
   }
 
   public T runWithAnyNode() {
@@ -92,25 +106,27 @@ public abstract class JedisClusterCommand<T> {
     }
   }
 
-  private T runWithRetries(byte[] key, int redirections, boolean tryRandomNode, boolean asking) {
+  private T runWithRetries(byte[] key, int redirections, boolean tryRandomNode,
+      Jedis askConnection) {
     if (redirections <= 0) {
+      releaseConnection(askConnection);
       throw new JedisClusterMaxRedirectionsException("Too many Cluster redirections?");
     }
 
     Jedis connection = null;
     try {
 
-      if (asking) {
-        // TODO: Pipeline asking with the original command to make it
-        // faster....
-        connection = askConnection.get();
-        connection.asking();
-
-        // if asking success, reset asking flag
-        asking = false;
+      if (askConnection != null) {
+        connection = askConnection;
+        askConnection = null;
+        // ASKING travels with the command in one write, its reply is skipped on read
+        connection.getClient().askingPipelined();
       } else {
         if (tryRandomNode) {
           connection = connectionHandler.getConnection();
+        } else if (readOnly) {
+          connection = connectionHandler.getReadConnectionFromSlot(JedisClusterCRC16
+              .getSlot(key));
         } else {
           connection = connectionHandler.getConnectionFromSlot(JedisClusterCRC16.getSlot(key));
         }
@@ -128,24 +144,23 @@ public abstract class JedisClusterCommand<T> {
       connection = null;
 
       // retry with random connection
-      return runWithRetries(key, redirections - 1, true, asking);
+      return runWithRetries(key, redirections - 1, true, null);
     } catch (JedisRedirectionException jre) {
       // release current connection before recursion or renewing
       releaseConnection(connection);
       connection = null;
 
       if (jre instanceof JedisAskDataException) {
-        asking = true;
-        askConnection.set(this.connectionHandler.getConnectionFromNode(jre.getTargetNode()));
+        askConnection = this.connectionHandler.getConnectionFromNode(jre.getTargetNode());
       } else if (jre instanceof JedisMovedDataException) {
         // it rebuilds cluster's slot cache
         // recommended by Redis cluster specification
-        this.connectionHandler.renewSlotCache();
+        this.connectionHandler.renewSlotCache((JedisMovedDataException) jre);
       } else {
         throw new JedisClusterException(jre);
       }
 
-      return runWithRetries(key, redirections - 1, false, asking);
+      return runWithRetries(key, redirections - 1, false, askConnection);
     } finally {
       releaseConnection(connection);
     }
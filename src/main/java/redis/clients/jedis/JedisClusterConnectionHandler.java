@@ -6,14 +6,25 @@ import java.util.Set;
 import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
 
 import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.exceptions.JedisMovedDataException;
 
 public abstract class JedisClusterConnectionHandler {
   protected final JedisClusterInfoCache cache;
+  protected final JedisClusterSlotCacheRefresher refresher;
+  private volatile ReadFrom readFrom = ReadFrom.MASTER;
 
   abstract Jedis getConnection();
 
   abstract Jedis getConnectionFromSlot(int slot);
 
+  /**
+   * Returns a connection for a read-only command on the slot, chosen by the {@link ReadFrom}
+   * policy.
+   */
+  Jedis getReadConnectionFromSlot(int slot) {
+    return getConnectionFromSlot(slot);
+  }
+
   public Jedis getConnectionFromNode(HostAndPort node) {
     cache.setNodeIfNotExist(node);
     return cache.getNode(JedisClusterInfoCache.getNodeKey(node)).getResource();
@@ -22,13 +33,37 @@ public abstract class JedisClusterConnectionHandler {
   public JedisClusterConnectionHandler(Set<HostAndPort> nodes,
       final GenericObjectPoolConfig poolConfig, int connectionTimeout, int soTimeout) {
     this.cache = new JedisClusterInfoCache(poolConfig, connectionTimeout, soTimeout);
+    this.refresher = new JedisClusterSlotCacheRefresher(this);
     initializeSlotsCache(nodes, poolConfig);
   }
 
+  public JedisClusterSlotCacheRefresher getSlotCacheRefresher() {
+    return refresher;
+  }
+
   public Map<String, JedisPool> getNodes() {
     return cache.getNodes();
   }
 
+  public Map<String, JedisPool> getReplicaNodes() {
+    return cache.getReplicas();
+  }
+
+  public ReadFrom getReadFrom() {
+    return readFrom;
+  }
+
+  /**
+   * Changes where read-only commands go. Replicas are learned from CLUSTER SLOTS, so the slot
+   * cache is refreshed right away when reads leave the masters.
+   */
+  public void setReadFrom(ReadFrom readFrom) {
+    this.readFrom = readFrom;
+    if (readFrom != ReadFrom.MASTER) {
+      renewSlotCache();
+    }
+  }
+
   private void initializeSlotsCache(Set<HostAndPort> startNodes, GenericObjectPoolConfig poolConfig) {
     for (HostAndPort hostAndPort : startNodes) {
       Jedis jedis = new Jedis(hostAndPort.getHost(), hostAndPort.getPort());
@@ -50,6 +85,19 @@ public abstract class JedisClusterConnectionHandler {
     }
   }
 
+  /**
+   * Points the slot named in a MOVED reply at its new owner right away, so the retry goes straight
+   * there, and asks for a full refresh in the background to pick up the rest of the resharding.
+   */
+  public void renewSlotCache(JedisMovedDataException moved) {
+    final HostAndPort target = moved.getTargetNode();
+    final JedisPool current = cache.getSlotPool(moved.getSlot());
+    if (current == null || current != cache.getNode(JedisClusterInfoCache.getNodeKey(target))) {
+      cache.assignSlotToNode(moved.getSlot(), target);
+    }
+    refresher.requestRefresh();
+  }
+
   public void renewSlotCache() {
     for (JedisPool jp : cache.getNodes().values()) {
       Jedis jedis = null;
@@ -65,6 +113,34 @@ public abstract class JedisClusterConnectionHandler {
         }
       }
     }
+    if (readFrom == ReadFrom.NEAREST) {
+      measureLatencies();
+    }
+  }
+
+  private void measureLatencies() {
+    for (JedisPool pool : cache.getNodes().values()) {
+      measureLatency(pool);
+    }
+    for (JedisPool pool : cache.getReplicas().values()) {
+      measureLatency(pool);
+    }
+  }
+
+  private void measureLatency(JedisPool pool) {
+    Jedis jedis = null;
+    try {
+      jedis = pool.getResource();
+      long start = System.nanoTime();
+      jedis.ping();
+      cache.setLatency(pool, System.nanoTime() - start);
+    } catch (JedisConnectionException e) {
+      cache.setLatency(pool, Long.MAX_VALUE);
+    } finally {
+      if (jedis != null) {
+        jedis.close();
+      }
+    }
   }
 
 }
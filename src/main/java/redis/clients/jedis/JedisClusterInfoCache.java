@@ -1,9 +1,16 @@
 package redis.clients.jedis;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
@@ -17,7 +24,16 @@ public class JedisClusterInfoCache {
   public static final ClusterNodeInformationParser nodeInfoParser = new ClusterNodeInformationParser();
 
   private Map<String, JedisPool> nodes = new HashMap<String, JedisPool>();
-  private Map<Integer, JedisPool> slots = new HashMap<Integer, JedisPool>();
+  /*
+   * Slot owners, read without locking on every command. The array is never modified once
+   * published: writers build a new one while holding the write lock and swap it in.
+   */
+  private volatile JedisPool[] slots = new JedisPool[BinaryJedisCluster.HASHSLOTS];
+  // replicas of each slot's master, published the same way as slots
+  private volatile JedisPool[][] slotReplicas = new JedisPool[BinaryJedisCluster.HASHSLOTS][];
+  private Map<String, JedisPool> replicas = new HashMap<String, JedisPool>();
+  private final Map<JedisPool, Long> latencies = new ConcurrentHashMap<JedisPool, Long>();
+  private final AtomicInteger roundRobin = new AtomicInteger();
 
   private final ReentrantReadWriteLock rwl = new ReentrantReadWriteLock();
   private final Lock r = rwl.readLock();
@@ -43,7 +59,9 @@ public class JedisClusterInfoCache {
 
     try {
       this.nodes.clear();
-      this.slots.clear();
+      JedisPool[] newSlots = new JedisPool[BinaryJedisCluster.HASHSLOTS];
+      // CLUSTER NODES is parsed for masters only, replicas come with the next CLUSTER SLOTS
+      this.slotReplicas = new JedisPool[BinaryJedisCluster.HASHSLOTS][];
 
       String localNodes = jedis.clusterNodes();
       for (String nodeInfo : localNodes.split("\n")) {
@@ -52,8 +70,9 @@ public class JedisClusterInfoCache {
 
         HostAndPort targetNode = clusterNodeInfo.getNode();
         setNodeIfNotExist(targetNode);
-        assignSlotsToNode(clusterNodeInfo.getAvailableSlots(), targetNode);
+        fillSlots(newSlots, clusterNodeInfo.getAvailableSlots(), targetNode);
       }
+      this.slots = newSlots;
     } finally {
       w.unlock();
     }
@@ -63,7 +82,9 @@ public class JedisClusterInfoCache {
     w.lock();
 
     try {
-      this.slots.clear();
+      JedisPool[] newSlots = new JedisPool[BinaryJedisCluster.HASHSLOTS];
+      JedisPool[][] newReplicas = new JedisPool[BinaryJedisCluster.HASHSLOTS][];
+      Set<String> liveReplicas = new HashSet<String>();
 
       List<Object> slots = jedis.clusterSlots();
 
@@ -82,17 +103,49 @@ public class JedisClusterInfoCache {
           continue;
         }
 
-        // at this time, we just use master, discard slave information
         HostAndPort targetNode = generateHostAndPort(hostInfos);
 
         setNodeIfNotExist(targetNode);
-        assignSlotsToNode(slotNums, targetNode);
+        fillSlots(newSlots, slotNums, targetNode);
+
+        // the master is followed by its replicas
+        JedisPool[] rangeReplicas = new JedisPool[slotInfo.size() - 3];
+        for (int i = 3; i < slotInfo.size(); i++) {
+          @SuppressWarnings("unchecked")
+          HostAndPort replica = generateHostAndPort((List<Object>) slotInfo.get(i));
+          rangeReplicas[i - 3] = setReplicaIfNotExist(replica);
+          liveReplicas.add(getNodeKey(replica));
+        }
+        for (Integer slot : slotNums) {
+          newReplicas[slot] = rangeReplicas;
+        }
       }
+      this.slotReplicas = newReplicas;
+      this.slots = newSlots;
+      removeReplicasExcept(liveReplicas);
     } finally {
       w.unlock();
     }
   }
 
+  // callers hold the write lock; drops the pools of replicas no longer listed by CLUSTER SLOTS
+  private void removeReplicasExcept(Set<String> liveReplicas) {
+    Iterator<Map.Entry<String, JedisPool>> it = replicas.entrySet().iterator();
+    while (it.hasNext()) {
+      Map.Entry<String, JedisPool> entry = it.next();
+      if (liveReplicas.contains(entry.getKey())) {
+        continue;
+      }
+      it.remove();
+      latencies.remove(entry.getValue());
+      try {
+        entry.getValue().destroy();
+      } catch (Exception e) {
+        // pass
+      }
+    }
+  }
+
   private HostAndPort generateHostAndPort(List<Object> hostInfos) {
     return new HostAndPort(SafeEncoder.encode((byte[]) hostInfos.get(0)),
         ((Long) hostInfos.get(1)).intValue());
@@ -113,35 +166,37 @@ public class JedisClusterInfoCache {
   }
 
   public void assignSlotToNode(int slot, HostAndPort targetNode) {
+    assignSlotsToNode(Collections.singletonList(slot), targetNode);
+  }
+
+  public void assignSlotsToNode(List<Integer> targetSlots, HostAndPort targetNode) {
     w.lock();
     try {
-      JedisPool targetPool = nodes.get(getNodeKey(targetNode));
-
-      if (targetPool == null) {
-        setNodeIfNotExist(targetNode);
-        targetPool = nodes.get(getNodeKey(targetNode));
+      JedisPool[] newSlots = slots.clone();
+      fillSlots(newSlots, targetSlots, targetNode);
+      // replicas of the previous owner do not serve these slots any more
+      JedisPool[][] newReplicas = slotReplicas.clone();
+      for (Integer slot : targetSlots) {
+        newReplicas[slot] = null;
       }
-      slots.put(slot, targetPool);
+      this.slotReplicas = newReplicas;
+      this.slots = newSlots;
     } finally {
       w.unlock();
     }
   }
 
-  public void assignSlotsToNode(List<Integer> targetSlots, HostAndPort targetNode) {
-    w.lock();
-    try {
-      JedisPool targetPool = nodes.get(getNodeKey(targetNode));
+  // callers hold the write lock
+  private void fillSlots(JedisPool[] target, List<Integer> targetSlots, HostAndPort targetNode) {
+    JedisPool targetPool = nodes.get(getNodeKey(targetNode));
 
-      if (targetPool == null) {
-        setNodeIfNotExist(targetNode);
-        targetPool = nodes.get(getNodeKey(targetNode));
-      }
+    if (targetPool == null) {
+      setNodeIfNotExist(targetNode);
+      targetPool = nodes.get(getNodeKey(targetNode));
+    }
 
-      for (Integer slot : targetSlots) {
-        slots.put(slot, targetPool);
-      }
-    } finally {
-      w.unlock();
+    for (Integer slot : targetSlots) {
+      target[slot] = targetPool;
     }
   }
 
@@ -155,9 +210,70 @@ public class JedisClusterInfoCache {
   }
 
   public JedisPool getSlotPool(int slot) {
+    return slots[slot];
+  }
+
+  /**
+   * Picks the master or one of the replicas of the slot for a read, according to the policy.
+   */
+  public JedisPool getSlotPool(int slot, ReadFrom readFrom) {
+    final JedisPool[] replicas = slotReplicas[slot];
+    final JedisPool master = slots[slot];
+    if (readFrom == ReadFrom.MASTER || master == null || replicas == null
+        || replicas.length == 0) {
+      return master;
+    }
+
+    switch (readFrom) {
+    case REPLICA_PREFERRED:
+      return replicas[ThreadLocalRandom.current().nextInt(replicas.length)];
+    case ROUND_ROBIN:
+      int next = (roundRobin.getAndIncrement() & Integer.MAX_VALUE) % (replicas.length + 1);
+      return next == replicas.length ? master : replicas[next];
+    case NEAREST:
+      JedisPool nearest = master;
+      long best = getLatency(master);
+      for (JedisPool replica : replicas) {
+        long latency = getLatency(replica);
+        if (latency < best) {
+          nearest = replica;
+          best = latency;
+        }
+      }
+      return nearest;
+    default:
+      return master;
+    }
+  }
+
+  /**
+   * Records the round-trip time last measured to the node behind the pool, used by
+   * {@link ReadFrom#NEAREST}.
+   */
+  public void setLatency(JedisPool pool, long nanos) {
+    latencies.put(pool, nanos);
+  }
+
+  private long getLatency(JedisPool pool) {
+    final Long latency = latencies.get(pool);
+    return latency == null ? Long.MAX_VALUE : latency;
+  }
+
+  private JedisPool setReplicaIfNotExist(HostAndPort node) {
+    String nodeKey = getNodeKey(node);
+    JedisPool replicaPool = replicas.get(nodeKey);
+    if (replicaPool == null) {
+      replicaPool = new JedisPool(poolConfig, node.getHost(), node.getPort(), connectionTimeout,
+          soTimeout, node.getPasswd(), 0, null, true);
+      replicas.put(nodeKey, replicaPool);
+    }
+    return replicaPool;
+  }
+
+  public Map<String, JedisPool> getReplicas() {
     r.lock();
     try {
-      return slots.get(slot);
+      return new HashMap<String, JedisPool>(replicas);
     } finally {
       r.unlock();
     }
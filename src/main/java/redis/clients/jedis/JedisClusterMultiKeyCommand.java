@@ -0,0 +1,322 @@
+package redis.clients.jedis;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import redis.clients.jedis.exceptions.JedisClusterException;
+import redis.clients.jedis.exceptions.JedisClusterMaxRedirectionsException;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.exceptions.JedisException;
+import redis.clients.jedis.exceptions.JedisMovedDataException;
+import redis.clients.jedis.exceptions.JedisRedirectionException;
+import redis.clients.util.JedisClusterCRC16;
+import redis.clients.util.SafeEncoder;
+
+/**
+ * Runs a multi-key command whose keys may hash to different slots. Keys are grouped by slot and
+ * the slots by the node that owns them; every node receives one pipelined batch holding one
+ * command per slot, and the nodes are queried in parallel. Each slot's reply is handed to
+ * {@link #merge(int[], Object)} together with the positions of its keys in the caller's array, so
+ * results can be put back in the caller's order.
+ * <p>
+ * Slots answered with MOVED are resent to the node named in the reply; slots answered with ASK
+ * or whose node could not be reached go through {@link JedisClusterCommand} one slot at a time.
+ */
+public abstract class JedisClusterMultiKeyCommand<R> {
+
+  private final JedisClusterConnectionHandler connectionHandler;
+  private final int maxRedirections;
+  private final ExecutorService executor;
+  private boolean readOnly = false;
+
+  public JedisClusterMultiKeyCommand(JedisClusterConnectionHandler connectionHandler,
+      int maxRedirections, ExecutorService executor) {
+    this.connectionHandler = connectionHandler;
+    this.maxRedirections = maxRedirections;
+    this.executor = executor;
+  }
+
+  /**
+   * Queues the command for the keys at the given positions, which all hash to the same slot.
+   */
+  protected abstract Response<R> pipeline(Pipeline pipeline, int[] indexes);
+
+  /**
+   * Sends the command for the keys at the given positions and waits for its reply.
+   */
+  protected abstract R execute(Jedis connection, int[] indexes);
+
+  /**
+   * Receives the reply for the keys at the given positions. Always called on the caller's thread.
+   */
+  protected abstract void merge(int[] indexes, R reply);
+
+  public void run(String... keys) {
+    if (keys == null || keys.length == 0) {
+      throw new JedisClusterException("No way to dispatch this command to Redis Cluster.");
+    }
+    final int[] slots = new int[keys.length];
+    for (int i = 0; i < keys.length; i++) {
+      slots[i] = JedisClusterCRC16.getSlot(keys[i]);
+    }
+    final List<SlotGroup> groups = groupBySlot(slots);
+    for (SlotGroup group : groups) {
+      group.key = SafeEncoder.encode(keys[group.indexes[0]]);
+    }
+    run(groups);
+  }
+
+  /**
+   * Like {@link #run(String...)}, for commands that only read: each slot may be served by a
+   * replica, depending on the cluster's {@link ReadFrom} policy.
+   */
+  public void runReadOnly(String... keys) {
+    this.readOnly = true;
+    run(keys);
+  }
+
+  public void runReadOnlyBinary(byte[]... keys) {
+    this.readOnly = true;
+    runBinary(keys);
+  }
+
+  public void runBinary(byte[]... keys) {
+    if (keys == null || keys.length == 0) {
+      throw new JedisClusterException("No way to dispatch this command to Redis Cluster.");
+    }
+    final int[] slots = new int[keys.length];
+    for (int i = 0; i < keys.length; i++) {
+      slots[i] = JedisClusterCRC16.getSlot(keys[i]);
+    }
+    final List<SlotGroup> groups = groupBySlot(slots);
+    for (SlotGroup group : groups) {
+      group.key = keys[group.indexes[0]];
+    }
+    run(groups);
+  }
+
+  private void run(List<SlotGroup> groups) {
+    List<SlotGroup> pending = groups;
+    JedisException dataError = null;
+
+    for (int redirections = maxRedirections; !pending.isEmpty(); redirections--) {
+      if (redirections <= 0) {
+        throw new JedisClusterMaxRedirectionsException("Too many Cluster redirections?");
+      }
+
+      for (NodeBatch batch : scatter(pending)) {
+        for (SlotGroup group : batch.groups) {
+          if (group.error == null) {
+            merge(group.indexes, group.reply);
+          }
+        }
+      }
+
+      List<SlotGroup> moved = new ArrayList<SlotGroup>();
+      for (SlotGroup group : pending) {
+        if (group.error == null) {
+          continue;
+        }
+        if (group.error instanceof JedisMovedDataException) {
+          moved.add(group);
+        } else if (group.error instanceof JedisRedirectionException
+            || group.error instanceof JedisConnectionException) {
+          merge(group.indexes, runSingle(group));
+        } else if (dataError == null) {
+          dataError = group.error;
+        }
+      }
+
+      for (SlotGroup group : moved) {
+        connectionHandler.renewSlotCache((JedisMovedDataException) group.error);
+        group.reset();
+      }
+      pending = moved;
+    }
+
+    if (dataError != null) {
+      throw dataError;
+    }
+  }
+
+  private List<SlotGroup> groupBySlot(int[] keySlots) {
+    final Map<Integer, List<Integer>> bySlot = new LinkedHashMap<Integer, List<Integer>>();
+    for (int i = 0; i < keySlots.length; i++) {
+      List<Integer> indexes = bySlot.get(keySlots[i]);
+      if (indexes == null) {
+        indexes = new ArrayList<Integer>();
+        bySlot.put(keySlots[i], indexes);
+      }
+      indexes.add(i);
+    }
+
+    final List<SlotGroup> groups = new ArrayList<SlotGroup>(bySlot.size());
+    for (Map.Entry<Integer, List<Integer>> entry : bySlot.entrySet()) {
+      final List<Integer> list = entry.getValue();
+      final int[] indexes = new int[list.size()];
+      for (int i = 0; i < indexes.length; i++) {
+        indexes[i] = list.get(i);
+      }
+      groups.add(new SlotGroup(entry.getKey(), indexes));
+    }
+    return groups;
+  }
+
+  /**
+   * Sends every group to its node, one pipeline per node, and waits for all of them. The calling
+   * thread takes care of one node itself so a single-node call never leaves it.
+   */
+  private List<NodeBatch> scatter(List<SlotGroup> groups) {
+    final Map<JedisPool, NodeBatch> byNode = new LinkedHashMap<JedisPool, NodeBatch>();
+    for (SlotGroup group : groups) {
+      final JedisPool pool = readOnly ? connectionHandler.cache.getSlotPool(group.slot,
+        connectionHandler.getReadFrom()) : connectionHandler.cache.getSlotPool(group.slot);
+      if (pool == null) {
+        group.error = new JedisConnectionException("No node is serving slot " + group.slot);
+        continue;
+      }
+      NodeBatch batch = byNode.get(pool);
+      if (batch == null) {
+        batch = new NodeBatch(pool);
+        byNode.put(pool, batch);
+      }
+      batch.groups.add(group);
+    }
+
+    final List<NodeBatch> batches = new ArrayList<NodeBatch>(byNode.values());
+    final List<Future<?>> futures = new ArrayList<Future<?>>(batches.size());
+    for (int i = 1; i < batches.size(); i++) {
+      futures.add(executor.submit(batches.get(i)));
+    }
+    if (!batches.isEmpty()) {
+      batches.get(0).call();
+    }
+    for (Future<?> future : futures) {
+      try {
+        future.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new JedisException(e);
+      } catch (ExecutionException e) {
+        throw new JedisException(e.getCause());
+      }
+    }
+    return batches;
+  }
+
+  private R runSingle(final SlotGroup group) {
+    final JedisClusterCommand<R> command = new JedisClusterCommand<R>(connectionHandler,
+        maxRedirections) {
+      @Override
+      public R execute(Jedis connection) {
+        return JedisClusterMultiKeyCommand.this.execute(connection, group.indexes);
+      }
+    };
+    return readOnly ? command.runReadOnlyBinary(group.key) : command.runBinary(group.key);
+  }
+
+  /**
+   * Picks the keys at the given positions.
+   */
+  protected static String[] select(String[] keys, int[] indexes) {
+    final String[] selected = new String[indexes.length];
+    for (int i = 0; i < indexes.length; i++) {
+      selected[i] = keys[indexes[i]];
+    }
+    return selected;
+  }
+
+  protected static byte[][] select(byte[][] keys, int[] indexes) {
+    final byte[][] selected = new byte[indexes.length][];
+    for (int i = 0; i < indexes.length; i++) {
+      selected[i] = keys[indexes[i]];
+    }
+    return selected;
+  }
+
+  /**
+   * Picks the key-value pairs whose keys are at the given positions of the key array.
+   */
+  protected static String[] selectPairs(String[] keysvalues, int[] indexes) {
+    final String[] selected = new String[indexes.length * 2];
+    for (int i = 0; i < indexes.length; i++) {
+      selected[i * 2] = keysvalues[indexes[i] * 2];
+      selected[i * 2 + 1] = keysvalues[indexes[i] * 2 + 1];
+    }
+    return selected;
+  }
+
+  protected static byte[][] selectPairs(byte[][] keysvalues, int[] indexes) {
+    final byte[][] selected = new byte[indexes.length * 2][];
+    for (int i = 0; i < indexes.length; i++) {
+      selected[i * 2] = keysvalues[indexes[i] * 2];
+      selected[i * 2 + 1] = keysvalues[indexes[i] * 2 + 1];
+    }
+    return selected;
+  }
+
+  private class SlotGroup {
+    final int slot;
+    final int[] indexes;
+    // any of the group's keys, used to route the group on its own
+    byte[] key;
+    Response<R> response;
+    R reply;
+    JedisException error;
+
+    SlotGroup(int slot, int[] indexes) {
+      this.slot = slot;
+      this.indexes = indexes;
+    }
+
+    void reset() {
+      response = null;
+      reply = null;
+      error = null;
+    }
+  }
+
+  private class NodeBatch implements Callable<Void> {
+    final JedisPool pool;
+    final List<SlotGroup> groups = new ArrayList<SlotGroup>();
+
+    NodeBatch(JedisPool pool) {
+      this.pool = pool;
+    }
+
+    @Override
+    public Void call() {
+      Jedis connection = null;
+      try {
+        connection = pool.getResource();
+        final Pipeline pipeline = connection.pipelined();
+        for (SlotGroup group : groups) {
+          group.response = pipeline(pipeline, group.indexes);
+        }
+        pipeline.sync();
+        for (SlotGroup group : groups) {
+          try {
+            group.reply = group.response.get();
+          } catch (JedisException e) {
+            group.error = e;
+          }
+        }
+      } catch (JedisConnectionException e) {
+        for (SlotGroup group : groups) {
+          group.error = e;
+        }
+      } finally {
+        if (connection != null) {
+          connection.close();
+        }
+      }
+      return null;
+    }
+  }
+}
@@ -0,0 +1,293 @@
+package redis.clients.jedis;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import redis.clients.jedis.Protocol.Command;
+import redis.clients.jedis.exceptions.JedisAskDataException;
+import redis.clients.jedis.exceptions.JedisClusterMaxRedirectionsException;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.jedis.exceptions.JedisException;
+import redis.clients.jedis.exceptions.JedisMovedDataException;
+import redis.clients.jedis.exceptions.JedisRedirectionException;
+import redis.clients.util.JedisClusterCRC16;
+
+/**
+ * Pipelines single-key commands against a cluster. Commands are recorded as they are issued and
+ * routed by the slot of their key when the pipeline is synced: every node gets all of its commands
+ * in one batch over a connection the pipeline keeps until it is closed, and the nodes are synced
+ * in parallel. Only the commands answered with a redirection are replayed: MOVED ones on the node
+ * named in the reply, ASK ones on the importing node behind an ASKING.
+ */
+public class JedisClusterPipeline extends PipelineBase implements Closeable {
+  private final JedisClusterConnectionHandler connectionHandler;
+  private final int maxRedirections;
+  private final ExecutorService executor;
+
+  private final RecordingClient recorder = new RecordingClient();
+  private final List<PipelinedCommand> commands = new ArrayList<PipelinedCommand>();
+  private final Map<JedisPool, Jedis> connections = new HashMap<JedisPool, Jedis>();
+
+  public JedisClusterPipeline(JedisClusterConnectionHandler connectionHandler,
+      int maxRedirections, ExecutorService executor) {
+    this.connectionHandler = connectionHandler;
+    this.maxRedirections = maxRedirections;
+    this.executor = executor;
+  }
+
+  @Override
+  protected Client getClient(String key) {
+    recorder.slot = JedisClusterCRC16.getSlot(key);
+    return recorder;
+  }
+
+  @Override
+  protected Client getClient(byte[] key) {
+    recorder.slot = JedisClusterCRC16.getSlot(key);
+    return recorder;
+  }
+
+  @Override
+  protected <T> Response<T> getResponse(Builder<T> builder) {
+    final Response<T> response = new Response<T>(builder);
+    commands.get(commands.size() - 1).response = response;
+    return response;
+  }
+
+  @Override
+  protected boolean hasPipelinedResponse() {
+    return !commands.isEmpty();
+  }
+
+  @Override
+  protected int getPipelinedResponseLength() {
+    return commands.size();
+  }
+
+  @Override
+  protected void clean() {
+    commands.clear();
+  }
+
+  /**
+   * Sends every recorded command and reads all replies. In order to get return values from
+   * pipelined commands, capture the different Response&lt;?&gt; of the commands you execute.
+   */
+  public void sync() {
+    List<PipelinedCommand> pending = new ArrayList<PipelinedCommand>(commands);
+    commands.clear();
+    JedisConnectionException failure = null;
+
+    for (int redirections = maxRedirections; !pending.isEmpty(); redirections--) {
+      if (redirections <= 0) {
+        throw new JedisClusterMaxRedirectionsException("Too many Cluster redirections?");
+      }
+
+      for (NodeBatch batch : scatter(pending)) {
+        if (batch.failure != null && failure == null) {
+          failure = batch.failure;
+        }
+      }
+
+      final List<PipelinedCommand> redirected = new ArrayList<PipelinedCommand>();
+      for (PipelinedCommand command : pending) {
+        if (command.redirection instanceof JedisMovedDataException) {
+          connectionHandler.renewSlotCache((JedisMovedDataException) command.redirection);
+        }
+        if (command.redirection != null) {
+          redirected.add(command);
+        }
+      }
+      pending = redirected;
+    }
+
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  /**
+   * Like {@link #sync()}, but also returns all the replies in the order the commands were issued.
+   * Error replies are returned as exceptions.
+   */
+  public List<Object> syncAndReturnAll() {
+    if (commands.isEmpty()) {
+      return Collections.<Object> emptyList();
+    }
+    final List<Response<?>> responses = new ArrayList<Response<?>>(commands.size());
+    for (PipelinedCommand command : commands) {
+      responses.add(command.response);
+    }
+    sync();
+    final List<Object> formatted = new ArrayList<Object>(responses.size());
+    for (Response<?> response : responses) {
+      try {
+        formatted.add(response.get());
+      } catch (JedisDataException e) {
+        formatted.add(e);
+      }
+    }
+    return formatted;
+  }
+
+  private List<NodeBatch> scatter(List<PipelinedCommand> pending) {
+    final Map<JedisPool, NodeBatch> byNode = new LinkedHashMap<JedisPool, NodeBatch>();
+    for (PipelinedCommand command : pending) {
+      final JedisPool pool = poolFor(command);
+      NodeBatch batch = byNode.get(pool);
+      if (batch == null) {
+        batch = new NodeBatch(pool, connectionFor(pool));
+        byNode.put(pool, batch);
+      }
+      batch.commands.add(command);
+    }
+
+    final List<NodeBatch> batches = new ArrayList<NodeBatch>(byNode.values());
+    final List<Future<?>> futures = new ArrayList<Future<?>>(batches.size());
+    for (int i = 1; i < batches.size(); i++) {
+      futures.add(executor.submit(batches.get(i)));
+    }
+    if (!batches.isEmpty()) {
+      batches.get(0).call();
+    }
+    for (Future<?> future : futures) {
+      try {
+        future.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new JedisException(e);
+      } catch (ExecutionException e) {
+        throw new JedisException(e.getCause());
+      }
+    }
+
+    for (NodeBatch batch : batches) {
+      if (batch.failure != null) {
+        connections.remove(batch.pool);
+        batch.connection.close();
+      }
+    }
+    return batches;
+  }
+
+  private JedisPool poolFor(PipelinedCommand command) {
+    if (command.redirection instanceof JedisAskDataException) {
+      final HostAndPort target = command.redirection.getTargetNode();
+      connectionHandler.cache.setNodeIfNotExist(target);
+      return connectionHandler.cache.getNode(JedisClusterInfoCache.getNodeKey(target));
+    }
+    final JedisPool pool = connectionHandler.cache.getSlotPool(command.slot);
+    if (pool != null) {
+      return pool;
+    }
+    // no owner known, any node will redirect us to the right one
+    return connectionHandler.getNodes().values().iterator().next();
+  }
+
+  private Jedis connectionFor(JedisPool pool) {
+    Jedis connection = connections.get(pool);
+    if (connection == null) {
+      connection = pool.getResource();
+      connections.put(pool, connection);
+    }
+    return connection;
+  }
+
+  /**
+   * Returns the connections the pipeline holds to their pools.
+   */
+  @Override
+  public void close() {
+    commands.clear();
+    for (Jedis connection : connections.values()) {
+      connection.close();
+    }
+    connections.clear();
+  }
+
+  private static class PipelinedCommand {
+    final int slot;
+    final ProtocolCommand cmd;
+    final byte[][] args;
+    Response<?> response;
+    JedisRedirectionException redirection;
+
+    PipelinedCommand(int slot, ProtocolCommand cmd, byte[][] args) {
+      this.slot = slot;
+      this.cmd = cmd;
+      this.args = args;
+    }
+  }
+
+  /**
+   * Takes the place of a node's client while commands are issued, recording them for sync.
+   */
+  private class RecordingClient extends Client {
+    int slot;
+
+    @Override
+    protected Connection sendCommand(final ProtocolCommand cmd, final byte[]... args) {
+      commands.add(new PipelinedCommand(slot, cmd, args));
+      return this;
+    }
+  }
+
+  private static class NodeBatch implements Callable<Void> {
+    final JedisPool pool;
+    final Jedis connection;
+    final List<PipelinedCommand> commands = new ArrayList<PipelinedCommand>();
+    JedisConnectionException failure;
+
+    NodeBatch(JedisPool pool, Jedis connection) {
+      this.pool = pool;
+      this.connection = connection;
+    }
+
+    @Override
+    public Void call() {
+      final Client client = connection.getClient();
+      try {
+        int replies = 0;
+        for (PipelinedCommand command : commands) {
+          if (command.redirection instanceof JedisAskDataException) {
+            client.sendCommand(Command.ASKING);
+            replies++;
+          }
+          client.sendCommand(command.cmd, command.args);
+          replies++;
+        }
+
+        final List<Object> unformatted = client.getMany(replies);
+        int i = 0;
+        for (PipelinedCommand command : commands) {
+          if (command.redirection instanceof JedisAskDataException) {
+            i++;
+          }
+          final Object reply = unformatted.get(i++);
+          if (reply instanceof JedisRedirectionException) {
+            command.redirection = (JedisRedirectionException) reply;
+          } else {
+            command.redirection = null;
+            command.response.set(reply);
+          }
+        }
+      } catch (JedisConnectionException e) {
+        failure = e;
+        for (PipelinedCommand command : commands) {
+          command.redirection = null;
+        }
+      }
+      return null;
+    }
+  }
+}
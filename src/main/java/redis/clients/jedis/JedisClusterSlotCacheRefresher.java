@@ -0,0 +1,160 @@
+package redis.clients.jedis;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Refreshes a cluster's slot cache in the background. Any number of threads may ask for a refresh
+ * at once: at most one runs at a time, and a new one does not start until the minimum interval
+ * since the previous one has passed. Requests made while a refresh runs, or within the interval,
+ * are folded into a single trailing refresh that starts as soon as both allow. Optionally the
+ * cache is also refreshed periodically.
+ */
+public class JedisClusterSlotCacheRefresher {
+  public static final long DEFAULT_MIN_REFRESH_INTERVAL_MILLIS = 1000;
+
+  private static final Logger LOG = Logger.getLogger(JedisClusterSlotCacheRefresher.class
+      .getName());
+
+  private final JedisClusterConnectionHandler connectionHandler;
+  private final ScheduledExecutorService executor;
+  private final AtomicBoolean inFlight = new AtomicBoolean();
+  private final AtomicBoolean pending = new AtomicBoolean();
+  private final AtomicBoolean trailingScheduled = new AtomicBoolean();
+  private volatile long minRefreshIntervalNanos = TimeUnit.MILLISECONDS
+      .toNanos(DEFAULT_MIN_REFRESH_INTERVAL_MILLIS);
+  private volatile long lastRefreshNanos = System.nanoTime() - minRefreshIntervalNanos;
+  private ScheduledFuture<?> periodic;
+
+  private final Runnable refresh = new Runnable() {
+    @Override
+    public void run() {
+      try {
+        connectionHandler.renewSlotCache();
+      } catch (RuntimeException e) {
+        LOG.log(Level.WARNING, "Could not refresh the cluster slot cache", e);
+      } finally {
+        lastRefreshNanos = System.nanoTime();
+        inFlight.set(false);
+      }
+      drain();
+    }
+  };
+
+  private final Runnable trailing = new Runnable() {
+    @Override
+    public void run() {
+      trailingScheduled.set(false);
+      drain();
+    }
+  };
+
+  public JedisClusterSlotCacheRefresher(JedisClusterConnectionHandler connectionHandler) {
+    this.connectionHandler = connectionHandler;
+    ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+      @Override
+      public Thread newThread(Runnable r) {
+        Thread thread = new Thread(r, "jedis-cluster-slot-refresh");
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+    executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+    this.executor = executor;
+  }
+
+  /**
+   * Sets the shortest time between two refreshes started by {@link #requestRefresh()}.
+   */
+  public void setMinRefreshInterval(long interval, TimeUnit unit) {
+    this.minRefreshIntervalNanos = unit.toNanos(interval);
+  }
+
+  /**
+   * Asks for a refresh. It starts right away unless one is running or the last one finished less
+   * than the minimum interval ago; otherwise it is folded into a trailing refresh.
+   * @return whether this call started a refresh
+   */
+  public boolean requestRefresh() {
+    pending.set(true);
+    return drain();
+  }
+
+  /**
+   * Starts a refresh if one has been asked for and nothing stops it from running now. Called by
+   * requesters, by a refresh when it ends and by the trailing timer, so a pending request is
+   * never left behind.
+   */
+  private boolean drain() {
+    while (pending.get()) {
+      long wait = minRefreshIntervalNanos - (System.nanoTime() - lastRefreshNanos);
+      if (wait > 0) {
+        scheduleTrailing(wait);
+        return false;
+      }
+      if (!inFlight.compareAndSet(false, true)) {
+        // the running refresh drains when it ends
+        return false;
+      }
+      if (!pending.getAndSet(false)) {
+        // another thread served it; look again in case a request slipped in meanwhile
+        inFlight.set(false);
+        continue;
+      }
+      try {
+        executor.execute(refresh);
+      } catch (RejectedExecutionException e) {
+        // closed
+        inFlight.set(false);
+        return false;
+      }
+      return true;
+    }
+    return false;
+  }
+
+  private void scheduleTrailing(long delayNanos) {
+    if (!trailingScheduled.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      executor.schedule(trailing, delayNanos, TimeUnit.NANOSECONDS);
+    } catch (RejectedExecutionException e) {
+      // closed
+      trailingScheduled.set(false);
+    }
+  }
+
+  /**
+   * Refreshes the slot cache every period, in addition to the refreshes requested after MOVED
+   * replies. A period of zero or less stops the periodic refresh.
+   */
+  public synchronized void setPeriodicRefresh(long period, TimeUnit unit) {
+    if (periodic != null) {
+      periodic.cancel(false);
+      periodic = null;
+    }
+    if (period > 0) {
+      periodic = executor.scheduleWithFixedDelay(new Runnable() {
+        @Override
+        public void run() {
+          if (inFlight.compareAndSet(false, true)) {
+            pending.set(false);
+            refresh.run();
+          }
+        }
+      }, period, period, unit);
+    }
+  }
+
+  public void close() {
+    executor.shutdownNow();
+  }
+}
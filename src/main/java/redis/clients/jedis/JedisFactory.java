@@ -20,15 +20,26 @@ class JedisFactory implements PooledObjectFactory<Jedis> {
   private final String password;
   private final int database;
   private final String clientName;
+  private final boolean readOnly;
 
   public JedisFactory(final String host, final int port, final int connectionTimeout,
       final int soTimeout, final String password, final int database, final String clientName) {
+    this(host, port, connectionTimeout, soTimeout, password, database, clientName, false);
+  }
+
+  /**
+   * @param readOnly whether new connections send READONLY, allowing reads from a cluster replica
+   */
+  public JedisFactory(final String host, final int port, final int connectionTimeout,
+      final int soTimeout, final String password, final int database, final String clientName,
+      final boolean readOnly) {
     this.hostAndPort.set(new HostAndPort(host, port));
     this.connectionTimeout = connectionTimeout;
     this.soTimeout = soTimeout;
     this.password = password;
     this.database = database;
     this.clientName = clientName;
+    this.readOnly = readOnly;
   }
 
   public JedisFactory(final URI uri, final int connectionTimeout, final int soTimeout,
@@ -44,6 +55,7 @@ class JedisFactory implements PooledObjectFactory<Jedis> {
     this.password = JedisURIHelper.getPassword(uri);
     this.database = JedisURIHelper.getDBIndex(uri);
     this.clientName = clientName;
+    this.readOnly = false;
   }
 
   public void setHostAndPort(final HostAndPort hostAndPort) {
@@ -92,6 +104,9 @@ class JedisFactory implements PooledObjectFactory<Jedis> {
     if (clientName != null) {
       jedis.clientSetname(clientName);
     }
+    if (readOnly) {
+      jedis.readonly();
+    }
 
     return new DefaultPooledObject<Jedis>(jedis);
   }
@@ -0,0 +1,123 @@
+package redis.clients.jedis;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import redis.clients.jedis.exceptions.JedisException;
+
+/**
+ * A reply that is completed by another thread. Callers either block in {@link #get()} until the
+ * reply arrives or the connection that carried the command fails, or register a
+ * {@link JedisFutureListener} to be called back. As for any {@link Future}, an error reply or a
+ * broken connection is thrown from {@code get} as the cause of an {@link ExecutionException}.
+ */
+public class JedisFuture<T> implements Future<T> {
+  private static final Logger LOG = Logger.getLogger(JedisFuture.class.getName());
+
+  private final Response<T> response;
+  private final CountDownLatch done = new CountDownLatch(1);
+  private volatile JedisException failure;
+  private List<JedisFutureListener<T>> listeners = new ArrayList<JedisFutureListener<T>>(1);
+
+  public JedisFuture(Builder<T> b) {
+    this.response = new Response<T>(b);
+  }
+
+  public void set(Object data) {
+    response.set(data);
+    complete();
+  }
+
+  public void fail(JedisException failure) {
+    this.failure = failure;
+    complete();
+  }
+
+  /**
+   * Registers a callback that runs once the reply has arrived or the command has failed. If the
+   * future is already done the callback runs immediately on the calling thread.
+   */
+  public JedisFuture<T> addListener(JedisFutureListener<T> listener) {
+    synchronized (done) {
+      if (listeners != null) {
+        listeners.add(listener);
+        return this;
+      }
+    }
+    listener.onComplete(this);
+    return this;
+  }
+
+  private void complete() {
+    // detach the listeners before releasing waiters, so that a listener added by a thread that
+    // has already seen the future done always runs immediately
+    List<JedisFutureListener<T>> toNotify;
+    synchronized (done) {
+      toNotify = listeners;
+      listeners = null;
+    }
+    done.countDown();
+    if (toNotify == null) {
+      return;
+    }
+    for (JedisFutureListener<T> listener : toNotify) {
+      try {
+        listener.onComplete(this);
+      } catch (RuntimeException e) {
+        // a faulty callback must not break the thread delivering replies
+        LOG.log(Level.WARNING, "JedisFutureListener " + listener + " failed", e);
+      }
+    }
+  }
+
+  @Override
+  public T get() throws InterruptedException, ExecutionException {
+    done.await();
+    return getNow();
+  }
+
+  @Override
+  public T get(long timeout, TimeUnit unit) throws InterruptedException,
+      ExecutionException, TimeoutException {
+    if (!done.await(timeout, unit)) {
+      throw new TimeoutException();
+    }
+    return getNow();
+  }
+
+  private synchronized T getNow() throws ExecutionException {
+    if (failure != null) {
+      throw new ExecutionException(failure);
+    }
+    try {
+      return response.get();
+    } catch (JedisException e) {
+      throw new ExecutionException(e);
+    }
+  }
+
+  @Override
+  public boolean isDone() {
+    return done.getCount() == 0;
+  }
+
+  /**
+   * Commands already written to the socket cannot be taken back, so cancellation is not supported.
+   */
+  @Override
+  public boolean cancel(boolean mayInterruptIfRunning) {
+    return false;
+  }
+
+  @Override
+  public boolean isCancelled() {
+    return false;
+  }
+}
@@ -0,0 +1,9 @@
+package redis.clients.jedis;
+
+/**
+ * Callback for a {@link JedisFuture}. It runs on the thread that completes the future, usually the
+ * I/O thread, so it must not block; calling {@link JedisFuture#get()} inside it returns at once.
+ */
+public interface JedisFutureListener<T> {
+  void onComplete(JedisFuture<T> future);
+}
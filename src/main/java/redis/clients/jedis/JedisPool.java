@@ -80,6 +80,13 @@ public class JedisPool extends JedisPoolAbstract {
         database, clientName));
   }
 
+  JedisPool(final GenericObjectPoolConfig poolConfig, final String host, int port,
+      final int connectionTimeout, final int soTimeout, final String password, final int database,
+      final String clientName, final boolean readOnly) {
+    super(poolConfig, new JedisFactory(host, port, connectionTimeout, soTimeout, password,
+        database, clientName, readOnly));
+  }
+
   public JedisPool(final GenericObjectPoolConfig poolConfig, final URI uri) {
     this(poolConfig, uri, Protocol.DEFAULT_TIMEOUT);
   }
@@ -65,6 +65,16 @@ public class JedisSlotBasedConnectionHandler extends JedisClusterConnectionHandl
     }
   }
 
+  @Override
+  Jedis getReadConnectionFromSlot(int slot) {
+    JedisPool connectionPool = cache.getSlotPool(slot, getReadFrom());
+    if (connectionPool != null) {
+      return connectionPool.getResource();
+    } else {
+      return getConnection();
+    }
+  }
+
   private List<JedisPool> getShuffledNodesPool() {
     List<JedisPool> pools = new ArrayList<JedisPool>();
     pools.addAll(cache.getNodes().values());
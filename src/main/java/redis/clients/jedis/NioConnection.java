@@ -0,0 +1,345 @@
+package redis.clients.jedis;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.jedis.exceptions.JedisException;
+import redis.clients.util.IOUtils;
+import redis.clients.util.RedisInputStream;
+import redis.clients.util.RedisOutputStream;
+import redis.clients.util.SafeEncoder;
+
+/**
+ * A non-blocking connection that can be shared by any number of threads. Commands are encoded
+ * with {@link Protocol} into a pending buffer and written by a {@link NioEventLoop}; replies are
+ * matched to their {@link JedisFuture}s in the order the commands were sent. If the oldest command
+ * has waited longer than soTimeout for its reply, the event loop fails the connection and with it
+ * every pending future.
+ */
+public class NioConnection implements Closeable {
+  private static final byte[][] EMPTY_ARGS = new byte[0][];
+
+  private final String host;
+  private final int port;
+  private final NioEventLoop loop;
+  private int connectionTimeout = Protocol.DEFAULT_TIMEOUT;
+  private int soTimeout = Protocol.DEFAULT_TIMEOUT;
+
+  private SocketChannel channel;
+  private volatile SelectionKey key;
+  private volatile boolean broken = false;
+
+  // guarded by "this": commands and their futures must be queued in the same order
+  private final ByteArrayOutputStream pending = new ByteArrayOutputStream(8192);
+  private final RedisOutputStream outputStream = new RedisOutputStream(pending);
+  private final Queue<JedisFuture<?>> inflight = new ConcurrentLinkedQueue<JedisFuture<?>>();
+  // System.nanoTime() at which each in-flight command was sent, in the same order
+  private final Queue<Long> sentAt = new ConcurrentLinkedQueue<Long>();
+  private final AtomicBoolean scheduled = new AtomicBoolean();
+
+  // only touched by the event loop thread
+  private ByteBuffer writeBuffer;
+  private byte[] readBuffer = new byte[8192];
+  private int readPosition;
+  private int readLimit;
+  private final Protocol.ReplyScanner scanner = new Protocol.ReplyScanner();
+  private final ReplyRegion region = new ReplyRegion();
+  private final RedisInputStream inputStream = new RedisInputStream(region);
+
+  public NioConnection(final String host, final int port, final NioEventLoop loop) {
+    this.host = host;
+    this.port = port;
+    this.loop = loop;
+  }
+
+  public NioConnection(final HostAndPort hostAndPort, final NioEventLoop loop) {
+    this(hostAndPort.getHost(), hostAndPort.getPort(), loop);
+  }
+
+  public String getHost() {
+    return host;
+  }
+
+  public int getPort() {
+    return port;
+  }
+
+  public void setConnectionTimeout(int connectionTimeout) {
+    this.connectionTimeout = connectionTimeout;
+  }
+
+  public void setSoTimeout(int soTimeout) {
+    this.soTimeout = soTimeout;
+  }
+
+  public int getSoTimeout() {
+    return soTimeout;
+  }
+
+  public boolean isBroken() {
+    return broken;
+  }
+
+  public synchronized void connect() {
+    if (channel != null) {
+      return;
+    }
+    try {
+      channel = SocketChannel.open();
+      Socket socket = channel.socket();
+      socket.setReuseAddress(true);
+      socket.setKeepAlive(true);
+      socket.setTcpNoDelay(true);
+      socket.setSoLinger(true, 0);
+      socket.connect(new InetSocketAddress(host, port), connectionTimeout);
+      channel.configureBlocking(false);
+    } catch (IOException ex) {
+      broken = true;
+      if (channel != null) {
+        IOUtils.closeQuietly(channel.socket());
+      }
+      throw new JedisConnectionException(ex);
+    }
+    scheduled.set(true);
+    loop.schedule(this);
+  }
+
+  public <T> JedisFuture<T> send(final Builder<T> builder, final ProtocolCommand cmd) {
+    return send(builder, cmd, EMPTY_ARGS);
+  }
+
+  public <T> JedisFuture<T> send(final Builder<T> builder, final ProtocolCommand cmd,
+      final String... args) {
+    return send(builder, cmd, SafeEncoder.encodeMany(args));
+  }
+
+  /**
+   * Queues the command for writing and returns immediately. The returned future is completed on
+   * the event loop thread.
+   */
+  public <T> JedisFuture<T> send(final Builder<T> builder, final ProtocolCommand cmd,
+      final byte[]... args) {
+    final JedisFuture<T> future = new JedisFuture<T>(builder);
+    synchronized (this) {
+      if (channel == null) {
+        connect();
+      }
+      if (broken) {
+        throw new JedisConnectionException("Connection is broken.");
+      }
+      Protocol.sendCommand(outputStream, cmd, args);
+      try {
+        outputStream.flush();
+      } catch (IOException e) {
+        throw new JedisConnectionException(e);
+      }
+      inflight.add(future);
+      sentAt.add(System.nanoTime());
+    }
+    if (scheduled.compareAndSet(false, true)) {
+      loop.schedule(this);
+    }
+    return future;
+  }
+
+  /**
+   * Sends the command and waits up to soTimeout for its reply.
+   */
+  public <T> T execute(final Builder<T> builder, final ProtocolCommand cmd, final byte[]... args) {
+    final JedisFuture<T> future = send(builder, cmd, args);
+    try {
+      return future.get(soTimeout, TimeUnit.MILLISECONDS);
+    } catch (ExecutionException e) {
+      throw (JedisException) e.getCause();
+    } catch (TimeoutException e) {
+      throw new JedisConnectionException("Read timed out after " + soTimeout + " ms.");
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new JedisException(e);
+    }
+  }
+
+  public <T> T execute(final Builder<T> builder, final ProtocolCommand cmd) {
+    return execute(builder, cmd, EMPTY_ARGS);
+  }
+
+  public <T> T execute(final Builder<T> builder, final ProtocolCommand cmd, final String... args) {
+    return execute(builder, cmd, SafeEncoder.encodeMany(args));
+  }
+
+  void onScheduled(Selector selector) {
+    scheduled.set(false);
+    if (broken) {
+      return;
+    }
+    if (key == null) {
+      try {
+        key = channel.register(selector, SelectionKey.OP_READ, this);
+      } catch (IOException e) {
+        fail(new JedisConnectionException(e));
+        return;
+      }
+    }
+    onWritable();
+  }
+
+  void onWritable() {
+    try {
+      while (true) {
+        if (writeBuffer == null) {
+          synchronized (this) {
+            if (pending.size() == 0) {
+              key.interestOps(SelectionKey.OP_READ);
+              return;
+            }
+            writeBuffer = ByteBuffer.wrap(pending.toByteArray());
+            pending.reset();
+          }
+        }
+        channel.write(writeBuffer);
+        if (writeBuffer.hasRemaining()) {
+          key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+          return;
+        }
+        writeBuffer = null;
+      }
+    } catch (IOException e) {
+      fail(new JedisConnectionException(e));
+    }
+  }
+
+  void onReadable() {
+    try {
+      final int read = channel.read(ByteBuffer.wrap(readBuffer, readLimit, readBuffer.length
+          - readLimit));
+      if (read == -1) {
+        fail(new JedisConnectionException("Unexpected end of stream."));
+        return;
+      }
+      readLimit += read;
+
+      int end;
+      while ((end = scanner.scan(readBuffer, readPosition, readLimit)) != -1) {
+        region.reset(readBuffer, readPosition, end);
+        readPosition = end;
+        sentAt.poll();
+        complete(inflight.poll());
+      }
+
+      if (readPosition == readLimit) {
+        readPosition = 0;
+        readLimit = 0;
+      } else if (readLimit == readBuffer.length) {
+        if (readPosition > 0) {
+          System.arraycopy(readBuffer, readPosition, readBuffer, 0, readLimit - readPosition);
+        } else {
+          byte[] grown = new byte[readBuffer.length * 2];
+          System.arraycopy(readBuffer, 0, grown, 0, readLimit);
+          readBuffer = grown;
+        }
+        readLimit -= readPosition;
+        readPosition = 0;
+      }
+    } catch (IOException e) {
+      fail(new JedisConnectionException(e));
+    } catch (JedisConnectionException e) {
+      fail(e);
+    }
+  }
+
+  /**
+   * Called by the event loop from time to time: fails the connection if the oldest command has
+   * been waiting for its reply for more than soTimeout.
+   */
+  void expire(long now) {
+    final Long oldest = sentAt.peek();
+    if (broken || soTimeout <= 0 || oldest == null) {
+      return;
+    }
+    if (now - oldest > TimeUnit.MILLISECONDS.toNanos(soTimeout)) {
+      fail(new JedisConnectionException("Read timed out after " + soTimeout + " ms."));
+    }
+  }
+
+  private void complete(JedisFuture<?> future) {
+    if (future == null) {
+      throw new JedisConnectionException("Received a reply without a pending command.");
+    }
+    Object reply;
+    try {
+      reply = Protocol.read(inputStream);
+    } catch (JedisDataException e) {
+      reply = e;
+    }
+    future.set(reply);
+  }
+
+  private void fail(JedisConnectionException e) {
+    synchronized (this) {
+      broken = true;
+      if (key != null) {
+        key.cancel();
+      }
+      IOUtils.closeQuietly(channel.socket());
+    }
+    JedisFuture<?> future;
+    while ((future = inflight.poll()) != null) {
+      sentAt.poll();
+      future.fail(e);
+    }
+  }
+
+  @Override
+  public void close() {
+    if (channel != null && !broken) {
+      fail(new JedisConnectionException("Connection closed before the reply was received."));
+    }
+  }
+
+  /**
+   * Feeds the bytes of complete replies to the connection's RedisInputStream.
+   */
+  private static class ReplyRegion extends InputStream {
+    private byte[] buf;
+    private int position;
+    private int limit;
+
+    void reset(byte[] buf, int position, int limit) {
+      this.buf = buf;
+      this.position = position;
+      this.limit = limit;
+    }
+
+    @Override
+    public int read() {
+      return position < limit ? buf[position++] & 0xff : -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+      if (position >= limit) {
+        return -1;
+      }
+      final int length = Math.min(limit - position, len);
+      System.arraycopy(buf, position, b, off, length);
+      position += length;
+      return length;
+    }
+  }
+}
@@ -0,0 +1,89 @@
+package redis.clients.jedis;
+
+import java.io.Closeable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import redis.clients.jedis.exceptions.JedisConnectionException;
+
+/**
+ * A fixed number of {@link NioConnection}s to one node, handed out round-robin. Many caller threads
+ * share each socket, and a broken connection is replaced the next time its slot is picked.
+ */
+public class NioConnectionGroup implements Closeable {
+  private final HostAndPort node;
+  private final NioEventLoop loop;
+  private final NioConnection[] connections;
+  private final AtomicInteger next = new AtomicInteger();
+  private final int connectionTimeout;
+  private final int soTimeout;
+  private boolean closed;
+
+  public NioConnectionGroup(final HostAndPort node, final int size, final NioEventLoop loop) {
+    this(node, size, loop, Protocol.DEFAULT_TIMEOUT, Protocol.DEFAULT_TIMEOUT);
+  }
+
+  public NioConnectionGroup(final HostAndPort node, final int size, final NioEventLoop loop,
+      final int connectionTimeout, final int soTimeout) {
+    if (size <= 0) {
+      throw new IllegalArgumentException("Group size <= 0");
+    }
+    this.node = node;
+    this.loop = loop;
+    this.connections = new NioConnection[size];
+    this.connectionTimeout = connectionTimeout;
+    this.soTimeout = soTimeout;
+  }
+
+  public HostAndPort getNode() {
+    return node;
+  }
+
+  public NioConnection next() {
+    final int index = (next.getAndIncrement() & Integer.MAX_VALUE) % connections.length;
+    synchronized (connections) {
+      NioConnection connection = connections[index];
+      if (connection != null && !connection.isBroken()) {
+        return connection;
+      }
+    }
+    // connect and authenticate without the lock, so a slow node only delays the callers that
+    // picked its broken slot
+    NioConnection fresh = newConnection();
+    synchronized (connections) {
+      NioConnection connection = connections[index];
+      if (closed || (connection != null && !connection.isBroken())) {
+        fresh.close();
+        if (closed) {
+          throw new JedisConnectionException("Connection group to " + node + " is closed");
+        }
+        return connection;
+      }
+      connections[index] = fresh;
+      return fresh;
+    }
+  }
+
+  private NioConnection newConnection() {
+    NioConnection connection = new NioConnection(node, loop);
+    connection.setConnectionTimeout(connectionTimeout);
+    connection.setSoTimeout(soTimeout);
+    connection.connect();
+    if (node.getPasswd() != null) {
+      connection.execute(BuilderFactory.STRING, Protocol.Command.AUTH, node.getPasswd());
+    }
+    return connection;
+  }
+
+  @Override
+  public void close() {
+    synchronized (connections) {
+      closed = true;
+      for (int i = 0; i < connections.length; i++) {
+        if (connections[i] != null) {
+          connections[i].close();
+          connections[i] = null;
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,144 @@
+package redis.clients.jedis;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+import redis.clients.jedis.exceptions.JedisConnectionException;
+
+/**
+ * A single selector thread that drives the I/O of many {@link NioConnection}s. Writes requested by
+ * caller threads are handed over through a queue, so callers never touch the selector. The loop
+ * also wakes up every {@link #EXPIRY_CHECK_MILLIS} to time out commands whose reply is overdue.
+ */
+public class NioEventLoop implements Closeable {
+  static final long EXPIRY_CHECK_MILLIS = 100;
+
+  private final Selector selector;
+  private final Queue<NioConnection> scheduled = new ConcurrentLinkedQueue<NioConnection>();
+  private final Thread thread;
+  private volatile boolean running = true;
+
+  public NioEventLoop() {
+    this("jedis-nio-loop");
+  }
+
+  public NioEventLoop(final String name) {
+    try {
+      selector = Selector.open();
+    } catch (IOException e) {
+      throw new JedisConnectionException(e);
+    }
+    thread = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        loop();
+      }
+    }, name);
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /**
+   * Asks the loop to register the connection if needed and write out whatever it has buffered.
+   */
+  void schedule(NioConnection connection) {
+    if (!running) {
+      throw new JedisConnectionException("Event loop is closed.");
+    }
+    scheduled.add(connection);
+    selector.wakeup();
+  }
+
+  boolean inEventLoop() {
+    return Thread.currentThread() == thread;
+  }
+
+  private void loop() {
+    long lastExpiryCheck = System.nanoTime();
+    while (running) {
+      try {
+        selector.select(EXPIRY_CHECK_MILLIS);
+      } catch (IOException e) {
+        break;
+      }
+
+      NioConnection connection;
+      while ((connection = scheduled.poll()) != null) {
+        try {
+          connection.onScheduled(selector);
+        } catch (CancelledKeyException e) {
+          // closed by another thread
+        }
+      }
+
+      Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+      while (keys.hasNext()) {
+        SelectionKey key = keys.next();
+        keys.remove();
+        connection = (NioConnection) key.attachment();
+        try {
+          if (key.isValid() && key.isReadable()) {
+            connection.onReadable();
+          }
+          if (key.isValid() && key.isWritable()) {
+            connection.onWritable();
+          }
+        } catch (CancelledKeyException e) {
+          // closed by another thread, its futures have already been failed
+        }
+      }
+
+      final long now = System.nanoTime();
+      if (now - lastExpiryCheck >= TimeUnit.MILLISECONDS.toNanos(EXPIRY_CHECK_MILLIS)) {
+        lastExpiryCheck = now;
+        for (SelectionKey key : selector.keys()) {
+          if (key.isValid()) {
+            ((NioConnection) key.attachment()).expire(now);
+          }
+        }
+      }
+    }
+    shutdown();
+  }
+
+  private void shutdown() {
+    List<NioConnection> connections = new ArrayList<NioConnection>();
+    for (SelectionKey key : selector.keys()) {
+      connections.add((NioConnection) key.attachment());
+    }
+    NioConnection connection;
+    while ((connection = scheduled.poll()) != null) {
+      connections.add(connection);
+    }
+    for (NioConnection c : connections) {
+      c.close();
+    }
+    try {
+      selector.close();
+    } catch (IOException e) {
+      // ignored
+    }
+  }
+
+  @Override
+  public void close() {
+    running = false;
+    selector.wakeup();
+    if (!inEventLoop()) {
+      try {
+        thread.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+}
@@ -1,6 +1,7 @@
 package redis.clients.jedis;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -137,8 +138,10 @@ public final class Protocol {
   }
 
   private static Object process(final RedisInputStream is) {
+    return process(is.readByte(), is);
+  }
 
-    final byte b = is.readByte();
+  private static Object process(final byte b, final RedisInputStream is) {
     if (b == PLUS_BYTE) {
       return processStatusCodeReply(is);
     } else if (b == DOLLAR_BYTE) {
@@ -205,6 +208,136 @@ public final class Protocol {
     return process(is);
   }
 
+  /**
+   * Reads one reply and returns it as a String. Bulk replies are decoded directly from the input
+   * buffer without the intermediate byte[] that {@link #read(RedisInputStream)} allocates.
+   */
+  public static String readBulkString(final RedisInputStream is) {
+    final byte b = is.readByte();
+    if (b == DOLLAR_BYTE) {
+      final int len = is.readIntCrLf();
+      if (len == -1) {
+        return null;
+      }
+      return is.readBulkString(len);
+    }
+
+    final byte[] resp = (byte[]) process(b, is);
+    return resp == null ? null : SafeEncoder.encode(resp);
+  }
+
+  /**
+   * Reads one bulk reply and copies its payload into the given sink without allocating it.
+   * @return the payload length, or -1 if the reply was a null bulk
+   */
+  public static int readBulkReply(final RedisInputStream is, final OutputStream sink) {
+    final byte b = is.readByte();
+    if (b == DOLLAR_BYTE) {
+      final int len = is.readIntCrLf();
+      if (len != -1) {
+        is.readBulkTo(len, sink);
+      }
+      return len;
+    }
+
+    final byte[] resp = (byte[]) process(b, is);
+    if (resp == null) {
+      return -1;
+    }
+    try {
+      sink.write(resp);
+    } catch (IOException e) {
+      throw new JedisConnectionException(e);
+    }
+    return resp.length;
+  }
+
+  /**
+   * Checks whether buf[offset, limit) starts with a complete reply, without decoding it. This lets
+   * non-blocking readers hand only whole replies to {@link #read(RedisInputStream)}.
+   * @return the offset just past the reply, or -1 if more bytes are needed
+   */
+  public static int scanReply(final byte[] buf, int offset, final int limit) {
+    return new ReplyScanner().scan(buf, offset, limit);
+  }
+
+  /**
+   * A {@link #scanReply(byte[], int, int)} that remembers how far it got. When a reply arrives in
+   * pieces, each call continues after the last complete element instead of walking the reply from
+   * its start again, so a large multi-bulk reply is scanned once in total.
+   */
+  public static final class ReplyScanner {
+    // elements still to scan, counting the nested ones announced so far
+    private long pending = 1;
+    // bytes of the reply already scanned, relative to its start so the buffer may be compacted
+    private int scanned;
+
+    /**
+     * @param start where the reply begins; must be the same for every call until the reply is
+     *          complete, apart from moving along with the bytes when the buffer is compacted
+     * @return the offset just past the reply, or -1 if more bytes are needed
+     */
+    public int scan(final byte[] buf, final int start, final int limit) {
+      int offset = start + scanned;
+      while (pending > 0) {
+        if (offset >= limit) {
+          scanned = offset - start;
+          return -1;
+        }
+        final byte b = buf[offset];
+        final int eol = indexOfCrLf(buf, offset + 1, limit);
+        if (eol == -1) {
+          scanned = offset - start;
+          return -1;
+        }
+        int next = eol + 2;
+        if (b == DOLLAR_BYTE) {
+          final long len = parseLong(buf, offset + 1, eol);
+          if (len >= 0) {
+            if (len + 2 > limit - next) {
+              scanned = offset - start;
+              return -1;
+            }
+            next += len + 2;
+          }
+        } else if (b == ASTERISK_BYTE) {
+          final long num = parseLong(buf, offset + 1, eol);
+          if (num > 0) {
+            pending += num;
+          }
+        } else if (b != PLUS_BYTE && b != MINUS_BYTE && b != COLON_BYTE) {
+          throw new JedisConnectionException("Unknown reply: " + (char) b);
+        }
+        pending--;
+        offset = next;
+      }
+      pending = 1;
+      scanned = 0;
+      return offset;
+    }
+  }
+
+  private static int indexOfCrLf(final byte[] buf, int offset, final int limit) {
+    for (; offset + 1 < limit; offset++) {
+      if (buf[offset] == '\r' && buf[offset + 1] == '\n') {
+        return offset;
+      }
+    }
+    return -1;
+  }
+
+  private static long parseLong(final byte[] buf, int offset, final int end) {
+    final boolean isNeg = buf[offset] == '-';
+    if (isNeg) {
+      offset++;
+    }
+    long value = 0;
+    for (; offset < end; offset++) {
+      value = value * 10 + buf[offset] - '0';
+    }
+    return isNeg ? -value : value;
+  }
+
   public static final byte[] toByteArray(final boolean value) {
     return value ? BYTES_TRUE : BYTES_FALSE;
   }
@@ -0,0 +1,17 @@
+package redis.clients.jedis;
+
+/**
+ * Where {@link JedisCluster} sends read-only commands. Writes always go to the master of the slot.
+ * Replicas may lag behind their master, so every policy other than {@link #MASTER} can return
+ * stale data.
+ */
+public enum ReadFrom {
+  /** Reads go to the master, as writes do. */
+  MASTER,
+  /** Reads go to a random replica of the slot, or to its master if it has none. */
+  REPLICA_PREFERRED,
+  /** Reads go to the master or replica with the lowest measured round-trip time. */
+  NEAREST,
+  /** Reads rotate over the master and the replicas of the slot. */
+  ROUND_ROBIN
+}
@@ -0,0 +1,89 @@
+package redis.clients.lppz.config;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 指数退避加随机抖动的重试策略,并以重试预算限制重试总量:每次调用为预算存入budgetRatio次重试的额度,
+ * 每次重试取出一次,预算用完时不再重试,避免节点故障时重试把负载放大数倍。
+ */
+public class ExponentialBackoffRetryPolicy implements RetryPolicy {
+	
+	public static final int DEFAULT_MAX_RETRIES = 2;
+	public static final long DEFAULT_BASE_DELAY_MILLIS = 10;
+	public static final long DEFAULT_MAX_DELAY_MILLIS = 200;
+	public static final double DEFAULT_BUDGET_RATIO = 0.1;
+	
+	//预算以千分之一次重试为单位
+	private static final long UNIT = 1000;
+	//空闲时也允许的重试次数,预算的上限
+	private static final long MIN_BUDGET = 10 * UNIT;
+	private static final long MAX_BUDGET = 100 * UNIT;
+	
+	private final int maxRetries;
+	private final long baseDelayMillis;
+	private final long maxDelayMillis;
+	private final long deposit;
+	private final AtomicLong budget = new AtomicLong(MIN_BUDGET);
+	
+	public ExponentialBackoffRetryPolicy() {
+		this(DEFAULT_MAX_RETRIES, DEFAULT_BASE_DELAY_MILLIS, DEFAULT_MAX_DELAY_MILLIS, DEFAULT_BUDGET_RATIO);
+	}
+	
+	/**
+	 * @param maxRetries 单次调用最多重试次数
+	 * @param baseDelayMillis 第一次重试的最大等待时间,之后每次翻倍
+	 * @param maxDelayMillis 等待时间上限
+	 * @param budgetRatio 重试次数占调用次数的最大比例
+	 */
+	public ExponentialBackoffRetryPolicy(int maxRetries, long baseDelayMillis, long maxDelayMillis, double budgetRatio) {
+		this.maxRetries = maxRetries;
+		this.baseDelayMillis = baseDelayMillis;
+		this.maxDelayMillis = maxDelayMillis;
+		this.deposit = (long) (budgetRatio * UNIT);
+	}
+
+	@Override
+	public void onRequest() {
+		long current;
+		do {
+			current = budget.get();
+			if (current >= MAX_BUDGET) {
+				return;
+			}
+		} while (!budget.compareAndSet(current, Math.min(MAX_BUDGET, current + deposit)));
+	}
+
+	@Override
+	public long backoffMillis(int retries) {
+		if (retries > maxRetries || !withdraw()) {
+			return -1;
+		}
+		//full jitter:在[0, min(上限, base*2^(retries-1))]中随机取值,避免各客户端同时重试
+		//base*2^(retries-1)超出long范围之前就取上限,左移溢出会得到0或负数
+		long ceiling;
+		if (baseDelayMillis <= 0) {
+			ceiling = 0;
+		} else if (retries - 1 >= Long.numberOfLeadingZeros(baseDelayMillis) - 1) {
+			ceiling = maxDelayMillis;
+		} else {
+			ceiling = Math.min(maxDelayMillis, baseDelayMillis << (retries - 1));
+		}
+		if (ceiling <= 0) {
+			return 0;
+		}
+		return ThreadLocalRandom.current().nextLong(ceiling + 1);
+	}
+	
+	private boolean withdraw() {
+		long current;
+		do {
+			current = budget.get();
+			if (current < UNIT) {
+				return false;
+			}
+		} while (!budget.compareAndSet(current, current - UNIT));
+		return true;
+	}
+
+}
@@ -0,0 +1,31 @@
+package redis.clients.lppz.config;
+
+import redis.clients.util.MurmurHash;
+
+/**
+ * Jump一致性哈希(Lamping & Veach)。分片数由n增加到n+1时只有约1/(n+1)的key移到新分片,
+ * 但只适合在末尾增减分片;中间的分片下线时请使用{@link KetamaShardSelector}。
+ */
+public class JumpShardSelector implements ShardSelector {
+	
+	private final int shards;
+	
+	public JumpShardSelector(int shards) {
+		this.shards = shards;
+	}
+
+	@Override
+	public int select(int shardingIndex) {
+		//分片值先经过murmur打散,调用方给出的分片值往往是连续的
+		long key = MurmurHash.hash64A(KetamaShardSelector.toBytes(shardingIndex), 0x1234ABCD);
+		long b = -1;
+		long j = 0;
+		while (j < shards) {
+			b = j;
+			key = key * 2862933555777941757L + 1;
+			j = (long) ((b + 1) * ((double) (1L << 31) / (double) ((key >>> 33) + 1)));
+		}
+		return (int) b;
+	}
+
+}
@@ -0,0 +1,60 @@
+package redis.clients.lppz.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import redis.clients.util.Hashing;
+import redis.clients.util.ShardInfo;
+import redis.clients.util.Sharded;
+
+/**
+ * 基于分片名的一致性哈希环,复用{@link Sharded}的ketama环与MURMUR_HASH。
+ * 增减任意一个分片时只有落在该分片上的key会移动,其余key的分片不变。
+ * 分片名应当是主从切换后不变的名称(如zk上的分片目录),用host:port时切换会移动该分片的key
+ */
+public class KetamaShardSelector implements ShardSelector {
+	
+	private final Sharded<Integer, NodeShardInfo> ring;
+	
+	/**
+	 * @param shardNames 各分片的名称,下标与分片下标一致
+	 */
+	public KetamaShardSelector(List<String> shardNames) {
+		List<NodeShardInfo> shards = new ArrayList<>(shardNames.size());
+		for (int i = 0; i < shardNames.size(); i++) {
+			shards.add(new NodeShardInfo(shardNames.get(i), i));
+		}
+		this.ring = new Sharded<>(shards, Hashing.MURMUR_HASH);
+	}
+
+	@Override
+	public int select(int shardingIndex) {
+		return ring.getShard(toBytes(shardingIndex));
+	}
+	
+	static byte[] toBytes(int value) {
+		return new byte[] { (byte) (value >>> 24), (byte) (value >>> 16), (byte) (value >>> 8), (byte) value };
+	}
+	
+	private static class NodeShardInfo extends ShardInfo<Integer> {
+		private final String name;
+		private final int index;
+		
+		NodeShardInfo(String name, int index) {
+			super(Sharded.DEFAULT_WEIGHT);
+			this.name = name;
+			this.index = index;
+		}
+
+		@Override
+		protected Integer createResource() {
+			return index;
+		}
+
+		@Override
+		public String getName() {
+			return name;
+		}
+	}
+
+}
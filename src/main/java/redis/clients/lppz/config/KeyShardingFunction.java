@@ -0,0 +1,71 @@
+package redis.clients.lppz.config;
+
+import redis.clients.util.Hashing;
+import redis.clients.util.JedisClusterCRC16;
+import redis.clients.util.MurmurHash;
+import redis.clients.util.Sharded;
+
+/**
+ * 按key计算分片,用于一次调用中key分布在多个分片上的多key命令,以及按key选分片的单key命令。
+ * <p>
+ * 内置的实现都是无状态的单例,结果在0~16383之间(与redis集群的slot数相同),
+ * 落在LpJedis路由表的预计算范围内。
+ */
+public interface KeyShardingFunction {
+
+	/**
+	 * 与redis集群相同的CRC16 slot,key中含{tag}时只对tag计算
+	 */
+	public static final KeyShardingFunction CRC16 = new KeyShardingFunction() {
+		@Override
+		public int getShardingIndex(String key) {
+			return JedisClusterCRC16.getSlot(key);
+		}
+	};
+
+	/**
+	 * 对整个key做Murmur哈希(ShardedJedis默认的哈希)
+	 */
+	public static final KeyShardingFunction MURMUR = new KeyShardingFunction() {
+		@Override
+		public int getShardingIndex(String key) {
+			return (int) (Hashing.MURMUR_HASH.hash(key) & (16384 - 1));
+		}
+	};
+
+	/**
+	 * 按{@link Sharded#DEFAULT_KEY_TAG_PATTERN}取出key中的{tag},只对tag做Murmur哈希,没有tag时对整个key,
+	 * 同一tag的key总在同一分片上。按下标查找tag并直接哈希key中的字符,不创建Matcher、子串和字节数组
+	 */
+	public static final KeyShardingFunction MURMUR_KEY_TAG = new KeyShardingFunction() {
+		private final MurmurHash murmur = new MurmurHash();
+		
+		@Override
+		public int getShardingIndex(String key) {
+			for (int s = key.indexOf('{'); s != -1; s = key.indexOf('{', s + 1)) {
+				int e = tagEnd(key, s);
+				if (e != -1) {
+					return (int) (murmur.hash(key, s + 1, e) & (16384 - 1));
+				}
+			}
+			return (int) (murmur.hash(key) & (16384 - 1));
+		}
+		
+		//与\{(.+?)\}的匹配相同:'{'后至少一个字符,到之后第一个'}'为止,其间不能有换行符,否则返回-1
+		private int tagEnd(String key, int s) {
+			for (int i = s + 1; i < key.length(); i++) {
+				char c = key.charAt(i);
+				if (c == '}' && i > s + 1) {
+					return i;
+				}
+				if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029') {
+					return -1;
+				}
+			}
+			return -1;
+		}
+	};
+
+	int getShardingIndex(String key);
+
+}
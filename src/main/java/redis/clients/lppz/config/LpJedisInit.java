@@ -1,29 +1,34 @@
 package redis.clients.lppz.config;
 
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Properties;
-import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
-import net.sf.cglib.proxy.Enhancer;
-import net.sf.cglib.proxy.MethodInterceptor;
-import net.sf.cglib.proxy.MethodProxy;
-
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.JedisPoolConfig;
+import redis.clients.jedis.Protocol;
 import redis.clients.lppz.jedis.LpJedis;
+import redis.clients.lppz.jedis.LpJedisTopology;
 import redis.clients.zkprocess.entity.JedisBaseYamlBean;
+import redis.clients.zkprocess.entity.JedisClusterPool;
+import redis.clients.zkprocess.utils.StringUtils;
 
 public class LpJedisInit {
 	private final static Logger logger = LoggerFactory.getLogger(LpJedisInit.class);
@@ -35,7 +40,11 @@ public class LpJedisInit {
 	public static final List<String> script_commands = Arrays.asList("eval", "evalsha", "scriptExists", "scriptLoad");
 	private LpJedisInit(){}
 	private static LpJedisInit instance;
-	private LpJedis jedis;
+	private volatile LpJedis jedis;
+	private static final int MAX_WARM_UP_THREADS = 16;
+	private volatile long warmUpTimeoutMillis = 5000;
+	//当前路由表中各节点(host:port)连接池的配置,配置不同时重建连接池
+	private Map<String, String> poolSettings = new HashMap<>();
 	public static LpJedisInit getInstance(){
 		if(instance == null){
 			instance = new LpJedisInit();
@@ -44,148 +53,192 @@ public class LpJedisInit {
 	}
 	
 	public void initJedis(List<JedisBaseYamlBean> tmpjedisObjs){
-		jedis = buildJedisSentinelProxy(tmpjedisObjs);
-	}
-	
-	public LpJedis getJedis(){
-		return jedis;
+		initJedis(tmpjedisObjs, null);
 	}
 	
-	private LpJedis buildJedisSentinelProxy(List<JedisBaseYamlBean> tmpjedisObjs) {
-		List<Jedis> jedisList = new ArrayList<>();
+	/**
+	 * 首次调用时创建LpJedis,之后的调用(zk上节点变化)只替换同一个LpJedis的路由表:
+	 * 节点名(host:port)和连接池配置(jedisClusterPool、timeout)都不变的分片沿用原连接池,
+	 * 新节点和配置修改过的节点的连接池预热后才发布,
+	 * 移除节点的连接池在其在途命令结束后关闭。持有LpJedis引用的调用方无需重新获取
+	 *
+	 * @param shardSelector 分片选择方式:modulo(默认,取模)、ketama(按分片名的一致性哈希环,
+	 * 分片名取{@link JedisBaseYamlBean#getShardName()},主从切换不移动key)或jump(jump一致性哈希)
+	 */
+	public synchronized void initJedis(List<JedisBaseYamlBean> tmpjedisObjs, String shardSelector){
+		if (jedis == null || jedis.isClosed()) {
+			jedis = new LpJedis();
+			jedis.registerMBeans();
+		}
+		LpJedisTopology current = jedis.getTopology();
+		List<JedisPool> shardPools = new ArrayList<>();
+		List<String> nodeNames = new ArrayList<>();
+		List<String> shardNames = new ArrayList<>();
+		List<JedisPool> newPools = new ArrayList<>();
+		List<String> newNodeNames = new ArrayList<>();
+		Map<String, String> settings = new HashMap<>();
 		for (JedisBaseYamlBean tmpjedisObj : tmpjedisObjs) {
 			if (tmpjedisObj == null || "".equals(tmpjedisObj)) {
 				throw new RuntimeException("jedis need a set of sentinel nodes!!!");
 			} else {
 				List<Properties> properties = tmpjedisObj.getJedisClusterNode();
 				if (properties != null) {
-					for (Properties pro : properties) {
-						Jedis jedis = new Jedis(pro.getProperty("host"), (Integer)pro.get("port"),tmpjedisObj.getTimeout());
-						jedisList.add(jedis);
+					GenericObjectPoolConfig poolConfig = buildPoolConfig(tmpjedisObj.getJedisClusterPool());
+					int timeout = tmpjedisObj.getTimeout() == null ? Protocol.DEFAULT_TIMEOUT : tmpjedisObj.getTimeout();
+					String setting = describe(poolConfig, timeout);
+					for (int i = 0; i < properties.size(); i++) {
+						Properties pro = properties.get(i);
+						String nodeName = pro.getProperty("host") + ":" + pro.get("port");
+						JedisPool pool = current == null || !setting.equals(poolSettings.get(nodeName)) ? null
+								: current.getPool(nodeName);
+						if (pool == null) {
+							//每个分片一个连接池,Jedis实例本身不是线程安全的
+							pool = new JedisPool(poolConfig, pro.getProperty("host"), (Integer)pro.get("port"), timeout);
+							newPools.add(pool);
+							newNodeNames.add(nodeName);
+						}
+						shardPools.add(pool);
+						nodeNames.add(nodeName);
+						settings.put(nodeName, setting);
+						shardNames.add(shardName(tmpjedisObj.getShardName(), i, properties.size(), nodeName));
 					}
 				}
 			}
 		}
-		return buildProxyRedis(jedisList);
+		warmUp(newPools, newNodeNames);
+		LpJedisTopology topology = jedis.setTopology(nodeNames, shardPools, buildShardSelector(shardSelector, shardNames));
+		poolSettings = settings;
+		logger.info("lpjedis topology version {}: {} shards, {} new", topology.getVersion(), nodeNames.size(), newPools.size());
 	}
 	
-	private LpJedis buildProxyRedis(final List<Jedis> jedisList) {
-		LpJedis lpJedis = new LpJedis();
-		final List<Jedis> jedisPool = new ArrayList<>();
-		lpJedis.setJedisPool(jedisPool);
-		final ExecutorService threadPool = Executors.newFixedThreadPool(10);
-		final AtomicInteger count = new AtomicInteger();
-		for (Jedis jedis : jedisList) {
-			final Jedis tmpJedis = jedis;
-			threadPool.execute(new Runnable() {
-				
-				@Override
-				public void run() {
-					try {
-						Enhancer enhancer = new Enhancer();
-						enhancer.setSuperclass(Jedis.class);
-						enhancer.setCallback(new MethodInterceptor(){
-							public Object intercept(Object proxy, Method method, Object[] args,
-									MethodProxy methodProxy) throws Throwable {
-								return execute(method, args,tmpJedis);
-							}
-						});
-						enhancer.setClassLoader(Jedis.class.getClassLoader());
-						jedisPool.add((Jedis) enhancer.create());
-					} catch (Exception e) {
-						logger.error(e.toString(),e);
-					}finally{
-						count.incrementAndGet();
-					}
-				}
-			});
-		}
-		
-		while (count.get() < jedisList.size()) {
-			try {
-				Thread.sleep(1000L);
-			} catch (InterruptedException e) {
-			}
-		}
-		
-		return lpJedis;
+	public LpJedis getJedis(){
+		return jedis;
 	}
 	
-	private Object execute(final Method method, final Object[] args,
-			final Jedis jesenpool) throws IllegalAccessException, IllegalArgumentException, InvocationTargetException {
-		String methodName = method.getName();
-		if (refuse_multi_commands.indexOf(methodName) > -1) {
-			throw new RuntimeException("not support command");
-		}else{
-			boolean isRetry = false;
-			int retryNum = 5;
-			do {
-				try {
-					return invoke(jesenpool,method,args);
-				} catch (Exception e) {
-					if (retryNum-- > 0) {
-						isRetry = true;
+	/**
+	 * 设置启动预热的最长等待时间,超时未就绪的分片在首次使用时再建立连接
+	 */
+	public void setWarmUpTimeoutMillis(long warmUpTimeoutMillis) {
+		this.warmUpTimeoutMillis = warmUpTimeoutMillis;
+	}
+	
+	/**
+	 * 并行预热各分片:建立连接并PING,把连接池填充到minIdle(至少一个连接)。
+	 * 所有分片就绪即返回,最多等待warmUpTimeoutMillis;连不上的分片只记录日志,不影响启动
+	 */
+	private void warmUp(final List<JedisPool> shardPools, final List<String> nodeNames) {
+		if (shardPools.isEmpty()) {
+			return;
+		}
+		final AtomicInteger threadCount = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(shardPools.size(), MAX_WARM_UP_THREADS),
+				new ThreadFactory() {
+					@Override
+					public Thread newThread(Runnable r) {
+						Thread thread = new Thread(r, "lpjedis-warm-up-" + threadCount.incrementAndGet());
+						thread.setDaemon(true);
+						return thread;
+					}
+				});
+		try {
+			List<Callable<Void>> tasks = new ArrayList<>(shardPools.size());
+			for (final JedisPool pool : shardPools) {
+				tasks.add(new Callable<Void>() {
+					@Override
+					public Void call() {
+						fill(pool);
+						return null;
 					}
+				});
+			}
+			List<Future<Void>> futures = executor.invokeAll(tasks, warmUpTimeoutMillis, TimeUnit.MILLISECONDS);
+			for (int i = 0; i < futures.size(); i++) {
+				try {
+					futures.get(i).get();
+				} catch (CancellationException e) {
+					logger.warn("warm up of {} timed out after {}ms", nodeNames.get(i), warmUpTimeoutMillis);
+				} catch (ExecutionException e) {
+					logger.warn("warm up of {} failed: {}", nodeNames.get(i), e.getCause().toString());
 				}
-			} while (isRetry);
-			return null;
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			executor.shutdownNow();
 		}
 	}
-
-	private Map<Integer, Object[]> groupArgs(String methodName, Object[] args, int size) {
-		Map<Integer, Object[]> groupMap = new HashMap<>();
-		Map<Integer, List<Object>> tmpGroupMap = new HashMap<>();
-		//参数中key-value以一个数组形式传入的情况
-		if (support_multi_keyvalue_commands.indexOf(methodName) > -1) {
-			Object[] keys = new Object[args.length / 2];
-			Object[] values = new Object[args.length / 2];
-			
-			for (int keyIdx = 0; keyIdx < keys.length; keyIdx++) {
-				keys[keyIdx] = args[keyIdx * 2];
-				values[keyIdx] = args[keyIdx * 2 + 1];
-			}
-			for (int i = 0; i < keys.length; i++) {
-				Integer index =getShardindex(keys[i], size);
-				List<Object> tmpList = tmpGroupMap.get(index);
-				if (tmpList==null) {
-					tmpList = new ArrayList<>();
-					tmpGroupMap.put(index, tmpList);
-				}
-				tmpList.add(keys[i]);
-				tmpList.add(values[i]);
+	
+	private void fill(JedisPool pool) {
+		int count = Math.max(1, pool.getMinIdle());
+		List<Jedis> connections = new ArrayList<>(count);
+		try {
+			for (int i = 0; i < count; i++) {
+				Jedis jedis = pool.getResource();
+				connections.add(jedis);
+				jedis.ping();
 			}
-		}else{
-			for (Object obj : args) {
-				Integer index =getShardindex(obj, size);
-				List<Object> tmpList = tmpGroupMap.get(index);
-				if (tmpList==null) {
-					tmpList = new ArrayList<>();
-					tmpGroupMap.put(index, tmpList);
-				}
-				tmpList.add(obj);
+		} finally {
+			//归还后这些连接留在池中成为空闲连接
+			for (Jedis jedis : connections) {
+				jedis.close();
 			}
 		}
-		Set<Entry<Integer, List<Object>>> set = tmpGroupMap.entrySet();
-		for (Entry<Integer, List<Object>> entry : set) {
-			groupMap.put(entry.getKey(), entry.getValue().toArray());
+	}
+	
+	//没有配置分片名时退回到节点名;一个配置项下有多个节点时加上序号区分
+	private static String shardName(String configured, int index, int count, String nodeName) {
+		if (StringUtils.isBlank(configured)) {
+			return nodeName;
 		}
-		return groupMap;
+		return count == 1 ? configured : configured + "#" + index;
 	}
-
-	private Object invoke(Jedis jedis, Method method, Object[] args) throws IllegalAccessException, IllegalArgumentException, InvocationTargetException{
-		try{
-			return method.invoke(jedis,args);
-		}finally{
-			jedis.close();
+	
+	private ShardSelector buildShardSelector(String type, List<String> shardNames) {
+		if ("ketama".equalsIgnoreCase(type)) {
+			return new KetamaShardSelector(shardNames);
+		} else if ("jump".equalsIgnoreCase(type)) {
+			return new JumpShardSelector(shardNames.size());
+		} else if (!StringUtils.isBlank(type) && !"modulo".equalsIgnoreCase(type)) {
+			logger.warn("unknown shardSelector {}, using modulo", type);
 		}
+		return new ModuloShardSelector(shardNames.size());
 	}
-
-	@Deprecated
-	private int getShardindex(Object object, int size) {
-		if (object instanceof String) {
-			int hashValue = Math.abs(object.hashCode());
-			return hashValue % size;
+	
+	//连接池中影响行为的配置项,用于判断yaml修改后是否需要重建连接池
+	private static String describe(GenericObjectPoolConfig poolConfig, int timeout) {
+		return "maxTotal=" + poolConfig.getMaxTotal() + ",maxIdle=" + poolConfig.getMaxIdle()
+				+ ",minIdle=" + poolConfig.getMinIdle() + ",maxWaitMillis=" + poolConfig.getMaxWaitMillis()
+				+ ",numTestsPerEvictionRun=" + poolConfig.getNumTestsPerEvictionRun()
+				+ ",testOnBorrow=" + poolConfig.getTestOnBorrow() + ",testOnReturn=" + poolConfig.getTestOnReturn()
+				+ ",blockWhenExhausted=" + poolConfig.getBlockWhenExhausted() + ",timeout=" + timeout;
+	}
+	
+	/**
+	 * 由yaml中的jedisClusterPool配置生成连接池配置,未配置的项使用JedisPoolConfig的默认值
+	 */
+	private GenericObjectPoolConfig buildPoolConfig(JedisClusterPool clusterPool) {
+		JedisPoolConfig poolConfig = new JedisPoolConfig();
+		if (clusterPool == null) {
+			return poolConfig;
+		}
+		if (!StringUtils.isBlank(clusterPool.getMaxTotal())) {
+			poolConfig.setMaxTotal(Integer.parseInt(clusterPool.getMaxTotal().trim()));
+		}
+		if (!StringUtils.isBlank(clusterPool.getMaxIdle())) {
+			poolConfig.setMaxIdle(Integer.parseInt(clusterPool.getMaxIdle().trim()));
+		}
+		if (!StringUtils.isBlank(clusterPool.getMinIdle())) {
+			poolConfig.setMinIdle(Integer.parseInt(clusterPool.getMinIdle().trim()));
+		}
+		if (!StringUtils.isBlank(clusterPool.getMaxWaitMillis())) {
+			poolConfig.setMaxWaitMillis(Long.parseLong(clusterPool.getMaxWaitMillis().trim()));
+		}
+		if (!StringUtils.isBlank(clusterPool.getNumTestsPerEvictionRun())) {
+			poolConfig.setNumTestsPerEvictionRun(Integer.parseInt(clusterPool.getNumTestsPerEvictionRun().trim()));
 		}
-		throw new RuntimeException("first parameter is not String key");
+		poolConfig.setTestOnBorrow(clusterPool.isTestOnBorrow());
+		poolConfig.setTestOnReturn(clusterPool.isTestOnReturn());
+		poolConfig.setBlockWhenExhausted(clusterPool.isBlockWhenExhausted());
+		return poolConfig;
 	}
 }
@@ -0,0 +1,20 @@
+package redis.clients.lppz.config;
+
+/**
+ * 分片值对分片数取模。增减一个分片时几乎所有key都会换分片,保留用于兼容已有部署的数据分布。
+ */
+public class ModuloShardSelector implements ShardSelector {
+	
+	private final int shards;
+	
+	public ModuloShardSelector(int shards) {
+		this.shards = shards;
+	}
+
+	@Override
+	public int select(int shardingIndex) {
+		//先取模再取绝对值,Math.abs(Integer.MIN_VALUE)仍是负数
+		return Math.abs(shardingIndex % shards);
+	}
+
+}
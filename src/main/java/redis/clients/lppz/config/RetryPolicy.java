@@ -0,0 +1,19 @@
+package redis.clients.lppz.config;
+
+/**
+ * LpJedis命令遇到连接异常时的重试策略。只有连接异常才会重试,且只重试可安全重复执行的命令。
+ */
+public interface RetryPolicy {
+	
+	/**
+	 * 每次命令调用开始时调用一次,可用于累积重试预算
+	 */
+	void onRequest();
+	
+	/**
+	 * 第retries次重试之前调用(从1开始)
+	 * @return 重试前等待的毫秒数,小于0表示放弃重试
+	 */
+	long backoffMillis(int retries);
+
+}
@@ -0,0 +1,13 @@
+package redis.clients.lppz.config;
+
+/**
+ * 由ShardingFunction给出的分片值选出分片下标
+ */
+public interface ShardSelector {
+	
+	/**
+	 * @return [0, 分片数)之间的下标
+	 */
+	int select(int shardingIndex);
+
+}
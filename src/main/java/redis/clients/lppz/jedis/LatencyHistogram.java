@@ -0,0 +1,106 @@
+package redis.clients.lppz.jedis;
+
+/**
+ * 无锁的延迟直方图(微秒),桶的划分与HdrHistogram相同:每个2的幂区间再均分成8个子桶,
+ * 8微秒以内精确,以上的相对误差不超过12.5%。记录只有一次原子加,计数按线程分条带({@link StripedCounters}),
+ * 多线程同时记录不争用同一个缓存行;读取时遍历各桶,不影响记录
+ */
+public class LatencyHistogram {
+
+	private static final int SUB_BUCKET_BITS = 3;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+	private final StripedCounters counts = new StripedCounters(BUCKETS);
+
+	public void record(long micros) {
+		if (micros < 0) {
+			micros = 0;
+		}
+		counts.increment(bucketOf(micros));
+	}
+
+	public long getCount() {
+		long count = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			count += counts.get(i);
+		}
+		return count;
+	}
+
+	/**
+	 * 以各桶的中点估算的平均延迟
+	 */
+	public double getMeanMicros() {
+		long count = 0;
+		double total = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			long n = counts.get(i);
+			if (n > 0) {
+				count += n;
+				total += n * (lowerBoundOf(i) + upperBoundOf(i)) / 2.0;
+			}
+		}
+		return count == 0 ? 0 : total / count;
+	}
+
+	/**
+	 * @param percentile 0~100
+	 * @return 不小于该百分位延迟的桶上界,没有记录时返回0
+	 */
+	public long getPercentileMicros(double percentile) {
+		long[] snapshot = new long[BUCKETS];
+		long count = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			snapshot[i] = counts.get(i);
+			count += snapshot[i];
+		}
+		if (count == 0) {
+			return 0;
+		}
+		long target = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += snapshot[i];
+			if (seen >= target) {
+				return upperBoundOf(i);
+			}
+		}
+		return upperBoundOf(BUCKETS - 1);
+	}
+
+	public long getMaxMicros() {
+		for (int i = BUCKETS - 1; i >= 0; i--) {
+			if (counts.get(i) > 0) {
+				return upperBoundOf(i);
+			}
+		}
+		return 0;
+	}
+
+	static int bucketOf(long micros) {
+		if (micros < SUB_BUCKETS) {
+			return (int) micros;
+		}
+		int exponent = 63 - Long.numberOfLeadingZeros(micros);
+		int sub = (int) (micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+		return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+	}
+
+	static long lowerBoundOf(int bucket) {
+		if (bucket < SUB_BUCKETS) {
+			return bucket;
+		}
+		int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+		int sub = bucket % SUB_BUCKETS;
+		return (SUB_BUCKETS + sub) * (1L << (exponent - SUB_BUCKET_BITS));
+	}
+
+	static long upperBoundOf(int bucket) {
+		if (bucket < SUB_BUCKETS) {
+			return bucket;
+		}
+		int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+		return lowerBoundOf(bucket) + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+	}
+}
@@ -1,35 +1,273 @@
 package redis.clients.lppz.jedis;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import redis.clients.jedis.BinaryClient.LIST_POSITION;
 import redis.clients.jedis.BitOP;
 import redis.clients.jedis.BitPosParams;
 import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
 import redis.clients.jedis.JedisPubSub;
 import redis.clients.jedis.ScanParams;
 import redis.clients.jedis.ScanResult;
 import redis.clients.jedis.SortingParams;
 import redis.clients.jedis.Tuple;
 import redis.clients.jedis.ZParams;
+import redis.clients.jedis.exceptions.JedisDataException;
 import redis.clients.jedis.params.set.SetParams;
+import redis.clients.lppz.config.ExponentialBackoffRetryPolicy;
+import redis.clients.lppz.config.KeyShardingFunction;
+import redis.clients.lppz.config.ModuloShardSelector;
+import redis.clients.lppz.config.RetryPolicy;
+import redis.clients.lppz.config.ShardSelector;
 import redis.clients.lppz.config.ShardingFunction;
 
 public class LpJedis {
 	
-	private List<Jedis> jedisPool;
+	//重复执行结果不变、连接异常后可以重试的命令
+	private static final boolean RETRIABLE = true;
 	
-	public void setJedisPool(List<Jedis> jedisPool) {
-		this.jedisPool = jedisPool;
+	private volatile LpJedisTopology topology;
+	
+	//路由表版本号,由setTopology在同步块内递增
+	private long topologyVersion;
+	
+	private volatile boolean closed;
+	
+	private volatile RetryPolicy retryPolicy = new ExponentialBackoffRetryPolicy();
+	
+	private final LpJedisRetryStats retryStats = new LpJedisRetryStats();
+	
+	private final LpJedisMetrics metrics = new LpJedisMetrics(this);
+	
+	//多key命令和pipeline分发到各分片的线程池,线程数为分片数乘以multiKeyThreadsPerShard,随路由表调整
+	private final ThreadPoolExecutor multiKeyExecutor = new ThreadPoolExecutor(1, 1, 60L, TimeUnit.SECONDS,
+			new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+		private final AtomicInteger count = new AtomicInteger();
+		
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, "lpjedis-multikey-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	});
+	
+	private int multiKeyThreadsPerShard = 2;
+	
+	private static final long DRAIN_CHECK_MILLIS = 100;
+	
+	private volatile long drainTimeoutMillis = 30000;
+	
+	//已从路由表移除、等待在途命令归还连接后关闭的连接池
+	private final List<JedisPool> draining = new ArrayList<>();
+	
+	private ScheduledExecutorService drainExecutor;
+	
+	public LpJedis() {
+		multiKeyExecutor.allowCoreThreadTimeOut(true);
+	}
+	
+	/**
+	 * 把{@link #getMetrics()}中的指标注册为JMX MBean(redis.clients.lppz域下),close时注销;不调用则只能通过getMetrics读取
+	 */
+	public synchronized void registerMBeans() {
+		metrics.register();
+	}
+	
+	/**
+	 * 设置各分片的连接池,分片选择默认取模,可以随后用{@link #setShardSelector(ShardSelector)}替换
+	 */
+	public void setShardPools(List<JedisPool> shardPools) {
+		List<String> nodeNames = new ArrayList<>(shardPools.size());
+		for (int i = 0; i < shardPools.size(); i++) {
+			nodeNames.add("shard-" + i);
+		}
+		setTopology(nodeNames, shardPools, new ModuloShardSelector(shardPools.size()));
+	}
+	
+	public synchronized void setShardSelector(ShardSelector shardSelector) {
+		LpJedisTopology current = currentTopology();
+		setTopology(current.getNodeNames(), current.getPools(), shardSelector);
+	}
+	
+	/**
+	 * 发布新版本的路由表,之后开始的命令都按新版本选分片。
+	 * 新旧版本共用的连接池继续使用;只在旧版本中的连接池不再分配新命令,
+	 * 等已借出的连接全部归还(最多drainTimeoutMillis)后再关闭,切换时在途的命令照常完成
+	 *
+	 * @param nodeNames 各分片的节点名,与pools一一对应
+	 * @return 新发布的路由表
+	 */
+	public synchronized LpJedisTopology setTopology(List<String> nodeNames, List<JedisPool> pools,
+			ShardSelector shardSelector) {
+		if (closed) {
+			throw new IllegalStateException("LpJedis is closed");
+		}
+		LpJedisTopology old = topology;
+		LpJedisShardStats[] stats = new LpJedisShardStats[nodeNames.size()];
+		for (int i = 0; i < stats.length; i++) {
+			stats[i] = metrics.shard(nodeNames.get(i));
+			stats[i].setPool(pools.get(i));
+		}
+		LpJedisTopology next = new LpJedisTopology(++topologyVersion, nodeNames, pools, shardSelector, stats);
+		topology = next;
+		resizeMultiKeyExecutor();
+		if (old != null) {
+			for (JedisPool pool : old.getPools()) {
+				if (!next.contains(pool)) {
+					drain(pool);
+				}
+			}
+			for (String nodeName : old.getNodeNames()) {
+				if (!nodeNames.contains(nodeName)) {
+					metrics.removeShard(nodeName);
+				}
+			}
+		}
+		return next;
+	}
+	
+	/**
+	 * @return 当前路由表,尚未设置分片时返回null
+	 */
+	public LpJedisTopology getTopology() {
+		return topology;
+	}
+	
+	LpJedisTopology currentTopology() {
+		LpJedisTopology current = topology;
+		if (current == null) {
+			throw new IllegalStateException("no shard pools configured");
+		}
+		return current;
+	}
+	
+	/**
+	 * 设置移除节点后等待其在途命令结束的最长时间,超时后连接池强制关闭
+	 */
+	public void setDrainTimeoutMillis(long drainTimeoutMillis) {
+		this.drainTimeoutMillis = drainTimeoutMillis;
+	}
+	
+	public boolean isClosed() {
+		return closed;
+	}
+	
+	public void setRetryPolicy(RetryPolicy retryPolicy) {
+		this.retryPolicy = retryPolicy;
+	}
+	
+	RetryPolicy getRetryPolicy() {
+		return retryPolicy;
+	}
+	
+	public LpJedisRetryStats getRetryStats() {
+		return retryStats;
+	}
+	
+	/**
+	 * @return 各分片和各命令的运行指标
+	 */
+	public LpJedisMetrics getMetrics() {
+		return metrics;
+	}
+	
+	/**
+	 * 创建跨分片的pipeline,命令的分片由{@link LpJedisPipeline#shard(ShardingFunction)}指定
+	 */
+	public LpJedisPipeline pipelined() {
+		return new LpJedisPipeline(this, null);
 	}
 	
-	private Jedis getJedis(ShardingFunction sf){
-		if (sf == null) {
+	/**
+	 * 创建按key选分片的pipeline
+	 */
+	public LpJedisPipeline pipelined(KeyShardingFunction ksf) {
+		if (ksf == null) {
 			throw new RuntimeException("sharding function must not be null");
 		}
-		return jedisPool.get(Math.abs(sf.getShardingIndex())%jedisPool.size());
+		return new LpJedisPipeline(this, ksf);
+	}
+	
+	ExecutorService getMultiKeyExecutor() {
+		return multiKeyExecutor;
+	}
+	
+	/**
+	 * 设置多key命令和pipeline每个分片可以同时使用的线程数,默认2
+	 */
+	public synchronized void setMultiKeyThreadsPerShard(int multiKeyThreadsPerShard) {
+		if (multiKeyThreadsPerShard < 1) {
+			throw new IllegalArgumentException("multiKeyThreadsPerShard must be positive");
+		}
+		this.multiKeyThreadsPerShard = multiKeyThreadsPerShard;
+		resizeMultiKeyExecutor();
+	}
+	
+	//调用方持有this的锁;先调大的一侧,保证core不超过max
+	private void resizeMultiKeyExecutor() {
+		int shards = topology == null ? 1 : Math.max(1, topology.getNodeNames().size());
+		int threads = shards * multiKeyThreadsPerShard;
+		if (threads > multiKeyExecutor.getMaximumPoolSize()) {
+			multiKeyExecutor.setMaximumPoolSize(threads);
+			multiKeyExecutor.setCorePoolSize(threads);
+		} else {
+			multiKeyExecutor.setCorePoolSize(threads);
+			multiKeyExecutor.setMaximumPoolSize(threads);
+		}
+	}
+	
+	private void drain(final JedisPool pool) {
+		if (drainExecutor == null) {
+			drainExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable r) {
+					Thread thread = new Thread(r, "lpjedis-drain");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
+		draining.add(pool);
+		final long deadline = System.currentTimeMillis() + drainTimeoutMillis;
+		drainExecutor.schedule(new Runnable() {
+			@Override
+			public void run() {
+				synchronized (LpJedis.this) {
+					//已关闭时由close()销毁
+					if (closed) {
+						return;
+					}
+					if (pool.getNumActive() > 0 && System.currentTimeMillis() < deadline) {
+						drainExecutor.schedule(this, DRAIN_CHECK_MILLIS, TimeUnit.MILLISECONDS);
+						return;
+					}
+					draining.remove(pool);
+				}
+				pool.destroy();
+			}
+		}, DRAIN_CHECK_MILLIS, TimeUnit.MILLISECONDS);
+	}
+	
+	/**
+	 * 涉及多个key的命令(rename、smove、sinter等)不保证这些key落在同一分片上,一律拒绝
+	 */
+	private static RuntimeException notSupported() {
+		return new RuntimeException("not support command");
 	}
 
 	/**
@@ -41,8 +279,22 @@ public class LpJedis {
 	   * @param value
 	   * @return Status code reply
 	   */
-	  public String set(ShardingFunction sf, final String key, String value) {
-	    return getJedis(sf).set(key, value);
+	  public String set(final ShardingFunction sf, final String key, final String value) {
+	    return new LpJedisCommand<String>(this, RETRIABLE) {
+	      @Override
+	      public String execute(Jedis connection) {
+	        return connection.set(key, value);
+	      }
+	    }.run(sf);
+	  }
+
+	  public String set(final KeyShardingFunction ksf, final String key, final String value) {
+	    return new LpJedisCommand<String>(this, RETRIABLE) {
+	      @Override
+	      public String execute(Jedis connection) {
+	        return connection.set(key, value);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  /**
@@ -54,8 +306,22 @@ public class LpJedis {
 	   *          key if it already exist. EX|PX, expire time units: EX = seconds; PX = milliseconds
 	   * @return Status code reply
 	   */
-	  public String set(ShardingFunction sf, final String key, final String value, final SetParams params) {
-	    return getJedis(sf).set(key, value, params);
+	  public String set(final ShardingFunction sf, final String key, final String value, final SetParams params) {
+	    return new LpJedisCommand<String>(this) {
+	      @Override
+	      public String execute(Jedis connection) {
+	        return connection.set(key, value, params);
+	      }
+	    }.run(sf);
+	  }
+
+	  public String set(final KeyShardingFunction ksf, final String key, final String value, final SetParams params) {
+	    return new LpJedisCommand<String>(this) {
+	      @Override
+	      public String execute(Jedis connection) {
+	        return connection.set(key, value, params);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  /**
@@ -67,8 +333,22 @@ public class LpJedis {
 	   * @return Bulk reply
 	   */
 	  
-	  public String get(ShardingFunction sf, final String key) {
-	    return  getJedis(sf).get(key);
+	  public String get(final ShardingFunction sf, final String key) {
+	    return new LpJedisCommand<String>(this, RETRIABLE) {
+	      @Override
+	      public String execute(Jedis connection) {
+	        return connection.get(key);
+	      }
+	    }.run(sf);
+	  }
+
+	  public String get(final KeyShardingFunction ksf, final String key) {
+	    return new LpJedisCommand<String>(this, RETRIABLE) {
+	      @Override
+	      public String execute(Jedis connection) {
+	        return connection.get(key);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  /**
@@ -79,17 +359,50 @@ public class LpJedis {
 	   * @return Boolean reply, true if the key exists, otherwise false
 	   */
 	  
-	  public Boolean exists(ShardingFunction sf, final String key) {
-	    return getJedis(sf).exists(key);
+	  public Boolean exists(final ShardingFunction sf, final String key) {
+	    return new LpJedisCommand<Boolean>(this, RETRIABLE) {
+	      @Override
+	      public Boolean execute(Jedis connection) {
+	        return connection.exists(key);
+	      }
+	    }.run(sf);
 	  }
 
-	  public Long del(ShardingFunction sf, final String... keys) {
-	    return getJedis(sf).del(keys);
+	  public Boolean exists(final KeyShardingFunction ksf, final String key) {
+	    return new LpJedisCommand<Boolean>(this, RETRIABLE) {
+	      @Override
+	      public Boolean execute(Jedis connection) {
+	        return connection.exists(key);
+	      }
+	    }.run(ksf, key);
+	  }
+
+	  public Long del(final ShardingFunction sf, final String... keys) {
+	    return new LpJedisCommand<Long>(this) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.del(keys);
+	      }
+	    }.run(sf);
 	  }
 
 	  
-	  public Long del(ShardingFunction sf, String key) {
-	    return getJedis(sf).del(key);
+	  public Long del(final ShardingFunction sf, final String key) {
+	    return new LpJedisCommand<Long>(this) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.del(key);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Long del(final KeyShardingFunction ksf, final String key) {
+	    return new LpJedisCommand<Long>(this) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.del(key);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  /**
@@ -102,8 +415,22 @@ public class LpJedis {
 	   *         contains a Hash value
 	   */
 	  
-	  public String type(ShardingFunction sf, final String key) {
-	    return getJedis(sf).type(key);
+	  public String type(final ShardingFunction sf, final String key) {
+	    return new LpJedisCommand<String>(this, RETRIABLE) {
+	      @Override
+	      public String execute(Jedis connection) {
+	        return connection.type(key);
+	      }
+	    }.run(sf);
+	  }
+
+	  public String type(final KeyShardingFunction ksf, final String key) {
+	    return new LpJedisCommand<String>(this, RETRIABLE) {
+	      @Override
+	      public String execute(Jedis connection) {
+	        return connection.type(key);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  /**
@@ -135,8 +462,13 @@ public class LpJedis {
 	   * @return Multi bulk reply
 	   */
 	  
-	  public Set<String> keys(ShardingFunction sf, final String pattern) {
-	    return getJedis(sf).keys(pattern);
+	  public Set<String> keys(final ShardingFunction sf, final String pattern) {
+	    return new LpJedisCommand<Set<String>>(this, RETRIABLE) {
+	      @Override
+	      public Set<String> execute(Jedis connection) {
+	        return connection.keys(pattern);
+	      }
+	    }.run(sf);
 	  }
 
 	  /**
@@ -148,7 +480,12 @@ public class LpJedis {
 	   */
 	  
 	  public String randomKey() {
-	    return jedisPool.get(0).randomKey();
+	    return new LpJedisCommand<String>(this, RETRIABLE) {
+	      @Override
+	      public String execute(Jedis connection) {
+	        return connection.randomKey();
+	      }
+	    }.runOnShard(0);
 	  }
 
 	  /**
@@ -161,8 +498,8 @@ public class LpJedis {
 	   * @return Status code repy
 	   */
 	  
-	  public String rename(ShardingFunction sf, final String oldkey, final String newkey) {
-	    return getJedis(sf).rename(oldkey, newkey);
+	  public String rename(final ShardingFunction sf, final String oldkey, final String newkey) {
+	    throw notSupported();
 	  }
 
 	  /**
@@ -174,8 +511,8 @@ public class LpJedis {
 	   * @return Integer reply, specifically: 1 if the key was renamed 0 if the target key already exist
 	   */
 	  
-	  public Long renamenx(ShardingFunction sf, final String oldkey, final String newkey) {
-	    return getJedis(sf).renamenx(oldkey, newkey);
+	  public Long renamenx(final ShardingFunction sf, final String oldkey, final String newkey) {
+	    throw notSupported();
 	  }
 
 	  /**
@@ -200,8 +537,22 @@ public class LpJedis {
 	   *         2.1.3, Redis &gt;= 2.1.3 will happily update the timeout), or the key does not exist.
 	   */
 	  
-	  public Long expire(ShardingFunction sf, final String key, final int seconds) {
-	    return getJedis(sf).expire(key, seconds);
+	  public Long expire(final ShardingFunction sf, final String key, final int seconds) {
+	    return new LpJedisCommand<Long>(this, RETRIABLE) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.expire(key, seconds);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Long expire(final KeyShardingFunction ksf, final String key, final int seconds) {
+	    return new LpJedisCommand<Long>(this, RETRIABLE) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.expire(key, seconds);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  /**
@@ -228,8 +579,22 @@ public class LpJedis {
 	   *         2.1.3, Redis &gt;= 2.1.3 will happily update the timeout), or the key does not exist.
 	   */
 	  
-	  public Long expireAt(ShardingFunction sf, final String key, final long unixTime) {
-	    return getJedis(sf).expireAt(key, unixTime);
+	  public Long expireAt(final ShardingFunction sf, final String key, final long unixTime) {
+	    return new LpJedisCommand<Long>(this, RETRIABLE) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.expireAt(key, unixTime);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Long expireAt(final KeyShardingFunction ksf, final String key, final long unixTime) {
+	    return new LpJedisCommand<Long>(this, RETRIABLE) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.expireAt(key, unixTime);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  /**
@@ -243,8 +608,22 @@ public class LpJedis {
 	   *         associated expire, -1 is returned or if the Key does not exists, -2 is returned.
 	   */
 	  
-	  public Long ttl(ShardingFunction sf, final String key) {
-	    return getJedis(sf).ttl(key);
+	  public Long ttl(final ShardingFunction sf, final String key) {
+	    return new LpJedisCommand<Long>(this, RETRIABLE) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.ttl(key);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Long ttl(final KeyShardingFunction ksf, final String key) {
+	    return new LpJedisCommand<Long>(this, RETRIABLE) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.ttl(key);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  /**
@@ -258,8 +637,22 @@ public class LpJedis {
 	   *         already present on the target DB or was not found in the current DB.
 	   */
 	  
-	  public Long move(ShardingFunction sf, final String key, final int dbIndex) {
-	    return getJedis(sf).move(key, dbIndex);
+	  public Long move(final ShardingFunction sf, final String key, final int dbIndex) {
+	    return new LpJedisCommand<Long>(this) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.move(key, dbIndex);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Long move(final KeyShardingFunction ksf, final String key, final int dbIndex) {
+	    return new LpJedisCommand<Long>(this) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.move(key, dbIndex);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  /**
@@ -273,8 +666,22 @@ public class LpJedis {
 	   * @return Bulk reply
 	   */
 	  
-	  public String getSet(ShardingFunction sf, final String key, final String value) {
-	    return getJedis(sf).getSet(key, value);
+	  public String getSet(final ShardingFunction sf, final String key, final String value) {
+	    return new LpJedisCommand<String>(this) {
+	      @Override
+	      public String execute(Jedis connection) {
+	        return connection.getSet(key, value);
+	      }
+	    }.run(sf);
+	  }
+
+	  public String getSet(final KeyShardingFunction ksf, final String key, final String value) {
+	    return new LpJedisCommand<String>(this) {
+	      @Override
+	      public String execute(Jedis connection) {
+	        return connection.getSet(key, value);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  /**
@@ -287,8 +694,13 @@ public class LpJedis {
 	   * @return Multi bulk reply
 	   */
 	  
-	  public List<String> mget(ShardingFunction sf, final String... keys) {
-	    return getJedis(sf).mget(keys);
+	  public List<String> mget(final ShardingFunction sf, final String... keys) {
+	    return new LpJedisCommand<List<String>>(this, RETRIABLE) {
+	      @Override
+	      public List<String> execute(Jedis connection) {
+	        return connection.mget(keys);
+	      }
+	    }.run(sf);
 	  }
 
 	  /**
@@ -301,8 +713,22 @@ public class LpJedis {
 	   * @return Integer reply, specifically: 1 if the key was set 0 if the key was not set
 	   */
 	  
-	  public Long setnx(ShardingFunction sf, final String key, final String value) {
-	    return getJedis(sf).setnx(key, value);
+	  public Long setnx(final ShardingFunction sf, final String key, final String value) {
+	    return new LpJedisCommand<Long>(this) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.setnx(key, value);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Long setnx(final KeyShardingFunction ksf, final String key, final String value) {
+	    return new LpJedisCommand<Long>(this) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.setnx(key, value);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  /**
@@ -317,8 +743,22 @@ public class LpJedis {
 	   * @return Status code reply
 	   */
 	  
-	  public String setex(ShardingFunction sf, final String key, final int seconds, final String value) {
-	    return getJedis(sf).setex(key, seconds, value);
+	  public String setex(final ShardingFunction sf, final String key, final int seconds, final String value) {
+	    return new LpJedisCommand<String>(this, RETRIABLE) {
+	      @Override
+	      public String execute(Jedis connection) {
+	        return connection.setex(key, seconds, value);
+	      }
+	    }.run(sf);
+	  }
+
+	  public String setex(final KeyShardingFunction ksf, final String key, final int seconds, final String value) {
+	    return new LpJedisCommand<String>(this, RETRIABLE) {
+	      @Override
+	      public String execute(Jedis connection) {
+	        return connection.setex(key, seconds, value);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  /**
@@ -338,8 +778,13 @@ public class LpJedis {
 	   * @return Status code reply Basically +OK as MSET can't fail
 	   */
 	  
-	  public String mset(ShardingFunction sf, final String... keysvalues) {
-	    return getJedis(sf).mset(keysvalues);
+	  public String mset(final ShardingFunction sf, final String... keysvalues) {
+	    return new LpJedisCommand<String>(this) {
+	      @Override
+	      public String execute(Jedis connection) {
+	        return connection.mset(keysvalues);
+	      }
+	    }.run(sf);
 	  }
 
 	  /**
@@ -360,8 +805,13 @@ public class LpJedis {
 	   *         least one key already existed)
 	   */
 	  
-	  public Long msetnx(ShardingFunction sf, final String... keysvalues) {
-	    return getJedis(sf).msetnx(keysvalues);
+	  public Long msetnx(final ShardingFunction sf, final String... keysvalues) {
+	    return new LpJedisCommand<Long>(this) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.msetnx(keysvalues);
+	      }
+	    }.run(sf);
 	  }
 
 	  /**
@@ -383,8 +833,22 @@ public class LpJedis {
 	   * @return Integer reply, this commands will reply with the new value of key after the increment.
 	   */
 	  
-	  public Long decrBy(ShardingFunction sf, final String key, final long integer) {
-	    return getJedis(sf).decrBy(key, integer);
+	  public Long decrBy(final ShardingFunction sf, final String key, final long integer) {
+	    return new LpJedisCommand<Long>(this) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.decrBy(key, integer);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Long decrBy(final KeyShardingFunction ksf, final String key, final long integer) {
+	    return new LpJedisCommand<Long>(this) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.decrBy(key, integer);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  /**
@@ -405,8 +869,22 @@ public class LpJedis {
 	   * @return Integer reply, this commands will reply with the new value of key after the increment.
 	   */
 	  
-	  public Long decr(ShardingFunction sf, final String key) {
-	    return getJedis(sf).decr(key);
+	  public Long decr(final ShardingFunction sf, final String key) {
+	    return new LpJedisCommand<Long>(this) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.decr(key);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Long decr(final KeyShardingFunction ksf, final String key) {
+	    return new LpJedisCommand<Long>(this) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.decr(key);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  /**
@@ -428,8 +906,22 @@ public class LpJedis {
 	   * @return Integer reply, this commands will reply with the new value of key after the increment.
 	   */
 	  
-	  public Long incrBy(ShardingFunction sf, final String key, final long integer) {
-	    return getJedis(sf).incrBy(key, integer);
+	  public Long incrBy(final ShardingFunction sf, final String key, final long integer) {
+	    return new LpJedisCommand<Long>(this) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.incrBy(key, integer);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Long incrBy(final KeyShardingFunction ksf, final String key, final long integer) {
+	    return new LpJedisCommand<Long>(this) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.incrBy(key, integer);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  /**
@@ -448,8 +940,22 @@ public class LpJedis {
 	   * @return Double reply, this commands will reply with the new value of key after the increment.
 	   */
 	  
-	  public Double incrByFloat(ShardingFunction sf, final String key, final double value) {
-	    return getJedis(sf).incrByFloat(key, value);
+	  public Double incrByFloat(final ShardingFunction sf, final String key, final double value) {
+	    return new LpJedisCommand<Double>(this) {
+	      @Override
+	      public Double execute(Jedis connection) {
+	        return connection.incrByFloat(key, value);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Double incrByFloat(final KeyShardingFunction ksf, final String key, final double value) {
+	    return new LpJedisCommand<Double>(this) {
+	      @Override
+	      public Double execute(Jedis connection) {
+	        return connection.incrByFloat(key, value);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  /**
@@ -470,8 +976,22 @@ public class LpJedis {
 	   * @return Integer reply, this commands will reply with the new value of key after the increment.
 	   */
 	  
-	  public Long incr(ShardingFunction sf, final String key) {
-	    return getJedis(sf).incr(key);
+	  public Long incr(final ShardingFunction sf, final String key) {
+	    return new LpJedisCommand<Long>(this) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.incr(key);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Long incr(final KeyShardingFunction ksf, final String key) {
+	    return new LpJedisCommand<Long>(this) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.incr(key);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  /**
@@ -487,8 +1007,22 @@ public class LpJedis {
 	   * @return Integer reply, specifically the total length of the string after the append operation.
 	   */
 	  
-	  public Long append(ShardingFunction sf, final String key, final String value) {
-	    return getJedis(sf).append(key, value);
+	  public Long append(final ShardingFunction sf, final String key, final String value) {
+	    return new LpJedisCommand<Long>(this) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.append(key, value);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Long append(final KeyShardingFunction ksf, final String key, final String value) {
+	    return new LpJedisCommand<Long>(this) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.append(key, value);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  /**
@@ -508,8 +1042,22 @@ public class LpJedis {
 	   * @return Bulk reply
 	   */
 	  
-	  public String substr(ShardingFunction sf, final String key, final int start, final int end) {
-	    return getJedis(sf).substr(key, start, end);
+	  public String substr(final ShardingFunction sf, final String key, final int start, final int end) {
+	    return new LpJedisCommand<String>(this, RETRIABLE) {
+	      @Override
+	      public String execute(Jedis connection) {
+	        return connection.substr(key, start, end);
+	      }
+	    }.run(sf);
+	  }
+
+	  public String substr(final KeyShardingFunction ksf, final String key, final int start, final int end) {
+	    return new LpJedisCommand<String>(this, RETRIABLE) {
+	      @Override
+	      public String execute(Jedis connection) {
+	        return connection.substr(key, start, end);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  /**
@@ -525,8 +1073,22 @@ public class LpJedis {
 	   *         returned, otherwise if a new field is created 1 is returned.
 	   */
 	  
-	  public Long hset(ShardingFunction sf, final String key, final String field, final String value) {
-	    return getJedis(sf).hset(key, field, value);
+	  public Long hset(final ShardingFunction sf, final String key, final String field, final String value) {
+	    return new LpJedisCommand<Long>(this) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.hset(key, field, value);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Long hset(final KeyShardingFunction ksf, final String key, final String field, final String value) {
+	    return new LpJedisCommand<Long>(this) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.hset(key, field, value);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  /**
@@ -540,8 +1102,22 @@ public class LpJedis {
 	   * @return Bulk reply
 	   */
 	  
-	  public String hget(ShardingFunction sf, final String key, final String field) {
-	    return getJedis(sf).hget(key, field);
+	  public String hget(final ShardingFunction sf, final String key, final String field) {
+	    return new LpJedisCommand<String>(this, RETRIABLE) {
+	      @Override
+	      public String execute(Jedis connection) {
+	        return connection.hget(key, field);
+	      }
+	    }.run(sf);
+	  }
+
+	  public String hget(final KeyShardingFunction ksf, final String key, final String field) {
+	    return new LpJedisCommand<String>(this, RETRIABLE) {
+	      @Override
+	      public String execute(Jedis connection) {
+	        return connection.hget(key, field);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  /**
@@ -554,8 +1130,22 @@ public class LpJedis {
 	   *         returned.
 	   */
 	  
-	  public Long hsetnx(ShardingFunction sf, final String key, final String field, final String value) {
-	    return getJedis(sf).hsetnx(key, field, value);
+	  public Long hsetnx(final ShardingFunction sf, final String key, final String field, final String value) {
+	    return new LpJedisCommand<Long>(this) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.hsetnx(key, field, value);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Long hsetnx(final KeyShardingFunction ksf, final String key, final String field, final String value) {
+	    return new LpJedisCommand<Long>(this) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.hsetnx(key, field, value);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  /**
@@ -569,8 +1159,22 @@ public class LpJedis {
 	   * @return Return OK or Exception if hash is empty
 	   */
 	  
-	  public String hmset(ShardingFunction sf, final String key, final Map<String, String> hash) {
-	    return getJedis(sf).hmset(key, hash);
+	  public String hmset(final ShardingFunction sf, final String key, final Map<String, String> hash) {
+	    return new LpJedisCommand<String>(this, RETRIABLE) {
+	      @Override
+	      public String execute(Jedis connection) {
+	        return connection.hmset(key, hash);
+	      }
+	    }.run(sf);
+	  }
+
+	  public String hmset(final KeyShardingFunction ksf, final String key, final Map<String, String> hash) {
+	    return new LpJedisCommand<String>(this, RETRIABLE) {
+	      @Override
+	      public String execute(Jedis connection) {
+	        return connection.hmset(key, hash);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  /**
@@ -586,8 +1190,22 @@ public class LpJedis {
 	   *         fields, in the same order of the request.
 	   */
 	  
-	  public List<String> hmget(ShardingFunction sf, final String key, final String... fields) {
-	    return getJedis(sf).hmget(key, fields);
+	  public List<String> hmget(final ShardingFunction sf, final String key, final String... fields) {
+	    return new LpJedisCommand<List<String>>(this, RETRIABLE) {
+	      @Override
+	      public List<String> execute(Jedis connection) {
+	        return connection.hmget(key, fields);
+	      }
+	    }.run(sf);
+	  }
+
+	  public List<String> hmget(final KeyShardingFunction ksf, final String key, final String... fields) {
+	    return new LpJedisCommand<List<String>>(this, RETRIABLE) {
+	      @Override
+	      public List<String> execute(Jedis connection) {
+	        return connection.hmget(key, fields);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  /**
@@ -605,8 +1223,22 @@ public class LpJedis {
 	   * @return Integer reply The new value at field after the increment operation.
 	   */
 	  
-	  public Long hincrBy(ShardingFunction sf, final String key, final String field, final long value) {
-	    return getJedis(sf).hincrBy(key, field, value);
+	  public Long hincrBy(final ShardingFunction sf, final String key, final String field, final long value) {
+	    return new LpJedisCommand<Long>(this) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.hincrBy(key, field, value);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Long hincrBy(final KeyShardingFunction ksf, final String key, final String field, final long value) {
+	    return new LpJedisCommand<Long>(this) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.hincrBy(key, field, value);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  /**
@@ -626,8 +1258,22 @@ public class LpJedis {
 	   *         operation.
 	   */
 	  
-	  public Double hincrByFloat(ShardingFunction sf, final String key, final String field, final double value) {
-	    return getJedis(sf).hincrByFloat(key, field, value);
+	  public Double hincrByFloat(final ShardingFunction sf, final String key, final String field, final double value) {
+	    return new LpJedisCommand<Double>(this) {
+	      @Override
+	      public Double execute(Jedis connection) {
+	        return connection.hincrByFloat(key, field, value);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Double hincrByFloat(final KeyShardingFunction ksf, final String key, final String field, final double value) {
+	    return new LpJedisCommand<Double>(this) {
+	      @Override
+	      public Double execute(Jedis connection) {
+	        return connection.hincrByFloat(key, field, value);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  /**
@@ -638,8 +1284,22 @@ public class LpJedis {
 	   *         not found or the field is not present.
 	   */
 	  
-	  public Boolean hexists(ShardingFunction sf, final String key, final String field) {
-	    return getJedis(sf).hexists(key, field);
+	  public Boolean hexists(final ShardingFunction sf, final String key, final String field) {
+	    return new LpJedisCommand<Boolean>(this, RETRIABLE) {
+	      @Override
+	      public Boolean execute(Jedis connection) {
+	        return connection.hexists(key, field);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Boolean hexists(final KeyShardingFunction ksf, final String key, final String field) {
+	    return new LpJedisCommand<Boolean>(this, RETRIABLE) {
+	      @Override
+	      public Boolean execute(Jedis connection) {
+	        return connection.hexists(key, field);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  /**
@@ -652,8 +1312,22 @@ public class LpJedis {
 	   *         returned and no operation is performed.
 	   */
 	  
-	  public Long hdel(ShardingFunction sf, final String key, final String... fields) {
-	    return getJedis(sf).hdel(key, fields);
+	  public Long hdel(final ShardingFunction sf, final String key, final String... fields) {
+	    return new LpJedisCommand<Long>(this) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.hdel(key, fields);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Long hdel(final KeyShardingFunction ksf, final String key, final String... fields) {
+	    return new LpJedisCommand<Long>(this) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.hdel(key, fields);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  /**
@@ -665,8 +1339,22 @@ public class LpJedis {
 	   *         key does not exist, 0 is returned assuming an empty hash.
 	   */
 	  
-	  public Long hlen(ShardingFunction sf, final String key) {
-	    return getJedis(sf).hlen(key);
+	  public Long hlen(final ShardingFunction sf, final String key) {
+	    return new LpJedisCommand<Long>(this, RETRIABLE) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.hlen(key);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Long hlen(final KeyShardingFunction ksf, final String key) {
+	    return new LpJedisCommand<Long>(this, RETRIABLE) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.hlen(key);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  /**
@@ -677,8 +1365,22 @@ public class LpJedis {
 	   * @return All the fields names contained into a hash.
 	   */
 	  
-	  public Set<String> hkeys(ShardingFunction sf, final String key) {
-	    return getJedis(sf).hkeys(key);
+	  public Set<String> hkeys(final ShardingFunction sf, final String key) {
+	    return new LpJedisCommand<Set<String>>(this, RETRIABLE) {
+	      @Override
+	      public Set<String> execute(Jedis connection) {
+	        return connection.hkeys(key);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Set<String> hkeys(final KeyShardingFunction ksf, final String key) {
+	    return new LpJedisCommand<Set<String>>(this, RETRIABLE) {
+	      @Override
+	      public Set<String> execute(Jedis connection) {
+	        return connection.hkeys(key);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  /**
@@ -689,8 +1391,22 @@ public class LpJedis {
 	   * @return All the fields values contained into a hash.
 	   */
 	  
-	  public List<String> hvals(ShardingFunction sf, final String key) {
-	    return getJedis(sf).hvals(key);
+	  public List<String> hvals(final ShardingFunction sf, final String key) {
+	    return new LpJedisCommand<List<String>>(this, RETRIABLE) {
+	      @Override
+	      public List<String> execute(Jedis connection) {
+	        return connection.hvals(key);
+	      }
+	    }.run(sf);
+	  }
+
+	  public List<String> hvals(final KeyShardingFunction ksf, final String key) {
+	    return new LpJedisCommand<List<String>>(this, RETRIABLE) {
+	      @Override
+	      public List<String> execute(Jedis connection) {
+	        return connection.hvals(key);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  /**
@@ -701,8 +1417,22 @@ public class LpJedis {
 	   * @return All the fields and values contained into a hash.
 	   */
 	  
-	  public Map<String, String> hgetAll(ShardingFunction sf, final String key) {
-	    return getJedis(sf).hgetAll(key);
+	  public Map<String, String> hgetAll(final ShardingFunction sf, final String key) {
+	    return new LpJedisCommand<Map<String, String>>(this, RETRIABLE) {
+	      @Override
+	      public Map<String, String> execute(Jedis connection) {
+	        return connection.hgetAll(key);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Map<String, String> hgetAll(final KeyShardingFunction ksf, final String key) {
+	    return new LpJedisCommand<Map<String, String>>(this, RETRIABLE) {
+	      @Override
+	      public Map<String, String> execute(Jedis connection) {
+	        return connection.hgetAll(key);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  /**
@@ -717,8 +1447,22 @@ public class LpJedis {
 	   *         operation.
 	   */
 	  
-	  public Long rpush(ShardingFunction sf, final String key, final String... strings) {
-	    return getJedis(sf).rpush(key, strings);
+	  public Long rpush(final ShardingFunction sf, final String key, final String... strings) {
+	    return new LpJedisCommand<Long>(this) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.rpush(key, strings);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Long rpush(final KeyShardingFunction ksf, final String key, final String... strings) {
+	    return new LpJedisCommand<Long>(this) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.rpush(key, strings);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  /**
@@ -733,8 +1477,22 @@ public class LpJedis {
 	   *         operation.
 	   */
 	  
-	  public Long lpush(ShardingFunction sf, final String key, final String... strings) {
-	    return getJedis(sf).lpush(key, strings);
+	  public Long lpush(final ShardingFunction sf, final String key, final String... strings) {
+	    return new LpJedisCommand<Long>(this) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.lpush(key, strings);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Long lpush(final KeyShardingFunction ksf, final String key, final String... strings) {
+	    return new LpJedisCommand<Long>(this) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.lpush(key, strings);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  /**
@@ -747,8 +1505,22 @@ public class LpJedis {
 	   * @return The length of the list.
 	   */
 	  
-	  public Long llen(ShardingFunction sf, final String key) {
-	    return getJedis(sf).llen(key);
+	  public Long llen(final ShardingFunction sf, final String key) {
+	    return new LpJedisCommand<Long>(this, RETRIABLE) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.llen(key);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Long llen(final KeyShardingFunction ksf, final String key) {
+	    return new LpJedisCommand<Long>(this, RETRIABLE) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.llen(key);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  /**
@@ -784,8 +1556,22 @@ public class LpJedis {
 	   * @return Multi bulk reply, specifically a list of elements in the specified range.
 	   */
 	  
-	  public List<String> lrange(ShardingFunction sf, final String key, final long start, final long end) {
-	    return getJedis(sf).lrange(key, start, end);
+	  public List<String> lrange(final ShardingFunction sf, final String key, final long start, final long end) {
+	    return new LpJedisCommand<List<String>>(this, RETRIABLE) {
+	      @Override
+	      public List<String> execute(Jedis connection) {
+	        return connection.lrange(key, start, end);
+	      }
+	    }.run(sf);
+	  }
+
+	  public List<String> lrange(final KeyShardingFunction ksf, final String key, final long start, final long end) {
+	    return new LpJedisCommand<List<String>>(this, RETRIABLE) {
+	      @Override
+	      public List<String> execute(Jedis connection) {
+	        return connection.lrange(key, start, end);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  /**
@@ -819,8 +1605,22 @@ public class LpJedis {
 	   * @return Status code reply
 	   */
 	  
-	  public String ltrim(ShardingFunction sf, final String key, final long start, final long end) {
-	    return getJedis(sf).ltrim(key, start, end);
+	  public String ltrim(final ShardingFunction sf, final String key, final long start, final long end) {
+	    return new LpJedisCommand<String>(this) {
+	      @Override
+	      public String execute(Jedis connection) {
+	        return connection.ltrim(key, start, end);
+	      }
+	    }.run(sf);
+	  }
+
+	  public String ltrim(final KeyShardingFunction ksf, final String key, final long start, final long end) {
+	    return new LpJedisCommand<String>(this) {
+	      @Override
+	      public String execute(Jedis connection) {
+	        return connection.ltrim(key, start, end);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  /**
@@ -840,8 +1640,22 @@ public class LpJedis {
 	   * @return Bulk reply, specifically the requested element
 	   */
 	  
-	  public String lindex(ShardingFunction sf, final String key, final long index) {
-	    return getJedis(sf).lindex(key, index);
+	  public String lindex(final ShardingFunction sf, final String key, final long index) {
+	    return new LpJedisCommand<String>(this, RETRIABLE) {
+	      @Override
+	      public String execute(Jedis connection) {
+	        return connection.lindex(key, index);
+	      }
+	    }.run(sf);
+	  }
+
+	  public String lindex(final KeyShardingFunction ksf, final String key, final long index) {
+	    return new LpJedisCommand<String>(this, RETRIABLE) {
+	      @Override
+	      public String execute(Jedis connection) {
+	        return connection.lindex(key, index);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  /**
@@ -864,8 +1678,22 @@ public class LpJedis {
 	   * @return Status code reply
 	   */
 	  
-	  public String lset(ShardingFunction sf, final String key, final long index, final String value) {
-	    return getJedis(sf).lset(key, index, value);
+	  public String lset(final ShardingFunction sf, final String key, final long index, final String value) {
+	    return new LpJedisCommand<String>(this, RETRIABLE) {
+	      @Override
+	      public String execute(Jedis connection) {
+	        return connection.lset(key, index, value);
+	      }
+	    }.run(sf);
+	  }
+
+	  public String lset(final KeyShardingFunction ksf, final String key, final long index, final String value) {
+	    return new LpJedisCommand<String>(this, RETRIABLE) {
+	      @Override
+	      public String execute(Jedis connection) {
+	        return connection.lset(key, index, value);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  /**
@@ -884,8 +1712,22 @@ public class LpJedis {
 	   * @return Integer Reply, specifically: The number of removed elements if the operation succeeded
 	   */
 	  
-	  public Long lrem(ShardingFunction sf, final String key, final long count, final String value) {
-	    return getJedis(sf).lrem(key, count, value);
+	  public Long lrem(final ShardingFunction sf, final String key, final long count, final String value) {
+	    return new LpJedisCommand<Long>(this) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.lrem(key, count, value);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Long lrem(final KeyShardingFunction ksf, final String key, final long count, final String value) {
+	    return new LpJedisCommand<Long>(this) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.lrem(key, count, value);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  /**
@@ -899,8 +1741,22 @@ public class LpJedis {
 	   * @return Bulk reply
 	   */
 	  
-	  public String lpop(ShardingFunction sf, final String key) {
-	    return getJedis(sf).lpop(key);
+	  public String lpop(final ShardingFunction sf, final String key) {
+	    return new LpJedisCommand<String>(this) {
+	      @Override
+	      public String execute(Jedis connection) {
+	        return connection.lpop(key);
+	      }
+	    }.run(sf);
+	  }
+
+	  public String lpop(final KeyShardingFunction ksf, final String key) {
+	    return new LpJedisCommand<String>(this) {
+	      @Override
+	      public String execute(Jedis connection) {
+	        return connection.lpop(key);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  /**
@@ -914,8 +1770,22 @@ public class LpJedis {
 	   * @return Bulk reply
 	   */
 	  
-	  public String rpop(ShardingFunction sf, final String key) {
-	    return getJedis(sf).rpop(key);
+	  public String rpop(final ShardingFunction sf, final String key) {
+	    return new LpJedisCommand<String>(this) {
+	      @Override
+	      public String execute(Jedis connection) {
+	        return connection.rpop(key);
+	      }
+	    }.run(sf);
+	  }
+
+	  public String rpop(final KeyShardingFunction ksf, final String key) {
+	    return new LpJedisCommand<String>(this) {
+	      @Override
+	      public String execute(Jedis connection) {
+	        return connection.rpop(key);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  /**
@@ -934,8 +1804,8 @@ public class LpJedis {
 	   * @return Bulk reply
 	   */
 	  
-	  public String rpoplpush(ShardingFunction sf, final String srckey, final String dstkey) {
-	    return getJedis(sf).rpoplpush(srckey, dstkey);
+	  public String rpoplpush(final ShardingFunction sf, final String srckey, final String dstkey) {
+	    throw notSupported();
 	  }
 
 	  /**
@@ -950,8 +1820,22 @@ public class LpJedis {
 	   *         already a member of the set
 	   */
 	  
-	  public Long sadd(ShardingFunction sf, final String key, final String... members) {
-	    return getJedis(sf).sadd(key, members);
+	  public Long sadd(final ShardingFunction sf, final String key, final String... members) {
+	    return new LpJedisCommand<Long>(this) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.sadd(key, members);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Long sadd(final KeyShardingFunction ksf, final String key, final String... members) {
+	    return new LpJedisCommand<Long>(this) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.sadd(key, members);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  /**
@@ -963,8 +1847,22 @@ public class LpJedis {
 	   * @return Multi bulk reply
 	   */
 	  
-	  public Set<String> smembers(ShardingFunction sf, final String key) {
-	    return getJedis(sf).smembers(key);
+	  public Set<String> smembers(final ShardingFunction sf, final String key) {
+	    return new LpJedisCommand<Set<String>>(this, RETRIABLE) {
+	      @Override
+	      public Set<String> execute(Jedis connection) {
+	        return connection.smembers(key);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Set<String> smembers(final KeyShardingFunction ksf, final String key) {
+	    return new LpJedisCommand<Set<String>>(this, RETRIABLE) {
+	      @Override
+	      public Set<String> execute(Jedis connection) {
+	        return connection.smembers(key);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  /**
@@ -978,8 +1876,22 @@ public class LpJedis {
 	   *         not a member of the set
 	   */
 	  
-	  public Long srem(ShardingFunction sf, final String key, final String... members) {
-	    return getJedis(sf).srem(key, members);
+	  public Long srem(final ShardingFunction sf, final String key, final String... members) {
+	    return new LpJedisCommand<Long>(this) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.srem(key, members);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Long srem(final KeyShardingFunction ksf, final String key, final String... members) {
+	    return new LpJedisCommand<Long>(this) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.srem(key, members);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  /**
@@ -994,13 +1906,41 @@ public class LpJedis {
 	   * @return Bulk reply
 	   */
 	  
-	  public String spop(ShardingFunction sf, final String key) {
-	    return getJedis(sf).spop(key);
+	  public String spop(final ShardingFunction sf, final String key) {
+	    return new LpJedisCommand<String>(this) {
+	      @Override
+	      public String execute(Jedis connection) {
+	        return connection.spop(key);
+	      }
+	    }.run(sf);
+	  }
+
+	  public String spop(final KeyShardingFunction ksf, final String key) {
+	    return new LpJedisCommand<String>(this) {
+	      @Override
+	      public String execute(Jedis connection) {
+	        return connection.spop(key);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  
-	  public Set<String> spop(ShardingFunction sf, final String key, final long count) {
-	    return getJedis(sf).spop(key, count);
+	  public Set<String> spop(final ShardingFunction sf, final String key, final long count) {
+	    return new LpJedisCommand<Set<String>>(this) {
+	      @Override
+	      public Set<String> execute(Jedis connection) {
+	        return connection.spop(key, count);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Set<String> spop(final KeyShardingFunction ksf, final String key, final long count) {
+	    return new LpJedisCommand<Set<String>>(this) {
+	      @Override
+	      public Set<String> execute(Jedis connection) {
+	        return connection.spop(key, count);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  /**
@@ -1023,8 +1963,8 @@ public class LpJedis {
 	   *         on the first set and no operation was performed
 	   */
 	  
-	  public Long smove(ShardingFunction sf, final String srckey, final String dstkey, final String member) {
-	    return getJedis(sf).smove(srckey, dstkey, member);
+	  public Long smove(final ShardingFunction sf, final String srckey, final String dstkey, final String member) {
+	    throw notSupported();
 	  }
 
 	  /**
@@ -1035,8 +1975,22 @@ public class LpJedis {
 	   *         integer.
 	   */
 	  
-	  public Long scard(ShardingFunction sf, final String key) {
-	    return getJedis(sf).scard(key);
+	  public Long scard(final ShardingFunction sf, final String key) {
+	    return new LpJedisCommand<Long>(this, RETRIABLE) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.scard(key);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Long scard(final KeyShardingFunction ksf, final String key) {
+	    return new LpJedisCommand<Long>(this, RETRIABLE) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.scard(key);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  /**
@@ -1049,8 +2003,22 @@ public class LpJedis {
 	   *         is not a member of the set OR if the key does not exist
 	   */
 	  
-	  public Boolean sismember(ShardingFunction sf, final String key, final String member) {
-	    return getJedis(sf).sismember(key, member);
+	  public Boolean sismember(final ShardingFunction sf, final String key, final String member) {
+	    return new LpJedisCommand<Boolean>(this, RETRIABLE) {
+	      @Override
+	      public Boolean execute(Jedis connection) {
+	        return connection.sismember(key, member);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Boolean sismember(final KeyShardingFunction ksf, final String key, final String member) {
+	    return new LpJedisCommand<Boolean>(this, RETRIABLE) {
+	      @Override
+	      public Boolean execute(Jedis connection) {
+	        return connection.sismember(key, member);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  /**
@@ -1069,8 +2037,8 @@ public class LpJedis {
 	   * @return Multi bulk reply, specifically the list of common elements.
 	   */
 	  
-	  public Set<String> sinter(ShardingFunction sf, final String... keys) {
-	    return getJedis(sf).sinter(keys);
+	  public Set<String> sinter(final ShardingFunction sf, final String... keys) {
+	    throw notSupported();
 	  }
 
 	  /**
@@ -1084,8 +2052,8 @@ public class LpJedis {
 	   * @return Status code reply
 	   */
 	  
-	  public Long sinterstore(ShardingFunction sf, final String dstkey, final String... keys) {
-	    return getJedis(sf).sinterstore(dstkey, keys);
+	  public Long sinterstore(final ShardingFunction sf, final String dstkey, final String... keys) {
+	    throw notSupported();
 	  }
 
 	  /**
@@ -1101,8 +2069,8 @@ public class LpJedis {
 	   * @return Multi bulk reply, specifically the list of common elements.
 	   */
 	  
-	  public Set<String> sunion(ShardingFunction sf, final String... keys) {
-	    return getJedis(sf).sunion(keys);
+	  public Set<String> sunion(final ShardingFunction sf, final String... keys) {
+	    throw notSupported();
 	  }
 
 	  /**
@@ -1115,8 +2083,8 @@ public class LpJedis {
 	   * @return Status code reply
 	   */
 	  
-	  public Long sunionstore(ShardingFunction sf, final String dstkey, final String... keys) {
-	    return getJedis(sf).sunionstore(dstkey, keys);
+	  public Long sunionstore(final ShardingFunction sf, final String dstkey, final String... keys) {
+	    throw notSupported();
 	  }
 
 	  /**
@@ -1141,8 +2109,8 @@ public class LpJedis {
 	   *         provided and all the successive sets.
 	   */
 	  
-	  public Set<String> sdiff(ShardingFunction sf, final String... keys) {
-	    return getJedis(sf).sdiff(keys);
+	  public Set<String> sdiff(final ShardingFunction sf, final String... keys) {
+	    throw notSupported();
 	  }
 
 	  /**
@@ -1153,8 +2121,8 @@ public class LpJedis {
 	   * @return Status code reply
 	   */
 	  
-	  public Long sdiffstore(ShardingFunction sf, final String dstkey, final String... keys) {
-	    return getJedis(sf).sdiffstore(dstkey, keys);
+	  public Long sdiffstore(final ShardingFunction sf, final String dstkey, final String... keys) {
+	    throw notSupported();
 	  }
 
 	  /**
@@ -1168,13 +2136,41 @@ public class LpJedis {
 	   * @return Bulk reply
 	   */
 	  
-	  public String srandmember(ShardingFunction sf, final String key) {
-	    return getJedis(sf).srandmember(key);
+	  public String srandmember(final ShardingFunction sf, final String key) {
+	    return new LpJedisCommand<String>(this, RETRIABLE) {
+	      @Override
+	      public String execute(Jedis connection) {
+	        return connection.srandmember(key);
+	      }
+	    }.run(sf);
+	  }
+
+	  public String srandmember(final KeyShardingFunction ksf, final String key) {
+	    return new LpJedisCommand<String>(this, RETRIABLE) {
+	      @Override
+	      public String execute(Jedis connection) {
+	        return connection.srandmember(key);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  
-	  public List<String> srandmember(ShardingFunction sf, final String key, final int count) {
-	    return getJedis(sf).srandmember(key, count);
+	  public List<String> srandmember(final ShardingFunction sf, final String key, final int count) {
+	    return new LpJedisCommand<List<String>>(this, RETRIABLE) {
+	      @Override
+	      public List<String> execute(Jedis connection) {
+	        return connection.srandmember(key, count);
+	      }
+	    }.run(sf);
+	  }
+
+	  public List<String> srandmember(final KeyShardingFunction ksf, final String key, final int count) {
+	    return new LpJedisCommand<List<String>>(this, RETRIABLE) {
+	      @Override
+	      public List<String> execute(Jedis connection) {
+	        return connection.srandmember(key, count);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  /**
@@ -1194,18 +2190,60 @@ public class LpJedis {
 	   *         already a member of the sorted set and the score was updated
 	   */
 	  
-	  public Long zadd(ShardingFunction sf, final String key, final double score, final String member) {
-	    return getJedis(sf).zadd(key, score, member);
+	  public Long zadd(final ShardingFunction sf, final String key, final double score, final String member) {
+	    return new LpJedisCommand<Long>(this) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.zadd(key, score, member);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Long zadd(final KeyShardingFunction ksf, final String key, final double score, final String member) {
+	    return new LpJedisCommand<Long>(this) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.zadd(key, score, member);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  
-	  public Long zadd(ShardingFunction sf, final String key, final Map<String, Double> scoreMembers) {
-	    return getJedis(sf).zadd(key, scoreMembers);
+	  public Long zadd(final ShardingFunction sf, final String key, final Map<String, Double> scoreMembers) {
+	    return new LpJedisCommand<Long>(this) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.zadd(key, scoreMembers);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Long zadd(final KeyShardingFunction ksf, final String key, final Map<String, Double> scoreMembers) {
+	    return new LpJedisCommand<Long>(this) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.zadd(key, scoreMembers);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  
-	  public Set<String> zrange(ShardingFunction sf, final String key, final long start, final long end) {
-	    return getJedis(sf).zrange(key, start, end);
+	  public Set<String> zrange(final ShardingFunction sf, final String key, final long start, final long end) {
+	    return new LpJedisCommand<Set<String>>(this, RETRIABLE) {
+	      @Override
+	      public Set<String> execute(Jedis connection) {
+	        return connection.zrange(key, start, end);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Set<String> zrange(final KeyShardingFunction ksf, final String key, final long start, final long end) {
+	    return new LpJedisCommand<Set<String>>(this, RETRIABLE) {
+	      @Override
+	      public Set<String> execute(Jedis connection) {
+	        return connection.zrange(key, start, end);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  /**
@@ -1220,8 +2258,22 @@ public class LpJedis {
 	   *         not a member of the set
 	   */
 	  
-	  public Long zrem(ShardingFunction sf, final String key, final String... members) {
-	    return getJedis(sf).zrem(key, members);
+	  public Long zrem(final ShardingFunction sf, final String key, final String... members) {
+	    return new LpJedisCommand<Long>(this) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.zrem(key, members);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Long zrem(final KeyShardingFunction ksf, final String key, final String... members) {
+	    return new LpJedisCommand<Long>(this) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.zrem(key, members);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  /**
@@ -1243,8 +2295,22 @@ public class LpJedis {
 	   * @return The new score
 	   */
 	  
-	  public Double zincrby(ShardingFunction sf, final String key, final double score, final String member) {
-	    return getJedis(sf).zincrby(key, score, member);
+	  public Double zincrby(final ShardingFunction sf, final String key, final double score, final String member) {
+	    return new LpJedisCommand<Double>(this) {
+	      @Override
+	      public Double execute(Jedis connection) {
+	        return connection.zincrby(key, score, member);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Double zincrby(final KeyShardingFunction ksf, final String key, final double score, final String member) {
+	    return new LpJedisCommand<Double>(this) {
+	      @Override
+	      public Double execute(Jedis connection) {
+	        return connection.zincrby(key, score, member);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  /**
@@ -1264,8 +2330,22 @@ public class LpJedis {
 	   *         reply if the element exists. A nil bulk reply if there is no such element.
 	   */
 	  
-	  public Long zrank(ShardingFunction sf, final String key, final String member) {
-	    return getJedis(sf).zrank(key, member);
+	  public Long zrank(final ShardingFunction sf, final String key, final String member) {
+	    return new LpJedisCommand<Long>(this, RETRIABLE) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.zrank(key, member);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Long zrank(final KeyShardingFunction ksf, final String key, final String member) {
+	    return new LpJedisCommand<Long>(this, RETRIABLE) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.zrank(key, member);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  /**
@@ -1285,23 +2365,79 @@ public class LpJedis {
 	   *         reply if the element exists. A nil bulk reply if there is no such element.
 	   */
 	  
-	  public Long zrevrank(ShardingFunction sf, final String key, final String member) {
-	    return getJedis(sf).zrevrank(key, member);
+	  public Long zrevrank(final ShardingFunction sf, final String key, final String member) {
+	    return new LpJedisCommand<Long>(this, RETRIABLE) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.zrevrank(key, member);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Long zrevrank(final KeyShardingFunction ksf, final String key, final String member) {
+	    return new LpJedisCommand<Long>(this, RETRIABLE) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.zrevrank(key, member);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  
-	  public Set<String> zrevrange(ShardingFunction sf, final String key, final long start, final long end) {
-	    return getJedis(sf).zrevrange(key, start, end);
+	  public Set<String> zrevrange(final ShardingFunction sf, final String key, final long start, final long end) {
+	    return new LpJedisCommand<Set<String>>(this, RETRIABLE) {
+	      @Override
+	      public Set<String> execute(Jedis connection) {
+	        return connection.zrevrange(key, start, end);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Set<String> zrevrange(final KeyShardingFunction ksf, final String key, final long start, final long end) {
+	    return new LpJedisCommand<Set<String>>(this, RETRIABLE) {
+	      @Override
+	      public Set<String> execute(Jedis connection) {
+	        return connection.zrevrange(key, start, end);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  
-	  public Set<Tuple> zrangeWithScores(ShardingFunction sf, final String key, final long start, final long end) {
-	    return getJedis(sf).zrangeWithScores(key, start, end);
+	  public Set<Tuple> zrangeWithScores(final ShardingFunction sf, final String key, final long start, final long end) {
+	    return new LpJedisCommand<Set<Tuple>>(this, RETRIABLE) {
+	      @Override
+	      public Set<Tuple> execute(Jedis connection) {
+	        return connection.zrangeWithScores(key, start, end);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Set<Tuple> zrangeWithScores(final KeyShardingFunction ksf, final String key, final long start, final long end) {
+	    return new LpJedisCommand<Set<Tuple>>(this, RETRIABLE) {
+	      @Override
+	      public Set<Tuple> execute(Jedis connection) {
+	        return connection.zrangeWithScores(key, start, end);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  
-	  public Set<Tuple> zrevrangeWithScores(ShardingFunction sf, final String key, final long start, final long end) {
-	    return getJedis(sf).zrevrangeWithScores(key, start, end);
+	  public Set<Tuple> zrevrangeWithScores(final ShardingFunction sf, final String key, final long start, final long end) {
+	    return new LpJedisCommand<Set<Tuple>>(this, RETRIABLE) {
+	      @Override
+	      public Set<Tuple> execute(Jedis connection) {
+	        return connection.zrevrangeWithScores(key, start, end);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Set<Tuple> zrevrangeWithScores(final KeyShardingFunction ksf, final String key, final long start, final long end) {
+	    return new LpJedisCommand<Set<Tuple>>(this, RETRIABLE) {
+	      @Override
+	      public Set<Tuple> execute(Jedis connection) {
+	        return connection.zrevrangeWithScores(key, start, end);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  /**
@@ -1313,8 +2449,22 @@ public class LpJedis {
 	   * @return the cardinality (ShardingFunction sf, number of elements) of the set as an integer.
 	   */
 	  
-	  public Long zcard(ShardingFunction sf, final String key) {
-	    return getJedis(sf).zcard(key);
+	  public Long zcard(final ShardingFunction sf, final String key) {
+	    return new LpJedisCommand<Long>(this, RETRIABLE) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.zcard(key);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Long zcard(final KeyShardingFunction ksf, final String key) {
+	    return new LpJedisCommand<Long>(this, RETRIABLE) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.zcard(key);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  /**
@@ -1328,13 +2478,32 @@ public class LpJedis {
 	   * @return the score
 	   */
 	  
-	  public Double zscore(ShardingFunction sf, final String key, final String member) {
-	    return getJedis(sf).zscore(key, member);
+	  public Double zscore(final ShardingFunction sf, final String key, final String member) {
+	    return new LpJedisCommand<Double>(this, RETRIABLE) {
+	      @Override
+	      public Double execute(Jedis connection) {
+	        return connection.zscore(key, member);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Double zscore(final KeyShardingFunction ksf, final String key, final String member) {
+	    return new LpJedisCommand<Double>(this, RETRIABLE) {
+	      @Override
+	      public Double execute(Jedis connection) {
+	        return connection.zscore(key, member);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  
-	  public String watch(ShardingFunction sf, final String... keys) {
-	    return getJedis(sf).watch(keys);
+	  public String watch(final ShardingFunction sf, final String... keys) {
+	    return new LpJedisCommand<String>(this) {
+	      @Override
+	      public String execute(Jedis connection) {
+	        return connection.watch(keys);
+	      }
+	    }.run(sf);
 	  }
 
 	  /**
@@ -1351,8 +2520,22 @@ public class LpJedis {
 	   *         list of numbers ordered from the smallest to the biggest number.
 	   */
 	  
-	  public List<String> sort(ShardingFunction sf, final String key) {
-	    return getJedis(sf).sort(key);
+	  public List<String> sort(final ShardingFunction sf, final String key) {
+	    return new LpJedisCommand<List<String>>(this, RETRIABLE) {
+	      @Override
+	      public List<String> execute(Jedis connection) {
+	        return connection.sort(key);
+	      }
+	    }.run(sf);
+	  }
+
+	  public List<String> sort(final KeyShardingFunction ksf, final String key) {
+	    return new LpJedisCommand<List<String>>(this, RETRIABLE) {
+	      @Override
+	      public List<String> execute(Jedis connection) {
+	        return connection.sort(key);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  /**
@@ -1430,8 +2613,22 @@ public class LpJedis {
 	   * @return a list of sorted elements.
 	   */
 	  
-	  public List<String> sort(ShardingFunction sf, final String key, final SortingParams sortingParameters) {
-	    return getJedis(sf).sort(key, sortingParameters);
+	  public List<String> sort(final ShardingFunction sf, final String key, final SortingParams sortingParameters) {
+	    return new LpJedisCommand<List<String>>(this, RETRIABLE) {
+	      @Override
+	      public List<String> execute(Jedis connection) {
+	        return connection.sort(key, sortingParameters);
+	      }
+	    }.run(sf);
+	  }
+
+	  public List<String> sort(final KeyShardingFunction ksf, final String key, final SortingParams sortingParameters) {
+	    return new LpJedisCommand<List<String>>(this, RETRIABLE) {
+	      @Override
+	      public List<String> execute(Jedis connection) {
+	        return connection.sort(key, sortingParameters);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  /**
@@ -1497,18 +2694,18 @@ public class LpJedis {
 	   *         accordingly to the programming language used.
 	   */
 	  
-	  public List<String> blpop(ShardingFunction sf, final int timeout, final String... keys) {
-	    return getJedis(sf).blpop(timeout, keys);
+	  public List<String> blpop(final ShardingFunction sf, final int timeout, final String... keys) {
+	    throw notSupported();
 	  }
 
 	  
-	  public List<String> blpop(ShardingFunction sf, String... args) {
-		  return getJedis(sf).blpop(args);
+	  public List<String> blpop(final ShardingFunction sf, final String... args) {
+	    throw notSupported();
 	  }
 
 	  
-	  public List<String> brpop(ShardingFunction sf, String... args) {
-	      return getJedis(sf).brpop(args);
+	  public List<String> brpop(final ShardingFunction sf, final String... args) {
+	    throw notSupported();
 	  }
 
 	  /**
@@ -1522,8 +2719,22 @@ public class LpJedis {
 	   * @return The number of elements of the list at dstkey.
 	   */
 	  
-	  public Long sort(ShardingFunction sf, final String key, final SortingParams sortingParameters, final String dstkey) {
-	    return getJedis(sf).sort(key,  sortingParameters, dstkey);
+	  public Long sort(final ShardingFunction sf, final String key, final SortingParams sortingParameters, final String dstkey) {
+	    return new LpJedisCommand<Long>(this, RETRIABLE) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.sort(key,  sortingParameters, dstkey);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Long sort(final KeyShardingFunction ksf, final String key, final SortingParams sortingParameters, final String dstkey) {
+	    return new LpJedisCommand<Long>(this, RETRIABLE) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.sort(key,  sortingParameters, dstkey);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  /**
@@ -1540,8 +2751,22 @@ public class LpJedis {
 	   * @return The number of elements of the list at dstkey.
 	   */
 	  
-	  public Long sort(ShardingFunction sf, final String key, final String dstkey) {
-	    return getJedis(sf).sort(key, dstkey);
+	  public Long sort(final ShardingFunction sf, final String key, final String dstkey) {
+	    return new LpJedisCommand<Long>(this, RETRIABLE) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.sort(key, dstkey);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Long sort(final KeyShardingFunction ksf, final String key, final String dstkey) {
+	    return new LpJedisCommand<Long>(this, RETRIABLE) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.sort(key, dstkey);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  /**
@@ -1607,18 +2832,46 @@ public class LpJedis {
 	   *         accordingly to the programming language used.
 	   */
 	  
-	  public List<String> brpop(ShardingFunction sf, final int timeout, final String... keys) {
-	    return getJedis(sf).brpop(timeout, keys);
+	  public List<String> brpop(final ShardingFunction sf, final int timeout, final String... keys) {
+	    throw notSupported();
 	  }
 
 	  
-	  public Long zcount(ShardingFunction sf, final String key, final double min, final double max) {
-	    return getJedis(sf).zcount(key, min, max);
+	  public Long zcount(final ShardingFunction sf, final String key, final double min, final double max) {
+	    return new LpJedisCommand<Long>(this, RETRIABLE) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.zcount(key, min, max);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Long zcount(final KeyShardingFunction ksf, final String key, final double min, final double max) {
+	    return new LpJedisCommand<Long>(this, RETRIABLE) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.zcount(key, min, max);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  
-	  public Long zcount(ShardingFunction sf, final String key, final String min, final String max) {
-	    return getJedis(sf).zcount(key, min, max);
+	  public Long zcount(final ShardingFunction sf, final String key, final String min, final String max) {
+	    return new LpJedisCommand<Long>(this, RETRIABLE) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.zcount(key, min, max);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Long zcount(final KeyShardingFunction ksf, final String key, final String min, final String max) {
+	    return new LpJedisCommand<Long>(this, RETRIABLE) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.zcount(key, min, max);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  /**
@@ -1670,13 +2923,41 @@ public class LpJedis {
 	   * @return Multi bulk reply specifically a list of elements in the specified score range.
 	   */
 	  
-	  public Set<String> zrangeByScore(ShardingFunction sf, final String key, final double min, final double max) {
-	    return getJedis(sf).zrangeByScore(key, min, max);
+	  public Set<String> zrangeByScore(final ShardingFunction sf, final String key, final double min, final double max) {
+	    return new LpJedisCommand<Set<String>>(this, RETRIABLE) {
+	      @Override
+	      public Set<String> execute(Jedis connection) {
+	        return connection.zrangeByScore(key, min, max);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Set<String> zrangeByScore(final KeyShardingFunction ksf, final String key, final double min, final double max) {
+	    return new LpJedisCommand<Set<String>>(this, RETRIABLE) {
+	      @Override
+	      public Set<String> execute(Jedis connection) {
+	        return connection.zrangeByScore(key, min, max);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  
-	  public Set<String> zrangeByScore(ShardingFunction sf, final String key, final String min, final String max) {
-	    return getJedis(sf).zrangeByScore(key, min, max);
+	  public Set<String> zrangeByScore(final ShardingFunction sf, final String key, final String min, final String max) {
+	    return new LpJedisCommand<Set<String>>(this, RETRIABLE) {
+	      @Override
+	      public Set<String> execute(Jedis connection) {
+	        return connection.zrangeByScore(key, min, max);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Set<String> zrangeByScore(final KeyShardingFunction ksf, final String key, final String min, final String max) {
+	    return new LpJedisCommand<Set<String>>(this, RETRIABLE) {
+	      @Override
+	      public Set<String> execute(Jedis connection) {
+	        return connection.zrangeByScore(key, min, max);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  /**
@@ -1727,15 +3008,45 @@ public class LpJedis {
 	   * @return Multi bulk reply specifically a list of elements in the specified score range.
 	   */
 	  
-	  public Set<String> zrangeByScore(ShardingFunction sf, final String key, final double min, final double max,
+	  public Set<String> zrangeByScore(final ShardingFunction sf, final String key, final double min, final double max,
+	      final int offset, final int count) {
+	    return new LpJedisCommand<Set<String>>(this, RETRIABLE) {
+	      @Override
+	      public Set<String> execute(Jedis connection) {
+	        return connection.zrangeByScore(key, min, max, offset, count);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Set<String> zrangeByScore(final KeyShardingFunction ksf, final String key, final double min, final double max,
 	      final int offset, final int count) {
-	    return getJedis(sf).zrangeByScore(key, min, max, offset, count);
+	    return new LpJedisCommand<Set<String>>(this, RETRIABLE) {
+	      @Override
+	      public Set<String> execute(Jedis connection) {
+	        return connection.zrangeByScore(key, min, max, offset, count);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  
-	  public Set<String> zrangeByScore(ShardingFunction sf, final String key, final String min, final String max,
+	  public Set<String> zrangeByScore(final ShardingFunction sf, final String key, final String min, final String max,
+	      final int offset, final int count) {
+	    return new LpJedisCommand<Set<String>>(this, RETRIABLE) {
+	      @Override
+	      public Set<String> execute(Jedis connection) {
+	        return connection.zrangeByScore(key, min, max, offset, count);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Set<String> zrangeByScore(final KeyShardingFunction ksf, final String key, final String min, final String max,
 	      final int offset, final int count) {
-	    return getJedis(sf).zrangeByScore(key, min, max, offset, count);
+	    return new LpJedisCommand<Set<String>>(this, RETRIABLE) {
+	      @Override
+	      public Set<String> execute(Jedis connection) {
+	        return connection.zrangeByScore(key, min, max, offset, count);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  /**
@@ -1786,13 +3097,41 @@ public class LpJedis {
 	   * @return Multi bulk reply specifically a list of elements in the specified score range.
 	   */
 	  
-	  public Set<Tuple> zrangeByScoreWithScores(ShardingFunction sf, final String key, final double min, final double max) {
-	    return getJedis(sf).zrangeByScoreWithScores(key, min, max);
+	  public Set<Tuple> zrangeByScoreWithScores(final ShardingFunction sf, final String key, final double min, final double max) {
+	    return new LpJedisCommand<Set<Tuple>>(this, RETRIABLE) {
+	      @Override
+	      public Set<Tuple> execute(Jedis connection) {
+	        return connection.zrangeByScoreWithScores(key, min, max);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Set<Tuple> zrangeByScoreWithScores(final KeyShardingFunction ksf, final String key, final double min, final double max) {
+	    return new LpJedisCommand<Set<Tuple>>(this, RETRIABLE) {
+	      @Override
+	      public Set<Tuple> execute(Jedis connection) {
+	        return connection.zrangeByScoreWithScores(key, min, max);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  
-	  public Set<Tuple> zrangeByScoreWithScores(ShardingFunction sf, final String key, final String min, final String max) {
-	    return getJedis(sf).zrangeByScoreWithScores(key, min, max);
+	  public Set<Tuple> zrangeByScoreWithScores(final ShardingFunction sf, final String key, final String min, final String max) {
+	    return new LpJedisCommand<Set<Tuple>>(this, RETRIABLE) {
+	      @Override
+	      public Set<Tuple> execute(Jedis connection) {
+	        return connection.zrangeByScoreWithScores(key, min, max);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Set<Tuple> zrangeByScoreWithScores(final KeyShardingFunction ksf, final String key, final String min, final String max) {
+	    return new LpJedisCommand<Set<Tuple>>(this, RETRIABLE) {
+	      @Override
+	      public Set<Tuple> execute(Jedis connection) {
+	        return connection.zrangeByScoreWithScores(key, min, max);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  /**
@@ -1843,58 +3182,204 @@ public class LpJedis {
 	   * @return Multi bulk reply specifically a list of elements in the specified score range.
 	   */
 	  
-	  public Set<Tuple> zrangeByScoreWithScores(ShardingFunction sf, final String key, final double min, final double max,
+	  public Set<Tuple> zrangeByScoreWithScores(final ShardingFunction sf, final String key, final double min, final double max,
+	      final int offset, final int count) {
+	    return new LpJedisCommand<Set<Tuple>>(this, RETRIABLE) {
+	      @Override
+	      public Set<Tuple> execute(Jedis connection) {
+	        return connection.zrangeByScoreWithScores(key, min, max, offset, count);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Set<Tuple> zrangeByScoreWithScores(final KeyShardingFunction ksf, final String key, final double min, final double max,
 	      final int offset, final int count) {
-	    return getJedis(sf).zrangeByScoreWithScores(key, min, max, offset, count);
+	    return new LpJedisCommand<Set<Tuple>>(this, RETRIABLE) {
+	      @Override
+	      public Set<Tuple> execute(Jedis connection) {
+	        return connection.zrangeByScoreWithScores(key, min, max, offset, count);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  
-	  public Set<Tuple> zrangeByScoreWithScores(ShardingFunction sf, final String key, final String min, final String max,
+	  public Set<Tuple> zrangeByScoreWithScores(final ShardingFunction sf, final String key, final String min, final String max,
 	      final int offset, final int count) {
-	    return getJedis(sf).zrangeByScoreWithScores(key, min, max, offset, count);
+	    return new LpJedisCommand<Set<Tuple>>(this, RETRIABLE) {
+	      @Override
+	      public Set<Tuple> execute(Jedis connection) {
+	        return connection.zrangeByScoreWithScores(key, min, max, offset, count);
+	      }
+	    }.run(sf);
 	  }
 
-	  public Set<String> zrevrangeByScore(ShardingFunction sf, final String key, final double max, final double min) {
-	    return getJedis(sf).zrevrangeByScore(key, max, min);
+	  public Set<Tuple> zrangeByScoreWithScores(final KeyShardingFunction ksf, final String key, final String min, final String max,
+	      final int offset, final int count) {
+	    return new LpJedisCommand<Set<Tuple>>(this, RETRIABLE) {
+	      @Override
+	      public Set<Tuple> execute(Jedis connection) {
+	        return connection.zrangeByScoreWithScores(key, min, max, offset, count);
+	      }
+	    }.run(ksf, key);
+	  }
+
+	  public Set<String> zrevrangeByScore(final ShardingFunction sf, final String key, final double max, final double min) {
+	    return new LpJedisCommand<Set<String>>(this, RETRIABLE) {
+	      @Override
+	      public Set<String> execute(Jedis connection) {
+	        return connection.zrevrangeByScore(key, max, min);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Set<String> zrevrangeByScore(final KeyShardingFunction ksf, final String key, final double max, final double min) {
+	    return new LpJedisCommand<Set<String>>(this, RETRIABLE) {
+	      @Override
+	      public Set<String> execute(Jedis connection) {
+	        return connection.zrevrangeByScore(key, max, min);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  
-	  public Set<String> zrevrangeByScore(ShardingFunction sf, final String key, final String max, final String min) {
-	    return getJedis(sf).zrevrangeByScore(key, max, min);
+	  public Set<String> zrevrangeByScore(final ShardingFunction sf, final String key, final String max, final String min) {
+	    return new LpJedisCommand<Set<String>>(this, RETRIABLE) {
+	      @Override
+	      public Set<String> execute(Jedis connection) {
+	        return connection.zrevrangeByScore(key, max, min);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Set<String> zrevrangeByScore(final KeyShardingFunction ksf, final String key, final String max, final String min) {
+	    return new LpJedisCommand<Set<String>>(this, RETRIABLE) {
+	      @Override
+	      public Set<String> execute(Jedis connection) {
+	        return connection.zrevrangeByScore(key, max, min);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  
-	  public Set<String> zrevrangeByScore(ShardingFunction sf, final String key, final double max, final double min,
+	  public Set<String> zrevrangeByScore(final ShardingFunction sf, final String key, final double max, final double min,
+	      final int offset, final int count) {
+	    return new LpJedisCommand<Set<String>>(this, RETRIABLE) {
+	      @Override
+	      public Set<String> execute(Jedis connection) {
+	        return connection.zrevrangeByScore(key, max, min, offset, count);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Set<String> zrevrangeByScore(final KeyShardingFunction ksf, final String key, final double max, final double min,
 	      final int offset, final int count) {
-	    return getJedis(sf).zrevrangeByScore(key, max, min, offset, count);
+	    return new LpJedisCommand<Set<String>>(this, RETRIABLE) {
+	      @Override
+	      public Set<String> execute(Jedis connection) {
+	        return connection.zrevrangeByScore(key, max, min, offset, count);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  
-	  public Set<Tuple> zrevrangeByScoreWithScores(ShardingFunction sf, final String key, final double max, final double min) {
-	    return getJedis(sf).zrevrangeByScoreWithScores(key, max, min);
+	  public Set<Tuple> zrevrangeByScoreWithScores(final ShardingFunction sf, final String key, final double max, final double min) {
+	    return new LpJedisCommand<Set<Tuple>>(this, RETRIABLE) {
+	      @Override
+	      public Set<Tuple> execute(Jedis connection) {
+	        return connection.zrevrangeByScoreWithScores(key, max, min);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Set<Tuple> zrevrangeByScoreWithScores(final KeyShardingFunction ksf, final String key, final double max, final double min) {
+	    return new LpJedisCommand<Set<Tuple>>(this, RETRIABLE) {
+	      @Override
+	      public Set<Tuple> execute(Jedis connection) {
+	        return connection.zrevrangeByScoreWithScores(key, max, min);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  
-	  public Set<Tuple> zrevrangeByScoreWithScores(ShardingFunction sf, final String key, final double max,
+	  public Set<Tuple> zrevrangeByScoreWithScores(final ShardingFunction sf, final String key, final double max,
 	      final double min, final int offset, final int count) {
-	    return getJedis(sf).zrevrangeByScoreWithScores(key, max, min, offset, count);
+	    return new LpJedisCommand<Set<Tuple>>(this, RETRIABLE) {
+	      @Override
+	      public Set<Tuple> execute(Jedis connection) {
+	        return connection.zrevrangeByScoreWithScores(key, max, min, offset, count);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Set<Tuple> zrevrangeByScoreWithScores(final KeyShardingFunction ksf, final String key, final double max,
+	      final double min, final int offset, final int count) {
+	    return new LpJedisCommand<Set<Tuple>>(this, RETRIABLE) {
+	      @Override
+	      public Set<Tuple> execute(Jedis connection) {
+	        return connection.zrevrangeByScoreWithScores(key, max, min, offset, count);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  
-	  public Set<Tuple> zrevrangeByScoreWithScores(ShardingFunction sf, final String key, final String max,
+	  public Set<Tuple> zrevrangeByScoreWithScores(final ShardingFunction sf, final String key, final String max,
+	      final String min, final int offset, final int count) {
+	    return new LpJedisCommand<Set<Tuple>>(this, RETRIABLE) {
+	      @Override
+	      public Set<Tuple> execute(Jedis connection) {
+	        return connection.zrevrangeByScoreWithScores(key, max, min, offset, count);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Set<Tuple> zrevrangeByScoreWithScores(final KeyShardingFunction ksf, final String key, final String max,
 	      final String min, final int offset, final int count) {
-	    return getJedis(sf).zrevrangeByScoreWithScores(key, max, min, offset, count);
+	    return new LpJedisCommand<Set<Tuple>>(this, RETRIABLE) {
+	      @Override
+	      public Set<Tuple> execute(Jedis connection) {
+	        return connection.zrevrangeByScoreWithScores(key, max, min, offset, count);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  
-	  public Set<String> zrevrangeByScore(ShardingFunction sf, final String key, final String max, final String min,
+	  public Set<String> zrevrangeByScore(final ShardingFunction sf, final String key, final String max, final String min,
 	      final int offset, final int count) {
-	    return getJedis(sf).zrevrangeByScore(key, max, min, offset, count);
+	    return new LpJedisCommand<Set<String>>(this, RETRIABLE) {
+	      @Override
+	      public Set<String> execute(Jedis connection) {
+	        return connection.zrevrangeByScore(key, max, min, offset, count);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Set<String> zrevrangeByScore(final KeyShardingFunction ksf, final String key, final String max, final String min,
+	      final int offset, final int count) {
+	    return new LpJedisCommand<Set<String>>(this, RETRIABLE) {
+	      @Override
+	      public Set<String> execute(Jedis connection) {
+	        return connection.zrevrangeByScore(key, max, min, offset, count);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  
-	  public Set<Tuple> zrevrangeByScoreWithScores(ShardingFunction sf, final String key, final String max, final String min) {
-	    return getJedis(sf).zrevrangeByScoreWithScores(key, max, min);
+	  public Set<Tuple> zrevrangeByScoreWithScores(final ShardingFunction sf, final String key, final String max, final String min) {
+	    return new LpJedisCommand<Set<Tuple>>(this, RETRIABLE) {
+	      @Override
+	      public Set<Tuple> execute(Jedis connection) {
+	        return connection.zrevrangeByScoreWithScores(key, max, min);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Set<Tuple> zrevrangeByScoreWithScores(final KeyShardingFunction ksf, final String key, final String max, final String min) {
+	    return new LpJedisCommand<Set<Tuple>>(this, RETRIABLE) {
+	      @Override
+	      public Set<Tuple> execute(Jedis connection) {
+	        return connection.zrevrangeByScoreWithScores(key, max, min);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  /**
@@ -1908,8 +3393,22 @@ public class LpJedis {
 	   * and M the number of elements removed by the operation
 	   */
 	  
-	  public Long zremrangeByRank(ShardingFunction sf, final String key, final long start, final long end) {
-	    return getJedis(sf).zremrangeByRank(key, start, end);
+	  public Long zremrangeByRank(final ShardingFunction sf, final String key, final long start, final long end) {
+	    return new LpJedisCommand<Long>(this) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.zremrangeByRank(key, start, end);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Long zremrangeByRank(final KeyShardingFunction ksf, final String key, final long start, final long end) {
+	    return new LpJedisCommand<Long>(this) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.zremrangeByRank(key, start, end);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  /**
@@ -1926,13 +3425,41 @@ public class LpJedis {
 	   * @return Integer reply, specifically the number of elements removed.
 	   */
 	  
-	  public Long zremrangeByScore(ShardingFunction sf, final String key, final double start, final double end) {
-	    return getJedis(sf).zremrangeByScore(key, start, end);
+	  public Long zremrangeByScore(final ShardingFunction sf, final String key, final double start, final double end) {
+	    return new LpJedisCommand<Long>(this) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.zremrangeByScore(key, start, end);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Long zremrangeByScore(final KeyShardingFunction ksf, final String key, final double start, final double end) {
+	    return new LpJedisCommand<Long>(this) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.zremrangeByScore(key, start, end);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  
-	  public Long zremrangeByScore(ShardingFunction sf, final String key, final String start, final String end) {
-	    return getJedis(sf).zremrangeByScore(key, start, end);
+	  public Long zremrangeByScore(final ShardingFunction sf, final String key, final String start, final String end) {
+	    return new LpJedisCommand<Long>(this) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.zremrangeByScore(key, start, end);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Long zremrangeByScore(final KeyShardingFunction ksf, final String key, final String start, final String end) {
+	    return new LpJedisCommand<Long>(this) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.zremrangeByScore(key, start, end);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  /**
@@ -1966,8 +3493,8 @@ public class LpJedis {
 	   * @return Integer reply, specifically the number of elements in the sorted set at dstkey
 	   */
 	  
-	  public Long zunionstore(ShardingFunction sf, final String dstkey, final String... sets) {
-	    return getJedis(sf).zunionstore(dstkey, sets);
+	  public Long zunionstore(final ShardingFunction sf, final String dstkey, final String... sets) {
+	    throw notSupported();
 	  }
 
 	  /**
@@ -2002,8 +3529,8 @@ public class LpJedis {
 	   * @return Integer reply, specifically the number of elements in the sorted set at dstkey
 	   */
 	  
-	  public Long zunionstore(ShardingFunction sf, final String dstkey, final ZParams params, final String... sets) {
-	    return getJedis(sf).zunionstore(dstkey, params, sets);
+	  public Long zunionstore(final ShardingFunction sf, final String dstkey, final ZParams params, final String... sets) {
+	    throw notSupported();
 	  }
 
 	  /**
@@ -2037,8 +3564,8 @@ public class LpJedis {
 	   * @return Integer reply, specifically the number of elements in the sorted set at dstkey
 	   */
 	  
-	  public Long zinterstore(ShardingFunction sf, final String dstkey, final String... sets) {
-	    return getJedis(sf).zinterstore(dstkey, sets);
+	  public Long zinterstore(final ShardingFunction sf, final String dstkey, final String... sets) {
+	    throw notSupported();
 	  }
 
 	  /**
@@ -2073,48 +3600,161 @@ public class LpJedis {
 	   * @return Integer reply, specifically the number of elements in the sorted set at dstkey
 	   */
 	  
-	  public Long zinterstore(ShardingFunction sf, final String dstkey, final ZParams params, final String... sets) {
-	    return getJedis(sf).zinterstore(dstkey, params, sets);
+	  public Long zinterstore(final ShardingFunction sf, final String dstkey, final ZParams params, final String... sets) {
+	    throw notSupported();
 	  }
 
 	  
-	  public Long zlexcount(ShardingFunction sf, final String key, final String min, final String max) {
-	    return getJedis(sf).zlexcount(key, min, max);
+	  public Long zlexcount(final ShardingFunction sf, final String key, final String min, final String max) {
+	    return new LpJedisCommand<Long>(this, RETRIABLE) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.zlexcount(key, min, max);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Long zlexcount(final KeyShardingFunction ksf, final String key, final String min, final String max) {
+	    return new LpJedisCommand<Long>(this, RETRIABLE) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.zlexcount(key, min, max);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  
-	  public Set<String> zrangeByLex(ShardingFunction sf, final String key, final String min, final String max) {
-	    return getJedis(sf).zrangeByLex(key, min, max);
+	  public Set<String> zrangeByLex(final ShardingFunction sf, final String key, final String min, final String max) {
+	    return new LpJedisCommand<Set<String>>(this, RETRIABLE) {
+	      @Override
+	      public Set<String> execute(Jedis connection) {
+	        return connection.zrangeByLex(key, min, max);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Set<String> zrangeByLex(final KeyShardingFunction ksf, final String key, final String min, final String max) {
+	    return new LpJedisCommand<Set<String>>(this, RETRIABLE) {
+	      @Override
+	      public Set<String> execute(Jedis connection) {
+	        return connection.zrangeByLex(key, min, max);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  
-	  public Set<String> zrangeByLex(ShardingFunction sf, final String key, final String min, final String max,
+	  public Set<String> zrangeByLex(final ShardingFunction sf, final String key, final String min, final String max,
+	      final int offset, final int count) {
+	    return new LpJedisCommand<Set<String>>(this, RETRIABLE) {
+	      @Override
+	      public Set<String> execute(Jedis connection) {
+	        return connection.zrangeByLex(key, min, max);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Set<String> zrangeByLex(final KeyShardingFunction ksf, final String key, final String min, final String max,
 	      final int offset, final int count) {
-		  return getJedis(sf).zrangeByLex(key, min, max);
+	    return new LpJedisCommand<Set<String>>(this, RETRIABLE) {
+	      @Override
+	      public Set<String> execute(Jedis connection) {
+	        return connection.zrangeByLex(key, min, max);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  
-	  public Set<String> zrevrangeByLex(ShardingFunction sf, String key, String max, String min) {
-		  return getJedis(sf).zrevrangeByLex(key, max, min);
+	  public Set<String> zrevrangeByLex(final ShardingFunction sf, final String key, final String max, final String min) {
+	    return new LpJedisCommand<Set<String>>(this, RETRIABLE) {
+	      @Override
+	      public Set<String> execute(Jedis connection) {
+	        return connection.zrevrangeByLex(key, max, min);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Set<String> zrevrangeByLex(final KeyShardingFunction ksf, final String key, final String max, final String min) {
+	    return new LpJedisCommand<Set<String>>(this, RETRIABLE) {
+	      @Override
+	      public Set<String> execute(Jedis connection) {
+	        return connection.zrevrangeByLex(key, max, min);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  
-	  public Set<String> zrevrangeByLex(ShardingFunction sf, String key, String max, String min, int offset, int count) {
-		  return getJedis(sf).zrevrangeByLex(key, max, min);
+	  public Set<String> zrevrangeByLex(final ShardingFunction sf, final String key, final String max, final String min, final int offset, final int count) {
+	    return new LpJedisCommand<Set<String>>(this, RETRIABLE) {
+	      @Override
+	      public Set<String> execute(Jedis connection) {
+	        return connection.zrevrangeByLex(key, max, min);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Set<String> zrevrangeByLex(final KeyShardingFunction ksf, final String key, final String max, final String min, final int offset, final int count) {
+	    return new LpJedisCommand<Set<String>>(this, RETRIABLE) {
+	      @Override
+	      public Set<String> execute(Jedis connection) {
+	        return connection.zrevrangeByLex(key, max, min);
+	      }
+	    }.run(ksf, key);
 	  }
 
-	  public Long zremrangeByLex(ShardingFunction sf, final String key, final String min, final String max) {
-	    return getJedis(sf).zremrangeByLex(key, max, max);
+	  public Long zremrangeByLex(final ShardingFunction sf, final String key, final String min, final String max) {
+	    return new LpJedisCommand<Long>(this) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.zremrangeByLex(key, max, max);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Long zremrangeByLex(final KeyShardingFunction ksf, final String key, final String min, final String max) {
+	    return new LpJedisCommand<Long>(this) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.zremrangeByLex(key, max, max);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  
-	  public Long strlen(ShardingFunction sf, final String key) {
-	    return getJedis(sf).strlen(key);
+	  public Long strlen(final ShardingFunction sf, final String key) {
+	    return new LpJedisCommand<Long>(this, RETRIABLE) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.strlen(key);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Long strlen(final KeyShardingFunction ksf, final String key) {
+	    return new LpJedisCommand<Long>(this, RETRIABLE) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.strlen(key);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  
-	  public Long lpushx(ShardingFunction sf, final String key, final String... string) {
-	    return getJedis(sf).lpushx(key, string);
+	  public Long lpushx(final ShardingFunction sf, final String key, final String... string) {
+	    return new LpJedisCommand<Long>(this) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.lpushx(key, string);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Long lpushx(final KeyShardingFunction ksf, final String key, final String... string) {
+	    return new LpJedisCommand<Long>(this) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.lpushx(key, string);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  /**
@@ -2126,24 +3766,72 @@ public class LpJedis {
 	   *         happens when key not set).
 	   */
 	  
-	  public Long persist(ShardingFunction sf, final String key) {
-	    return getJedis(sf).persist(key);
+	  public Long persist(final ShardingFunction sf, final String key) {
+	    return new LpJedisCommand<Long>(this) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.persist(key);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Long persist(final KeyShardingFunction ksf, final String key) {
+	    return new LpJedisCommand<Long>(this) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.persist(key);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  
-	  public Long rpushx(ShardingFunction sf, final String key, final String... string) {
-	    return getJedis(sf).rpushx(key, string);
+	  public Long rpushx(final ShardingFunction sf, final String key, final String... string) {
+	    return new LpJedisCommand<Long>(this) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.rpushx(key, string);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Long rpushx(final KeyShardingFunction ksf, final String key, final String... string) {
+	    return new LpJedisCommand<Long>(this) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.rpushx(key, string);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  
-	  public String echo(ShardingFunction sf, final String string) {
-	    return getJedis(sf).echo(string);
+	  public String echo(final ShardingFunction sf, final String string) {
+	    return new LpJedisCommand<String>(this, RETRIABLE) {
+	      @Override
+	      public String execute(Jedis connection) {
+	        return connection.echo(string);
+	      }
+	    }.run(sf);
 	  }
 
 	  
-	  public Long linsert(ShardingFunction sf, final String key, final LIST_POSITION where, final String pivot,
+	  public Long linsert(final ShardingFunction sf, final String key, final LIST_POSITION where, final String pivot,
+	      final String value) {
+	    return new LpJedisCommand<Long>(this) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.linsert(key, where, pivot, value);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Long linsert(final KeyShardingFunction ksf, final String key, final LIST_POSITION where, final String pivot,
 	      final String value) {
-	    return getJedis(sf).linsert(key, where, pivot, value);
+	    return new LpJedisCommand<Long>(this) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.linsert(key, where, pivot, value);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  /**
@@ -2154,8 +3842,8 @@ public class LpJedis {
 	   * @return the element
 	   */
 	  
-	  public String brpoplpush(ShardingFunction sf, String source, String destination, int timeout) {
-	      return getJedis(sf).brpoplpush(source, destination, timeout);
+	  public String brpoplpush(final ShardingFunction sf, final String source, final String destination, final int timeout) {
+	    throw notSupported();
 	  }
 
 	  /**
@@ -2166,13 +3854,41 @@ public class LpJedis {
 	   * @return
 	   */
 	  
-	  public Boolean setbit(ShardingFunction sf, String key, long offset, boolean value) {
-	    return getJedis(sf).setbit(key, offset, value);
+	  public Boolean setbit(final ShardingFunction sf, final String key, final long offset, final boolean value) {
+	    return new LpJedisCommand<Boolean>(this) {
+	      @Override
+	      public Boolean execute(Jedis connection) {
+	        return connection.setbit(key, offset, value);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Boolean setbit(final KeyShardingFunction ksf, final String key, final long offset, final boolean value) {
+	    return new LpJedisCommand<Boolean>(this) {
+	      @Override
+	      public Boolean execute(Jedis connection) {
+	        return connection.setbit(key, offset, value);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  
-	  public Boolean setbit(ShardingFunction sf, String key, long offset, String value) {
-	    return getJedis(sf).setbit(key, offset, value);
+	  public Boolean setbit(final ShardingFunction sf, final String key, final long offset, final String value) {
+	    return new LpJedisCommand<Boolean>(this) {
+	      @Override
+	      public Boolean execute(Jedis connection) {
+	        return connection.setbit(key, offset, value);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Boolean setbit(final KeyShardingFunction ksf, final String key, final long offset, final String value) {
+	    return new LpJedisCommand<Boolean>(this) {
+	      @Override
+	      public Boolean execute(Jedis connection) {
+	        return connection.setbit(key, offset, value);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  /**
@@ -2182,28 +3898,98 @@ public class LpJedis {
 	   * @return
 	   */
 	  
-	  public Boolean getbit(ShardingFunction sf, String key, long offset) {
-	    return getJedis(sf).getbit(key, offset);
+	  public Boolean getbit(final ShardingFunction sf, final String key, final long offset) {
+	    return new LpJedisCommand<Boolean>(this, RETRIABLE) {
+	      @Override
+	      public Boolean execute(Jedis connection) {
+	        return connection.getbit(key, offset);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Boolean getbit(final KeyShardingFunction ksf, final String key, final long offset) {
+	    return new LpJedisCommand<Boolean>(this, RETRIABLE) {
+	      @Override
+	      public Boolean execute(Jedis connection) {
+	        return connection.getbit(key, offset);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  
-	  public Long setrange(ShardingFunction sf, String key, long offset, String value) {
-	    return getJedis(sf).setrange(key, offset, value);
+	  public Long setrange(final ShardingFunction sf, final String key, final long offset, final String value) {
+	    return new LpJedisCommand<Long>(this, RETRIABLE) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.setrange(key, offset, value);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Long setrange(final KeyShardingFunction ksf, final String key, final long offset, final String value) {
+	    return new LpJedisCommand<Long>(this, RETRIABLE) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.setrange(key, offset, value);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  
-	  public String getrange(ShardingFunction sf, String key, long startOffset, long endOffset) {
-	    return getJedis(sf).getrange(key, startOffset, endOffset);
+	  public String getrange(final ShardingFunction sf, final String key, final long startOffset, final long endOffset) {
+	    return new LpJedisCommand<String>(this, RETRIABLE) {
+	      @Override
+	      public String execute(Jedis connection) {
+	        return connection.getrange(key, startOffset, endOffset);
+	      }
+	    }.run(sf);
+	  }
+
+	  public String getrange(final KeyShardingFunction ksf, final String key, final long startOffset, final long endOffset) {
+	    return new LpJedisCommand<String>(this, RETRIABLE) {
+	      @Override
+	      public String execute(Jedis connection) {
+	        return connection.getrange(key, startOffset, endOffset);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  
-	  public Long bitpos(ShardingFunction sf, final String key, final boolean value) {
-	    return getJedis(sf).bitpos(key, value);
+	  public Long bitpos(final ShardingFunction sf, final String key, final boolean value) {
+	    return new LpJedisCommand<Long>(this, RETRIABLE) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.bitpos(key, value);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Long bitpos(final KeyShardingFunction ksf, final String key, final boolean value) {
+	    return new LpJedisCommand<Long>(this, RETRIABLE) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.bitpos(key, value);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  
-	  public Long bitpos(ShardingFunction sf, final String key, final boolean value, final BitPosParams params) {
-	    return getJedis(sf).bitpos(key, value, params);
+	  public Long bitpos(final ShardingFunction sf, final String key, final boolean value, final BitPosParams params) {
+	    return new LpJedisCommand<Long>(this, RETRIABLE) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.bitpos(key, value, params);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Long bitpos(final KeyShardingFunction ksf, final String key, final boolean value, final BitPosParams params) {
+	    return new LpJedisCommand<Long>(this, RETRIABLE) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.bitpos(key, value, params);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  /**
@@ -2241,8 +4027,13 @@ public class LpJedis {
 	   * @return Bulk reply.
 	   */
 	  
-	  public List<String> configGet(ShardingFunction sf, final String pattern) {
-	    return getJedis(sf).configGet(pattern);
+	  public List<String> configGet(final ShardingFunction sf, final String pattern) {
+	    return new LpJedisCommand<List<String>>(this, RETRIABLE) {
+	      @Override
+	      public List<String> execute(Jedis connection) {
+	        return connection.configGet(pattern);
+	      }
+	    }.run(sf);
 	  }
 
 	  /**
@@ -2275,95 +4066,205 @@ public class LpJedis {
 	   * @return Status code reply
 	   */
 	  
-	  public String configSet(ShardingFunction sf, final String parameter, final String value) {
-	    return getJedis(sf).configSet(parameter, value);
+	  public String configSet(final ShardingFunction sf, final String parameter, final String value) {
+	    return new LpJedisCommand<String>(this, RETRIABLE) {
+	      @Override
+	      public String execute(Jedis connection) {
+	        return connection.configSet(parameter, value);
+	      }
+	    }.run(sf);
 	  }
 
 	  
-	  public Object eval(ShardingFunction sf, String script, int keyCount, String... params) {
-		  return getJedis(sf).eval(script, keyCount, params);
+	  public Object eval(final ShardingFunction sf, final String script, final int keyCount, final String... params) {
+	    return new LpJedisCommand<Object>(this) {
+	      @Override
+	      public Object execute(Jedis connection) {
+	        return connection.eval(script, keyCount, params);
+	      }
+	    }.run(sf);
 	  }
 
 	  
-	  public void subscribe(ShardingFunction sf, final JedisPubSub jedisPubSub, final String... channels) {
-		  getJedis(sf).subscribe(jedisPubSub, channels);
+	  public void subscribe(final ShardingFunction sf, final JedisPubSub jedisPubSub, final String... channels) {
+	    new LpJedisCommand<Void>(this) {
+	      @Override
+	      public Void execute(Jedis connection) {
+	        connection.subscribe(jedisPubSub, channels);
+	        return null;
+	      }
+	    }.run(sf);
 	  }
 
 	  
-	  public Long publish(ShardingFunction sf, final String channel, final String message) {
-	    return getJedis(sf).publish(channel, message);
+	  public Long publish(final ShardingFunction sf, final String channel, final String message) {
+	    return new LpJedisCommand<Long>(this) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.publish(channel, message);
+	      }
+	    }.run(sf);
 	  }
 
 	  
-	  public void psubscribe(ShardingFunction sf, final JedisPubSub jedisPubSub, final String... patterns) {
-		  getJedis(sf).psubscribe(jedisPubSub, patterns);
+	  public void psubscribe(final ShardingFunction sf, final JedisPubSub jedisPubSub, final String... patterns) {
+	    new LpJedisCommand<Void>(this) {
+	      @Override
+	      public Void execute(Jedis connection) {
+	        connection.psubscribe(jedisPubSub, patterns);
+	        return null;
+	      }
+	    }.run(sf);
 	  }
 
-	  public Object eval(ShardingFunction sf, String script, List<String> keys, List<String> args) {
-	    return getJedis(sf).eval(script, keys, args);
+	  public Object eval(final ShardingFunction sf, final String script, final List<String> keys, final List<String> args) {
+	    return new LpJedisCommand<Object>(this) {
+	      @Override
+	      public Object execute(Jedis connection) {
+	        return connection.eval(script, keys, args);
+	      }
+	    }.run(sf);
 	  }
 
 	  
-	  public Object eval(ShardingFunction sf, String script) {
-	    return getJedis(sf).eval(script);
+	  public Object eval(final ShardingFunction sf, final String script) {
+	    return new LpJedisCommand<Object>(this) {
+	      @Override
+	      public Object execute(Jedis connection) {
+	        return connection.eval(script);
+	      }
+	    }.run(sf);
 	  }
 
 	  
-	  public Object evalsha(ShardingFunction sf, String script) {
-	    return getJedis(sf).evalsha(script);
+	  public Object evalsha(final ShardingFunction sf, final String script) {
+	    return new LpJedisCommand<Object>(this) {
+	      @Override
+	      public Object execute(Jedis connection) {
+	        return connection.evalsha(script);
+	      }
+	    }.run(sf);
 	  }
 
-	  public Object evalsha(ShardingFunction sf, String sha1, List<String> keys, List<String> args) {
-	    return getJedis(sf).evalsha(sha1, keys, args);
+	  public Object evalsha(final ShardingFunction sf, final String sha1, final List<String> keys, final List<String> args) {
+	    return new LpJedisCommand<Object>(this) {
+	      @Override
+	      public Object execute(Jedis connection) {
+	        return connection.evalsha(sha1, keys, args);
+	      }
+	    }.run(sf);
 	  }
 
 	  
-	  public Object evalsha(ShardingFunction sf, String sha1, int keyCount, String... params) {
-	    return getJedis(sf).evalsha(sha1, keyCount, params);
+	  public Object evalsha(final ShardingFunction sf, final String sha1, final int keyCount, final String... params) {
+	    return new LpJedisCommand<Object>(this) {
+	      @Override
+	      public Object execute(Jedis connection) {
+	        return connection.evalsha(sha1, keyCount, params);
+	      }
+	    }.run(sf);
 	  }
 
 	  
-	  public Boolean scriptExists(ShardingFunction sf, String sha1) {
-	    return getJedis(sf).scriptExists(sha1);
+	  public Boolean scriptExists(final ShardingFunction sf, final String sha1) {
+	    return new LpJedisCommand<Boolean>(this, RETRIABLE) {
+	      @Override
+	      public Boolean execute(Jedis connection) {
+	        return connection.scriptExists(sha1);
+	      }
+	    }.run(sf);
 	  }
 
 	  
-	  public List<Boolean> scriptExists(ShardingFunction sf, String... sha1) {
-	    return getJedis(sf).scriptExists(sha1);
+	  public List<Boolean> scriptExists(final ShardingFunction sf, final String... sha1) {
+	    return new LpJedisCommand<List<Boolean>>(this, RETRIABLE) {
+	      @Override
+	      public List<Boolean> execute(Jedis connection) {
+	        return connection.scriptExists(sha1);
+	      }
+	    }.run(sf);
 	  }
 
 	  
-	  public String scriptLoad(ShardingFunction sf, String script) {
-	    return getJedis(sf).scriptLoad(script);
+	  public String scriptLoad(final ShardingFunction sf, final String script) {
+	    return new LpJedisCommand<String>(this, RETRIABLE) {
+	      @Override
+	      public String execute(Jedis connection) {
+	        return connection.scriptLoad(script);
+	      }
+	    }.run(sf);
 	  }
 
-	  public Long objectRefcount(ShardingFunction sf, String string) {
-	    return getJedis(sf).objectRefcount(string);
+	  public Long objectRefcount(final ShardingFunction sf, final String string) {
+	    return new LpJedisCommand<Long>(this, RETRIABLE) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.objectRefcount(string);
+	      }
+	    }.run(sf);
 	  }
 
 	  
-	  public String objectEncoding(ShardingFunction sf, String string) {
-	    return getJedis(sf).objectEncoding(string);
+	  public String objectEncoding(final ShardingFunction sf, final String string) {
+	    return new LpJedisCommand<String>(this, RETRIABLE) {
+	      @Override
+	      public String execute(Jedis connection) {
+	        return connection.objectEncoding(string);
+	      }
+	    }.run(sf);
 	  }
 
 	  
-	  public Long objectIdletime(ShardingFunction sf, String string) {
-	    return getJedis(sf).objectIdletime(string);
+	  public Long objectIdletime(final ShardingFunction sf, final String string) {
+	    return new LpJedisCommand<Long>(this, RETRIABLE) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.objectIdletime(string);
+	      }
+	    }.run(sf);
 	  }
 
 	  
-	  public Long bitcount(ShardingFunction sf, final String key) {
-	    return getJedis(sf).bitcount(key);
+	  public Long bitcount(final ShardingFunction sf, final String key) {
+	    return new LpJedisCommand<Long>(this, RETRIABLE) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.bitcount(key);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Long bitcount(final KeyShardingFunction ksf, final String key) {
+	    return new LpJedisCommand<Long>(this, RETRIABLE) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.bitcount(key);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  
-	  public Long bitcount(ShardingFunction sf, final String key, long start, long end) {
-	    return getJedis(sf).bitcount(key, start, end);
+	  public Long bitcount(final ShardingFunction sf, final String key, final long start, final long end) {
+	    return new LpJedisCommand<Long>(this, RETRIABLE) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.bitcount(key, start, end);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Long bitcount(final KeyShardingFunction ksf, final String key, final long start, final long end) {
+	    return new LpJedisCommand<Long>(this, RETRIABLE) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.bitcount(key, start, end);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  
-	  public Long bitop(ShardingFunction sf, BitOP op, final String destKey, String... srcKeys) {
-	    return getJedis(sf).bitop(op, destKey, srcKeys);
+	  public Long bitop(final ShardingFunction sf, final BitOP op, final String destKey, final String... srcKeys) {
+	    throw notSupported();
 	  }
 
 	  /**
@@ -2398,27 +4299,97 @@ public class LpJedis {
 	   * @return
 	   */
 	  
-	  public byte[] dump(ShardingFunction sf, final String key) {
-	    return getJedis(sf).dump(key);
+	  public byte[] dump(final ShardingFunction sf, final String key) {
+	    return new LpJedisCommand<byte[]>(this, RETRIABLE) {
+	      @Override
+	      public byte[] execute(Jedis connection) {
+	        return connection.dump(key);
+	      }
+	    }.run(sf);
 	  }
 
-	  public String restore(ShardingFunction sf, final String key, final int ttl, final byte[] serializedValue) {
-	    return getJedis(sf).restore(key, ttl, serializedValue);
+	  public byte[] dump(final KeyShardingFunction ksf, final String key) {
+	    return new LpJedisCommand<byte[]>(this, RETRIABLE) {
+	      @Override
+	      public byte[] execute(Jedis connection) {
+	        return connection.dump(key);
+	      }
+	    }.run(ksf, key);
+	  }
+
+	  public String restore(final ShardingFunction sf, final String key, final int ttl, final byte[] serializedValue) {
+	    return new LpJedisCommand<String>(this) {
+	      @Override
+	      public String execute(Jedis connection) {
+	        return connection.restore(key, ttl, serializedValue);
+	      }
+	    }.run(sf);
+	  }
+
+	  public String restore(final KeyShardingFunction ksf, final String key, final int ttl, final byte[] serializedValue) {
+	    return new LpJedisCommand<String>(this) {
+	      @Override
+	      public String execute(Jedis connection) {
+	        return connection.restore(key, ttl, serializedValue);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  
-	  public Long pexpire(ShardingFunction sf, final String key, final long milliseconds) {
-	    return getJedis(sf).pexpire(key, milliseconds);
+	  public Long pexpire(final ShardingFunction sf, final String key, final long milliseconds) {
+	    return new LpJedisCommand<Long>(this, RETRIABLE) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.pexpire(key, milliseconds);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Long pexpire(final KeyShardingFunction ksf, final String key, final long milliseconds) {
+	    return new LpJedisCommand<Long>(this, RETRIABLE) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.pexpire(key, milliseconds);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  
-	  public Long pexpireAt(ShardingFunction sf, final String key, final long millisecondsTimestamp) {
-	    return getJedis(sf).pexpireAt(key, millisecondsTimestamp);
+	  public Long pexpireAt(final ShardingFunction sf, final String key, final long millisecondsTimestamp) {
+	    return new LpJedisCommand<Long>(this, RETRIABLE) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.pexpireAt(key, millisecondsTimestamp);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Long pexpireAt(final KeyShardingFunction ksf, final String key, final long millisecondsTimestamp) {
+	    return new LpJedisCommand<Long>(this, RETRIABLE) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.pexpireAt(key, millisecondsTimestamp);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  
-	  public Long pttl(ShardingFunction sf, final String key) {
-	    return getJedis(sf).pttl(key);
+	  public Long pttl(final ShardingFunction sf, final String key) {
+	    return new LpJedisCommand<Long>(this, RETRIABLE) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.pttl(key);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Long pttl(final KeyShardingFunction ksf, final String key) {
+	    return new LpJedisCommand<Long>(this, RETRIABLE) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.pttl(key);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  /**
@@ -2431,123 +4402,491 @@ public class LpJedis {
 	   */
 
 	  
-	  public String psetex(ShardingFunction sf, final String key, final long milliseconds, final String value) {
-	    return getJedis(sf).psetex(key, milliseconds, value);
+	  public String psetex(final ShardingFunction sf, final String key, final long milliseconds, final String value) {
+	    return new LpJedisCommand<String>(this, RETRIABLE) {
+	      @Override
+	      public String execute(Jedis connection) {
+	        return connection.psetex(key, milliseconds, value);
+	      }
+	    }.run(sf);
+	  }
+
+	  public String psetex(final KeyShardingFunction ksf, final String key, final long milliseconds, final String value) {
+	    return new LpJedisCommand<String>(this, RETRIABLE) {
+	      @Override
+	      public String execute(Jedis connection) {
+	        return connection.psetex(key, milliseconds, value);
+	      }
+	    }.run(ksf, key);
 	  }
 
-	  public String migrate(ShardingFunction sf, final String host, final int port, final String key,
+	  public String migrate(final ShardingFunction sf, final String host, final int port, final String key,
 	      final int destinationDb, final int timeout) {
-	    return getJedis(sf).migrate(host, port, key, destinationDb, timeout);
+	    return new LpJedisCommand<String>(this) {
+	      @Override
+	      public String execute(Jedis connection) {
+	        return connection.migrate(host, port, key, destinationDb, timeout);
+	      }
+	    }.run(sf);
 	  }
 
 	  
-	  public ScanResult<String> scan(ShardingFunction sf, final String cursor) {
-	    return getJedis(sf).scan(cursor);
+	  public ScanResult<String> scan(final ShardingFunction sf, final String cursor) {
+	    return new LpJedisCommand<ScanResult<String>>(this, RETRIABLE) {
+	      @Override
+	      public ScanResult<String> execute(Jedis connection) {
+	        return connection.scan(cursor);
+	      }
+	    }.run(sf);
 	  }
 
 	  
-	  public ScanResult<String> scan(ShardingFunction sf, final String cursor, final ScanParams params) {
-	    return getJedis(sf).scan(cursor, params);
+	  public ScanResult<String> scan(final ShardingFunction sf, final String cursor, final ScanParams params) {
+	    return new LpJedisCommand<ScanResult<String>>(this, RETRIABLE) {
+	      @Override
+	      public ScanResult<String> execute(Jedis connection) {
+	        return connection.scan(cursor, params);
+	      }
+	    }.run(sf);
 	  }
 
 	  
-	  public ScanResult<Map.Entry<String, String>> hscan(ShardingFunction sf, final String key, final String cursor) {
-	    return getJedis(sf).hscan(key, cursor);
+	  public ScanResult<Map.Entry<String, String>> hscan(final ShardingFunction sf, final String key, final String cursor) {
+	    return new LpJedisCommand<ScanResult<Map.Entry<String, String>>>(this, RETRIABLE) {
+	      @Override
+	      public ScanResult<Map.Entry<String, String>> execute(Jedis connection) {
+	        return connection.hscan(key, cursor);
+	      }
+	    }.run(sf);
+	  }
+
+	  public ScanResult<Map.Entry<String, String>> hscan(final KeyShardingFunction ksf, final String key, final String cursor) {
+	    return new LpJedisCommand<ScanResult<Map.Entry<String, String>>>(this, RETRIABLE) {
+	      @Override
+	      public ScanResult<Map.Entry<String, String>> execute(Jedis connection) {
+	        return connection.hscan(key, cursor);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  
-	  public ScanResult<Map.Entry<String, String>> hscan(ShardingFunction sf, final String key, final String cursor,
+	  public ScanResult<Map.Entry<String, String>> hscan(final ShardingFunction sf, final String key, final String cursor,
 	      final ScanParams params) {
-	    return getJedis(sf).hscan(key, cursor, params);
+	    return new LpJedisCommand<ScanResult<Map.Entry<String, String>>>(this, RETRIABLE) {
+	      @Override
+	      public ScanResult<Map.Entry<String, String>> execute(Jedis connection) {
+	        return connection.hscan(key, cursor, params);
+	      }
+	    }.run(sf);
+	  }
+
+	  public ScanResult<Map.Entry<String, String>> hscan(final KeyShardingFunction ksf, final String key, final String cursor,
+	      final ScanParams params) {
+	    return new LpJedisCommand<ScanResult<Map.Entry<String, String>>>(this, RETRIABLE) {
+	      @Override
+	      public ScanResult<Map.Entry<String, String>> execute(Jedis connection) {
+	        return connection.hscan(key, cursor, params);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  
-	  public ScanResult<String> sscan(ShardingFunction sf, final String key, final String cursor) {
-	    return getJedis(sf).sscan(key, cursor);
+	  public ScanResult<String> sscan(final ShardingFunction sf, final String key, final String cursor) {
+	    return new LpJedisCommand<ScanResult<String>>(this, RETRIABLE) {
+	      @Override
+	      public ScanResult<String> execute(Jedis connection) {
+	        return connection.sscan(key, cursor);
+	      }
+	    }.run(sf);
+	  }
+
+	  public ScanResult<String> sscan(final KeyShardingFunction ksf, final String key, final String cursor) {
+	    return new LpJedisCommand<ScanResult<String>>(this, RETRIABLE) {
+	      @Override
+	      public ScanResult<String> execute(Jedis connection) {
+	        return connection.sscan(key, cursor);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  
-	  public ScanResult<String> sscan(ShardingFunction sf, final String key, final String cursor, final ScanParams params) {
-	    return getJedis(sf).sscan(key, cursor, params);
+	  public ScanResult<String> sscan(final ShardingFunction sf, final String key, final String cursor, final ScanParams params) {
+	    return new LpJedisCommand<ScanResult<String>>(this, RETRIABLE) {
+	      @Override
+	      public ScanResult<String> execute(Jedis connection) {
+	        return connection.sscan(key, cursor, params);
+	      }
+	    }.run(sf);
+	  }
+
+	  public ScanResult<String> sscan(final KeyShardingFunction ksf, final String key, final String cursor, final ScanParams params) {
+	    return new LpJedisCommand<ScanResult<String>>(this, RETRIABLE) {
+	      @Override
+	      public ScanResult<String> execute(Jedis connection) {
+	        return connection.sscan(key, cursor, params);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  
-	  public ScanResult<Tuple> zscan(ShardingFunction sf, final String key, final String cursor) {
-	    return getJedis(sf).zscan(key, cursor);
+	  public ScanResult<Tuple> zscan(final ShardingFunction sf, final String key, final String cursor) {
+	    return new LpJedisCommand<ScanResult<Tuple>>(this, RETRIABLE) {
+	      @Override
+	      public ScanResult<Tuple> execute(Jedis connection) {
+	        return connection.zscan(key, cursor);
+	      }
+	    }.run(sf);
+	  }
+
+	  public ScanResult<Tuple> zscan(final KeyShardingFunction ksf, final String key, final String cursor) {
+	    return new LpJedisCommand<ScanResult<Tuple>>(this, RETRIABLE) {
+	      @Override
+	      public ScanResult<Tuple> execute(Jedis connection) {
+	        return connection.zscan(key, cursor);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  
-	  public ScanResult<Tuple> zscan(ShardingFunction sf, final String key, final String cursor, final ScanParams params) {
-	    return getJedis(sf).zscan(key, cursor, params);
+	  public ScanResult<Tuple> zscan(final ShardingFunction sf, final String key, final String cursor, final ScanParams params) {
+	    return new LpJedisCommand<ScanResult<Tuple>>(this, RETRIABLE) {
+	      @Override
+	      public ScanResult<Tuple> execute(Jedis connection) {
+	        return connection.zscan(key, cursor, params);
+	      }
+	    }.run(sf);
+	  }
+
+	  public ScanResult<Tuple> zscan(final KeyShardingFunction ksf, final String key, final String cursor, final ScanParams params) {
+	    return new LpJedisCommand<ScanResult<Tuple>>(this, RETRIABLE) {
+	      @Override
+	      public ScanResult<Tuple> execute(Jedis connection) {
+	        return connection.zscan(key, cursor, params);
+	      }
+	    }.run(ksf, key);
 	  }
 
+	  /**
+	   * 关闭所有分片的连接池
+	   */
 	  public void close() {
-		  if (jedisPool != null) {
-			  for (Jedis jedis : jedisPool) {
-				  jedis.close();
+		  List<JedisPool> pools = new ArrayList<>();
+		  synchronized (this) {
+			  if (closed) {
+				  return;
 			  }
-		}
+			  closed = true;
+			  if (topology != null) {
+				  pools.addAll(topology.getPools());
+			  }
+			  pools.addAll(draining);
+			  draining.clear();
+			  if (drainExecutor != null) {
+				  drainExecutor.shutdownNow();
+			  }
+		  }
+		  multiKeyExecutor.shutdown();
+		  metrics.unregister();
+		  for (JedisPool pool : pools) {
+			  pool.destroy();
+		  }
 	  }
 
-	  public Long pfadd(ShardingFunction sf, final String key, final String... elements) {
-	    return getJedis(sf).pfadd(key, elements);
+	  public Long pfadd(final ShardingFunction sf, final String key, final String... elements) {
+	    return new LpJedisCommand<Long>(this) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.pfadd(key, elements);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Long pfadd(final KeyShardingFunction ksf, final String key, final String... elements) {
+	    return new LpJedisCommand<Long>(this) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.pfadd(key, elements);
+	      }
+	    }.run(ksf, key);
 	  }
 	  
-	  public long pfcount(ShardingFunction sf, final String key) {
-	    return getJedis(sf).pfcount(key);
+	  public long pfcount(final ShardingFunction sf, final String key) {
+	    return new LpJedisCommand<Long>(this, RETRIABLE) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.pfcount(key);
+	      }
+	    }.run(sf);
+	  }
+
+	  public long pfcount(final KeyShardingFunction ksf, final String key) {
+	    return new LpJedisCommand<Long>(this, RETRIABLE) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.pfcount(key);
+	      }
+	    }.run(ksf, key);
 	  }
 
 	  
-	  public long pfcount(ShardingFunction sf, String... keys) {
-	    return getJedis(sf).pfcount(keys);
+	  public long pfcount(final ShardingFunction sf, final String... keys) {
+	    return new LpJedisCommand<Long>(this, RETRIABLE) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.pfcount(keys);
+	      }
+	    }.run(sf);
 	  }
 
 	  
-	  public String pfmerge(ShardingFunction sf, final String destkey, final String... sourcekeys) {
-	    return getJedis(sf).pfmerge(destkey, sourcekeys);
+	  public String pfmerge(final ShardingFunction sf, final String destkey, final String... sourcekeys) {
+	    return new LpJedisCommand<String>(this, RETRIABLE) {
+	      @Override
+	      public String execute(Jedis connection) {
+	        return connection.pfmerge(destkey, sourcekeys);
+	      }
+	    }.run(sf);
 	  }
 
 	  
-	  public List<String> blpop(ShardingFunction sf, int timeout, String key) {
-	    return getJedis(sf).blpop(timeout, key);
+	  public List<String> blpop(final ShardingFunction sf, final int timeout, final String key) {
+	    throw notSupported();
 	  }
 
 	  
-	  public List<String> brpop(ShardingFunction sf, int timeout, String key) {
-	    return getJedis(sf).brpop(timeout, key);
+	  public List<String> brpop(final ShardingFunction sf, final int timeout, final String key) {
+	    throw notSupported();
 	  }
 
 	  
-	  public Long xpush(ShardingFunction sf, final String key, final String... strings) {
-	    return getJedis(sf).xpush(key, strings);
+	  public Long xpush(final ShardingFunction sf, final String key, final String... strings) {
+	    return new LpJedisCommand<Long>(this) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.xpush(key, strings);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Long xpush(final KeyShardingFunction ksf, final String key, final String... strings) {
+	    return new LpJedisCommand<Long>(this) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.xpush(key, strings);
+	      }
+	    }.run(ksf, key);
 	  }
 	  
 	  
-	  public Long xreset(ShardingFunction sf, final String key, final String value) {
-	    return getJedis(sf).xreset(key, value);
+	  public Long xreset(final ShardingFunction sf, final String key, final String value) {
+	    return new LpJedisCommand<Long>(this) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.xreset(key, value);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Long xreset(final KeyShardingFunction ksf, final String key, final String value) {
+	    return new LpJedisCommand<Long>(this) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.xreset(key, value);
+	      }
+	    }.run(ksf, key);
 	  }
 	  
 		
-	public Map<String, Set<String>> smembersmulti(ShardingFunction sf, String... keys) {
-		return getJedis(sf).smembersmulti(keys);
-	}
-	  
-	  public Long zoff(ShardingFunction sf, final String key, final double score, final String member) {
-		    return getJedis(sf).zoff(key, score, member);
+	  public Map<String, Set<String>> smembersmulti(final ShardingFunction sf, final String... keys) {
+	    return new LpJedisCommand<Map<String, Set<String>>>(this, RETRIABLE) {
+	      @Override
+	      public Map<String, Set<String>> execute(Jedis connection) {
+	        return connection.smembersmulti(keys);
+	      }
+	    }.run(sf);
+	  }
+	  
+	  public Long zoff(final ShardingFunction sf, final String key, final double score, final String member) {
+	    return new LpJedisCommand<Long>(this) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.zoff(key, score, member);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Long zoff(final KeyShardingFunction ksf, final String key, final double score, final String member) {
+	    return new LpJedisCommand<Long>(this) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.zoff(key, score, member);
+	      }
+	    }.run(ksf, key);
 	  }
 	 
 	  
-	  public Long zoff(ShardingFunction sf, final String key, final Map<String, Double> scoreMembers) {
-	    return getJedis(sf).zoff(key, scoreMembers);
+	  public Long zoff(final ShardingFunction sf, final String key, final Map<String, Double> scoreMembers) {
+	    return new LpJedisCommand<Long>(this) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.zoff(key, scoreMembers);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Long zoff(final KeyShardingFunction ksf, final String key, final Map<String, Double> scoreMembers) {
+	    return new LpJedisCommand<Long>(this) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.zoff(key, scoreMembers);
+	      }
+	    }.run(ksf, key);
 	  }
 	  
 	  
-	  public Long zreset(ShardingFunction sf, final String key, final String value) {
-	    return getJedis(sf).zreset(key, value);
+	  public Long zreset(final ShardingFunction sf, final String key, final String value) {
+	    return new LpJedisCommand<Long>(this) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.zreset(key, value);
+	      }
+	    }.run(sf);
+	  }
+
+	  public Long zreset(final KeyShardingFunction ksf, final String key, final String value) {
+	    return new LpJedisCommand<Long>(this) {
+	      @Override
+	      public Long execute(Jedis connection) {
+	        return connection.zreset(key, value);
+	      }
+	    }.run(ksf, key);
+	  }
+	  
+	  
+	  public Map<String, Map<String, String>> hgetallmulti(final ShardingFunction sf, final String... keys) {
+	    return new LpJedisCommand<Map<String, Map<String, String>>>(this, RETRIABLE) {
+	      @Override
+	      public Map<String, Map<String, String>> execute(Jedis connection) {
+	        return connection.hgetallmulti(keys);
+	      }
+	    }.run(sf);
+	  }
+	  
+	  /**
+	   * 按key分片的MGET:key按ksf分组到各分片,各分片并行执行MGET,结果按keys的顺序返回
+	   */
+	  public List<String> mget(final KeyShardingFunction ksf, final String... keys) {
+	    final String[] values = new String[keys.length];
+	    new LpJedisMultiKeyCommand<List<String>>(this, RETRIABLE) {
+	      @Override
+	      protected List<String> execute(Jedis connection, int[] indexes) {
+	        return connection.mget(select(keys, indexes));
+	      }
+
+	      @Override
+	      protected void merge(int[] indexes, List<String> reply) {
+	        for (int i = 0; i < indexes.length; i++) {
+	          values[indexes[i]] = reply.get(i);
+	        }
+	      }
+	    }.run(ksf, keys);
+	    return Arrays.asList(values);
+	  }
+	  
+	  /**
+	   * 按key分片的MSET,各分片分别执行,整体不是原子操作
+	   * @throws JedisDataException keysvalues不是成对的key和value时,与redis的报错相同
+	   */
+	  public String mset(final KeyShardingFunction ksf, final String... keysvalues) {
+	    if (keysvalues.length % 2 != 0) {
+	      throw new JedisDataException("ERR wrong number of arguments for 'mset' command");
+	    }
+	    final String[] keys = new String[keysvalues.length / 2];
+	    for (int i = 0; i < keys.length; i++) {
+	      keys[i] = keysvalues[i * 2];
+	    }
+	    final String[] status = new String[1];
+	    new LpJedisMultiKeyCommand<String>(this, RETRIABLE) {
+	      @Override
+	      protected String execute(Jedis connection, int[] indexes) {
+	        return connection.mset(selectPairs(keysvalues, indexes));
+	      }
+
+	      @Override
+	      protected void merge(int[] indexes, String reply) {
+	        status[0] = reply;
+	      }
+	    }.run(ksf, keys);
+	    return status[0];
 	  }
 	  
+	  /**
+	   * 按key分片的DEL,返回各分片删除数之和
+	   */
+	  public Long del(final KeyShardingFunction ksf, final String... keys) {
+	    final long[] removed = new long[1];
+	    new LpJedisMultiKeyCommand<Long>(this) {
+	      @Override
+	      protected Long execute(Jedis connection, int[] indexes) {
+	        return connection.del(select(keys, indexes));
+	      }
+
+	      @Override
+	      protected void merge(int[] indexes, Long reply) {
+	        removed[0] += reply;
+	      }
+	    }.run(ksf, keys);
+	    return removed[0];
+	  }
 	  
-	  public Map<String, Map<String, String>> hgetallmulti(ShardingFunction sf, String... keys) {
-		  return getJedis(sf).hgetallmulti(keys);
+	  /**
+	   * 按key分片的smembersmulti,结果按keys的顺序排列
+	   */
+	  public Map<String, Set<String>> smembersmulti(final KeyShardingFunction ksf, final String... keys) {
+	    final List<Map<String, Set<String>>> replies = new ArrayList<>();
+	    new LpJedisMultiKeyCommand<Map<String, Set<String>>>(this, RETRIABLE) {
+	      @Override
+	      protected Map<String, Set<String>> execute(Jedis connection, int[] indexes) {
+	        return connection.smembersmulti(select(keys, indexes));
+	      }
+
+	      @Override
+	      protected void merge(int[] indexes, Map<String, Set<String>> reply) {
+	        replies.add(reply);
+	      }
+	    }.run(ksf, keys);
+	    return inKeyOrder(keys, replies);
+	  }
+	  
+	  /**
+	   * 按key分片的hgetallmulti,结果按keys的顺序排列
+	   */
+	  public Map<String, Map<String, String>> hgetallmulti(final KeyShardingFunction ksf, final String... keys) {
+	    final List<Map<String, Map<String, String>>> replies = new ArrayList<>();
+	    new LpJedisMultiKeyCommand<Map<String, Map<String, String>>>(this, RETRIABLE) {
+	      @Override
+	      protected Map<String, Map<String, String>> execute(Jedis connection, int[] indexes) {
+	        return connection.hgetallmulti(select(keys, indexes));
+	      }
+
+	      @Override
+	      protected void merge(int[] indexes, Map<String, Map<String, String>> reply) {
+	        replies.add(reply);
+	      }
+	    }.run(ksf, keys);
+	    return inKeyOrder(keys, replies);
+	  }
+	  
+	  private static <V> Map<String, V> inKeyOrder(String[] keys, List<Map<String, V>> replies) {
+	    Map<String, V> merged = new LinkedHashMap<>();
+	    for (String key : keys) {
+	      for (Map<String, V> reply : replies) {
+	        if (reply != null && reply.containsKey(key)) {
+	          merged.put(key, reply.get(key));
+	          break;
+	        }
+	      }
+	    }
+	    return merged;
 	  }
 }
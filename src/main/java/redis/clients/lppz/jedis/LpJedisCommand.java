@@ -0,0 +1,180 @@
+package redis.clients.lppz.jedis;
+
+import java.lang.reflect.Method;
+
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.lppz.config.KeyShardingFunction;
+import redis.clients.lppz.config.RetryPolicy;
+import redis.clients.lppz.config.ShardingFunction;
+
+/**
+ * 在一个分片上执行一条命令:由ShardingFunction在当前路由表({@link LpJedisTopology})中选出分片的连接池,借出连接执行后归还。
+ * 每个LpJedis方法以匿名子类直接调用Jedis的对应方法,调用路径上没有反射。
+ * 每次执行的延迟和成败计入分片和命令的{@link LpJedisMetrics},命令名是匿名子类所在的LpJedis方法名。
+ * <p>
+ * 连接异常按LpJedis的{@link RetryPolicy}重试:取连接失败时命令尚未发出,总可以重试;
+ * 命令发出后才失败的,只重试构造时声明为可重试(重复执行结果不变)的命令。其他异常直接抛给调用方。
+ *
+ * @param <T> 命令的返回值类型
+ */
+public abstract class LpJedisCommand<T> {
+
+	//匿名子类所在的方法名及其统计对象,每个类只解析一次
+	private static final ClassValue<CommandKey> COMMANDS = new ClassValue<CommandKey>() {
+		@Override
+		protected CommandKey computeValue(Class<?> type) {
+			Method method = type.getEnclosingMethod();
+			return new CommandKey(method == null ? type.getName() : method.getName());
+		}
+	};
+
+	private final LpJedis lpJedis;
+	private final boolean retriable;
+	private final CommandKey command;
+
+	public LpJedisCommand(LpJedis lpJedis) {
+		this(lpJedis, false);
+	}
+
+	public LpJedisCommand(LpJedis lpJedis, boolean retriable) {
+		this.lpJedis = lpJedis;
+		this.retriable = retriable;
+		this.command = commandKey(getClass());
+	}
+
+	/**
+	 * 以给定的命令计入指标,供多key命令在各分片上的执行使用
+	 */
+	LpJedisCommand(LpJedis lpJedis, boolean retriable, CommandKey command) {
+		this.lpJedis = lpJedis;
+		this.retriable = retriable;
+		this.command = command;
+	}
+
+	static CommandKey commandKey(Class<?> type) {
+		return COMMANDS.get(type);
+	}
+
+	public abstract T execute(Jedis connection);
+
+	public T run(ShardingFunction sf) {
+		if (sf == null) {
+			throw new RuntimeException("sharding function must not be null");
+		}
+		return run(null, true, sf.getShardingIndex());
+	}
+
+	/**
+	 * 按key选分片,key只在这里计算一次
+	 */
+	public T run(KeyShardingFunction ksf, String key) {
+		if (ksf == null) {
+			throw new RuntimeException("sharding function must not be null");
+		}
+		return run(null, true, ksf.getShardingIndex(key));
+	}
+
+	public T runOnShard(int index) {
+		return run(null, false, index);
+	}
+
+	/**
+	 * 在给定版本路由表的分片上执行,重试也不换版本。供已按该版本给key分好组的多key命令使用。
+	 * 该版本已被替换、分片的连接池已关闭时不再重试
+	 */
+	T runOnShard(LpJedisTopology topology, int index) {
+		return run(topology, false, index);
+	}
+
+	/**
+	 * @param routed index是分片编号(false)还是待分片选择的sharding index(true)
+	 */
+	private T run(LpJedisTopology fixed, boolean routed, int index) {
+		RetryPolicy retryPolicy = lpJedis.getRetryPolicy();
+		retryPolicy.onRequest();
+		LpJedisCommandStats commandStats = command.stats(lpJedis.getMetrics());
+		for (int retries = 1; ; retries++) {
+			//每次尝试都取最新的路由表,拓扑切换后的重试落到新节点上
+			LpJedisTopology topology = fixed != null ? fixed : lpJedis.currentTopology();
+			int shard = routed ? topology.select(index) : index;
+			JedisPool pool = topology.getPool(shard);
+			LpJedisShardStats shardStats = topology.getStats(shard);
+			Jedis connection = null;
+			long start = System.nanoTime();
+			try {
+				connection = pool.getResource();
+				T reply = execute(connection);
+				shardStats.record(System.nanoTime() - start, false);
+				commandStats.record(false);
+				return reply;
+			} catch (JedisConnectionException e) {
+				shardStats.record(System.nanoTime() - start, true);
+				commandStats.record(true);
+				if (connection != null && !retriable) {
+					lpJedis.getRetryStats().giveUp();
+					throw e;
+				}
+				//固定版本的路由表已被替换、分片的连接池已关闭时,重试只会再次失败
+				if (fixed != null && pool.isClosed()) {
+					lpJedis.getRetryStats().giveUp();
+					throw e;
+				}
+				long backoff = retryPolicy.backoffMillis(retries);
+				if (backoff < 0) {
+					lpJedis.getRetryStats().giveUp();
+					throw e;
+				}
+				lpJedis.getRetryStats().retry();
+				if (!sleep(backoff)) {
+					throw e;
+				}
+			} catch (RuntimeException e) {
+				shardStats.record(System.nanoTime() - start, true);
+				commandStats.record(true);
+				throw e;
+			} finally {
+				//连接池中的Jedis在close时归还连接池,出错断开的连接会被丢弃
+				if (connection != null) {
+					connection.close();
+				}
+			}
+		}
+	}
+
+	private static boolean sleep(long millis) {
+		if (millis <= 0) {
+			return true;
+		}
+		try {
+			Thread.sleep(millis);
+			return true;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+	
+	/**
+	 * 一个命令类对应的命令名,以及最近一次使用的LpJedis上该命令的统计对象。
+	 * 通常只有一个LpJedis,统计对象解析一次后每次执行只比较一次引用
+	 */
+	static final class CommandKey {
+		private final String name;
+		private volatile LpJedisCommandStats stats;
+		
+		CommandKey(String name) {
+			this.name = name;
+		}
+		
+		LpJedisCommandStats stats(LpJedisMetrics metrics) {
+			LpJedisCommandStats cached = stats;
+			if (cached == null || cached.getMetrics() != metrics) {
+				cached = metrics.command(name);
+				stats = cached;
+			}
+			return cached;
+		}
+	}
+}
@@ -0,0 +1,48 @@
+package redis.clients.lppz.jedis;
+
+/**
+ * 一种命令(LpJedis的方法名)在各分片上执行的次数和失败次数,重试的每次执行都计入。
+ * 所有线程执行同一命令时都记到这里,计数按线程分条带
+ */
+public class LpJedisCommandStats implements LpJedisCommandStatsMBean {
+
+	private static final int CALLS = 0;
+	private static final int ERRORS = 1;
+
+	private final LpJedisMetrics metrics;
+	private final String command;
+	private final StripedCounters counts = new StripedCounters(2);
+
+	LpJedisCommandStats(LpJedisMetrics metrics, String command) {
+		this.metrics = metrics;
+		this.command = command;
+	}
+
+	void record(boolean failed) {
+		counts.increment(CALLS);
+		if (failed) {
+			counts.increment(ERRORS);
+		}
+	}
+
+	/**
+	 * @return 所属的LpJedisMetrics
+	 */
+	LpJedisMetrics getMetrics() {
+		return metrics;
+	}
+
+	public String getCommand() {
+		return command;
+	}
+
+	@Override
+	public long getCalls() {
+		return counts.get(CALLS);
+	}
+
+	@Override
+	public long getErrors() {
+		return counts.get(ERRORS);
+	}
+}
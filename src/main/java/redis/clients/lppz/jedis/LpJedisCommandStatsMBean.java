@@ -0,0 +1,11 @@
+package redis.clients.lppz.jedis;
+
+/**
+ * 一种命令的JMX视图,参见{@link LpJedisCommandStats}
+ */
+public interface LpJedisCommandStatsMBean {
+
+	long getCalls();
+
+	long getErrors();
+}
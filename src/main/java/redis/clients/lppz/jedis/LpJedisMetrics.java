@@ -0,0 +1,194 @@
+package redis.clients.lppz.jedis;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * LpJedis的运行指标:各分片节点的调用次数、失败次数、延迟直方图和连接池状态,各命令的调用次数和失败次数,以及重试计数。
+ * 可以通过{@link LpJedis#getMetrics()}读取;调用{@link LpJedis#registerMBeans()}后也注册为JMX MBean(redis.clients.lppz域下),
+ * 节点移出路由表时注销其分片的MBean,LpJedis关闭时全部注销。
+ * <p>
+ * 每次执行的记录开销是两次System.nanoTime和两次分条带的原子加;分片的统计对象随路由表预先解析,命令的统计对象在每个命令类上缓存。
+ */
+public class LpJedisMetrics implements LpJedisMetricsMBean {
+	private final static Logger logger = LoggerFactory.getLogger(LpJedisMetrics.class);
+
+	private static final String DOMAIN = "redis.clients.lppz";
+	private static final AtomicInteger instances = new AtomicInteger();
+
+	private final LpJedis lpJedis;
+	private final String name = "lpjedis-" + instances.incrementAndGet();
+	private final ConcurrentMap<String, LpJedisShardStats> shards = new ConcurrentHashMap<>();
+	private final ConcurrentMap<String, LpJedisCommandStats> commands = new ConcurrentHashMap<>();
+	private final Set<ObjectName> registered = new LinkedHashSet<>();
+	//调用register()之后才注册MBean
+	private volatile boolean registering;
+	private volatile boolean unregistered;
+
+	LpJedisMetrics(LpJedis lpJedis) {
+		this.lpJedis = lpJedis;
+	}
+
+	/**
+	 * 注册本实例及已有分片、命令的MBean,之后出现的分片和命令在创建时注册
+	 */
+	void register() {
+		synchronized (registered) {
+			if (registering || unregistered) {
+				return;
+			}
+			registering = true;
+		}
+		register(objectName("type=LpJedis,name=" + name), this);
+		for (Map.Entry<String, LpJedisShardStats> entry : shards.entrySet()) {
+			register(shardObjectName(entry.getKey()), entry.getValue());
+		}
+		for (Map.Entry<String, LpJedisCommandStats> entry : commands.entrySet()) {
+			register(commandObjectName(entry.getKey()), entry.getValue());
+		}
+	}
+
+	LpJedisShardStats shard(String nodeName) {
+		LpJedisShardStats stats = shards.get(nodeName);
+		if (stats == null) {
+			LpJedisShardStats created = new LpJedisShardStats(nodeName);
+			stats = shards.putIfAbsent(nodeName, created);
+			if (stats == null) {
+				stats = created;
+				register(shardObjectName(nodeName), stats);
+			}
+		}
+		return stats;
+	}
+
+	/**
+	 * 节点已移出路由表:丢弃其统计并注销MBean,节点再次加入时从零开始计数
+	 */
+	void removeShard(String nodeName) {
+		if (shards.remove(nodeName) == null) {
+			return;
+		}
+		ObjectName objectName = shardObjectName(nodeName);
+		synchronized (registered) {
+			if (objectName == null || !registered.remove(objectName)) {
+				return;
+			}
+			unregister(ManagementFactory.getPlatformMBeanServer(), objectName);
+		}
+	}
+
+	LpJedisCommandStats command(String command) {
+		LpJedisCommandStats stats = commands.get(command);
+		if (stats == null) {
+			LpJedisCommandStats created = new LpJedisCommandStats(this, command);
+			stats = commands.putIfAbsent(command, created);
+			if (stats == null) {
+				stats = created;
+				register(commandObjectName(command), stats);
+			}
+		}
+		return stats;
+	}
+
+	/**
+	 * @return 各分片节点的统计,按节点名排序
+	 */
+	public Map<String, LpJedisShardStats> getShardStats() {
+		return Collections.unmodifiableMap(new TreeMap<>(shards));
+	}
+
+	/**
+	 * @return 各命令的统计,按命令名排序
+	 */
+	public Map<String, LpJedisCommandStats> getCommandStats() {
+		return Collections.unmodifiableMap(new TreeMap<>(commands));
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	@Override
+	public long getRetries() {
+		return lpJedis.getRetryStats().getRetries();
+	}
+
+	@Override
+	public long getGiveUps() {
+		return lpJedis.getRetryStats().getGiveUps();
+	}
+
+	@Override
+	public long getTopologyVersion() {
+		LpJedisTopology topology = lpJedis.getTopology();
+		return topology == null ? 0 : topology.getVersion();
+	}
+
+	void unregister() {
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		synchronized (registered) {
+			unregistered = true;
+			for (ObjectName objectName : registered) {
+				unregister(server, objectName);
+			}
+			registered.clear();
+		}
+	}
+
+	private static void unregister(MBeanServer server, ObjectName objectName) {
+		try {
+			server.unregisterMBean(objectName);
+		} catch (Exception e) {
+			logger.debug("unregister {} failed: {}", objectName, e.toString());
+		}
+	}
+
+	private void register(ObjectName objectName, Object mbean) {
+		if (objectName == null) {
+			return;
+		}
+		try {
+			synchronized (registered) {
+				//未开启JMX、LpJedis已关闭,或已由register()补注册
+				if (!registering || unregistered || registered.contains(objectName)) {
+					return;
+				}
+				ManagementFactory.getPlatformMBeanServer().registerMBean(mbean, objectName);
+				registered.add(objectName);
+			}
+		} catch (Exception e) {
+			//指标照常累计,只是不能通过JMX查看
+			logger.warn("register {} failed: {}", objectName, e.toString());
+		}
+	}
+
+	private ObjectName shardObjectName(String nodeName) {
+		return objectName("type=LpJedisShard,lpjedis=" + name + ",name=" + ObjectName.quote(nodeName));
+	}
+
+	private ObjectName commandObjectName(String command) {
+		return objectName("type=LpJedisCommand,lpjedis=" + name + ",name=" + command);
+	}
+
+	private static ObjectName objectName(String properties) {
+		try {
+			return new ObjectName(DOMAIN + ":" + properties);
+		} catch (Exception e) {
+			logger.warn("invalid object name {}: {}", properties, e.toString());
+			return null;
+		}
+	}
+}
@@ -0,0 +1,13 @@
+package redis.clients.lppz.jedis;
+
+/**
+ * LpJedis整体的JMX视图,各分片和各命令另有各自的MBean
+ */
+public interface LpJedisMetricsMBean {
+
+	long getRetries();
+
+	long getGiveUps();
+
+	long getTopologyVersion();
+}
@@ -0,0 +1,165 @@
+package redis.clients.lppz.jedis;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.exceptions.JedisException;
+import redis.clients.lppz.config.KeyShardingFunction;
+
+/**
+ * 执行key分布在多个分片上的多key命令:按KeyShardingFunction把key分组到分片,
+ * 每个分片收到一条只含本分片key的命令,各分片并行执行,调用线程自己执行其中一个分片。
+ * 每个分片的结果连同其key在调用方数组中的位置交给{@link #merge(int[], Object)},以便按调用方顺序合并。
+ *
+ * @param <R> 单个分片上命令的返回值类型
+ */
+public abstract class LpJedisMultiKeyCommand<R> {
+
+	private final LpJedis lpJedis;
+	private final boolean retriable;
+	//计入指标的命令名:匿名子类所在的LpJedis方法名
+	private final LpJedisCommand.CommandKey command;
+
+	public LpJedisMultiKeyCommand(LpJedis lpJedis) {
+		this(lpJedis, false);
+	}
+
+	/**
+	 * @param retriable 命令重复执行结果不变,连接异常后可以在分片上重试,参见{@link LpJedisCommand}
+	 */
+	public LpJedisMultiKeyCommand(LpJedis lpJedis, boolean retriable) {
+		this.lpJedis = lpJedis;
+		this.retriable = retriable;
+		this.command = LpJedisCommand.commandKey(getClass());
+	}
+
+	/**
+	 * 在一个分片上执行给定位置的key对应的命令
+	 */
+	protected abstract R execute(Jedis connection, int[] indexes);
+
+	/**
+	 * 接收给定位置的key在其分片上的结果,总在调用线程上调用
+	 */
+	protected abstract void merge(int[] indexes, R reply);
+
+	public void run(KeyShardingFunction ksf, String... keys) {
+		if (ksf == null) {
+			throw new RuntimeException("sharding function must not be null");
+		}
+		if (keys == null || keys.length == 0) {
+			return;
+		}
+		//分组和各分片的执行使用同一版本的路由表
+		LpJedisTopology topology = lpJedis.currentTopology();
+		List<ShardBatch> batches = groupByShard(topology, ksf, keys);
+		List<Future<R>> futures = new ArrayList<>(batches.size());
+		for (int i = 1; i < batches.size(); i++) {
+			futures.add(lpJedis.getMultiKeyExecutor().submit(batches.get(i)));
+		}
+
+		RuntimeException error = null;
+		try {
+			ShardBatch first = batches.get(0);
+			merge(first.indexes, first.call());
+		} catch (RuntimeException e) {
+			error = e;
+		}
+		for (int i = 0; i < futures.size(); i++) {
+			try {
+				R reply = futures.get(i).get();
+				if (error == null) {
+					merge(batches.get(i + 1).indexes, reply);
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				if (error == null) {
+					error = new JedisException(e);
+				}
+			} catch (ExecutionException e) {
+				if (error == null) {
+					error = e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause()
+							: new JedisException(e.getCause());
+				}
+			}
+		}
+		if (error != null) {
+			throw error;
+		}
+	}
+
+	private List<ShardBatch> groupByShard(LpJedisTopology topology, KeyShardingFunction ksf, String[] keys) {
+		Map<Integer, List<Integer>> byShard = new LinkedHashMap<>();
+		for (int i = 0; i < keys.length; i++) {
+			Integer shard = topology.select(ksf.getShardingIndex(keys[i]));
+			List<Integer> indexes = byShard.get(shard);
+			if (indexes == null) {
+				indexes = new ArrayList<>();
+				byShard.put(shard, indexes);
+			}
+			indexes.add(i);
+		}
+
+		List<ShardBatch> batches = new ArrayList<>(byShard.size());
+		for (Map.Entry<Integer, List<Integer>> entry : byShard.entrySet()) {
+			List<Integer> list = entry.getValue();
+			int[] indexes = new int[list.size()];
+			for (int i = 0; i < indexes.length; i++) {
+				indexes[i] = list.get(i);
+			}
+			batches.add(new ShardBatch(topology, entry.getKey(), indexes));
+		}
+		return batches;
+	}
+
+	/**
+	 * 取出给定位置的key
+	 */
+	protected static String[] select(String[] keys, int[] indexes) {
+		String[] selected = new String[indexes.length];
+		for (int i = 0; i < indexes.length; i++) {
+			selected[i] = keys[indexes[i]];
+		}
+		return selected;
+	}
+
+	/**
+	 * 取出key在给定位置上的key-value对
+	 */
+	protected static String[] selectPairs(String[] keysvalues, int[] indexes) {
+		String[] selected = new String[indexes.length * 2];
+		for (int i = 0; i < indexes.length; i++) {
+			selected[i * 2] = keysvalues[indexes[i] * 2];
+			selected[i * 2 + 1] = keysvalues[indexes[i] * 2 + 1];
+		}
+		return selected;
+	}
+
+	private class ShardBatch implements Callable<R> {
+		private final LpJedisTopology topology;
+		private final int shard;
+		private final int[] indexes;
+
+		ShardBatch(LpJedisTopology topology, int shard, int[] indexes) {
+			this.topology = topology;
+			this.shard = shard;
+			this.indexes = indexes;
+		}
+
+		@Override
+		public R call() {
+			return new LpJedisCommand<R>(lpJedis, retriable, command) {
+				@Override
+				public R execute(Jedis connection) {
+					return LpJedisMultiKeyCommand.this.execute(connection, indexes);
+				}
+			}.runOnShard(topology, shard);
+		}
+	}
+}
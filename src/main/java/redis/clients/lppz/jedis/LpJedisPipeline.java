@@ -0,0 +1,225 @@
+package redis.clients.lppz.jedis;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import redis.clients.jedis.Builder;
+import redis.clients.jedis.Client;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.PipelineBase;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.jedis.exceptions.JedisException;
+import redis.clients.lppz.config.KeyShardingFunction;
+import redis.clients.lppz.config.ShardingFunction;
+import redis.clients.util.SafeEncoder;
+
+/**
+ * 跨分片的pipeline:每条命令按其分片写入该分片连接的发送缓冲,{@link #sync()}时各分片并行发送并读取回复,
+ * 调用线程自己处理其中一个分片,一次sync每个分片只有一次往返。
+ * <p>
+ * 命令的分片由{@link #shard(ShardingFunction)}指定,对之后的命令有效;
+ * 由{@link LpJedis#pipelined(KeyShardingFunction)}创建的pipeline按key选分片。
+ * 一次sync内的命令使用同一版本的路由表,连接在sync后归还连接池。
+ * pipeline不重试:连接异常时该分片的命令没有结果,sync在其他分片完成后抛出异常。
+ * 只支持单key命令,多key命令请用LpJedis上接受KeyShardingFunction的方法。
+ * <p>
+ * 与Jedis一样,一个pipeline只能由一个线程使用。
+ */
+public class LpJedisPipeline extends PipelineBase implements Closeable {
+
+	private final LpJedis lpJedis;
+	private final KeyShardingFunction ksf;
+	private ShardingFunction sf;
+
+	//本次sync的路由表,第一条命令时取得
+	private LpJedisTopology topology;
+	private final Map<Integer, ShardBuffer> buffers = new LinkedHashMap<>();
+	private ShardBuffer current;
+	private int issued;
+
+	LpJedisPipeline(LpJedis lpJedis, KeyShardingFunction ksf) {
+		this.lpJedis = lpJedis;
+		this.ksf = ksf;
+	}
+
+	/**
+	 * 之后的命令发往sf选出的分片
+	 */
+	public LpJedisPipeline shard(ShardingFunction sf) {
+		this.sf = sf;
+		return this;
+	}
+
+	@Override
+	protected Client getClient(String key) {
+		int shardingIndex;
+		if (sf != null) {
+			shardingIndex = sf.getShardingIndex();
+		} else if (ksf != null) {
+			shardingIndex = ksf.getShardingIndex(key);
+		} else {
+			throw new RuntimeException("sharding function must not be null");
+		}
+		if (topology == null) {
+			topology = lpJedis.currentTopology();
+		}
+		int shard = topology.select(shardingIndex);
+		current = buffers.get(shard);
+		if (current == null) {
+			current = new ShardBuffer(topology.getPool(shard).getResource());
+			buffers.put(shard, current);
+		}
+		return current.connection.getClient();
+	}
+
+	@Override
+	protected Client getClient(byte[] key) {
+		return getClient(SafeEncoder.encode(key));
+	}
+
+	@Override
+	protected <T> Response<T> getResponse(Builder<T> builder) {
+		Response<T> response = new Response<T>(builder);
+		current.responses.add(response);
+		current.sequence.add(issued++);
+		return response;
+	}
+
+	@Override
+	protected boolean hasPipelinedResponse() {
+		return getPipelinedResponseLength() > 0;
+	}
+
+	@Override
+	protected int getPipelinedResponseLength() {
+		int length = 0;
+		for (ShardBuffer buffer : buffers.values()) {
+			length += buffer.responses.size();
+		}
+		return length;
+	}
+
+	/**
+	 * 发送所有分片上缓冲的命令并读取回复。命令的结果通过发出命令时得到的Response&lt;?&gt;获取
+	 */
+	public void sync() {
+		List<ShardBuffer> batches = new ArrayList<>(buffers.values());
+		buffers.clear();
+		current = null;
+		topology = null;
+		issued = 0;
+		if (batches.isEmpty()) {
+			return;
+		}
+
+		List<Future<Void>> futures = new ArrayList<>(batches.size() - 1);
+		for (int i = 1; i < batches.size(); i++) {
+			futures.add(lpJedis.getMultiKeyExecutor().submit(batches.get(i)));
+		}
+		batches.get(0).call();
+		JedisException error = null;
+		for (Future<Void> future : futures) {
+			try {
+				future.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				if (error == null) {
+					error = new JedisException(e);
+				}
+			} catch (ExecutionException e) {
+				if (error == null) {
+					error = new JedisException(e.getCause());
+				}
+			}
+		}
+
+		for (ShardBuffer batch : batches) {
+			//出错断开的连接会被连接池丢弃
+			batch.connection.close();
+			if (batch.failure != null && error == null) {
+				error = batch.failure;
+			}
+		}
+		if (error != null) {
+			throw error;
+		}
+	}
+
+	/**
+	 * 与{@link #sync()}相同,并按发出命令的顺序返回所有结果,错误回复以异常对象返回
+	 */
+	public List<Object> syncAndReturnAll() {
+		List<Response<?>> responses = new ArrayList<>();
+		for (ShardBuffer buffer : buffers.values()) {
+			responses.addAll(buffer.responses);
+		}
+		List<Integer> order = issueOrder();
+		sync();
+		List<Object> formatted = new ArrayList<>(responses.size());
+		for (int i = 0; i < responses.size(); i++) {
+			formatted.add(null);
+		}
+		for (int i = 0; i < responses.size(); i++) {
+			Object reply;
+			try {
+				reply = responses.get(i).get();
+			} catch (JedisDataException e) {
+				reply = e;
+			}
+			formatted.set(order.get(i), reply);
+		}
+		return formatted;
+	}
+
+	/**
+	 * 按分片排列的各命令在发出顺序中的位置
+	 */
+	private List<Integer> issueOrder() {
+		List<Integer> order = new ArrayList<>();
+		for (ShardBuffer buffer : buffers.values()) {
+			order.addAll(buffer.sequence);
+		}
+		return order;
+	}
+
+	/**
+	 * 读取未sync命令的回复并归还连接
+	 */
+	@Override
+	public void close() {
+		sync();
+	}
+
+	private class ShardBuffer implements Callable<Void> {
+		private final Jedis connection;
+		private final List<Response<?>> responses = new ArrayList<>();
+		//各命令在整个pipeline中的发出序号
+		private final List<Integer> sequence = new ArrayList<>();
+		private JedisConnectionException failure;
+
+		ShardBuffer(Jedis connection) {
+			this.connection = connection;
+		}
+
+		@Override
+		public Void call() {
+			try {
+				List<Object> replies = connection.getClient().getMany(responses.size());
+				for (int i = 0; i < replies.size(); i++) {
+					responses.get(i).set(replies.get(i));
+				}
+			} catch (JedisConnectionException e) {
+				failure = e;
+			}
+			return null;
+		}
+	}
+}
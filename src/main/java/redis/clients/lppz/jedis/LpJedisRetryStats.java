@@ -0,0 +1,28 @@
+package redis.clients.lppz.jedis;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * LpJedis的重试计数:重试次数,以及连接异常最终抛给调用方的次数(重试用完、预算不足或命令不可重试)
+ */
+public class LpJedisRetryStats {
+
+	private final AtomicLong retries = new AtomicLong();
+	private final AtomicLong giveUps = new AtomicLong();
+
+	void retry() {
+		retries.incrementAndGet();
+	}
+
+	void giveUp() {
+		giveUps.incrementAndGet();
+	}
+
+	public long getRetries() {
+		return retries.get();
+	}
+
+	public long getGiveUps() {
+		return giveUps.get();
+	}
+}
@@ -0,0 +1,106 @@
+package redis.clients.lppz.jedis;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import redis.clients.jedis.JedisPool;
+
+/**
+ * 一个分片节点(host:port)上命令的调用次数、失败次数和延迟(借连接加执行),以及其连接池的状态。
+ * 按节点名保存,拓扑切换后仍在的节点继续累计
+ */
+public class LpJedisShardStats implements LpJedisShardStatsMBean {
+
+	private final String nodeName;
+	private final LatencyHistogram latency = new LatencyHistogram();
+	private final AtomicLong errors = new AtomicLong();
+	//当前路由表中该节点的连接池
+	private volatile JedisPool pool;
+
+	LpJedisShardStats(String nodeName) {
+		this.nodeName = nodeName;
+	}
+
+	void record(long nanos, boolean failed) {
+		latency.record(nanos / 1000);
+		if (failed) {
+			errors.incrementAndGet();
+		}
+	}
+
+	void setPool(JedisPool pool) {
+		this.pool = pool;
+	}
+
+	public String getNodeName() {
+		return nodeName;
+	}
+
+	public LatencyHistogram getLatency() {
+		return latency;
+	}
+
+	@Override
+	public long getCalls() {
+		return latency.getCount();
+	}
+
+	@Override
+	public long getErrors() {
+		return errors.get();
+	}
+
+	@Override
+	public double getMeanLatencyMicros() {
+		return latency.getMeanMicros();
+	}
+
+	@Override
+	public long getP50LatencyMicros() {
+		return latency.getPercentileMicros(50);
+	}
+
+	@Override
+	public long getP99LatencyMicros() {
+		return latency.getPercentileMicros(99);
+	}
+
+	@Override
+	public long getP999LatencyMicros() {
+		return latency.getPercentileMicros(99.9);
+	}
+
+	@Override
+	public long getMaxLatencyMicros() {
+		return latency.getMaxMicros();
+	}
+
+	@Override
+	public int getNumActive() {
+		JedisPool current = pool;
+		return current == null ? -1 : current.getNumActive();
+	}
+
+	@Override
+	public int getNumIdle() {
+		JedisPool current = pool;
+		return current == null ? -1 : current.getNumIdle();
+	}
+
+	@Override
+	public int getNumWaiters() {
+		JedisPool current = pool;
+		return current == null ? -1 : current.getNumWaiters();
+	}
+
+	@Override
+	public long getMeanBorrowWaitMillis() {
+		JedisPool current = pool;
+		return current == null ? -1 : current.getMeanBorrowWaitTimeMillis();
+	}
+
+	@Override
+	public long getMaxBorrowWaitMillis() {
+		JedisPool current = pool;
+		return current == null ? -1 : current.getMaxBorrowWaitTimeMillis();
+	}
+}
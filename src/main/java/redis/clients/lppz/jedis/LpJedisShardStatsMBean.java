@@ -0,0 +1,31 @@
+package redis.clients.lppz.jedis;
+
+/**
+ * 一个分片的JMX视图,参见{@link LpJedisShardStats}
+ */
+public interface LpJedisShardStatsMBean {
+
+	long getCalls();
+
+	long getErrors();
+
+	double getMeanLatencyMicros();
+
+	long getP50LatencyMicros();
+
+	long getP99LatencyMicros();
+
+	long getP999LatencyMicros();
+
+	long getMaxLatencyMicros();
+
+	int getNumActive();
+
+	int getNumIdle();
+
+	int getNumWaiters();
+
+	long getMeanBorrowWaitMillis();
+
+	long getMaxBorrowWaitMillis();
+}
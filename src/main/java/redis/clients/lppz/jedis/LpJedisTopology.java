@@ -0,0 +1,97 @@
+package redis.clients.lppz.jedis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import redis.clients.jedis.JedisPool;
+import redis.clients.lppz.config.ShardSelector;
+
+/**
+ * LpJedis某一版本的路由表:各分片的节点名(host:port)、连接池和分片选择方式。
+ * 创建后不再修改,拓扑变化时由LpJedis整体替换,一条命令从选分片到借连接都使用同一版本。
+ * <p>
+ * 小于{@value #ROUTING_TABLE_SIZE}的非负sharding index(内置KeyShardingFunction的结果都在这个范围内)
+ * 的分片在创建时预先算好,选分片只是一次数组访问;其他值每次调用分片选择。
+ */
+public class LpJedisTopology {
+
+	public static final int ROUTING_TABLE_SIZE = 16384;
+
+	private final long version;
+	private final List<String> nodeNames;
+	private final JedisPool[] pools;
+	private final ShardSelector shardSelector;
+	private final LpJedisShardStats[] stats;
+	//sharding index到分片的预计算结果
+	private final int[] routes;
+
+	LpJedisTopology(long version, List<String> nodeNames, List<JedisPool> pools, ShardSelector shardSelector,
+			LpJedisShardStats[] stats) {
+		if (nodeNames.size() != pools.size()) {
+			throw new IllegalArgumentException("expected " + pools.size() + " node names, got " + nodeNames.size());
+		}
+		this.version = version;
+		this.nodeNames = Collections.unmodifiableList(new ArrayList<>(nodeNames));
+		this.pools = pools.toArray(new JedisPool[pools.size()]);
+		this.shardSelector = shardSelector;
+		this.stats = stats;
+		this.routes = new int[pools.isEmpty() ? 0 : ROUTING_TABLE_SIZE];
+		for (int i = 0; i < routes.length; i++) {
+			routes[i] = shardSelector.select(i);
+		}
+	}
+
+	public long getVersion() {
+		return version;
+	}
+
+	public List<String> getNodeNames() {
+		return nodeNames;
+	}
+
+	public int size() {
+		return pools.length;
+	}
+
+	public ShardSelector getShardSelector() {
+		return shardSelector;
+	}
+
+	public JedisPool getPool(int index) {
+		return pools[index];
+	}
+
+	/**
+	 * @return 节点的连接池,本版本中没有该节点时返回null
+	 */
+	public JedisPool getPool(String nodeName) {
+		int index = nodeNames.indexOf(nodeName);
+		return index < 0 ? null : pools[index];
+	}
+
+	LpJedisShardStats getStats(int index) {
+		return stats[index];
+	}
+
+	List<JedisPool> getPools() {
+		return Collections.unmodifiableList(Arrays.asList(pools));
+	}
+
+	boolean contains(JedisPool pool) {
+		for (JedisPool p : pools) {
+			if (p == pool) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	int select(int shardingIndex) {
+		if (shardingIndex >= 0 && shardingIndex < routes.length) {
+			return routes[shardingIndex];
+		}
+		return shardSelector.select(shardingIndex);
+	}
+}
@@ -0,0 +1,74 @@
+package redis.clients.lppz.jedis;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 分条带的一组计数器,代替Java 7中没有的LongAdder:每个线程按线程id落到一个条带上做原子加,
+ * 读取时把各条带相加。开始只有一个条带,原子加遇到争用(CAS失败)时条带数翻倍,
+ * 不争用的计数器只占一个条带的内存,读取的开销随条带数增加
+ */
+final class StripedCounters {
+
+	//条带数上限:不小于CPU数的2的幂,最多64,再多的条带不会减少争用
+	private static final int MAX_STRIPES = Math.min(64,
+			Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() * 2 - 1)));
+	//一个缓存行(64字节)的long个数,条带末尾多留一行,与相邻对象隔开
+	private static final int LINE = 8;
+
+	private final int counters;
+	//扩容时沿用已有条带,扩容前后的累加都不会丢
+	private volatile AtomicLongArray[] stripes;
+
+	StripedCounters(int counters) {
+		this.counters = counters;
+		this.stripes = new AtomicLongArray[] { newStripe() };
+	}
+
+	void increment(int counter) {
+		AtomicLongArray[] current = stripes;
+		AtomicLongArray stripe = current[stripe(current.length)];
+		long value = stripe.get(counter);
+		if (!stripe.compareAndSet(counter, value, value + 1)) {
+			stripe.getAndIncrement(counter);
+			grow(current);
+		}
+	}
+
+	long get(int counter) {
+		long sum = 0;
+		for (AtomicLongArray stripe : stripes) {
+			sum += stripe.get(counter);
+		}
+		return sum;
+	}
+
+	int size() {
+		return counters;
+	}
+
+	private void grow(AtomicLongArray[] current) {
+		if (current.length >= MAX_STRIPES) {
+			return;
+		}
+		synchronized (this) {
+			//其他线程已经扩过
+			if (stripes != current) {
+				return;
+			}
+			AtomicLongArray[] grown = Arrays.copyOf(current, current.length * 2);
+			for (int i = current.length; i < grown.length; i++) {
+				grown[i] = newStripe();
+			}
+			stripes = grown;
+		}
+	}
+
+	private AtomicLongArray newStripe() {
+		return new AtomicLongArray(counters + LINE);
+	}
+
+	private static int stripe(int stripes) {
+		return (int) Thread.currentThread().getId() & (stripes - 1);
+	}
+}
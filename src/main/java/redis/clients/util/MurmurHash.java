@@ -136,11 +136,105 @@ public class MurmurHash implements Hashing {
     return h;
   }
 
+  /**
+   * Same as {@link #hash64A(byte[], int)} of the UTF-8 encoding of key[from, to), but reads the
+   * characters directly instead of encoding them into a new array first. Unpaired surrogates are
+   * hashed as '?', the way {@link SafeEncoder#encode(String)} encodes them.
+   */
+  public static long hash64A(String key, int from, int to, int seed) {
+    long m = 0xc6a4a7935bd1e995L;
+    int r = 47;
+
+    long h = seed ^ (utf8Length(key, from, to) * m);
+
+    long word = 0;
+    int filled = 0;
+    for (int i = from; i < to; i++) {
+      char c = key.charAt(i);
+      // the UTF-8 bytes of the character, lowest byte first
+      int bytes;
+      int count;
+      if (c < 0x80) {
+        bytes = c;
+        count = 1;
+      } else if (c < 0x800) {
+        bytes = (0xc0 | (c >> 6)) | (0x80 | (c & 0x3f)) << 8;
+        count = 2;
+      } else if (Character.isSurrogate(c)) {
+        if (Character.isHighSurrogate(c) && i + 1 < to && Character.isLowSurrogate(key.charAt(i + 1))) {
+          int cp = Character.toCodePoint(c, key.charAt(++i));
+          bytes = (0xf0 | (cp >> 18)) | (0x80 | ((cp >> 12) & 0x3f)) << 8
+              | (0x80 | ((cp >> 6) & 0x3f)) << 16 | (0x80 | (cp & 0x3f)) << 24;
+          count = 4;
+        } else {
+          bytes = '?';
+          count = 1;
+        }
+      } else {
+        bytes = (0xe0 | (c >> 12)) | (0x80 | ((c >> 6) & 0x3f)) << 8 | (0x80 | (c & 0x3f)) << 16;
+        count = 3;
+      }
+      for (int b = 0; b < count; b++) {
+        word |= ((bytes >>> (8 * b)) & 0xffL) << (8 * filled);
+        if (++filled == 8) {
+          long k = word;
+          k *= m;
+          k ^= k >>> r;
+          k *= m;
+
+          h ^= k;
+          h *= m;
+          word = 0;
+          filled = 0;
+        }
+      }
+    }
+
+    if (filled > 0) {
+      h ^= word;
+      h *= m;
+    }
+
+    h ^= h >>> r;
+    h *= m;
+    h ^= h >>> r;
+    return h;
+  }
+
+  private static int utf8Length(String key, int from, int to) {
+    int length = 0;
+    for (int i = from; i < to; i++) {
+      char c = key.charAt(i);
+      if (c < 0x80) {
+        length++;
+      } else if (c < 0x800) {
+        length += 2;
+      } else if (Character.isSurrogate(c)) {
+        if (Character.isHighSurrogate(c) && i + 1 < to && Character.isLowSurrogate(key.charAt(i + 1))) {
+          i++;
+          length += 4;
+        } else {
+          length++;
+        }
+      } else {
+        length += 3;
+      }
+    }
+    return length;
+  }
+
   public long hash(byte[] key) {
     return hash64A(key, 0x1234ABCD);
   }
 
   public long hash(String key) {
-    return hash(SafeEncoder.encode(key));
+    return hash64A(key, 0, key.length(), 0x1234ABCD);
+  }
+
+  /**
+   * Hashes key[from, to) like {@link #hash(String)} hashes the substring, without creating it.
+   */
+  public long hash(String key, int from, int to) {
+    return hash64A(key, from, to, 0x1234ABCD);
   }
 }
@@ -110,6 +110,14 @@ public abstract class Pool<T> implements Closeable {
     return this.internalPool.getNumIdle();
   }
 
+  public int getMinIdle() {
+    if (poolInactive()) {
+      return -1;
+    }
+
+    return this.internalPool.getMinIdle();
+  }
+
   public int getNumWaiters() {
     if (poolInactive()) {
       return -1;
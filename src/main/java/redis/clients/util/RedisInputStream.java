@@ -185,6 +185,86 @@ public class RedisInputStream extends FilterInputStream {
     return length;
   }
 
+  /**
+   * Reads a bulk payload of the given length plus its trailing CRLF and decodes it as a String. If
+   * the payload fits in the internal buffer it is decoded in place, avoiding the intermediate
+   * byte[] that {@link #read(byte[], int, int)} would need.
+   */
+  public String readBulkString(final int len) {
+    if (len + 2 <= buf.length) {
+      ensureAvailable(len + 2);
+      final String reply = SafeEncoder.encode(buf, count, len);
+      count += len + 2;
+      return reply;
+    }
+
+    final byte[] read = new byte[len];
+    readFully(read, 0, len);
+    skipCrLf();
+    return SafeEncoder.encode(read);
+  }
+
+  /**
+   * Copies a bulk payload of the given length straight from the internal buffer into the sink,
+   * then consumes its trailing CRLF. No per-reply array is allocated.
+   */
+  public void readBulkTo(final int len, final OutputStream sink) {
+    int remaining = len;
+    try {
+      while (remaining > 0) {
+        ensureFill();
+        final int length = Math.min(limit - count, remaining);
+        sink.write(buf, count, length);
+        count += length;
+        remaining -= length;
+      }
+    } catch (IOException e) {
+      throw new JedisConnectionException(e);
+    }
+    skipCrLf();
+  }
+
+  private void readFully(final byte[] b, int off, final int len) {
+    final int end = off + len;
+    while (off < end) {
+      off += read(b, off, end - off);
+    }
+  }
+
+  private void skipCrLf() {
+    readByte();
+    readByte();
+  }
+
+  /**
+   * Makes sure that at least n bytes (n &lt;= buf.length) are contiguous in the buffer, moving the
+   * unread bytes to its start if the tail is too short.
+   */
+  private void ensureAvailable(final int n) throws JedisConnectionException {
+    if (limit - count >= n) {
+      return;
+    }
+    if (count >= limit) {
+      count = 0;
+      limit = 0;
+    } else if (count > 0) {
+      System.arraycopy(buf, count, buf, 0, limit - count);
+      limit -= count;
+      count = 0;
+    }
+    try {
+      while (limit < n) {
+        final int read = in.read(buf, limit, buf.length - limit);
+        if (read == -1) {
+          throw new JedisConnectionException("Unexpected end of stream.");
+        }
+        limit += read;
+      }
+    } catch (IOException e) {
+      throw new JedisConnectionException(e);
+    }
+  }
+
   /**
    * This methods assumes there are required bytes to be read. If we cannot read anymore bytes an
    * exception is thrown to quickly ascertain that the stream was smaller than expected.
@@ -0,0 +1,132 @@
+package redis.clients.zkprocess.comm;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.curator.framework.recipes.cache.TreeCacheEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import redis.clients.zkprocess.enums.ZkNofiflyCfg;
+
+/**
+ * 合并zk事件后再通知:主从切换时TreeCache会连续发出一串事件,收到事件后等待一段静默时间,
+ * 期间没有新事件才在专用线程上把这批事件一次交给{@link ZookeeperProcessListen},
+ * 不占用Curator的事件线程,一次切换只重建一次连接池。
+ * <p>
+ * 同一路径的多条事件只保留最后一条;事件持续不断时最多等待静默时间的10倍
+ */
+public class ZkEventDebouncer implements Closeable {
+
+    /**
+     * 日志
+    * @字段说明 LOGGER
+    */
+    private static final Logger LOGGER = LoggerFactory.getLogger(ZkEventDebouncer.class);
+
+    /**
+     * 默认的静默时间(毫秒)
+    * @字段说明 DEFAULT_QUIET_MILLIS
+    */
+    public static final long DEFAULT_QUIET_MILLIS = 100;
+
+    private final ZookeeperProcessListen zkListen;
+
+    private final long quietMillis;
+
+    private final long maxDelayMillis;
+
+    private final ScheduledExecutorService executor;
+
+    /**
+     * 路径 -> 该路径最后一条事件,按最后出现的顺序排列
+    * @字段说明 pending
+    */
+    private Map<String, TreeCacheEvent> pending = new LinkedHashMap<>();
+
+    private ScheduledFuture<?> flushFuture;
+
+    private long firstEventMillis;
+
+    private final Runnable flushTask = new Runnable() {
+        @Override
+        public void run() {
+            flush();
+        }
+    };
+
+    public ZkEventDebouncer(ZookeeperProcessListen zkListen, long quietMillis) {
+        this.zkListen = zkListen;
+        this.quietMillis = quietMillis;
+        this.maxDelayMillis = quietMillis * 10;
+        this.executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "zk-notifly");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * 加入一条事件,不阻塞调用线程
+    * @param event data不为null的TreeCache事件
+    */
+    public synchronized void add(TreeCacheEvent event) {
+        String path = event.getData().getPath();
+        pending.remove(path);
+        pending.put(path, event);
+
+        long now = System.currentTimeMillis();
+        if (null == flushFuture) {
+            firstEventMillis = now;
+        } else if (now - firstEventMillis < maxDelayMillis) {
+            // 重新开始计算静默时间
+            flushFuture.cancel(false);
+        } else {
+            return;
+        }
+        flushFuture = executor.schedule(flushTask, quietMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 在通知线程上重新加载全部数据,不阻塞调用线程
+    */
+    public void reloadAll() {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                zkListen.notifly(ZkNofiflyCfg.ZK_NOTIFLY_LOAD_ALL.getKey());
+            }
+        });
+    }
+
+    private void flush() {
+        List<TreeCacheEvent> events;
+        synchronized (this) {
+            flushFuture = null;
+            if (pending.isEmpty()) {
+                return;
+            }
+            events = new ArrayList<>(pending.values());
+            pending = new LinkedHashMap<>();
+        }
+        LOGGER.debug("ZkEventDebouncer flush {} events", events.size());
+        zkListen.notifly(events);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+}
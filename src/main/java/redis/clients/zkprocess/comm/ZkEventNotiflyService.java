@@ -0,0 +1,20 @@
+package redis.clients.zkprocess.comm;
+
+import java.util.List;
+
+import org.apache.curator.framework.recipes.cache.TreeCacheEvent;
+
+/**
+ * 能直接应用zk节点变化的通知接口,不必每次重新加载全部数据
+ */
+public interface ZkEventNotiflyService extends NotiflyService {
+
+    /**
+     * 应用一批TreeCache事件
+     * @param events 按发生顺序排列的事件,data不为null
+     * @throws Exception 异常操作
+     * @return true 通知更新成功，false ，更新失败
+     */
+    Object notiflyProcess(List<TreeCacheEvent> events) throws Exception;
+
+}
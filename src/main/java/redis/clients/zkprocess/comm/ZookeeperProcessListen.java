@@ -1,17 +1,23 @@
 package redis.clients.zkprocess.comm;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 
+import org.apache.curator.framework.recipes.cache.TreeCacheEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import redis.clients.zkprocess.entity.LpJedisClusterYamlBean;
 import redis.clients.zkprocess.enums.ZkNofiflyCfg;
+import redis.clients.zkprocess.enums.ZookeeperPath;
 
 /**
  * 进行zookeeper操作的监控器器父类信息
@@ -30,21 +36,10 @@ public class ZookeeperProcessListen {
     private static final Logger lOG = LoggerFactory.getLogger(ZookeeperProcessListen.class);
 
     /**
-     * 所有更新缓存操作的集合
-     */
-    private Map<String, NotiflyService> listenCache = new HashMap<>();
-
-    /**
-     * 监控的路径信息
-    * @字段说明 watchPath
-    */
-    private Map<String, Set<String>> watchPathMap = new HashMap<>();
-
-    /**
-     * 监控路径对应的缓存key的对应表
-    * @字段说明 watchToListen
+     * 当前的监听注册表。注册时复制后整体替换,通知时只读取,不加锁
+    * @字段说明 registry
     */
-    private Map<String, String> watchToListenMap = new HashMap<>();
+    private volatile Registry registry = Registry.EMPTY;
 
     /**
      * 基本路径信息
@@ -76,55 +71,50 @@ public class ZookeeperProcessListen {
      * @param key
      * @param cacheNotiflySercie
      */
-    public void addListen(String key, NotiflyService cacheNotiflySercie) {
-        listenCache.put(key, cacheNotiflySercie);
+    public synchronized void addListen(String key, NotiflyService cacheNotiflySercie) {
+        Registry current = registry;
+        Map<String, NotiflyService> listens = new LinkedHashMap<>(current.listens);
+        listens.put(key, cacheNotiflySercie);
+        registry = new Registry(Collections.unmodifiableMap(listens), current.root, current.watchPaths);
     }
 
     /**
-     * 专门针对zk设置的监控路径
+     * 专门针对zk设置的监控路径,路径下的子节点都由同一业务处理;已被同一业务的上级路径覆盖时不再登记
     * 方法描述
     * @param key
     * @param path
     * @创建日期 2016年9月19日
     */
-    public void watchPath(String key, String path) {
-        Set<String> watchPaths = watchPathMap.get(key);
-        if (null == watchPaths) {
-            watchPaths = new HashSet<>();
+    public synchronized void watchPath(String key, String path) {
+        Registry current = registry;
+        String[] names = splitPath(path);
+        if (key.equals(current.root.match(names))) {
+            return;
         }
 
+        Set<String> watchPaths = new LinkedHashSet<>(current.watchPaths);
         watchPaths.add(path);
-        watchPathMap.put(key, watchPaths);
+        registry = new Registry(current.listens, current.root.with(names, 0, key),
+                Collections.unmodifiableSet(watchPaths));
     }
 
     /**
-     * 进行监控路径的转换
+     * 监控路径在登记时已经加入前缀树,不再需要转换
     * 方法描述
     * @创建日期 2016年9月20日
     */
+    @Deprecated
     public void watchToParse() {
-        if (null != watchPathMap && !watchPathMap.isEmpty()) {
-            for (Entry<String, Set<String>> watchPathEntry : watchPathMap.entrySet()) {
-                for (String path : watchPathEntry.getValue()) {
-                    watchToListenMap.put(path, watchPathEntry.getKey());
-                }
-            }
-        }
     }
 
     /**
      * 返回路径集合
     * 方法描述
-    * @return
+    * @return 当前登记的监控路径的快照
     * @创建日期 2016年9月19日
     */
     public Set<String> getWatchPath() {
-
-        if (watchToListenMap.isEmpty()) {
-            this.watchToParse();
-        }
-
-        return watchToListenMap.keySet();
+        return registry.watchPaths;
     }
 
     /**
@@ -145,21 +135,12 @@ public class ZookeeperProcessListen {
             }
             // 如果是具体的单独更新，则进行单业务的业务刷新
             else {
-                String watchListen = watchToListenMap.get(key);
-                if(null == watchListen){
-                    watchToParse();
-                    watchListen = watchToListenMap.get(key);
-                }
-                if (null != watchListen) {
-                    // 取得具体的业务监听信息
-                    NotiflyService cacheService = listenCache.get(watchListen);
-
-                    if (null != cacheService) {
-                        try {
-                            result = cacheService.notiflyProcess(true);
-                        } catch (Exception e) {
-                            lOG.error("ZookeeperProcessListen notifly key :" + key + " error:Exception info:", e);
-                        }
+                NotiflyService cacheService = getListen(key);
+                if (null != cacheService) {
+                    try {
+                        result = cacheService.notiflyProcess(true);
+                    } catch (Exception e) {
+                        lOG.error("ZookeeperProcessListen notifly key :" + key + " error:Exception info:", e);
                     }
                 }
             }
@@ -168,12 +149,69 @@ public class ZookeeperProcessListen {
         return result;
     }
 
+    /**
+     * 按一批zk事件进行缓存更新通知,事件按所属业务分组,每个业务只通知一次。
+     * 业务实现了{@link ZkEventNotiflyService}时只应用这些变化,否则整体重新加载
+     * 
+     * @param events
+     *            按发生顺序排列的TreeCache事件,data不为null
+     */
+    public void notifly(List<TreeCacheEvent> events) {
+        Map<NotiflyService, List<TreeCacheEvent>> serviceEvents = new LinkedHashMap<>();
+        for (TreeCacheEvent event : events) {
+            NotiflyService cacheService = getListen(event.getData().getPath());
+            if (null != cacheService) {
+                List<TreeCacheEvent> list = serviceEvents.get(cacheService);
+                if (null == list) {
+                    list = new ArrayList<>();
+                    serviceEvents.put(cacheService, list);
+                }
+                list.add(event);
+            }
+        }
+
+        for (Entry<NotiflyService, List<TreeCacheEvent>> item : serviceEvents.entrySet()) {
+            NotiflyService cacheService = item.getKey();
+            try {
+                if (cacheService instanceof ZkEventNotiflyService) {
+                    ((ZkEventNotiflyService) cacheService).notiflyProcess(item.getValue());
+                } else {
+                    cacheService.notiflyProcess(true);
+                }
+            } catch (Exception e) {
+                lOG.error("ZookeeperProcessListen notifly " + item.getValue().size() + " events of " + cacheService
+                        + " error:Exception info:", e);
+            }
+        }
+    }
+
+    /**
+     * 取得监控路径对应的业务监听,按路径逐级查找,取登记路径中最长的前缀
+    * @param path 节点路径
+    * @return 没有注册时返回null
+    */
+    private NotiflyService getListen(String path) {
+        Registry current = registry;
+        String watchListen = current.root.match(splitPath(path));
+        return null == watchListen ? null : current.listens.get(watchListen);
+    }
+
+    private static String[] splitPath(String path) {
+        List<String> names = new ArrayList<>();
+        for (String name : path.split(ZookeeperPath.ZK_SEPARATOR.getKey())) {
+            if (!name.isEmpty()) {
+                names.add(name);
+            }
+        }
+        return names.toArray(new String[names.size()]);
+    }
+
     /**
      * 进行通知所有缓存进行更新操作
      */
     private void notiflyAll() {
 
-        Iterator<Entry<String, NotiflyService>> notiflyIter = listenCache.entrySet().iterator();
+        Iterator<Entry<String, NotiflyService>> notiflyIter = registry.listens.entrySet().iterator();
 
         Entry<String, NotiflyService> item;
 
@@ -192,4 +230,79 @@ public class ZookeeperProcessListen {
         }
     }
 
+    /**
+     * 监听注册表的不可变快照
+     */
+    private static final class Registry {
+
+        static final Registry EMPTY = new Registry(Collections.<String, NotiflyService> emptyMap(), PathNode.EMPTY,
+                Collections.<String> emptySet());
+
+        /**
+         * 业务key -> 业务监听
+         */
+        final Map<String, NotiflyService> listens;
+
+        /**
+         * 监控路径 -> 业务key的前缀树
+         */
+        final PathNode root;
+
+        final Set<String> watchPaths;
+
+        Registry(Map<String, NotiflyService> listens, PathNode root, Set<String> watchPaths) {
+            this.listens = listens;
+            this.root = root;
+            this.watchPaths = watchPaths;
+        }
+    }
+
+    /**
+     * 按路径分段的前缀树节点,不可变。登记路径时只复制从根到该节点的一条链
+     */
+    private static final class PathNode {
+
+        static final PathNode EMPTY = new PathNode(Collections.<String, PathNode> emptyMap(), null);
+
+        final Map<String, PathNode> children;
+
+        /**
+         * 登记在这个路径上的业务key,没有登记时为null
+         */
+        final String listenKey;
+
+        PathNode(Map<String, PathNode> children, String listenKey) {
+            this.children = children;
+            this.listenKey = listenKey;
+        }
+
+        PathNode with(String[] names, int index, String key) {
+            if (index == names.length) {
+                return new PathNode(children, key);
+            }
+            PathNode child = children.get(names[index]);
+            Map<String, PathNode> copy = new HashMap<>(children);
+            copy.put(names[index], (null == child ? EMPTY : child).with(names, index + 1, key));
+            return new PathNode(Collections.unmodifiableMap(copy), listenKey);
+        }
+
+        /**
+         * @return 路径上最深一级登记的业务key
+         */
+        String match(String[] names) {
+            PathNode node = this;
+            String matched = listenKey;
+            for (String name : names) {
+                node = node.children.get(name);
+                if (null == node) {
+                    break;
+                }
+                if (null != node.listenKey) {
+                    matched = node.listenKey;
+                }
+            }
+            return matched;
+        }
+    }
+
 }
@@ -4,10 +4,22 @@ import java.util.List;
 import java.util.Properties;
 
 public class JedisBaseYamlBean {
+	/**
+	 * 分片的固定名称(如zk上的分片目录),主从切换后不变;为空时用节点的host:port
+	 */
+	protected String shardName;
 	protected JedisClusterPool jedisClusterPool;
 	protected List<Properties> jedisClusterNode;
 	protected Integer timeout;
 
+	public String getShardName() {
+		return shardName;
+	}
+
+	public void setShardName(String shardName) {
+		this.shardName = shardName;
+	}
+
 	public JedisClusterPool getJedisClusterPool() {
 		return jedisClusterPool;
 	}
@@ -35,7 +47,9 @@ public class JedisBaseYamlBean {
 	@Override
 	public String toString() {
 		StringBuilder builder = new StringBuilder();
-		builder.append("JedisBaseYamlBean [jedisClusterPool=");
+		builder.append("JedisBaseYamlBean [shardName=");
+		builder.append(shardName);
+		builder.append(", jedisClusterPool=");
 		builder.append(jedisClusterPool);
 		builder.append(", jedisClusterNode=");
 		builder.append(jedisClusterNode);
@@ -38,6 +38,13 @@ public class JedisClusterPool{
 	}
 	private String maxTotal;
 	private String maxIdle;
+	private String minIdle;
+	public String getMinIdle() {
+		return minIdle;
+	}
+	public void setMinIdle(String minIdle) {
+		this.minIdle = minIdle;
+	}
 	public String getMaxIdle() {
 		return maxIdle;
 	}
@@ -56,6 +63,8 @@ public class JedisClusterPool{
 		builder.append(maxTotal);
 		builder.append(", maxIdle=");
 		builder.append(maxIdle);
+		builder.append(", minIdle=");
+		builder.append(minIdle);
 		builder.append(", maxWaitMillis=");
 		builder.append(maxWaitMillis);
 		builder.append(", testOnBorrow=");
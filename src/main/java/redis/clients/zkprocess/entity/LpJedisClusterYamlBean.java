@@ -18,6 +18,21 @@ public class LpJedisClusterYamlBean {
 	private JedisClusterPool jedisClusterPool;
 	
 	private Integer timeout;
+	
+	/**
+	 * 分片选择方式:modulo(默认)、ketama或jump
+	 */
+	private String shardSelector;
+	
+	/**
+	 * zk事件合并的静默时间(毫秒),默认100
+	 */
+	private Integer zkNotiflyDelay;
+	
+	/**
+	 * 拓扑快照文件,默认为用户目录下的.lpjedis/分片名.yaml
+	 */
+	private String snapshotFile;
 
 	public String getZkNodes() {
 		return zkNodes;
@@ -59,6 +74,30 @@ public class LpJedisClusterYamlBean {
 		this.redisNodePrefix = redisNodePrefix;
 	}
 
+	public String getShardSelector() {
+		return shardSelector;
+	}
+
+	public void setShardSelector(String shardSelector) {
+		this.shardSelector = shardSelector;
+	}
+
+	public Integer getZkNotiflyDelay() {
+		return zkNotiflyDelay;
+	}
+
+	public void setZkNotiflyDelay(Integer zkNotiflyDelay) {
+		this.zkNotiflyDelay = zkNotiflyDelay;
+	}
+
+	public String getSnapshotFile() {
+		return snapshotFile;
+	}
+
+	public void setSnapshotFile(String snapshotFile) {
+		this.snapshotFile = snapshotFile;
+	}
+
 	@Override
 	public String toString() {
 		StringBuilder builder = new StringBuilder();
@@ -72,6 +111,12 @@ public class LpJedisClusterYamlBean {
 		builder.append(jedisClusterPool);
 		builder.append(", timeout=");
 		builder.append(timeout);
+		builder.append(", shardSelector=");
+		builder.append(shardSelector);
+		builder.append(", zkNotiflyDelay=");
+		builder.append(zkNotiflyDelay);
+		builder.append(", snapshotFile=");
+		builder.append(snapshotFile);
 		builder.append("]");
 		return builder.toString();
 	}
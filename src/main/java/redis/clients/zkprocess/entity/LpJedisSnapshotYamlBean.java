@@ -0,0 +1,102 @@
+package redis.clients.zkprocess.entity;
+
+import java.util.List;
+
+/**
+ * 最近一次由zk初始化jedis时的拓扑快照,zk不可用时用于启动
+ */
+public class LpJedisSnapshotYamlBean {
+	/**
+	 * zk上的分片目录,与当前配置不同时快照无效
+	 */
+	private String basePath;
+	private String shardSelector;
+	private Integer timeout;
+	private JedisClusterPool jedisClusterPool;
+	/**
+	 * 按分片顺序排列的主节点(host:port)
+	 */
+	private List<String> masters;
+	/**
+	 * 与masters一一对应的分片名(zk上的分片目录),旧版本的快照中没有
+	 */
+	private List<String> shards;
+	private Long saveTime;
+
+	public String getBasePath() {
+		return basePath;
+	}
+
+	public void setBasePath(String basePath) {
+		this.basePath = basePath;
+	}
+
+	public String getShardSelector() {
+		return shardSelector;
+	}
+
+	public void setShardSelector(String shardSelector) {
+		this.shardSelector = shardSelector;
+	}
+
+	public Integer getTimeout() {
+		return timeout;
+	}
+
+	public void setTimeout(Integer timeout) {
+		this.timeout = timeout;
+	}
+
+	public JedisClusterPool getJedisClusterPool() {
+		return jedisClusterPool;
+	}
+
+	public void setJedisClusterPool(JedisClusterPool jedisClusterPool) {
+		this.jedisClusterPool = jedisClusterPool;
+	}
+
+	public List<String> getMasters() {
+		return masters;
+	}
+
+	public void setMasters(List<String> masters) {
+		this.masters = masters;
+	}
+
+	public List<String> getShards() {
+		return shards;
+	}
+
+	public void setShards(List<String> shards) {
+		this.shards = shards;
+	}
+
+	public Long getSaveTime() {
+		return saveTime;
+	}
+
+	public void setSaveTime(Long saveTime) {
+		this.saveTime = saveTime;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("LpJedisSnapshotYamlBean [basePath=");
+		builder.append(basePath);
+		builder.append(", shardSelector=");
+		builder.append(shardSelector);
+		builder.append(", timeout=");
+		builder.append(timeout);
+		builder.append(", jedisClusterPool=");
+		builder.append(jedisClusterPool);
+		builder.append(", masters=");
+		builder.append(masters);
+		builder.append(", shards=");
+		builder.append(shards);
+		builder.append(", saveTime=");
+		builder.append(saveTime);
+		builder.append("]");
+		return builder.toString();
+	}
+}
@@ -1,7 +1,13 @@
 package redis.clients.zkprocess.zk2local;
 
 import java.io.InputStream;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.curator.framework.CuratorFramework;
 import org.apache.curator.framework.CuratorFrameworkFactory;
@@ -17,15 +23,21 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.yaml.snakeyaml.Yaml;
 
+import redis.clients.zkprocess.comm.ZkEventDebouncer;
 import redis.clients.zkprocess.comm.ZookeeperProcessListen;
 import redis.clients.zkprocess.entity.LpJedisClusterYamlBean;
 import redis.clients.zkprocess.enums.ZkNofiflyCfg;
 import redis.clients.zkprocess.enums.ZookeeperPath;
 import redis.clients.zkprocess.zk2local.listen.ZkToLocalLoader;
+import redis.clients.zkprocess.zk2local.listen.ZkTopologySnapshot;
 
 public class Zk2Local {
 	private static final Logger logger = LoggerFactory.getLogger(Zk2Local.class);
 	public static final String LP_JEDISCLUSTER_YAML_PATH="META-INF/lpjedis-cluster.yaml";
+	/**
+	 * 启动时等待TreeCache初始化的时间
+	 */
+	private static final long INIT_TIMEOUT_SECONDS = 30;
 	
 	public static void loadZktoFile() throws Exception {
 		try {
@@ -40,17 +52,48 @@ public class Zk2Local {
 			zkListen.setBasePath(basePath);
 			// 获得zk的连接信息
 			CuratorFramework zkConn = buildConnection(clusterYmalBean.getZkNodes());
-			new ZkToLocalLoader(zkListen, zkConn).addListen();
+			ZkToLocalLoader loader = new ZkToLocalLoader(zkListen, zkConn);
+			loader.addListen();
+			loader.setSnapshot(new ZkTopologySnapshot(null == clusterYmalBean.getSnapshotFile()
+					? ZkTopologySnapshot.defaultFile(clusterYmalBean.getSharding()) : clusterYmalBean.getSnapshotFile()));
+			// 有快照时先按快照启动,zk初始化完成后在后台重新加载,启动不再等待zk
+			boolean snapshotLoaded = loadSnapshot(loader);
+			
+			// 先启动watch,事件合并后在单独的线程上通知
+			ZkEventDebouncer debouncer = new ZkEventDebouncer(zkListen,
+					null == clusterYmalBean.getZkNotiflyDelay() ? ZkEventDebouncer.DEFAULT_QUIET_MILLIS
+							: clusterYmalBean.getZkNotiflyDelay());
+			Set<String> watchPaths = new HashSet<>(zkListen.getWatchPath());
+			CountDownLatch initialized = new CountDownLatch(watchPaths.size());
+			AtomicBoolean lateLoad = new AtomicBoolean(snapshotLoaded);
+			Map<String, TreeCache> treeCaches = loadZkWatch(watchPaths, zkConn, zkListen, debouncer, initialized,
+					lateLoad);
+			// TreeCache初始化后已有整棵树,直接从本地数据加载,不再逐个节点读取zk
+			loader.setTreeCache(treeCaches.get(basePath));
+			if (snapshotLoaded) {
+				return;
+			}
+			if (!initialized.await(INIT_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+				logger.warn("zk在{}秒内没有完成初始化,完成后重新加载", INIT_TIMEOUT_SECONDS);
+				lateLoad.set(true);
+			}
 			
 			// 加载通知进程
 			zkListen.notifly(ZkNofiflyCfg.ZK_NOTIFLY_LOAD_ALL.getKey());
-			// 加载watch
-			loadZkWatch(zkListen.getWatchPath(), zkConn, zkListen);
 		} catch (Exception e) {
 			logger.warn("加载lpredis失败, {}", e.toString());
 		}
 	}
 	
+	private static boolean loadSnapshot(ZkToLocalLoader loader) {
+		try {
+			return loader.loadSnapshot();
+		} catch (Exception e) {
+			logger.warn("按快照加载lpredis失败, {}", e.toString());
+			return false;
+		}
+	}
+	
 	private static String getBasePath(String sharding) {
 		return ZookeeperPath.ZK_SEPARATOR.getKey() + ZookeeperPath.FLOW_ZK_PATH_REDIS.getKey() 
 	    		+ ZookeeperPath.ZK_SEPARATOR.getKey() + sharding;
@@ -78,16 +121,19 @@ public class Zk2Local {
 		return curatorFramework;
 	}
 	
-	private static void loadZkWatch(Set<String> setPaths,
-			final CuratorFramework zkConn, final ZookeeperProcessListen zkListen)
-			throws Exception {
+	private static Map<String, TreeCache> loadZkWatch(Set<String> setPaths,
+			final CuratorFramework zkConn, final ZookeeperProcessListen zkListen,
+			final ZkEventDebouncer debouncer, final CountDownLatch initialized,
+			final AtomicBoolean lateLoad) throws Exception {
+		Map<String, TreeCache> treeCaches = new HashMap<>();
 		if (null != setPaths && !setPaths.isEmpty()) {
 			for (String path : setPaths) {
-				runWatch(zkConn, path, zkListen);
+				treeCaches.put(path, runWatch(zkConn, path, zkListen, debouncer, initialized, lateLoad));
 				logger.info("Zk2Local loadZkWatch path:" + path
 						+ " regist success");
 			}
 		}
+		return treeCaches;
 	}
 
 	/**
@@ -99,13 +145,21 @@ public class Zk2Local {
 	 *            路径信息
 	 * @param zkListen
 	 *            监控路径信息
+	 * @param debouncer
+	 *            事件合并
+	 * @param initialized
+	 *            TreeCache初始化完成时减一
+	 * @param lateLoad
+	 *            启动时没有等到初始化,初始化完成后需要重新加载
+	 * @return 启动的TreeCache
 	 * @throws Exception
 	 * @创建日期 2016年9月20日
 	 */
-	private static void runWatch(final CuratorFramework zkConn, String path,
-			final ZookeeperProcessListen zkListen) throws Exception {
+	private static TreeCache runWatch(final CuratorFramework zkConn, String path,
+			final ZookeeperProcessListen zkListen, final ZkEventDebouncer debouncer,
+			final CountDownLatch initialized, final AtomicBoolean lateLoad) throws Exception {
 //		pathChildrenCache(zkConn, path, zkListen);
-		treeCache(zkConn, path, zkListen);
+		return treeCache(zkConn, path, zkListen, debouncer, initialized, lateLoad);
 	}
 	
 	private static void pathChildrenCache(CuratorFramework zkConn ,final String path,
@@ -131,8 +185,9 @@ public class Zk2Local {
 		childrenCache.start();
 	}
 	
-	private static void treeCache(CuratorFramework zkConn ,final String path,
-			final ZookeeperProcessListen zkListen) throws Exception{
+	private static TreeCache treeCache(CuratorFramework zkConn ,final String path,
+			final ZookeeperProcessListen zkListen, final ZkEventDebouncer debouncer,
+			final CountDownLatch initialized, final AtomicBoolean lateLoad) throws Exception{
 		TreeCache treeCache = new TreeCache(zkConn,path);
 		treeCache.getListenable().addListener(new TreeCacheListener() {
 			
@@ -145,12 +200,21 @@ public class Zk2Local {
                 		zkListen.watchPath(path, data.getPath());
                 	}
                 	logger.debug("--------------- event type {} path {} data {}",event.getType(), data.getPath(), data.getData());
-                	zkListen.notifly(data.getPath());
+                	// 初始化之前的事件都包含在启动时的整体加载中
+                	if(initialized.getCount()==0){
+                		debouncer.add(event);
+                	}
+                }else if(event.getType()==TreeCacheEvent.Type.INITIALIZED){
+                	initialized.countDown();
+                	if(lateLoad.get()){
+                		debouncer.reloadAll();
+                	}
                 }else{  
                 	logger.debug( "data is null : "+ event.getType());  
                 }  
 			}
 		});
 		treeCache.start();
+		return treeCache;
 	}
 }
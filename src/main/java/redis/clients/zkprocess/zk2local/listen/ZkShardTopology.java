@@ -0,0 +1,230 @@
+package redis.clients.zkprocess.zk2local.listen;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.curator.framework.recipes.cache.TreeCacheEvent;
+
+import redis.clients.zkprocess.enums.ZookeeperPath;
+import redis.clients.zkprocess.zookeeper.DiretoryInf;
+import redis.clients.zkprocess.zookeeper.process.ZkDataImpl;
+
+/**
+ * zk上分片拓扑的内存模型:basePath/分片目录/host:port,节点的值为M的是该分片的主节点。
+ * 启动时由整棵树加载,之后逐条应用TreeCache的增删改事件,不再重新读取zk。
+ * <p>
+ * 每个分片目录记住一个当选的主节点:主从切换时旧主先变为S、新主后变为M(或相反),
+ * 中间状态下分片没有或有两个主节点,此时保留原来的主节点,直到另一个节点成为该分片唯一的新主节点,
+ * 分片的下标和个数在切换过程中不变
+*/
+public class ZkShardTopology {
+
+    /**
+     * 主节点的值
+    * @字段说明 MASTER
+    */
+    public static final String MASTER = "M";
+
+    /**
+     * 分片目录名拆成:前缀(非数字)、编号、其余部分
+    */
+    private static final Pattern NUMBERED_NAME = Pattern.compile("(\\D*)(\\d*)(.*)", Pattern.DOTALL);
+
+    /**
+     * 分片目录按(前缀, 编号, 其余部分)排序,编号按数值比较(node2在node10之前),没有编号的排在前面,
+     * 完全相同时再按整个名称比较(node01与node1)。各部分依次比较,排序对任意名称都是传递的。
+     * zk返回子节点的顺序不固定,排序后分片下标在每次启动时都相同
+    */
+    static final Comparator<String> SHARD_ORDER = new Comparator<String>() {
+        @Override
+        public int compare(String name1, String name2) {
+            Matcher m1 = NUMBERED_NAME.matcher(name1);
+            Matcher m2 = NUMBERED_NAME.matcher(name2);
+            m1.matches();
+            m2.matches();
+            int result = m1.group(1).compareTo(m2.group(1));
+            if (result == 0) {
+                result = compareNumbers(m1.group(2), m2.group(2));
+            }
+            if (result == 0) {
+                result = m1.group(3).compareTo(m2.group(3));
+            }
+            return result == 0 ? name1.compareTo(name2) : result;
+        }
+    };
+
+    /**
+     * 按数值比较两个数字串,不限长度;空串(没有编号)最小
+    */
+    private static int compareNumbers(String digits1, String digits2) {
+        if (digits1.isEmpty() || digits2.isEmpty()) {
+            return Boolean.compare(!digits1.isEmpty(), !digits2.isEmpty());
+        }
+        String n1 = stripLeadingZeros(digits1);
+        String n2 = stripLeadingZeros(digits2);
+        if (n1.length() != n2.length()) {
+            return Integer.compare(n1.length(), n2.length());
+        }
+        return n1.compareTo(n2);
+    }
+
+    private static String stripLeadingZeros(String digits) {
+        int i = 0;
+        while (i < digits.length() - 1 && digits.charAt(i) == '0') {
+            i++;
+        }
+        return digits.substring(i);
+    }
+
+    private final String basePath;
+
+    /**
+     * 分片目录名 -> (节点名 -> 节点的值)
+    * @字段说明 shards
+    */
+    private final Map<String, Map<String, String>> shards = new HashMap<>();
+
+    /**
+     * 分片目录名 -> 当选的主节点(host:port),从未有过主节点的分片不在其中
+    * @字段说明 elected
+    */
+    private final Map<String, String> elected = new HashMap<>();
+
+    public ZkShardTopology(String basePath) {
+        this.basePath = basePath;
+    }
+
+    /**
+     * 用整棵树替换当前模型
+    * @param baseDirectory getTreeDirectory(basePath, null, baseDirectory)的结果
+    */
+    public synchronized void load(DiretoryInf baseDirectory) {
+        shards.clear();
+        List<Object> subList = baseDirectory.getSubordinateInfo();
+        if (subList == null || subList.isEmpty() || !(subList.get(0) instanceof DiretoryInf)) {
+            elected.clear();
+            return;
+        }
+        for (Object obj : ((DiretoryInf) subList.get(0)).getSubordinateInfo()) {
+            //没有节点的分片目录读出来是数据节点
+            if (obj instanceof DiretoryInf) {
+                DiretoryInf shardDir = (DiretoryInf) obj;
+                Map<String, String> nodes = new LinkedHashMap<>();
+                for (Object node : shardDir.getSubordinateInfo()) {
+                    if (node instanceof ZkDataImpl) {
+                        nodes.put(((ZkDataImpl) node).getName(), ((ZkDataImpl) node).getValue());
+                    }
+                }
+                shards.put(shardDir.getDataName(), nodes);
+            } else if (obj instanceof ZkDataImpl) {
+                shards.put(((ZkDataImpl) obj).getName(), new LinkedHashMap<String, String>());
+            }
+        }
+        //重新加载时正在切换的分片沿用原来的主节点
+        elected.keySet().retainAll(shards.keySet());
+        for (String shard : shards.keySet()) {
+            elect(shard);
+        }
+    }
+
+    /**
+     * 应用一条TreeCache事件
+    * @param type 事件类型,只处理NODE_ADDED、NODE_UPDATED和NODE_REMOVED
+    * @param path 事件节点的完整路径
+    * @param value 节点的值
+    * @return 是否有分片当选的主节点因此变化:被另一个节点替换、分片第一次有了主节点或分片被删除
+    */
+    public synchronized boolean apply(TreeCacheEvent.Type type, String path, String value) {
+        String prefix = basePath + ZookeeperPath.ZK_SEPARATOR.getKey();
+        if (path == null || !path.startsWith(prefix)) {
+            return false;
+        }
+        String[] names = path.substring(prefix.length()).split(ZookeeperPath.ZK_SEPARATOR.getKey());
+        String shard = names[0];
+        if (names.length == 1) {
+            if (type == TreeCacheEvent.Type.NODE_REMOVED) {
+                shards.remove(shard);
+                return elected.remove(shard) != null;
+            }
+            if (type == TreeCacheEvent.Type.NODE_ADDED && !shards.containsKey(shard)) {
+                shards.put(shard, new LinkedHashMap<String, String>());
+            }
+            return false;
+        }
+        if (names.length != 2) {
+            return false;
+        }
+
+        Map<String, String> nodes = shards.get(shard);
+        if (nodes == null) {
+            nodes = new LinkedHashMap<>();
+            shards.put(shard, nodes);
+        }
+        if (type == TreeCacheEvent.Type.NODE_REMOVED) {
+            nodes.remove(names[1]);
+        } else if (type == TreeCacheEvent.Type.NODE_ADDED || type == TreeCacheEvent.Type.NODE_UPDATED) {
+            nodes.put(names[1], value);
+        }
+        return elect(shard);
+    }
+
+    /**
+     * 按分片当前的节点重新选主:当选的主节点仍是M时保留;否则只有一个M时由它接替;
+     * 没有M或有多个新的M时(切换的中间状态)保留原来的主节点。
+     * 分片还没有主节点时有多个M,选host:port最小的一个,与zk返回子节点和事件到达的顺序无关,各客户端选出同一个节点
+    * @return 当选的主节点是否变化
+    */
+    private boolean elect(String shard) {
+        String current = elected.get(shard);
+        List<String> masters = masters(shards.get(shard));
+        if (current != null && masters.contains(current)) {
+            return false;
+        }
+        if (masters.size() == 1 || (current == null && !masters.isEmpty())) {
+            elected.put(shard, Collections.min(masters));
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return 按分片顺序排列的各分片当选的主节点(host:port),从未有过主节点的分片不在其中
+    */
+    public synchronized List<String> getMasters() {
+        return new ArrayList<>(getShardMasters().values());
+    }
+
+    /**
+     * @return 按分片顺序排列的分片目录名 -> 当选的主节点(host:port),从未有过主节点的分片不在其中。
+     * 主从切换不改变分片的个数和下标
+    */
+    public synchronized LinkedHashMap<String, String> getShardMasters() {
+        List<String> shardNames = new ArrayList<>(shards.keySet());
+        Collections.sort(shardNames, SHARD_ORDER);
+        LinkedHashMap<String, String> shardMasters = new LinkedHashMap<>();
+        for (String shardName : shardNames) {
+            String master = elected.get(shardName);
+            if (master != null) {
+                shardMasters.put(shardName, master);
+            }
+        }
+        return shardMasters;
+    }
+
+    private static List<String> masters(Map<String, String> nodes) {
+        List<String> masters = new ArrayList<>(1);
+        for (Map.Entry<String, String> node : nodes.entrySet()) {
+            if (MASTER.equals(node.getValue())) {
+                masters.add(node.getKey());
+            }
+        }
+        return masters;
+    }
+}
@@ -2,28 +2,33 @@ package redis.clients.zkprocess.zk2local.listen;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 
 import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.recipes.cache.ChildData;
+import org.apache.curator.framework.recipes.cache.TreeCacheEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import redis.clients.lppz.config.LpJedisInit;
-import redis.clients.zkprocess.comm.NotiflyService;
+import redis.clients.zkprocess.comm.ZkEventNotiflyService;
 import redis.clients.zkprocess.comm.ZookeeperProcessListen;
 import redis.clients.zkprocess.entity.JedisBaseYamlBean;
 import redis.clients.zkprocess.entity.LpJedisClusterYamlBean;
+import redis.clients.zkprocess.entity.LpJedisSnapshotYamlBean;
 import redis.clients.zkprocess.utils.CollectionUtils;
+import redis.clients.zkprocess.utils.StringUtils;
 import redis.clients.zkprocess.zookeeper.DiretoryInf;
-import redis.clients.zkprocess.zookeeper.process.ZkDataImpl;
 import redis.clients.zkprocess.zookeeper.process.ZkDirectoryImpl;
 import redis.clients.zkprocess.zookeeper.process.ZkMultLoader;
 
 /**
  * 
 */
-public class ZkToLocalLoader extends ZkMultLoader implements NotiflyService {
+public class ZkToLocalLoader extends ZkMultLoader implements ZkEventNotiflyService {
 
     /**
      * 日志
@@ -39,6 +44,18 @@ public class ZkToLocalLoader extends ZkMultLoader implements NotiflyService {
     
     private String basePath;
 
+    /**
+     * 当前的分片拓扑,整体加载后由zk事件逐条更新
+    * @字段说明 topology
+    */
+    private ZkShardTopology topology;
+
+    /**
+     * 拓扑快照,为null时不读写快照
+    * @字段说明 snapshot
+    */
+    private ZkTopologySnapshot snapshot;
+
     public ZkToLocalLoader(ZookeeperProcessListen zookeeperListen, CuratorFramework curator) {
 
         this.setCurator(curator);
@@ -46,19 +63,33 @@ public class ZkToLocalLoader extends ZkMultLoader implements NotiflyService {
         this.zookeeperListen = zookeeperListen;
         
         this.basePath = zookeeperListen.getBasePath();
+
+        this.topology = new ZkShardTopology(basePath);
     }
     
     public void addListen(){
     	// 将当前自己注册为事件接收对象
     	this.zookeeperListen.addListen(basePath, this);
+    	// 监控整个分片目录,TreeCache的事件按路径找到当前对象
+    	this.zookeeperListen.watchPath(basePath, basePath);
     }
     
     public ZkToLocalLoader(CuratorFramework curator, String basePath) {
     	this.setCurator(curator);
+    	this.basePath = basePath;
+    	this.topology = new ZkShardTopology(basePath);
 	}
 
+    public void setSnapshot(ZkTopologySnapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * 读取整棵树并替换拓扑。与事件的增量应用、快照加载互斥,读树也在锁内:
+     * 之前到达的事件已经反映在读到的树中,之后到达的事件在整体加载完成后再应用,旧的整体加载不会覆盖更新的路由表
+    */
     @Override
-    public Object notiflyProcess(boolean write) throws Exception {
+    public synchronized Object notiflyProcess(boolean write) throws Exception {
         
         DiretoryInf baseDirectory = new ZkDirectoryImpl(basePath, null);
         // 进行递归的数据获取
@@ -67,49 +98,115 @@ public class ZkToLocalLoader extends ZkMultLoader implements NotiflyService {
         List<Object> subList=baseDirectory.getSubordinateInfo();
         if(CollectionUtils.isEmpty(subList))
         	return false;
-        // 从当前的下一级开始进行遍历,获得到
-        ZkDirectoryImpl zkDirectory = (ZkDirectoryImpl) subList.get(0);
-        
-        List<JedisBaseYamlBean> tmpjedisObjs = getJedisNode(zkDirectory, zookeeperListen.getClusterYamlBean());
-        
-        //根据zk上获取的哨兵配置初始化jedis
-		LpJedisInit.getInstance().initJedis(tmpjedisObjs);
+        topology.load(baseDirectory);
+
+        initJedis();
 
         LOGGER.debug("BastoresSwitchLoader notiflyProcess zk to object  zk basetoreSwitch Object  :");
         return true;
     }
 
-	private List<JedisBaseYamlBean> getJedisNode(DiretoryInf baseDir, LpJedisClusterYamlBean clusterYamlBean) {
-		ZkDataImpl tmpSubNode = null;
-		ZkDirectoryImpl tmpDir = null;
+    /**
+     * 只应用这批节点的变化,分片的主节点都没有变化时不重建连接池
+    */
+    @Override
+    public synchronized Object notiflyProcess(List<TreeCacheEvent> events) throws Exception {
+        boolean changed = false;
+        for (TreeCacheEvent event : events) {
+            ChildData data = event.getData();
+            String value = null == data.getData() ? null : byteToString(data.getData());
+            if (topology.apply(event.getType(), data.getPath(), value)) {
+                LOGGER.info("ZkToLocalLoader {} {} changed the masters", event.getType(), data.getPath());
+                changed = true;
+            }
+        }
+        if (!changed) {
+            return false;
+        }
+        initJedis();
+        return true;
+    }
+
+    /**
+     * 从快照启动jedis,不访问zk
+    * @return 是否有可用的快照
+    */
+    public synchronized boolean loadSnapshot() {
+        if (null == snapshot) {
+            return false;
+        }
+        LpJedisSnapshotYamlBean bean = snapshot.read();
+        if (null == bean || !basePath.equals(bean.getBasePath()) || CollectionUtils.isEmpty(bean.getMasters())) {
+            return false;
+        }
+        LpJedisClusterYamlBean clusterYamlBean = new LpJedisClusterYamlBean();
+        clusterYamlBean.setJedisClusterPool(bean.getJedisClusterPool());
+        clusterYamlBean.setTimeout(bean.getTimeout());
+        //分片选择方式总是取当前配置,快照中的只用于提示配置已修改
+        String shardSelector = null == zookeeperListen || null == zookeeperListen.getClusterYamlBean() ? null
+                : zookeeperListen.getClusterYamlBean().getShardSelector();
+        if (!StringUtils.isBlank(bean.getShardSelector()) && !bean.getShardSelector().equalsIgnoreCase(shardSelector)) {
+            LOGGER.warn("ZkToLocalLoader snapshot {} was saved with shardSelector {}, using the configured {}", snapshot,
+                    bean.getShardSelector(), shardSelector);
+        }
+        List<String> shards = bean.getShards();
+        if (null == shards || shards.size() != bean.getMasters().size()) {
+            //旧版本的快照没有分片名,按主节点命名
+            shards = bean.getMasters();
+        }
+        LpJedisInit.getInstance().initJedis(getJedisNode(shards, bean.getMasters(), clusterYamlBean), shardSelector);
+        LOGGER.info("ZkToLocalLoader load snapshot {} saved at {}", snapshot,
+                null == bean.getSaveTime() ? "unknown" : new Date(bean.getSaveTime()));
+        return true;
+    }
+
+    /**
+     * 按当前拓扑的主节点初始化jedis,主节点没有变化的分片沿用原来的连接池。成功后写入快照
+    */
+	private void initJedis() {
+		Map<String, String> shardMasters = topology.getShardMasters();
+		List<String> shards = new ArrayList<>(shardMasters.keySet());
+		List<String> masters = new ArrayList<>(shardMasters.values());
+		LpJedisClusterYamlBean clusterYamlBean = zookeeperListen.getClusterYamlBean();
+		List<JedisBaseYamlBean> tmpjedisObjs = getJedisNode(shards, masters, clusterYamlBean);
+		
+		//根据zk上获取的哨兵配置初始化jedis
+		LpJedisInit.getInstance().initJedis(tmpjedisObjs, clusterYamlBean.getShardSelector());
+
+		//zk上暂时没有主节点时保留上一次的快照
+		if (null != snapshot && !masters.isEmpty()) {
+			LpJedisSnapshotYamlBean bean = new LpJedisSnapshotYamlBean();
+			bean.setBasePath(basePath);
+			bean.setShardSelector(clusterYamlBean.getShardSelector());
+			bean.setTimeout(clusterYamlBean.getTimeout());
+			bean.setJedisClusterPool(clusterYamlBean.getJedisClusterPool());
+			bean.setMasters(masters);
+			bean.setShards(shards);
+			bean.setSaveTime(System.currentTimeMillis());
+			snapshot.write(bean);
+		}
+	}
+
+	/**
+	 * @param shards 分片名(zk上的分片目录),与masters一一对应,ketama按分片名选分片
+	 */
+	private List<JedisBaseYamlBean> getJedisNode(List<String> shards, List<String> masters, LpJedisClusterYamlBean clusterYamlBean) {
 		List<JedisBaseYamlBean> jedisBeans = new ArrayList<>();
 		JedisBaseYamlBean tmp  = null;
 		Properties properties = null;
-		List<Object> nodeList = baseDir.getSubordinateInfo();
-		
-		if (CollectionUtils.isNotEmpty(nodeList)) {
-			for (Object obj : nodeList) {
-				if(obj instanceof ZkDirectoryImpl){
-					tmpDir = (ZkDirectoryImpl) obj;
-					List<Object> nodes = tmpDir.getSubordinateInfo();
-					if (CollectionUtils.isNotEmpty(nodes)) {
-						for (Object node : nodes) {
-							tmpSubNode = (ZkDataImpl) node;
-							if("M".equals(tmpSubNode.getDataValue())){
-								tmp = new JedisBaseYamlBean();
-								tmp.setJedisClusterPool(clusterYamlBean.getJedisClusterPool());
-								tmp.setTimeout(clusterYamlBean.getTimeout());
-								String [] MasterIpAndPort = tmpSubNode.getName().split(":");
-								properties = new Properties();
-								properties.put("host", MasterIpAndPort[0]);
-								properties.put("port", Integer.valueOf(MasterIpAndPort[1]));
-								tmp.setJedisClusterNode(Arrays.asList(properties));
-							}
-							LOGGER.info("{}",tmpSubNode);
-						}
-					}
-				}
-			}
+		for (int i = 0; i < masters.size(); i++) {
+			String master = masters.get(i);
+			tmp = new JedisBaseYamlBean();
+			tmp.setShardName(shards.get(i));
+			tmp.setJedisClusterPool(clusterYamlBean.getJedisClusterPool());
+			tmp.setTimeout(clusterYamlBean.getTimeout());
+			String [] MasterIpAndPort = master.split(":");
+			properties = new Properties();
+			properties.put("host", MasterIpAndPort[0]);
+			properties.put("port", Integer.valueOf(MasterIpAndPort[1]));
+			tmp.setJedisClusterNode(Arrays.asList(properties));
+			jedisBeans.add(tmp);
+			LOGGER.info("{} {}", shards.get(i), master);
 		}
 		return jedisBeans;
 	}
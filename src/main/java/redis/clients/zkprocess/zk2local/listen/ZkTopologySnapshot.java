@@ -0,0 +1,86 @@
+package redis.clients.zkprocess.zk2local.listen;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.nodes.Tag;
+
+import redis.clients.zkprocess.entity.LpJedisSnapshotYamlBean;
+
+/**
+ * 拓扑快照文件的读写。先写临时文件再改名替换,进程在写入中途退出也不会留下不完整的快照
+*/
+public class ZkTopologySnapshot {
+
+    /**
+     * 日志
+    * @字段说明 LOGGER
+    */
+    private static final Logger LOGGER = LoggerFactory.getLogger(ZkTopologySnapshot.class);
+
+    private final Path file;
+
+    public ZkTopologySnapshot(String file) {
+        this.file = new File(file).toPath();
+    }
+
+    /**
+     * 默认的快照文件:用户目录下的.lpjedis/分片名.yaml
+    * @param sharding 配置中的分片名
+    * @return 文件路径
+    */
+    public static String defaultFile(String sharding) {
+        return System.getProperty("user.home") + File.separator + ".lpjedis" + File.separator + sharding + ".yaml";
+    }
+
+    /**
+     * @return 快照,文件不存在或无法解析时返回null
+    */
+    public LpJedisSnapshotYamlBean read() {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (InputStream in = Files.newInputStream(file)) {
+            return new Yaml().loadAs(in, LpJedisSnapshotYamlBean.class);
+        } catch (Exception e) {
+            LOGGER.warn("ZkTopologySnapshot read {} error: {}", file, e.toString());
+            return null;
+        }
+    }
+
+    /**
+     * 写入快照,失败只记录日志
+    * @param snapshot 快照
+    */
+    public void write(LpJedisSnapshotYamlBean snapshot) {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            if (null != file.getParent()) {
+                Files.createDirectories(file.getParent());
+            }
+            Files.write(tmp, new Yaml().dumpAs(snapshot, Tag.MAP, null).getBytes(StandardCharsets.UTF_8));
+            try {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            LOGGER.warn("ZkTopologySnapshot write {} error: {}", file, e.toString());
+        }
+    }
+
+    @Override
+    public String toString() {
+        return file.toString();
+    }
+
+}
@@ -1,9 +1,13 @@
 package redis.clients.zkprocess.zookeeper.process;
 
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.recipes.cache.ChildData;
+import org.apache.curator.framework.recipes.cache.TreeCache;
 import org.apache.curator.utils.ZKPaths;
 import org.apache.zookeeper.data.Stat;
 import org.slf4j.Logger;
@@ -37,6 +41,13 @@ public class ZkMultLoader {
     */
     private CuratorFramework curator;
 
+    /**
+     * 设置后从TreeCache在本地维护的数据读取,不再访问zk。TreeCache需已初始化(收到INITIALIZED事件)。
+     * 在TreeCache启动后才设置,它的事件线程可能已经在加载,volatile保证加载线程读到设置的值;未读到时仍直接读zk
+    * @字段说明 treeCache
+    */
+    private volatile TreeCache treeCache;
+
     /**
      * 得到树形节点信息
     * 方法描述
@@ -82,6 +93,9 @@ public class ZkMultLoader {
     * @创建日期 2016年9月21日
     */
     protected boolean checkPathExists(String path) {
+        if (null != treeCache) {
+            return null != treeCache.getCurrentData(path);
+        }
         try {
             Stat state = this.curator.checkExists().forPath(path);
 
@@ -98,7 +112,14 @@ public class ZkMultLoader {
      * get data from zookeeper and convert to string with check not null.
      */
     protected String getDataToString(String path) throws Exception {
-        byte[] raw = curator.getData().forPath(path);
+        byte[] raw;
+        if (null != treeCache) {
+            ChildData data = treeCache.getCurrentData(path);
+            checkNotNull(data, "data of " + path + " must be not null!");
+            raw = data.getData();
+        } else {
+            raw = curator.getData().forPath(path);
+        }
 
         checkNotNull(raw, "data of " + path + " must be not null!");
         return byteToString(raw);
@@ -115,6 +136,10 @@ public class ZkMultLoader {
      * @throws Exception 
      */
     protected List<String> getChildNames(String path) throws Exception {
+        if (null != treeCache) {
+            Map<String, ChildData> children = treeCache.getCurrentChildren(path);
+            return null == children ? null : new ArrayList<>(children.keySet());
+        }
         return curator.getChildren().forPath(path);
     }
 
@@ -229,4 +254,12 @@ public class ZkMultLoader {
     public void setCurator(CuratorFramework curator) {
         this.curator = curator;
     }
+
+    public TreeCache getTreeCache() {
+        return treeCache;
+    }
+
+    public void setTreeCache(TreeCache treeCache) {
+        this.treeCache = treeCache;
+    }
 }
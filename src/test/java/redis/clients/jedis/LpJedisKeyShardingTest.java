@@ -0,0 +1,115 @@
+package redis.clients.jedis;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import redis.clients.jedis.tests.utils.RedisStandIn;
+import redis.clients.lppz.config.KetamaShardSelector;
+import redis.clients.lppz.config.KeyShardingFunction;
+import redis.clients.lppz.config.ShardSelector;
+import redis.clients.lppz.jedis.LpJedis;
+import redis.clients.util.Hashing;
+import redis.clients.util.JedisClusterCRC16;
+import redis.clients.util.SafeEncoder;
+import redis.clients.util.Sharded;
+
+public class LpJedisKeyShardingTest extends Assert {
+	private List<RedisStandIn> shards = new ArrayList<>();
+	private LpJedis jedis;
+
+	@Before
+	public void setUp() throws Exception {
+		List<JedisPool> pools = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			RedisStandIn shard = new RedisStandIn();
+			shards.add(shard);
+			pools.add(new JedisPool(new GenericObjectPoolConfig(), shard.getHostAndPort().getHost(),
+					shard.getHostAndPort().getPort()));
+		}
+		jedis = new LpJedis();
+		jedis.setShardPools(pools);
+	}
+
+	@After
+	public void tearDown() {
+		jedis.close();
+		for (RedisStandIn shard : shards) {
+			shard.close();
+		}
+	}
+
+	@Test
+	public void builtInFunctionsStayWithinTheRoutingTable() {
+		for (int i = 0; i < 10000; i++) {
+			String key = "key:" + i;
+			assertEquals(JedisClusterCRC16.getSlot(key), KeyShardingFunction.CRC16.getShardingIndex(key));
+			int murmur = KeyShardingFunction.MURMUR.getShardingIndex(key);
+			assertTrue(murmur >= 0 && murmur < 16384);
+		}
+	}
+
+	@Test
+	public void keysWithTheSameTagShareAShard() {
+		int tagged = KeyShardingFunction.MURMUR_KEY_TAG.getShardingIndex("{user:1}.name");
+		assertEquals(tagged, KeyShardingFunction.MURMUR_KEY_TAG.getShardingIndex("{user:1}.mail"));
+		assertEquals(KeyShardingFunction.MURMUR.getShardingIndex("user:1"), tagged);
+		assertEquals(KeyShardingFunction.MURMUR.getShardingIndex("plain"),
+				KeyShardingFunction.MURMUR_KEY_TAG.getShardingIndex("plain"));
+		assertEquals(KeyShardingFunction.CRC16.getShardingIndex("{user:1}.name"),
+				KeyShardingFunction.CRC16.getShardingIndex("{user:1}.mail"));
+	}
+
+	@Test
+	public void keyTagHashingMatchesThePatternAndTheEncodedBytes() {
+		String[] keys = { "{user:1}.name", "a{b}c{d}", "{}a}", "{}}", "{", "}{", "a{\nb}{c}", "{\r}",
+				"{\u00e9t\u00e9}", "{\u4e2d\u6587}", "{\ud83d\ude00}", "{\ud83d}", "\ude00{x", "" };
+		for (String key : keys) {
+			assertTagHashing(key);
+		}
+		Random random = new Random(7);
+		char[] alphabet = { 'a', '{', '}', '\n', '\u00e9', '\u4e2d', '\ud83d', '\ude00' };
+		for (int i = 0; i < 10000; i++) {
+			char[] key = new char[random.nextInt(20)];
+			for (int j = 0; j < key.length; j++) {
+				key[j] = alphabet[random.nextInt(alphabet.length)];
+			}
+			assertTagHashing(new String(key));
+		}
+	}
+
+	private void assertTagHashing(String key) {
+		Matcher m = Sharded.DEFAULT_KEY_TAG_PATTERN.matcher(key);
+		String tag = m.find() ? m.group(1) : key;
+		long expected = Hashing.MURMUR_HASH.hash(SafeEncoder.encode(tag));
+		assertEquals(key, expected, Hashing.MURMUR_HASH.hash(tag));
+		assertEquals(key, (int) (expected & (16384 - 1)), KeyShardingFunction.MURMUR_KEY_TAG.getShardingIndex(key));
+	}
+
+	@Test
+	public void commandsRouteByKey() {
+		List<String> nodes = new ArrayList<>();
+		for (RedisStandIn shard : shards) {
+			nodes.add(shard.getHostAndPort().toString());
+		}
+		ShardSelector selector = new KetamaShardSelector(nodes);
+		jedis.setShardSelector(selector);
+		for (int i = 0; i < 50; i++) {
+			String key = "key:" + i;
+			assertEquals("OK", jedis.set(KeyShardingFunction.CRC16, key, "v" + i));
+			assertEquals("v" + i, jedis.get(KeyShardingFunction.CRC16, key));
+
+			RedisStandIn shard = shards.get(selector.select(JedisClusterCRC16.getSlot(key)));
+			Jedis direct = new Jedis(shard.getHostAndPort().getHost(), shard.getHostAndPort().getPort());
+			assertEquals("v" + i, direct.get(key));
+			direct.close();
+		}
+	}
+}
@@ -0,0 +1,182 @@
+package redis.clients.jedis;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.jedis.tests.utils.RedisStandIn;
+import redis.clients.lppz.config.KeyShardingFunction;
+import redis.clients.lppz.config.ShardingFunction;
+import redis.clients.lppz.jedis.LatencyHistogram;
+import redis.clients.lppz.jedis.LpJedis;
+import redis.clients.lppz.jedis.LpJedisMetrics;
+import redis.clients.lppz.jedis.LpJedisShardStats;
+
+public class LpJedisMetricsTest extends Assert {
+	private List<RedisStandIn> shards = new ArrayList<>();
+	private LpJedis jedis;
+
+	@Before
+	public void setUp() throws Exception {
+		List<JedisPool> pools = new ArrayList<>();
+		for (int i = 0; i < 2; i++) {
+			RedisStandIn shard = new RedisStandIn();
+			shards.add(shard);
+			pools.add(new JedisPool(new GenericObjectPoolConfig(), shard.getHostAndPort().getHost(),
+					shard.getHostAndPort().getPort()));
+		}
+		jedis = new LpJedis();
+		jedis.setShardPools(pools);
+	}
+
+	@After
+	public void tearDown() {
+		jedis.close();
+		for (RedisStandIn shard : shards) {
+			shard.close();
+		}
+	}
+
+	@Test
+	public void histogramPercentilesStayWithinABucket() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (int micros = 1; micros <= 1000; micros++) {
+			histogram.record(micros);
+		}
+		assertEquals(1000, histogram.getCount());
+		assertEquals(500.5, histogram.getMeanMicros(), 500.5 * 0.0625);
+		assertTrue(histogram.getPercentileMicros(50) >= 500);
+		assertTrue(histogram.getPercentileMicros(50) <= 500 * 1.125);
+		assertTrue(histogram.getPercentileMicros(99) >= 990);
+		assertTrue(histogram.getMaxMicros() >= 1000);
+		assertTrue(histogram.getMaxMicros() <= 1000 * 1.125);
+		assertEquals(0, new LatencyHistogram().getPercentileMicros(99));
+	}
+
+	@Test
+	public void histogramCountsEveryRecordFromConcurrentThreads() throws Exception {
+		final LatencyHistogram histogram = new LatencyHistogram();
+		Thread[] threads = new Thread[8];
+		for (int t = 0; t < threads.length; t++) {
+			threads[t] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					for (int i = 0; i < 10000; i++) {
+						histogram.record(100);
+					}
+				}
+			});
+			threads[t].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertEquals(80000, histogram.getCount());
+		assertEquals(100, histogram.getPercentileMicros(50), 100 * 0.125);
+	}
+
+	@Test
+	public void commandStatsAreKeptPerInstance() {
+		LpJedis other = new LpJedis();
+		try {
+			other.setShardPools(Arrays.asList(new JedisPool(new GenericObjectPoolConfig(),
+					shards.get(0).getHostAndPort().getHost(), shards.get(0).getHostAndPort().getPort())));
+			jedis.set(shardOf(0), "a", "1");
+			other.set(shardOf(0), "a", "2");
+			other.set(shardOf(0), "a", "3");
+			jedis.set(shardOf(0), "a", "4");
+			assertEquals(2, jedis.getMetrics().getCommandStats().get("set").getCalls());
+			assertEquals(2, other.getMetrics().getCommandStats().get("set").getCalls());
+		} finally {
+			other.close();
+		}
+	}
+
+	@Test
+	public void countsCallsAndErrorsPerShardAndCommand() {
+		for (int i = 0; i < 10; i++) {
+			jedis.set(shardOf(0), "a" + i, "1");
+		}
+		for (int i = 0; i < 5; i++) {
+			jedis.get(shardOf(1), "b" + i);
+		}
+		try {
+			jedis.zcard(shardOf(1), "b");
+			fail("the stand-in does not know ZCARD");
+		} catch (JedisDataException e) {
+			// expected
+		}
+
+		LpJedisMetrics metrics = jedis.getMetrics();
+		LpJedisShardStats first = metrics.getShardStats().get("shard-0");
+		LpJedisShardStats second = metrics.getShardStats().get("shard-1");
+		assertEquals(10, first.getCalls());
+		assertEquals(0, first.getErrors());
+		assertEquals(6, second.getCalls());
+		assertEquals(1, second.getErrors());
+		assertTrue(first.getMaxLatencyMicros() > 0);
+		assertEquals(0, first.getNumActive());
+		assertTrue(first.getNumIdle() > 0);
+
+		assertEquals(10, metrics.getCommandStats().get("set").getCalls());
+		assertEquals(5, metrics.getCommandStats().get("get").getCalls());
+		assertEquals(1, metrics.getCommandStats().get("zcard").getErrors());
+
+		jedis.mget(KeyShardingFunction.CRC16, "x", "y", "z");
+		assertTrue(metrics.getCommandStats().get("mget").getCalls() >= 1);
+	}
+
+	@Test
+	public void statsAreExposedThroughJmxUntilClose() throws Exception {
+		jedis.set(shardOf(1), "a", "1");
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		String name = jedis.getMetrics().getName();
+		assertTrue(server.queryNames(new ObjectName("redis.clients.lppz:lpjedis=" + name + ",*"), null).isEmpty());
+
+		jedis.registerMBeans();
+		ObjectName shard = new ObjectName("redis.clients.lppz:type=LpJedisShard,lpjedis=" + name + ",name="
+				+ ObjectName.quote("shard-1"));
+		assertEquals(1L, server.getAttribute(shard, "Calls"));
+		assertEquals(1L, server.getAttribute(new ObjectName("redis.clients.lppz:type=LpJedisCommand,lpjedis="
+				+ name + ",name=set"), "Calls"));
+		assertEquals(1L, server.getAttribute(new ObjectName("redis.clients.lppz:type=LpJedis,name=" + name),
+				"TopologyVersion"));
+
+		jedis.close();
+		assertTrue(server.queryNames(new ObjectName("redis.clients.lppz:lpjedis=" + name + ",*"), null).isEmpty());
+	}
+
+	@Test
+	public void statsOfRemovedNodesAreDropped() throws Exception {
+		jedis.registerMBeans();
+		jedis.set(shardOf(1), "a", "1");
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		ObjectName removed = new ObjectName("redis.clients.lppz:type=LpJedisShard,lpjedis="
+				+ jedis.getMetrics().getName() + ",name=" + ObjectName.quote("shard-1"));
+		assertTrue(server.isRegistered(removed));
+
+		jedis.setShardPools(Arrays.asList(jedis.getTopology().getPool("shard-0")));
+		assertEquals(Arrays.asList("shard-0"), new ArrayList<>(jedis.getMetrics().getShardStats().keySet()));
+		assertFalse(server.isRegistered(removed));
+	}
+
+	private static ShardingFunction shardOf(final int index) {
+		return new ShardingFunction() {
+			@Override
+			public int getShardingIndex() {
+				return index;
+			}
+		};
+	}
+}
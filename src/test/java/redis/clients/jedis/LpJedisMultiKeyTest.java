@@ -0,0 +1,109 @@
+package redis.clients.jedis;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.jedis.tests.utils.RedisStandIn;
+import redis.clients.lppz.config.KeyShardingFunction;
+import redis.clients.lppz.jedis.LpJedis;
+
+public class LpJedisMultiKeyTest extends Assert {
+	private static final KeyShardingFunction BY_HASH = new KeyShardingFunction() {
+		@Override
+		public int getShardingIndex(String key) {
+			return key.hashCode();
+		}
+	};
+
+	private List<RedisStandIn> shards = new ArrayList<>();
+	private LpJedis jedis;
+
+	@Before
+	public void setUp() throws Exception {
+		List<JedisPool> pools = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			RedisStandIn shard = new RedisStandIn();
+			shards.add(shard);
+			pools.add(new JedisPool(new GenericObjectPoolConfig(), shard.getHostAndPort().getHost(),
+					shard.getHostAndPort().getPort()));
+		}
+		jedis = new LpJedis();
+		jedis.setShardPools(pools);
+	}
+
+	@After
+	public void tearDown() {
+		jedis.close();
+		for (RedisStandIn shard : shards) {
+			shard.close();
+		}
+	}
+
+	@Test
+	public void mgetReturnsValuesInCallerOrder() {
+		String[] keysvalues = new String[400];
+		String[] keys = new String[201];
+		for (int i = 0; i < 200; i++) {
+			keysvalues[i * 2] = "key" + i;
+			keysvalues[i * 2 + 1] = "value" + i;
+			keys[200 - i] = "key" + i;
+		}
+		keys[0] = "missing";
+		assertEquals("OK", jedis.mset(BY_HASH, keysvalues));
+
+		int[] before = commandCounts();
+		List<String> values = jedis.mget(BY_HASH, keys);
+		int[] after = commandCounts();
+
+		assertEquals(201, values.size());
+		assertNull(values.get(0));
+		for (int i = 0; i < 200; i++) {
+			assertEquals("value" + i, values.get(200 - i));
+		}
+		// one MGET per shard
+		for (int s = 0; s < shards.size(); s++) {
+			assertEquals(1, after[s] - before[s]);
+		}
+	}
+
+	@Test
+	public void msetRejectsAKeyWithoutAValue() {
+		try {
+			jedis.mset(BY_HASH, "a", "1", "b");
+			fail("expected a wrong number of arguments error");
+		} catch (JedisDataException e) {
+			assertTrue(e.getMessage().contains("wrong number of arguments"));
+		}
+		assertNull(jedis.mget(BY_HASH, "a").get(0));
+	}
+
+	@Test
+	public void keysLandOnTheirOwnShard() {
+		jedis.mset(BY_HASH, "a", "1", "b", "2", "c", "3", "d", "4");
+		for (String key : new String[] { "a", "b", "c", "d" }) {
+			int shard = Math.abs(key.hashCode()) % shards.size();
+			Jedis direct = new Jedis(shards.get(shard).getHostAndPort().getHost(),
+					shards.get(shard).getHostAndPort().getPort());
+			assertNotNull(direct.get(key));
+			direct.close();
+		}
+		assertEquals(Long.valueOf(3), jedis.del(BY_HASH, "a", "b", "c", "missing"));
+		assertEquals(null, jedis.mget(BY_HASH, "a", "d").get(0));
+		assertEquals("4", jedis.mget(BY_HASH, "a", "d").get(1));
+	}
+
+	private int[] commandCounts() {
+		int[] counts = new int[shards.size()];
+		for (int s = 0; s < counts.length; s++) {
+			counts[s] = shards.get(s).getCommandCount();
+		}
+		return counts;
+	}
+}
@@ -0,0 +1,127 @@
+package redis.clients.jedis;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.jedis.tests.utils.RedisStandIn;
+import redis.clients.lppz.config.KeyShardingFunction;
+import redis.clients.lppz.config.ShardingFunction;
+import redis.clients.lppz.jedis.LpJedis;
+import redis.clients.lppz.jedis.LpJedisPipeline;
+
+public class LpJedisPipelineTest extends Assert {
+	private static final KeyShardingFunction BY_HASH = new KeyShardingFunction() {
+		@Override
+		public int getShardingIndex(String key) {
+			return key.hashCode();
+		}
+	};
+
+	private List<RedisStandIn> shards = new ArrayList<>();
+	private LpJedis jedis;
+
+	@Before
+	public void setUp() throws Exception {
+		List<JedisPool> pools = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			RedisStandIn shard = new RedisStandIn();
+			shards.add(shard);
+			pools.add(new JedisPool(new GenericObjectPoolConfig(), shard.getHostAndPort().getHost(),
+					shard.getHostAndPort().getPort()));
+		}
+		jedis = new LpJedis();
+		jedis.setShardPools(pools);
+	}
+
+	@After
+	public void tearDown() {
+		jedis.close();
+		for (RedisStandIn shard : shards) {
+			shard.close();
+		}
+	}
+
+	@Test
+	public void responsesArriveAfterSyncFromEveryShard() {
+		LpJedisPipeline pipeline = jedis.pipelined(BY_HASH);
+		List<Response<String>> sets = new ArrayList<>();
+		for (int i = 0; i < 300; i++) {
+			sets.add(pipeline.set("key" + i, "value" + i));
+		}
+		List<Response<String>> gets = new ArrayList<>();
+		for (int i = 0; i < 300; i++) {
+			gets.add(pipeline.get("key" + i));
+		}
+		try {
+			gets.get(0).get();
+			fail("nothing was read before sync");
+		} catch (JedisDataException e) {
+			// expected
+		}
+		pipeline.sync();
+
+		for (int i = 0; i < 300; i++) {
+			assertEquals("OK", sets.get(i).get());
+			assertEquals("value" + i, gets.get(i).get());
+		}
+		for (RedisStandIn shard : shards) {
+			assertTrue(shard.getCommandCount() > 0);
+		}
+		for (int i = 0; i < 300; i += 7) {
+			assertEquals("value" + i, jedis.get(shardOf(BY_HASH.getShardingIndex("key" + i)), "key" + i));
+		}
+	}
+
+	@Test
+	public void syncAndReturnAllKeepsIssueOrderAcrossShards() {
+		LpJedisPipeline pipeline = jedis.pipelined();
+		pipeline.shard(shardOf(2)).set("a", "2");
+		pipeline.shard(shardOf(0)).set("a", "0");
+		pipeline.shard(shardOf(1)).zcard("a");
+		pipeline.shard(shardOf(2)).get("a");
+		pipeline.shard(shardOf(0)).get("a");
+		List<Object> replies = pipeline.syncAndReturnAll();
+
+		assertEquals(5, replies.size());
+		assertEquals("OK", replies.get(0));
+		assertEquals("OK", replies.get(1));
+		// the stand-in does not know ZCARD
+		assertTrue(replies.get(2) instanceof JedisDataException);
+		assertEquals("2", replies.get(3));
+		assertEquals("0", replies.get(4));
+		assertEquals(2, shards.get(0).getCommandCount());
+		assertEquals(1, shards.get(1).getCommandCount());
+		assertEquals(2, shards.get(2).getCommandCount());
+
+		// the pipeline can be used again after a sync
+		Response<String> again = pipeline.shard(shardOf(2)).get("a");
+		pipeline.sync();
+		assertEquals("2", again.get());
+	}
+
+	@Test
+	public void commandsNeedASharding() {
+		try {
+			jedis.pipelined().get("a");
+			fail("no sharding function given");
+		} catch (RuntimeException e) {
+			// expected
+		}
+	}
+
+	private static ShardingFunction shardOf(final int index) {
+		return new ShardingFunction() {
+			@Override
+			public int getShardingIndex() {
+				return index;
+			}
+		};
+	}
+}
@@ -0,0 +1,135 @@
+package redis.clients.jedis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import redis.clients.jedis.tests.utils.RedisStandIn;
+import redis.clients.lppz.config.LpJedisInit;
+import redis.clients.lppz.config.ShardingFunction;
+import redis.clients.lppz.jedis.LpJedis;
+import redis.clients.zkprocess.entity.JedisBaseYamlBean;
+import redis.clients.zkprocess.entity.JedisClusterPool;
+
+public class LpJedisPoolTest extends Assert {
+	private List<RedisStandIn> shards = new ArrayList<>();
+	private LpJedis jedis;
+
+	@Before
+	public void setUp() throws Exception {
+		JedisClusterPool pool = new JedisClusterPool();
+		pool.setMaxTotal("8");
+		pool.setMaxIdle("8");
+		pool.setMinIdle("3");
+		pool.setMaxWaitMillis("2000");
+		pool.setBlockWhenExhausted(true);
+		List<JedisBaseYamlBean> beans = new ArrayList<>();
+		for (int i = 0; i < 2; i++) {
+			RedisStandIn shard = new RedisStandIn();
+			shards.add(shard);
+			Properties properties = new Properties();
+			properties.put("host", shard.getHostAndPort().getHost());
+			properties.put("port", shard.getHostAndPort().getPort());
+			JedisBaseYamlBean bean = new JedisBaseYamlBean();
+			bean.setJedisClusterPool(pool);
+			bean.setTimeout(2000);
+			bean.setJedisClusterNode(Arrays.asList(properties));
+			beans.add(bean);
+		}
+		LpJedisInit.getInstance().initJedis(beans);
+		jedis = LpJedisInit.getInstance().getJedis();
+	}
+
+	@Test
+	public void initWarmsEveryShardUpToMinIdle() {
+		for (RedisStandIn shard : shards) {
+			// three connections, each checked with PING
+			assertEquals(3, shard.getConnectionCount());
+			assertEquals(3, shard.getCommandCount());
+		}
+	}
+
+	@Test
+	public void unreachableShardDoesNotHoldUpInit() throws Exception {
+		RedisStandIn gone = new RedisStandIn();
+		Properties properties = new Properties();
+		properties.put("host", gone.getHostAndPort().getHost());
+		properties.put("port", gone.getHostAndPort().getPort());
+		gone.close();
+		JedisBaseYamlBean bean = new JedisBaseYamlBean();
+		bean.setTimeout(2000);
+		bean.setJedisClusterNode(Arrays.asList(properties));
+
+		long start = System.currentTimeMillis();
+		LpJedisInit.getInstance().initJedis(Arrays.asList(bean));
+		assertTrue(System.currentTimeMillis() - start < 1000);
+		jedis = LpJedisInit.getInstance().getJedis();
+	}
+
+	@After
+	public void tearDown() {
+		jedis.close();
+		for (RedisStandIn shard : shards) {
+			shard.close();
+		}
+	}
+
+	@Test
+	public void concurrentCallersGetTheirOwnConnections() throws InterruptedException {
+		final int threads = 16;
+		final CountDownLatch start = new CountDownLatch(1);
+		final CountDownLatch done = new CountDownLatch(threads);
+		final AtomicInteger mismatches = new AtomicInteger();
+		for (int t = 0; t < threads; t++) {
+			final int thread = t;
+			new Thread(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						start.await();
+						for (int i = 0; i < 200; i++) {
+							final String key = "key-" + thread + "-" + i;
+							ShardingFunction sf = shardOf(thread);
+							jedis.set(sf, key, key);
+							if (!key.equals(jedis.get(sf, key))) {
+								mismatches.incrementAndGet();
+							}
+						}
+					} catch (InterruptedException e) {
+						mismatches.incrementAndGet();
+					} catch (RuntimeException e) {
+						mismatches.incrementAndGet();
+					} finally {
+						done.countDown();
+					}
+				}
+			}).start();
+		}
+		start.countDown();
+		assertTrue(done.await(30, TimeUnit.SECONDS));
+		assertEquals(0, mismatches.get());
+		for (RedisStandIn shard : shards) {
+			// more than one socket per shard, bounded by maxTotal
+			assertTrue(shard.getConnectionCount() > 1);
+			assertTrue(shard.getConnectionCount() <= 8);
+		}
+	}
+
+	private static ShardingFunction shardOf(final int index) {
+		return new ShardingFunction() {
+			@Override
+			public int getShardingIndex() {
+				return index;
+			}
+		};
+	}
+}
@@ -0,0 +1,133 @@
+package redis.clients.jedis;
+
+import java.util.Arrays;
+
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.jedis.tests.utils.RedisStandIn;
+import redis.clients.lppz.config.ExponentialBackoffRetryPolicy;
+import redis.clients.lppz.config.ShardingFunction;
+import redis.clients.lppz.jedis.LpJedis;
+
+public class LpJedisRetryTest extends Assert {
+	private static final ShardingFunction SHARD = new ShardingFunction() {
+		@Override
+		public int getShardingIndex() {
+			return 0;
+		}
+	};
+
+	private RedisStandIn server;
+	private LpJedis jedis;
+
+	@Before
+	public void setUp() throws Exception {
+		server = new RedisStandIn();
+		jedis = new LpJedis();
+		jedis.setShardPools(Arrays.asList(new JedisPool(new GenericObjectPoolConfig(), server
+				.getHostAndPort().getHost(), server.getHostAndPort().getPort())));
+	}
+
+	@After
+	public void tearDown() {
+		jedis.close();
+		server.close();
+	}
+
+	@Test
+	public void retriableCommandSurvivesADroppedConnection() {
+		assertEquals("OK", jedis.set(SHARD, "a", "1"));
+		server.dropClients();
+		assertEquals("1", jedis.get(SHARD, "a"));
+		assertEquals(1, jedis.getRetryStats().getRetries());
+		assertEquals(0, jedis.getRetryStats().getGiveUps());
+	}
+
+	@Test
+	public void nonIdempotentCommandIsNotRetried() {
+		assertEquals(Long.valueOf(1), jedis.incr(SHARD, "counter"));
+		server.dropNextCommand();
+		try {
+			jedis.incr(SHARD, "counter");
+			fail("INCR must not be replayed after the connection broke");
+		} catch (JedisConnectionException e) {
+			// expected
+		}
+		assertEquals(0, jedis.getRetryStats().getRetries());
+		assertEquals(1, jedis.getRetryStats().getGiveUps());
+		// the dropped INCR was not applied and the broken connection was discarded
+		assertEquals(Long.valueOf(2), jedis.incr(SHARD, "counter"));
+	}
+
+	@Test
+	public void dataErrorsAreNotRetried() {
+		try {
+			jedis.zcard(SHARD, "a");
+			fail("the stand-in does not know ZCARD");
+		} catch (JedisDataException e) {
+			// expected
+		}
+		assertEquals(0, jedis.getRetryStats().getRetries());
+		assertEquals(1, server.getCommandCount());
+	}
+
+	@Test
+	public void unreachableShardGivesUpAfterMaxRetries() {
+		jedis.setRetryPolicy(new ExponentialBackoffRetryPolicy(2, 1, 5, 0.1));
+		server.close();
+		try {
+			jedis.get(SHARD, "a");
+			fail("nothing is listening");
+		} catch (JedisConnectionException e) {
+			// expected
+		}
+		assertEquals(2, jedis.getRetryStats().getRetries());
+		assertEquals(1, jedis.getRetryStats().getGiveUps());
+	}
+
+	@Test
+	public void backoffGrowsWithJitterAndStopsAtMaxRetries() {
+		ExponentialBackoffRetryPolicy policy = new ExponentialBackoffRetryPolicy(3, 10, 25, 0.1);
+		for (int i = 0; i < 100; i++) {
+			policy.onRequest();
+			assertTrue(policy.backoffMillis(1) <= 10);
+			assertTrue(policy.backoffMillis(3) <= 25);
+			assertEquals(-1, policy.backoffMillis(4));
+		}
+	}
+
+	@Test
+	public void backoffStaysAtTheCapForLargeRetryCounts() {
+		ExponentialBackoffRetryPolicy policy = new ExponentialBackoffRetryPolicy(1000, 10, 200, 1.0);
+		for (int retries = 55; retries <= 1000; retries++) {
+			long max = 0;
+			for (int i = 0; i < 50; i++) {
+				policy.onRequest();
+				long backoff = policy.backoffMillis(retries);
+				assertTrue("retry " + retries + " backoff " + backoff, backoff >= 0 && backoff <= 200);
+				max = Math.max(max, backoff);
+			}
+			assertTrue("retry " + retries + " never waited", max > 0);
+		}
+	}
+
+	@Test
+	public void retryBudgetCapsRetriesUnderSustainedFailure() {
+		ExponentialBackoffRetryPolicy policy = new ExponentialBackoffRetryPolicy(1, 0, 0, 0.1);
+		int retries = 0;
+		for (int i = 0; i < 1000; i++) {
+			policy.onRequest();
+			if (policy.backoffMillis(1) >= 0) {
+				retries++;
+			}
+		}
+		// 10% of the calls, plus the initial allowance
+		assertTrue("retries " + retries, retries >= 100 && retries <= 111);
+	}
+}
@@ -0,0 +1,78 @@
+package redis.clients.jedis;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import redis.clients.lppz.config.JumpShardSelector;
+import redis.clients.lppz.config.KetamaShardSelector;
+import redis.clients.lppz.config.ModuloShardSelector;
+import redis.clients.lppz.config.ShardSelector;
+
+public class LpJedisShardSelectorTest extends Assert {
+	private static final int KEYS = 100000;
+
+	@Test
+	public void moduloStaysInRangeForMinValue() {
+		ShardSelector selector = new ModuloShardSelector(9);
+		assertEquals(Math.abs(Integer.MIN_VALUE % 9), selector.select(Integer.MIN_VALUE));
+		assertTrue(selector.select(Integer.MIN_VALUE) >= 0);
+		assertEquals(Math.abs(-20) % 9, selector.select(-20));
+		assertEquals(20 % 9, selector.select(20));
+	}
+
+	@Test
+	public void jumpMovesAboutANinthWhenGrowingToNineShards() {
+		assertGrowthMoves(new JumpShardSelector(8), new JumpShardSelector(9), 9);
+	}
+
+	@Test
+	public void ketamaMovesAboutANinthWhenGrowingToNineShards() {
+		assertGrowthMoves(new KetamaShardSelector(nodes(8)), new KetamaShardSelector(nodes(9)), 9);
+	}
+
+	@Test
+	public void ketamaOnlyMovesTheKeysOfARemovedNode() {
+		List<String> nodes = nodes(9);
+		ShardSelector before = new KetamaShardSelector(nodes);
+		List<String> remaining = new ArrayList<>(nodes);
+		remaining.remove(4);
+		ShardSelector after = new KetamaShardSelector(remaining);
+		for (int key = 0; key < KEYS; key++) {
+			int shard = before.select(key);
+			if (shard != 4) {
+				assertEquals(nodes.get(shard), remaining.get(after.select(key)));
+			}
+		}
+	}
+
+	private static void assertGrowthMoves(ShardSelector before, ShardSelector after, int shards) {
+		int moved = 0;
+		int[] counts = new int[shards];
+		for (int key = 0; key < KEYS; key++) {
+			int from = before.select(key);
+			int to = after.select(key);
+			counts[to]++;
+			if (from != to) {
+				// keys only move to the new shard
+				assertEquals(shards - 1, to);
+				moved++;
+			}
+		}
+		double share = (double) moved / KEYS;
+		assertTrue("moved " + share, share > 0.5 / shards && share < 2.0 / shards);
+		for (int count : counts) {
+			assertTrue(count > 0);
+		}
+	}
+
+	private static List<String> nodes(int count) {
+		List<String> nodes = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			nodes.add("10.0.0." + (i + 1) + ":6379");
+		}
+		return nodes;
+	}
+}
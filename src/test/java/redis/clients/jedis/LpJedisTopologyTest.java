@@ -0,0 +1,177 @@
+package redis.clients.jedis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import redis.clients.jedis.tests.utils.RedisStandIn;
+import redis.clients.lppz.config.LpJedisInit;
+import redis.clients.lppz.config.ShardSelector;
+import redis.clients.lppz.config.ShardingFunction;
+import redis.clients.lppz.jedis.LpJedis;
+import redis.clients.lppz.jedis.LpJedisTopology;
+import redis.clients.zkprocess.entity.JedisBaseYamlBean;
+import redis.clients.zkprocess.entity.JedisClusterPool;
+
+public class LpJedisTopologyTest extends Assert {
+	private RedisStandIn a;
+	private RedisStandIn b;
+	private RedisStandIn c;
+	private LpJedis jedis;
+
+	@Before
+	public void setUp() throws Exception {
+		a = new RedisStandIn();
+		b = new RedisStandIn();
+		c = new RedisStandIn();
+		LpJedisInit.getInstance().initJedis(beans(a, b));
+		jedis = LpJedisInit.getInstance().getJedis();
+	}
+
+	@After
+	public void tearDown() {
+		jedis.close();
+		a.close();
+		b.close();
+		c.close();
+	}
+
+	@Test
+	public void swapKeepsUnchangedShardsAndDrainsRemovedOnes() throws Exception {
+		LpJedisTopology before = jedis.getTopology();
+		assertEquals("OK", jedis.set(shardOf(1), "k", "b"));
+		// a command still running on the shard that is about to go away
+		Jedis inFlight = before.getPool(1).getResource();
+
+		LpJedisInit.getInstance().initJedis(beans(a, c));
+		LpJedisTopology after = jedis.getTopology();
+
+		assertSame(jedis, LpJedisInit.getInstance().getJedis());
+		assertEquals(before.getVersion() + 1, after.getVersion());
+		assertSame(before.getPool(0), after.getPool(0));
+		assertEquals(1, a.getConnectionCount());
+		assertEquals("OK", jedis.set(shardOf(1), "k", "c"));
+		Jedis direct = new Jedis(c.getHostAndPort().getHost(), c.getHostAndPort().getPort());
+		assertEquals("c", direct.get("k"));
+		direct.close();
+
+		// the removed pool waits for the borrowed connection
+		Thread.sleep(300);
+		assertEquals("b", inFlight.get("k"));
+		inFlight.close();
+		long deadline = System.currentTimeMillis() + 2000;
+		while (b.getOpenConnectionCount() > 0 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(20);
+		}
+		assertEquals(0, b.getOpenConnectionCount());
+	}
+
+	@Test
+	public void callersSeeNoErrorsWhileTheTopologyChanges() throws Exception {
+		final int threads = 8;
+		final AtomicBoolean running = new AtomicBoolean(true);
+		final AtomicInteger errors = new AtomicInteger();
+		final CountDownLatch done = new CountDownLatch(threads);
+		for (int t = 0; t < threads; t++) {
+			final ShardingFunction sf = shardOf(t);
+			new Thread(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						while (running.get()) {
+							if (!"OK".equals(jedis.set(sf, "k", "v"))) {
+								errors.incrementAndGet();
+							}
+						}
+					} catch (RuntimeException e) {
+						errors.incrementAndGet();
+					} finally {
+						done.countDown();
+					}
+				}
+			}).start();
+		}
+		for (int i = 0; i < 10; i++) {
+			Thread.sleep(20);
+			LpJedisInit.getInstance().initJedis(i % 2 == 0 ? beans(a, c) : beans(a, b));
+		}
+		running.set(false);
+		assertTrue(done.await(10, TimeUnit.SECONDS));
+		assertEquals(0, errors.get());
+		assertEquals(11, jedis.getTopology().getVersion());
+	}
+
+	@Test
+	public void ketamaKeepsKeysOnTheirShardWhenAMasterIsReplaced() throws Exception {
+		List<JedisBaseYamlBean> before = beans(a, b);
+		List<JedisBaseYamlBean> after = beans(a, c);
+		for (int i = 0; i < 2; i++) {
+			before.get(i).setShardName("node" + i);
+			after.get(i).setShardName("node" + i);
+		}
+		LpJedisInit.getInstance().initJedis(before, "ketama");
+		ShardSelector selector = jedis.getTopology().getShardSelector();
+		LpJedisInit.getInstance().initJedis(after, "ketama");
+		LpJedisTopology replaced = jedis.getTopology();
+
+		assertEquals(c.getHostAndPort().toString(), replaced.getNodeNames().get(1));
+		for (int key = 0; key < 10000; key++) {
+			assertEquals(selector.select(key), replaced.getShardSelector().select(key));
+		}
+	}
+
+	@Test
+	public void poolsAreRebuiltWhenTheirConfigurationChanges() throws Exception {
+		LpJedisTopology before = jedis.getTopology();
+		List<JedisBaseYamlBean> changed = beans(a, b);
+		changed.get(1).setTimeout(3000);
+		LpJedisInit.getInstance().initJedis(changed);
+		LpJedisTopology timeoutChanged = jedis.getTopology();
+		assertSame(before.getPool(0), timeoutChanged.getPool(0));
+		assertNotSame(before.getPool(1), timeoutChanged.getPool(1));
+
+		changed = beans(a, b);
+		changed.get(1).setTimeout(3000);
+		JedisClusterPool clusterPool = new JedisClusterPool();
+		clusterPool.setMaxTotal("4");
+		changed.get(0).setJedisClusterPool(clusterPool);
+		LpJedisInit.getInstance().initJedis(changed);
+		LpJedisTopology poolChanged = jedis.getTopology();
+		assertNotSame(timeoutChanged.getPool(0), poolChanged.getPool(0));
+		assertSame(timeoutChanged.getPool(1), poolChanged.getPool(1));
+		assertEquals("OK", jedis.set(shardOf(0), "k", "v"));
+	}
+
+	private static List<JedisBaseYamlBean> beans(RedisStandIn... shards) {
+		List<JedisBaseYamlBean> beans = new ArrayList<>();
+		for (RedisStandIn shard : shards) {
+			Properties properties = new Properties();
+			properties.put("host", shard.getHostAndPort().getHost());
+			properties.put("port", shard.getHostAndPort().getPort());
+			JedisBaseYamlBean bean = new JedisBaseYamlBean();
+			bean.setTimeout(2000);
+			bean.setJedisClusterNode(Arrays.asList(properties));
+			beans.add(bean);
+		}
+		return beans;
+	}
+
+	private static ShardingFunction shardOf(final int index) {
+		return new ShardingFunction() {
+			@Override
+			public int getShardingIndex() {
+				return index;
+			}
+		};
+	}
+}
@@ -0,0 +1,91 @@
+package redis.clients.jedis;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.curator.framework.recipes.cache.ChildData;
+import org.apache.curator.framework.recipes.cache.TreeCacheEvent;
+import org.apache.curator.framework.recipes.cache.TreeCacheEvent.Type;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import redis.clients.zkprocess.comm.ZkEventDebouncer;
+import redis.clients.zkprocess.comm.ZkEventNotiflyService;
+import redis.clients.zkprocess.comm.ZookeeperProcessListen;
+
+public class ZkEventDebouncerTest extends Assert {
+	private static final String BASE = "/redis/test";
+	private final List<List<TreeCacheEvent>> batches = Collections.synchronizedList(new ArrayList<List<TreeCacheEvent>>());
+	private ZookeeperProcessListen zkListen;
+	private ZkEventDebouncer debouncer;
+
+	@Before
+	public void setUp() {
+		zkListen = new ZookeeperProcessListen();
+		zkListen.addListen(BASE, new ZkEventNotiflyService() {
+			@Override
+			public Object notiflyProcess(boolean write) {
+				fail("events should not trigger a full reload");
+				return false;
+			}
+
+			@Override
+			public Object notiflyProcess(List<TreeCacheEvent> events) {
+				batches.add(events);
+				return true;
+			}
+		});
+		zkListen.watchPath(BASE, BASE);
+		debouncer = new ZkEventDebouncer(zkListen, 50);
+	}
+
+	@After
+	public void tearDown() {
+		debouncer.close();
+	}
+
+	@Test
+	public void aBurstIsDeliveredOnceWithTheLastEventPerPath() throws Exception {
+		for (int i = 0; i < 20; i++) {
+			debouncer.add(event(Type.NODE_UPDATED, BASE + "/node1/10.0.0.1:6379", i % 2 == 0 ? "M" : "S"));
+			debouncer.add(event(Type.NODE_UPDATED, BASE + "/node1/10.0.1.1:6379", i % 2 == 0 ? "S" : "M"));
+		}
+		assertTrue(batches.isEmpty());
+
+		List<TreeCacheEvent> batch = awaitBatch(0);
+		assertEquals(2, batch.size());
+		assertEquals("S", new String(batch.get(0).getData().getData(), "UTF-8"));
+		assertEquals("M", new String(batch.get(1).getData().getData(), "UTF-8"));
+
+		debouncer.add(event(Type.NODE_REMOVED, BASE + "/node1/10.0.0.1:6379", null));
+		assertEquals(1, awaitBatch(1).size());
+		Thread.sleep(150);
+		assertEquals(2, batches.size());
+	}
+
+	@Test
+	public void unknownPathsAreIgnored() throws Exception {
+		debouncer.add(new TreeCacheEvent(Type.NODE_ADDED, new ChildData("/redis/other/node1", null, new byte[0])));
+		Thread.sleep(150);
+		assertTrue(batches.isEmpty());
+	}
+
+	private List<TreeCacheEvent> awaitBatch(int index) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (batches.size() <= index && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+		assertTrue(batches.size() > index);
+		return batches.get(index);
+	}
+
+	private TreeCacheEvent event(Type type, String path, String value) throws Exception {
+		// TreeCache在NODE_ADDED时由Zk2Local登记监控路径
+		zkListen.watchPath(BASE, path);
+		return new TreeCacheEvent(type, new ChildData(path, null, null == value ? null : value.getBytes("UTF-8")));
+	}
+}
@@ -0,0 +1,111 @@
+package redis.clients.jedis;
+
+import java.util.Arrays;
+
+import org.apache.curator.framework.recipes.cache.TreeCacheEvent.Type;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import redis.clients.zkprocess.zk2local.listen.ZkShardTopology;
+import redis.clients.zkprocess.zookeeper.DiretoryInf;
+import redis.clients.zkprocess.zookeeper.process.ZkDataImpl;
+import redis.clients.zkprocess.zookeeper.process.ZkDirectoryImpl;
+
+public class ZkShardTopologyTest extends Assert {
+	private static final String BASE = "/redis/test";
+	private ZkShardTopology topology;
+
+	@Before
+	public void setUp() {
+		// 与getTreeDirectory(BASE, null, root)读出的结构相同
+		DiretoryInf base = new ZkDirectoryImpl(null, "{}");
+		for (int i : new int[] { 10, 2, 1 }) {
+			DiretoryInf shard = new ZkDirectoryImpl("node" + i, "{}");
+			shard.add(new ZkDataImpl("10.0.0." + i + ":6379", "M"));
+			shard.add(new ZkDataImpl("10.0.1." + i + ":6379", "S"));
+			base.add(shard);
+		}
+		base.add(new ZkDataImpl("node3", "{}"));
+		DiretoryInf root = new ZkDirectoryImpl(BASE, null);
+		root.add(base);
+
+		topology = new ZkShardTopology(BASE);
+		topology.load(root);
+	}
+
+	@Test
+	public void loadOrdersShardsNumerically() {
+		assertEquals(Arrays.asList("10.0.0.1:6379", "10.0.0.2:6379", "10.0.0.10:6379"), topology.getMasters());
+	}
+
+	@Test
+	public void mixedNamesAreOrderedByPrefixNumberAndRest() {
+		DiretoryInf base = new ZkDirectoryImpl(null, "{}");
+		for (String name : new String[] { "a10x", "b2", "a9", "a11", "a", "a10" }) {
+			DiretoryInf shard = new ZkDirectoryImpl(name, "{}");
+			shard.add(new ZkDataImpl(name + ":6379", "M"));
+			base.add(shard);
+		}
+		DiretoryInf root = new ZkDirectoryImpl(BASE, null);
+		root.add(base);
+		topology.load(root);
+
+		assertEquals(Arrays.asList("a:6379", "a9:6379", "a10:6379", "a10x:6379", "a11:6379", "b2:6379"),
+				topology.getMasters());
+	}
+
+	@Test
+	public void onlyMasterChangesAreReported() {
+		// TreeCache启动时会把已有节点都作为NODE_ADDED再发一遍
+		assertFalse(topology.apply(Type.NODE_ADDED, BASE + "/node1/10.0.0.1:6379", "M"));
+		assertFalse(topology.apply(Type.NODE_UPDATED, BASE + "/node1/10.0.1.1:6379", "S"));
+		assertFalse(topology.apply(Type.NODE_ADDED, BASE + "/node3", "{}"));
+		assertFalse(topology.apply(Type.NODE_ADDED, BASE + "/node3/10.0.1.3:6379", "S"));
+		assertFalse(topology.apply(Type.NODE_UPDATED, "/redis/other/node1/10.0.0.9:6379", "M"));
+
+		// 主从切换:旧主先变为S时分片保留原来的主节点,新主当选时才报告变化
+		assertFalse(topology.apply(Type.NODE_UPDATED, BASE + "/node2/10.0.0.2:6379", "S"));
+		assertEquals(Arrays.asList("10.0.0.1:6379", "10.0.0.2:6379", "10.0.0.10:6379"), topology.getMasters());
+		assertTrue(topology.apply(Type.NODE_UPDATED, BASE + "/node2/10.0.1.2:6379", "M"));
+		assertEquals(Arrays.asList("10.0.0.1:6379", "10.0.1.2:6379", "10.0.0.10:6379"), topology.getMasters());
+
+		// 新主先变为M时有两个主节点,旧主变为S后才切换
+		assertFalse(topology.apply(Type.NODE_UPDATED, BASE + "/node1/10.0.1.1:6379", "M"));
+		assertEquals(Arrays.asList("10.0.0.1:6379", "10.0.1.2:6379", "10.0.0.10:6379"), topology.getMasters());
+		assertTrue(topology.apply(Type.NODE_UPDATED, BASE + "/node1/10.0.0.1:6379", "S"));
+		assertEquals(Arrays.asList("10.0.1.1:6379", "10.0.1.2:6379", "10.0.0.10:6379"), topology.getMasters());
+
+		// 新分片有了主节点
+		assertTrue(topology.apply(Type.NODE_UPDATED, BASE + "/node3/10.0.1.3:6379", "M"));
+		assertEquals("10.0.1.3:6379", topology.getMasters().get(2));
+	}
+
+	@Test
+	public void bootstrapWithTwoMastersElectsTheSmallestNode() {
+		for (String[] order : new String[][] { { "10.0.2.5:6379", "10.0.2.4:6379" },
+				{ "10.0.2.4:6379", "10.0.2.5:6379" } }) {
+			DiretoryInf base = new ZkDirectoryImpl(null, "{}");
+			DiretoryInf shard = new ZkDirectoryImpl("node5", "{}");
+			for (String node : order) {
+				shard.add(new ZkDataImpl(node, "M"));
+			}
+			base.add(shard);
+			DiretoryInf root = new ZkDirectoryImpl(BASE, null);
+			root.add(base);
+			topology.load(root);
+			assertEquals(Arrays.asList("10.0.2.4:6379"), topology.getMasters());
+		}
+	}
+
+	@Test
+	public void removingAShardDropsItsMaster() {
+		assertFalse(topology.apply(Type.NODE_REMOVED, BASE + "/node1/10.0.1.1:6379", null));
+		// 分片目录还在时保留原来的主节点
+		assertFalse(topology.apply(Type.NODE_REMOVED, BASE + "/node1/10.0.0.1:6379", null));
+		assertEquals(3, topology.getMasters().size());
+		assertTrue(topology.apply(Type.NODE_REMOVED, BASE + "/node1", null));
+		assertTrue(topology.apply(Type.NODE_REMOVED, BASE + "/node10", null));
+		assertEquals(Arrays.asList("10.0.0.2:6379"), topology.getMasters());
+	}
+}
@@ -0,0 +1,108 @@
+package redis.clients.jedis;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import redis.clients.jedis.tests.utils.RedisStandIn;
+import redis.clients.lppz.config.LpJedisInit;
+import redis.clients.lppz.config.ModuloShardSelector;
+import redis.clients.lppz.config.ShardingFunction;
+import redis.clients.lppz.jedis.LpJedis;
+import redis.clients.zkprocess.comm.ZookeeperProcessListen;
+import redis.clients.zkprocess.entity.JedisClusterPool;
+import redis.clients.zkprocess.entity.LpJedisSnapshotYamlBean;
+import redis.clients.zkprocess.zk2local.listen.ZkToLocalLoader;
+import redis.clients.zkprocess.zk2local.listen.ZkTopologySnapshot;
+
+public class ZkTopologySnapshotTest extends Assert {
+	private static final String BASE = "/redis/test";
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void snapshotRoundTrips() throws Exception {
+		File file = new File(folder.getRoot(), "dir/test.yaml");
+		ZkTopologySnapshot snapshot = new ZkTopologySnapshot(file.getPath());
+		assertNull(snapshot.read());
+
+		snapshot.write(bean(BASE, "10.0.0.1:6379", "10.0.0.2:6379"));
+		LpJedisSnapshotYamlBean read = snapshot.read();
+		assertEquals(BASE, read.getBasePath());
+		assertEquals("ketama", read.getShardSelector());
+		assertEquals(Integer.valueOf(2000), read.getTimeout());
+		assertEquals("8", read.getJedisClusterPool().getMaxTotal());
+		assertEquals(Arrays.asList("10.0.0.1:6379", "10.0.0.2:6379"), read.getMasters());
+		assertEquals(Arrays.asList("test.yaml"), Arrays.asList(file.getParentFile().list()));
+
+		Files.write(file.toPath(), "masters: [".getBytes("UTF-8"));
+		assertNull(snapshot.read());
+	}
+
+	@Test
+	public void loaderBootsFromTheSnapshotWithoutZookeeper() throws Exception {
+		RedisStandIn a = new RedisStandIn();
+		RedisStandIn b = new RedisStandIn();
+		try {
+			ZkTopologySnapshot snapshot = new ZkTopologySnapshot(new File(folder.getRoot(), "test.yaml").getPath());
+			ZookeeperProcessListen zkListen = new ZookeeperProcessListen();
+			zkListen.setBasePath(BASE);
+			ZkToLocalLoader loader = new ZkToLocalLoader(zkListen, null);
+			loader.setSnapshot(snapshot);
+			assertFalse(loader.loadSnapshot());
+
+			// 其他分片目录的快照不能使用
+			snapshot.write(bean("/redis/other", a.getHostAndPort().toString(), b.getHostAndPort().toString()));
+			assertFalse(loader.loadSnapshot());
+
+			// 快照中的分片选择方式与配置不同时按配置(取模)选分片,没有保存时间也能启动
+			LpJedisSnapshotYamlBean bean = bean(BASE, a.getHostAndPort().toString(), b.getHostAndPort().toString());
+			bean.setSaveTime(null);
+			snapshot.write(bean);
+			assertTrue(loader.loadSnapshot());
+			LpJedis jedis = LpJedisInit.getInstance().getJedis();
+			try {
+				assertEquals(Arrays.asList(a.getHostAndPort().toString(), b.getHostAndPort().toString()),
+						jedis.getTopology().getNodeNames());
+				assertTrue(jedis.getTopology().getShardSelector() instanceof ModuloShardSelector);
+				assertEquals("OK", jedis.set(shardOf(1), "k", "v"));
+				Jedis direct = new Jedis(b.getHostAndPort().getHost(), b.getHostAndPort().getPort());
+				assertEquals("v", direct.get("k"));
+				direct.close();
+			} finally {
+				jedis.close();
+			}
+		} finally {
+			a.close();
+			b.close();
+		}
+	}
+
+	private static LpJedisSnapshotYamlBean bean(String basePath, String... masters) {
+		JedisClusterPool pool = new JedisClusterPool();
+		pool.setMaxTotal("8");
+		LpJedisSnapshotYamlBean bean = new LpJedisSnapshotYamlBean();
+		bean.setBasePath(basePath);
+		bean.setShardSelector("ketama");
+		bean.setTimeout(2000);
+		bean.setJedisClusterPool(pool);
+		bean.setMasters(Arrays.asList(masters));
+		bean.setSaveTime(System.currentTimeMillis());
+		return bean;
+	}
+
+	private static ShardingFunction shardOf(final int index) {
+		return new ShardingFunction() {
+			@Override
+			public int getShardingIndex() {
+				return index;
+			}
+		};
+	}
+}
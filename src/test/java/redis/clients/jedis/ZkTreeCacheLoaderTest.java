@@ -0,0 +1,98 @@
+package redis.clients.jedis;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.framework.recipes.cache.ChildData;
+import org.apache.curator.framework.recipes.cache.TreeCache;
+import org.apache.curator.retry.RetryOneTime;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import redis.clients.zkprocess.zk2local.listen.ZkShardTopology;
+import redis.clients.zkprocess.zookeeper.DiretoryInf;
+import redis.clients.zkprocess.zookeeper.process.ZkDirectoryImpl;
+import redis.clients.zkprocess.zookeeper.process.ZkMultLoader;
+
+public class ZkTreeCacheLoaderTest extends Assert {
+	private static final String BASE = "/redis/test";
+	// 没有启动,访问zk的调用都会失败
+	private CuratorFramework curator = CuratorFrameworkFactory.newClient("127.0.0.1:1", new RetryOneTime(1));
+
+	@After
+	public void tearDown() {
+		curator.close();
+	}
+
+	@Test
+	public void treeIsBuiltFromTheLocalCache() throws Exception {
+		LocalTreeCache cache = new LocalTreeCache(curator);
+		cache.put(BASE, "{}");
+		cache.put(BASE + "/node2", "{}");
+		cache.put(BASE + "/node2/10.0.0.2:6379", "M");
+		cache.put(BASE + "/node2/10.0.1.2:6379", "S");
+		cache.put(BASE + "/node1", "{}");
+		cache.put(BASE + "/node1/10.0.0.1:6379", "S");
+		cache.put(BASE + "/node1/10.0.1.1:6379", "M");
+		cache.put(BASE + "/node3", "");
+
+		ZkMultLoader loader = new ZkMultLoader();
+		loader.setTreeCache(cache);
+		DiretoryInf root = new ZkDirectoryImpl(BASE, null);
+		loader.getTreeDirectory(BASE, null, root);
+
+		ZkShardTopology topology = new ZkShardTopology(BASE);
+		topology.load(root);
+		assertEquals(Arrays.asList("10.0.1.1:6379", "10.0.0.2:6379"), topology.getMasters());
+	}
+
+	@Test
+	public void missingBasePathLoadsNothing() throws Exception {
+		ZkMultLoader loader = new ZkMultLoader();
+		loader.setTreeCache(new LocalTreeCache(curator));
+		DiretoryInf root = new ZkDirectoryImpl(BASE, null);
+		loader.getTreeDirectory(BASE, null, root);
+		assertTrue(root.getSubordinateInfo().isEmpty());
+	}
+
+	/**
+	 * 用map代替zk上的数据
+	 */
+	private static class LocalTreeCache extends TreeCache {
+		private final Map<String, ChildData> nodes = new TreeMap<>();
+
+		LocalTreeCache(CuratorFramework curator) {
+			super(curator, BASE);
+		}
+
+		void put(String path, String value) throws Exception {
+			nodes.put(path, new ChildData(path, null, value.getBytes("UTF-8")));
+		}
+
+		@Override
+		public ChildData getCurrentData(String path) {
+			return nodes.get(path);
+		}
+
+		@Override
+		public Map<String, ChildData> getCurrentChildren(String path) {
+			if (!nodes.containsKey(path)) {
+				return null;
+			}
+			Map<String, ChildData> children = new TreeMap<>();
+			for (Map.Entry<String, ChildData> node : nodes.entrySet()) {
+				if (node.getKey().startsWith(path + "/")) {
+					String name = node.getKey().substring(path.length() + 1);
+					if (name.indexOf('/') < 0) {
+						children.put(name, node.getValue());
+					}
+				}
+			}
+			return children;
+		}
+	}
+}
@@ -0,0 +1,94 @@
+package redis.clients.jedis;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import redis.clients.zkprocess.comm.NotiflyService;
+import redis.clients.zkprocess.comm.ZookeeperProcessListen;
+
+public class ZookeeperProcessListenTest extends Assert {
+
+	@Test
+	public void pathsResolveToTheLongestRegisteredPrefix() {
+		ZookeeperProcessListen zkListen = new ZookeeperProcessListen();
+		zkListen.addListen("shards", named("shards"));
+		zkListen.addListen("config", named("config"));
+		zkListen.watchPath("shards", "/redis/test");
+		zkListen.watchPath("config", "/redis/test/config");
+
+		assertEquals("shards", zkListen.notifly("/redis/test"));
+		assertEquals("shards", zkListen.notifly("/redis/test/node1/10.0.0.1:6379"));
+		assertEquals("config", zkListen.notifly("/redis/test/config"));
+		assertEquals("config", zkListen.notifly("/redis/test/config/pool"));
+		assertNull(zkListen.notifly("/redis/test2/node1"));
+		assertNull(zkListen.notifly("/redis"));
+
+		// 已被上级路径覆盖的子节点不再登记
+		zkListen.watchPath("shards", "/redis/test/node1");
+		assertEquals(new HashSet<>(Arrays.asList("/redis/test", "/redis/test/config")), zkListen.getWatchPath());
+	}
+
+	@Test
+	public void registrationDuringNotificationIsSafe() throws Exception {
+		final ZookeeperProcessListen zkListen = new ZookeeperProcessListen();
+		zkListen.addListen("shards", named("shards"));
+		zkListen.watchPath("shards", "/redis/test");
+		final int threads = 4;
+		final CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(threads * 2);
+		try {
+			Future<?>[] futures = new Future<?>[threads * 2];
+			for (int t = 0; t < threads; t++) {
+				final int id = t;
+				futures[t * 2] = executor.submit(new Callable<Void>() {
+					@Override
+					public Void call() throws Exception {
+						start.await();
+						for (int i = 0; i < 2000; i++) {
+							String key = "listen" + id + "-" + i;
+							zkListen.addListen(key, named(key));
+							zkListen.watchPath(key, "/redis/other" + id + "/" + i);
+						}
+						return null;
+					}
+				});
+				futures[t * 2 + 1] = executor.submit(new Callable<Void>() {
+					@Override
+					public Void call() throws Exception {
+						start.await();
+						for (int i = 0; i < 20000; i++) {
+							assertEquals("shards", zkListen.notifly("/redis/test/node" + i % 10));
+						}
+						return null;
+					}
+				});
+			}
+			start.countDown();
+			for (Future<?> future : futures) {
+				future.get(30, TimeUnit.SECONDS);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		assertEquals("listen3-1999", zkListen.notifly("/redis/other3/1999/child"));
+		assertEquals(1 + threads * 2000, zkListen.getWatchPath().size());
+	}
+
+	private static NotiflyService named(final String name) {
+		return new NotiflyService() {
+			@Override
+			public Object notiflyProcess(boolean write) {
+				return name;
+			}
+		};
+	}
+}
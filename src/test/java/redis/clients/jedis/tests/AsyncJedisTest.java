@@ -0,0 +1,123 @@
+package redis.clients.jedis.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import redis.clients.jedis.AsyncJedis;
+import redis.clients.jedis.JedisFuture;
+import redis.clients.jedis.JedisFutureListener;
+import redis.clients.jedis.NioEventLoop;
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.jedis.tests.utils.RedisStandIn;
+
+public class AsyncJedisTest {
+  private RedisStandIn first;
+  private RedisStandIn second;
+  private NioEventLoop loop;
+
+  @Before
+  public void setUp() throws Exception {
+    first = new RedisStandIn();
+    second = new RedisStandIn();
+    loop = new NioEventLoop();
+  }
+
+  @After
+  public void tearDown() {
+    loop.close();
+    first.close();
+    second.close();
+  }
+
+  @Test
+  public void commandsCompleteInOrder() throws Exception {
+    AsyncJedis jedis = new AsyncJedis(first.getHostAndPort(), 1, loop);
+    JedisFuture<String> set = jedis.set("foo", "bar");
+    JedisFuture<Long> incr = jedis.incr("counter");
+    JedisFuture<String> get = jedis.get("foo");
+    assertEquals("bar", get.get());
+    assertEquals("OK", set.get());
+    assertEquals(Long.valueOf(1), incr.get());
+    jedis.close();
+  }
+
+  @Test
+  public void listenerSeesReply() throws Exception {
+    AsyncJedis jedis = new AsyncJedis(first.getHostAndPort(), 1, loop);
+    final CountDownLatch called = new CountDownLatch(1);
+    final AtomicReference<String> value = new AtomicReference<String>();
+    jedis.echo("hello").addListener(new JedisFutureListener<String>() {
+      @Override
+      public void onComplete(JedisFuture<String> future) {
+        try {
+          value.set(future.get());
+        } catch (Exception e) {
+          value.set(e.toString());
+        }
+        called.countDown();
+      }
+    });
+    assertTrue(called.await(5, TimeUnit.SECONDS));
+    assertEquals("hello", value.get());
+    jedis.close();
+  }
+
+  @Test
+  public void listenerOnCompletedFutureRunsImmediately() throws Exception {
+    AsyncJedis jedis = new AsyncJedis(first.getHostAndPort(), 1, loop);
+    JedisFuture<String> ping = jedis.ping();
+    ping.get();
+    final AtomicReference<String> value = new AtomicReference<String>();
+    ping.addListener(new JedisFutureListener<String>() {
+      @Override
+      public void onComplete(JedisFuture<String> future) {
+        try {
+          value.set(future.get());
+        } catch (Exception e) {
+          value.set(e.toString());
+        }
+      }
+    });
+    assertEquals("PONG", value.get());
+    jedis.close();
+  }
+
+  @Test
+  public void errorReplyIsThrownFromGet() throws Exception {
+    AsyncJedis jedis = new AsyncJedis(first.getHostAndPort(), 1, loop);
+    try {
+      jedis.hgetAll("foo").get();
+      fail("expected an error reply");
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof JedisDataException);
+    } finally {
+      jedis.close();
+    }
+  }
+
+  @Test
+  public void fanOutToSeveralNodesFromOneThread() throws Exception {
+    AsyncJedis a = new AsyncJedis(first.getHostAndPort(), 2, loop);
+    AsyncJedis b = new AsyncJedis(second.getHostAndPort(), 2, loop);
+    JedisFuture<String> setA = a.set("k", "from-a");
+    JedisFuture<String> setB = b.set("k", "from-b");
+    setA.get();
+    setB.get();
+    JedisFuture<String> fromA = a.get("k");
+    JedisFuture<String> fromB = b.get("k");
+    assertEquals("from-a", fromA.get());
+    assertEquals("from-b", fromB.get());
+    a.close();
+    b.close();
+  }
+}
@@ -0,0 +1,107 @@
+package redis.clients.jedis.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import redis.clients.jedis.AutoPipelinedConnection;
+import redis.clients.jedis.BuilderFactory;
+import redis.clients.jedis.HostAndPort;
+import redis.clients.jedis.JedisFuture;
+import redis.clients.jedis.Protocol.Command;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.jedis.tests.utils.RedisStandIn;
+
+public class AutoPipelinedConnectionTest {
+  private RedisStandIn server;
+  private AutoPipelinedConnection connection;
+
+  @Before
+  public void setUp() throws Exception {
+    server = new RedisStandIn();
+    HostAndPort hnp = server.getHostAndPort();
+    connection = new AutoPipelinedConnection(hnp.getHost(), hnp.getPort());
+  }
+
+  @After
+  public void tearDown() {
+    connection.close();
+    server.close();
+  }
+
+  @Test
+  public void setAndGet() {
+    assertEquals("OK", connection.set("foo", "bar"));
+    assertEquals("bar", connection.get("foo"));
+  }
+
+  @Test
+  public void errorReplyDoesNotDesynchronizeReplies() throws Exception {
+    JedisFuture<String> bad = connection.send(BuilderFactory.STRING, Command.HGETALL, "foo");
+    JedisFuture<String> good = connection.send(BuilderFactory.STRING, Command.ECHO, "ok");
+    try {
+      bad.get();
+      fail("expected an error reply");
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof JedisDataException);
+      assertTrue(e.getCause().getMessage().startsWith("ERR"));
+    }
+    assertEquals("ok", good.get());
+  }
+
+  @Test
+  public void concurrentCallersShareFlushes() throws Exception {
+    final int threads = 32;
+    final int perThread = 500;
+    ExecutorService callers = Executors.newFixedThreadPool(threads);
+    List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+    for (int t = 0; t < threads; t++) {
+      final int thread = t;
+      results.add(callers.submit(new Callable<Boolean>() {
+        @Override
+        public Boolean call() {
+          for (int i = 0; i < perThread; i++) {
+            String key = "key" + thread + ":" + i;
+            connection.send(BuilderFactory.STRING, Command.SET, key, key);
+            if (!key.equals(connection.get(key))) {
+              return false;
+            }
+          }
+          return true;
+        }
+      }));
+    }
+    for (Future<Boolean> result : results) {
+      assertTrue(result.get(30, TimeUnit.SECONDS));
+    }
+    callers.shutdown();
+    assertEquals(threads * perThread * 2, server.getCommandCount());
+    assertTrue(server.getReadCount() < server.getCommandCount());
+  }
+
+  @Test
+  public void brokenConnectionFailsPendingFutures() {
+    connection.set("foo", "bar");
+    server.dropClients();
+    try {
+      connection.get("foo");
+      fail("expected the connection to fail");
+    } catch (JedisConnectionException e) {
+      assertTrue(connection.isBroken());
+    }
+  }
+}
@@ -0,0 +1,84 @@
+package redis.clients.jedis.tests;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import redis.clients.jedis.JedisCluster;
+import redis.clients.jedis.JedisClusterInfoCache;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.exceptions.JedisClusterMaxRedirectionsException;
+import redis.clients.jedis.tests.utils.RedisClusterStandIn;
+import redis.clients.util.JedisClusterCRC16;
+
+public class JedisClusterAskRedirectionTest extends Assert {
+  private RedisClusterStandIn cluster;
+  private RedisClusterStandIn.Node owner;
+  private RedisClusterStandIn.Node importer;
+  private int slot;
+
+  @Before
+  public void setUp() throws IOException {
+    cluster = new RedisClusterStandIn(3);
+    slot = JedisClusterCRC16.getSlot("a");
+    owner = cluster.getNodeForKey("a");
+    int target = cluster.getNode(0) == owner ? 1 : 0;
+    importer = cluster.getNode(target);
+    cluster.migrate(slot, target);
+  }
+
+  @After
+  public void tearDown() {
+    cluster.close();
+  }
+
+  @Test
+  public void askingTravelsWithTheRedirectedCommand() {
+    JedisCluster jc = new JedisCluster(cluster.getStartNodes());
+    try {
+      int ownerReads = owner.getReadCount();
+      int importerReads = importer.getReadCount();
+      int importerCommands = importer.getCommandCount();
+
+      assertEquals("OK", jc.set("a", "1"));
+
+      assertEquals(1, owner.getReadCount() - ownerReads);
+      // ASKING and SET arrived in one read
+      assertEquals(2, importer.getCommandCount() - importerCommands);
+      assertEquals(1, importer.getReadCount() - importerReads);
+      assertTrue(importer.containsKey("a"));
+
+      // the connection that carried ASKING goes back to the pool in sync
+      jc.getSlotCacheRefresher().setMinRefreshInterval(1, TimeUnit.HOURS);
+      cluster.assign(slot, slot, importer == cluster.getNode(0) ? 0 : 1);
+      cluster.migrate(slot, -1);
+      assertEquals("1", jc.get("a"));
+      assertEquals("OK", jc.set("a", "2"));
+      assertEquals("2", jc.get("a"));
+    } finally {
+      jc.close();
+    }
+  }
+
+  @Test
+  public void askConnectionIsReturnedWhenRedirectionsRunOut() {
+    JedisCluster jc = new JedisCluster(cluster.getStartNodes(), 2000, 1);
+    try {
+      try {
+        jc.set("a", "1");
+        fail("expected the single redirection to be exhausted");
+      } catch (JedisClusterMaxRedirectionsException e) {
+        // expected
+      }
+      JedisPool pool = jc.getClusterNodes().get(
+        JedisClusterInfoCache.getNodeKey(importer.getHostAndPort()));
+      assertEquals(0, pool.getNumActive());
+    } finally {
+      jc.close();
+    }
+  }
+}
@@ -0,0 +1,102 @@
+package redis.clients.jedis.tests;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import redis.clients.jedis.JedisCluster;
+import redis.clients.jedis.tests.utils.RedisClusterStandIn;
+import redis.clients.util.JedisClusterCRC16;
+import redis.clients.util.SafeEncoder;
+
+public class JedisClusterMultiKeyTest extends Assert {
+  private RedisClusterStandIn cluster;
+  private JedisCluster jc;
+
+  @Before
+  public void setUp() throws IOException {
+    cluster = new RedisClusterStandIn(3);
+    jc = new JedisCluster(cluster.getStartNodes());
+  }
+
+  @After
+  public void tearDown() {
+    jc.close();
+    cluster.close();
+  }
+
+  @Test
+  public void mgetAcrossSlotsKeepsCallerOrder() {
+    String[] keys = new String[500];
+    String[] keysvalues = new String[keys.length * 2];
+    Set<Integer> slots = new HashSet<Integer>();
+    for (int i = 0; i < keys.length; i++) {
+      keys[i] = "key" + i;
+      keysvalues[i * 2] = keys[i];
+      keysvalues[i * 2 + 1] = "value" + i;
+      slots.add(JedisClusterCRC16.getSlot(keys[i]));
+    }
+    assertEquals("OK", jc.mset(keysvalues));
+
+    String[] requested = new String[keys.length + 1];
+    for (int i = 0; i < keys.length; i++) {
+      requested[i] = keys[keys.length - 1 - i];
+    }
+    requested[keys.length] = "missing";
+    slots.add(JedisClusterCRC16.getSlot("missing"));
+
+    int before = cluster.getCommandCount();
+    List<String> values = jc.mget(requested);
+    assertEquals(slots.size(), cluster.getCommandCount() - before);
+
+    assertEquals(requested.length, values.size());
+    for (int i = 0; i < keys.length; i++) {
+      assertEquals("value" + (keys.length - 1 - i), values.get(i));
+    }
+    assertNull(values.get(keys.length));
+  }
+
+  @Test
+  public void binaryMgetAcrossSlots() {
+    jc.set("a", "1");
+    jc.set("b", "2");
+    jc.set("c", "3");
+    List<byte[]> values = jc.mget(SafeEncoder.encode("c"), SafeEncoder.encode("a"),
+      SafeEncoder.encode("b"));
+    List<String> decoded = new ArrayList<String>();
+    for (byte[] value : values) {
+      decoded.add(SafeEncoder.encode(value));
+    }
+    assertEquals("3", decoded.get(0));
+    assertEquals("1", decoded.get(1));
+    assertEquals("2", decoded.get(2));
+  }
+
+  @Test
+  public void delSumsRepliesOfAllNodes() {
+    jc.mset("a", "1", "b", "2", "c", "3", "d", "4");
+    assertEquals(Long.valueOf(3), jc.del("a", "c", "d", "missing"));
+    assertNull(jc.get("a"));
+    assertEquals("2", jc.get("b"));
+  }
+
+  @Test
+  public void movedSlotsAreResentAfterOneRefresh() {
+    int moving = JedisClusterCRC16.getSlot("a");
+    RedisClusterStandIn.Node oldOwner = cluster.getNodeForKey("a");
+    int target = cluster.getNode(0) == oldOwner ? 1 : 0;
+    cluster.assign(moving, moving, target);
+
+    assertEquals("OK", jc.mset("a", "1", "b", "2", "c", "3"));
+    assertFalse(oldOwner.containsKey("a"));
+    assertTrue(cluster.getNode(target).containsKey("a"));
+    assertEquals("1", jc.mget("a", "b", "c").get(0));
+  }
+}
@@ -0,0 +1,101 @@
+package redis.clients.jedis.tests;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import redis.clients.jedis.JedisCluster;
+import redis.clients.jedis.JedisClusterPipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.tests.utils.RedisClusterStandIn;
+import redis.clients.util.JedisClusterCRC16;
+
+public class JedisClusterPipelineTest extends Assert {
+  private RedisClusterStandIn cluster;
+  private JedisCluster jc;
+
+  @Before
+  public void setUp() throws IOException {
+    cluster = new RedisClusterStandIn(3);
+    jc = new JedisCluster(cluster.getStartNodes());
+  }
+
+  @After
+  public void tearDown() {
+    jc.close();
+    cluster.close();
+  }
+
+  @Test
+  public void routesEveryCommandToItsNode() {
+    JedisClusterPipeline p = jc.pipelined();
+    List<Response<String>> sets = new ArrayList<Response<String>>();
+    for (int i = 0; i < 1000; i++) {
+      sets.add(p.set("key" + i, "value" + i));
+    }
+    Response<Long> incr = p.incr("counter");
+    int before = cluster.getCommandCount();
+    p.sync();
+
+    assertEquals(1001, cluster.getCommandCount() - before);
+    for (Response<String> set : sets) {
+      assertEquals("OK", set.get());
+    }
+    assertEquals(Long.valueOf(1), incr.get());
+    for (int i = 0; i < 1000; i += 97) {
+      assertTrue(cluster.getNodeForKey("key" + i).containsKey("key" + i));
+    }
+
+    Response<String> get = p.get("key500");
+    List<Object> all = p.syncAndReturnAll();
+    assertEquals("value500", get.get());
+    assertEquals(1, all.size());
+    assertEquals("value500", all.get(0));
+    p.close();
+  }
+
+  @Test
+  public void replaysOnlyMovedCommands() {
+    jc.getSlotCacheRefresher().setMinRefreshInterval(1, TimeUnit.HOURS);
+    JedisClusterPipeline p = jc.pipelined();
+    int slot = JedisClusterCRC16.getSlot("a");
+    int target = cluster.getNode(0) == cluster.getNodeForKey("a") ? 1 : 0;
+    cluster.assign(slot, slot, target);
+
+    Response<String> a = p.set("a", "1");
+    Response<String> b = p.set("b", "2");
+    int before = cluster.getCommandCount();
+    p.sync();
+
+    // one redirected SET and the two SETs
+    assertEquals(3, cluster.getCommandCount() - before);
+    assertEquals("OK", a.get());
+    assertEquals("OK", b.get());
+    assertTrue(cluster.getNode(target).containsKey("a"));
+    p.close();
+  }
+
+  @Test
+  public void followsAskRedirectionWithoutRefreshingSlots() {
+    int slot = JedisClusterCRC16.getSlot("a");
+    int target = cluster.getNode(0) == cluster.getNodeForKey("a") ? 1 : 0;
+    cluster.migrate(slot, target);
+
+    JedisClusterPipeline p = jc.pipelined();
+    Response<String> a = p.set("a", "1");
+    int before = cluster.getCommandCount();
+    p.sync();
+
+    // redirected SET, then ASKING and SET on the importing node
+    assertEquals(3, cluster.getCommandCount() - before);
+    assertEquals("OK", a.get());
+    assertTrue(cluster.getNode(target).containsKey("a"));
+    p.close();
+  }
+}
@@ -0,0 +1,101 @@
+package redis.clients.jedis.tests;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import redis.clients.jedis.HostAndPort;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisCluster;
+import redis.clients.jedis.JedisClusterInfoCache;
+import redis.clients.jedis.ReadFrom;
+import redis.clients.jedis.tests.utils.RedisClusterStandIn;
+
+public class JedisClusterReadFromTest extends Assert {
+  private RedisClusterStandIn cluster;
+  private JedisCluster jc;
+
+  @Before
+  public void setUp() throws IOException {
+    cluster = new RedisClusterStandIn(3, 1);
+    jc = new JedisCluster(cluster.getStartNodes());
+  }
+
+  @After
+  public void tearDown() {
+    jc.close();
+    cluster.close();
+  }
+
+  @Test
+  public void readsStayOnMastersByDefault() {
+    assertEquals(ReadFrom.MASTER, jc.getReadFrom());
+    assertEquals("OK", jc.set("a", "1"));
+    int before = cluster.getCommandCount();
+    assertEquals("1", jc.get("a"));
+    assertEquals(1, cluster.getCommandCount() - before);
+    assertEquals(0, cluster.getReplicaCommandCount());
+  }
+
+  @Test
+  public void replicaPreferredSendsReadsToReplicas() {
+    jc.setReadFrom(ReadFrom.REPLICA_PREFERRED);
+    assertEquals(3, jc.getClusterNodes().size());
+
+    int masterBefore = cluster.getCommandCount();
+    assertEquals("OK", jc.set("a", "1"));
+    assertEquals("OK", jc.set("b", "2"));
+    assertEquals(2, cluster.getCommandCount() - masterBefore);
+
+    masterBefore = cluster.getCommandCount();
+    int replicaBefore = cluster.getReplicaCommandCount();
+    assertEquals("1", jc.get("a"));
+    assertEquals(Arrays.asList("1", "2", null), jc.mget("a", "b", "c"));
+    assertEquals(0, cluster.getCommandCount() - masterBefore);
+    assertTrue(cluster.getReplicaCommandCount() - replicaBefore >= 2);
+    // only the replica of a's master answered
+    assertTrue(cluster.getReplicas(cluster.getNodeForKey("a")).get(0).getCommandCount() > 0);
+  }
+
+  @Test
+  public void roundRobinAlternatesBetweenMasterAndReplica() {
+    jc.setReadFrom(ReadFrom.ROUND_ROBIN);
+    assertEquals("OK", jc.set("a", "1"));
+
+    RedisClusterStandIn.Node master = cluster.getNodeForKey("a");
+    RedisClusterStandIn.Node replica = cluster.getReplicas(master).get(0);
+    int masterBefore = master.getCommandCount();
+    int replicaBefore = replica.getCommandCount();
+    for (int i = 0; i < 10; i++) {
+      assertEquals("1", jc.get("a"));
+    }
+    // the replica also answers READONLY once per new connection
+    assertEquals(5, master.getCommandCount() - masterBefore);
+    assertTrue(replica.getCommandCount() - replicaBefore >= 5);
+  }
+
+  @Test
+  public void removedReplicasAreDropped() {
+    JedisClusterInfoCache cache = new JedisClusterInfoCache(new GenericObjectPoolConfig(), 2000);
+    HostAndPort start = cluster.getStartNodes().iterator().next();
+    Jedis jedis = new Jedis(start.getHost(), start.getPort());
+    try {
+      cache.discoverClusterSlots(jedis);
+      assertEquals(3, cache.getReplicas().size());
+
+      RedisClusterStandIn.Node replica = cluster.getReplicas(cluster.getNode(0)).get(0);
+      cluster.removeReplica(replica);
+      cache.discoverClusterSlots(jedis);
+      assertEquals(2, cache.getReplicas().size());
+      assertFalse(cache.getReplicas().containsKey(
+          JedisClusterInfoCache.getNodeKey(replica.getHostAndPort())));
+    } finally {
+      jedis.close();
+    }
+  }
+}
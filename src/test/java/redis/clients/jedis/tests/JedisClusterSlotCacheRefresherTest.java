@@ -0,0 +1,110 @@
+package redis.clients.jedis.tests;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import redis.clients.jedis.JedisCluster;
+import redis.clients.jedis.JedisClusterSlotCacheRefresher;
+import redis.clients.jedis.tests.utils.RedisClusterStandIn;
+import redis.clients.util.JedisClusterCRC16;
+
+public class JedisClusterSlotCacheRefresherTest extends Assert {
+  private RedisClusterStandIn cluster;
+  private JedisCluster jc;
+
+  @Before
+  public void setUp() throws IOException {
+    cluster = new RedisClusterStandIn(3);
+    jc = new JedisCluster(cluster.getStartNodes());
+  }
+
+  @After
+  public void tearDown() {
+    jc.close();
+    cluster.close();
+  }
+
+  @Test
+  public void movedReplyPatchesTheSlotWithoutWaitingForARefresh() {
+    jc.getSlotCacheRefresher().setMinRefreshInterval(1, TimeUnit.HOURS);
+    moveSlotOf("a");
+
+    int before = cluster.getCommandCount();
+    assertEquals("OK", jc.set("a", "1"));
+    // the redirected SET and its retry, no CLUSTER SLOTS
+    assertEquals(2, cluster.getCommandCount() - before);
+
+    before = cluster.getCommandCount();
+    assertEquals("1", jc.get("a"));
+    assertEquals(1, cluster.getCommandCount() - before);
+  }
+
+  @Test
+  public void concurrentRequestsCollapseIntoOneRefresh() throws InterruptedException {
+    final JedisClusterSlotCacheRefresher refresher = jc.getSlotCacheRefresher();
+    final CountDownLatch start = new CountDownLatch(1);
+    final CountDownLatch done = new CountDownLatch(50);
+    final AtomicInteger started = new AtomicInteger();
+    for (int i = 0; i < 50; i++) {
+      new Thread(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            start.await();
+            if (refresher.requestRefresh()) {
+              started.incrementAndGet();
+            }
+          } catch (InterruptedException e) {
+            // ends the thread
+          } finally {
+            done.countDown();
+          }
+        }
+      }).start();
+    }
+    start.countDown();
+    assertTrue(done.await(5, TimeUnit.SECONDS));
+    assertEquals(1, started.get());
+  }
+
+  @Test
+  public void periodicRefreshPicksUpNewOwners() throws InterruptedException {
+    jc.getSlotCacheRefresher().setMinRefreshInterval(1, TimeUnit.HOURS);
+    moveSlotOf("a");
+    jc.getSlotCacheRefresher().setPeriodicRefresh(20, TimeUnit.MILLISECONDS);
+    Thread.sleep(200);
+    jc.getSlotCacheRefresher().setPeriodicRefresh(0, TimeUnit.MILLISECONDS);
+
+    int before = cluster.getCommandCount();
+    assertEquals("OK", jc.set("a", "1"));
+    assertEquals(1, cluster.getCommandCount() - before);
+  }
+
+  @Test
+  public void requestWithinTheIntervalRunsAsATrailingRefresh() throws InterruptedException {
+    JedisClusterSlotCacheRefresher refresher = jc.getSlotCacheRefresher();
+    refresher.setMinRefreshInterval(100, TimeUnit.MILLISECONDS);
+    assertTrue(refresher.requestRefresh());
+    Thread.sleep(20);
+    moveSlotOf("a");
+    assertFalse(refresher.requestRefresh());
+    Thread.sleep(300);
+
+    int before = cluster.getCommandCount();
+    assertEquals("OK", jc.set("a", "1"));
+    assertEquals(1, cluster.getCommandCount() - before);
+  }
+
+  private void moveSlotOf(String key) {
+    int slot = JedisClusterCRC16.getSlot(key);
+    int target = cluster.getNode(0) == cluster.getNodeForKey(key) ? 1 : 0;
+    cluster.assign(slot, slot, target);
+  }
+}
@@ -0,0 +1,170 @@
+package redis.clients.jedis.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import redis.clients.jedis.BuilderFactory;
+import redis.clients.jedis.JedisFuture;
+import redis.clients.jedis.NioConnection;
+import redis.clients.jedis.NioConnectionGroup;
+import redis.clients.jedis.NioEventLoop;
+import redis.clients.jedis.Protocol.Command;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.jedis.tests.utils.RedisStandIn;
+
+public class NioConnectionTest {
+  private RedisStandIn server;
+  private NioEventLoop loop;
+
+  @Before
+  public void setUp() throws Exception {
+    server = new RedisStandIn();
+    loop = new NioEventLoop();
+  }
+
+  @After
+  public void tearDown() {
+    loop.close();
+    server.close();
+  }
+
+  @Test
+  public void sendAndReceive() {
+    NioConnection connection = new NioConnection(server.getHostAndPort(), loop);
+    assertEquals("OK", connection.execute(BuilderFactory.STRING, Command.SET, "foo", "bar"));
+    assertEquals("bar", connection.execute(BuilderFactory.STRING, Command.GET, "foo"));
+    assertNull(connection.execute(BuilderFactory.STRING, Command.GET, "missing"));
+    connection.close();
+  }
+
+  @Test
+  public void errorReplyOnlyFailsItsOwnCommand() throws Exception {
+    NioConnection connection = new NioConnection(server.getHostAndPort(), loop);
+    JedisFuture<String> bad = connection.send(BuilderFactory.STRING, Command.HGETALL, "foo");
+    JedisFuture<String> good = connection.send(BuilderFactory.STRING, Command.PING);
+    try {
+      bad.get();
+      fail("expected an error reply");
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof JedisDataException);
+      assertTrue(e.getCause().getMessage().startsWith("ERR"));
+    }
+    assertEquals("PONG", good.get());
+    connection.close();
+  }
+
+  @Test
+  public void unansweredCommandsTimeOut() throws Exception {
+    // accepts the connection but never replies
+    ServerSocket silent = new ServerSocket(0, 1, InetAddress.getByName("127.0.0.1"));
+    try {
+      NioConnection connection = new NioConnection("127.0.0.1", silent.getLocalPort(), loop);
+      connection.setSoTimeout(200);
+      JedisFuture<String> first = connection.send(BuilderFactory.STRING, Command.PING);
+      JedisFuture<String> second = connection.send(BuilderFactory.STRING, Command.PING);
+      for (JedisFuture<String> future : Arrays.asList(first, second)) {
+        try {
+          future.get(5, TimeUnit.SECONDS);
+          fail("expected a timeout");
+        } catch (ExecutionException e) {
+          assertTrue(e.getCause() instanceof JedisConnectionException);
+        }
+      }
+      assertTrue(connection.isBroken());
+    } finally {
+      silent.close();
+    }
+  }
+
+  @Test
+  public void manyThreadsShareOneSocket() throws Exception {
+    final NioConnection connection = new NioConnection(server.getHostAndPort(), loop);
+    ExecutorService callers = Executors.newFixedThreadPool(16);
+    List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+    for (int t = 0; t < 16; t++) {
+      final int thread = t;
+      results.add(callers.submit(new java.util.concurrent.Callable<Boolean>() {
+        @Override
+        public Boolean call() {
+          for (int i = 0; i < 200; i++) {
+            String key = "key" + thread + ":" + i;
+            connection.send(BuilderFactory.STRING, Command.SET, key, key);
+            if (!key.equals(connection.execute(BuilderFactory.STRING, Command.GET, key))) {
+              return false;
+            }
+          }
+          return true;
+        }
+      }));
+    }
+    for (Future<Boolean> result : results) {
+      assertTrue(result.get(10, TimeUnit.SECONDS));
+    }
+    callers.shutdown();
+    assertEquals(1, server.getConnectionCount());
+    connection.close();
+  }
+
+  @Test
+  public void largeReplySpanningSeveralReads() {
+    NioConnection connection = new NioConnection(server.getHostAndPort(), loop);
+    StringBuilder value = new StringBuilder();
+    for (int i = 0; i < 100000; i++) {
+      value.append((char) ('a' + i % 26));
+    }
+    connection.send(BuilderFactory.STRING, Command.SET, "big", value.toString());
+    assertEquals(value.toString(), connection.execute(BuilderFactory.STRING, Command.GET, "big"));
+    connection.close();
+  }
+
+  @Test
+  public void closingFailsPendingFutures() throws Exception {
+    NioConnection connection = new NioConnection(server.getHostAndPort(), loop);
+    connection.execute(BuilderFactory.STRING, Command.PING);
+    server.dropClients();
+    JedisFuture<String> future = null;
+    try {
+      future = connection.send(BuilderFactory.STRING, Command.PING);
+      future.get();
+      fail("expected the connection to fail");
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof JedisConnectionException);
+      assertTrue(connection.isBroken());
+    } catch (JedisConnectionException e) {
+      // the broken socket was noticed before the command was queued
+      assertTrue(connection.isBroken());
+    }
+  }
+
+  @Test
+  public void groupReplacesBrokenConnections() {
+    NioConnectionGroup group = new NioConnectionGroup(server.getHostAndPort(), 2, loop);
+    NioConnection first = group.next();
+    group.next();
+    first.close();
+    assertTrue(first.isBroken());
+    NioConnection replaced = group.next();
+    assertTrue(replaced != first);
+    assertEquals("PONG", replaced.execute(BuilderFactory.STRING, Command.PING));
+    assertEquals(3, server.getConnectionCount());
+    group.close();
+  }
+}
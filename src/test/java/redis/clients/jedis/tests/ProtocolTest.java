@@ -2,12 +2,14 @@ package redis.clients.jedis.tests;
 
 import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.PipedInputStream;
 import java.io.PipedOutputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.junit.Test;
@@ -76,6 +78,78 @@ public class ProtocolTest extends JedisTestBase {
     assertArrayEquals(SafeEncoder.encode("012345678901234567890123456789"), response);
   }
 
+  @Test
+  public void bulkReplyAsString() {
+    InputStream is = new ByteArrayInputStream("$6\r\nfoobar\r\n$3\r\nbaz\r\n".getBytes());
+    RedisInputStream in = new RedisInputStream(is);
+    assertEquals("foobar", Protocol.readBulkString(in));
+    assertEquals("baz", Protocol.readBulkString(in));
+  }
+
+  @Test
+  public void fragmentedBulkReplyAsString() {
+    FragmentedByteArrayInputStream fis = new FragmentedByteArrayInputStream(
+        "$30\r\n012345678901234567890123456789\r\n".getBytes());
+    assertEquals("012345678901234567890123456789",
+      Protocol.readBulkString(new RedisInputStream(fis, 16)));
+  }
+
+  @Test
+  public void bulkReplyAsStringLargerThanBuffer() {
+    FragmentedByteArrayInputStream fis = new FragmentedByteArrayInputStream(
+        "$30\r\n012345678901234567890123456789\r\n+OK\r\n".getBytes());
+    RedisInputStream in = new RedisInputStream(fis, 8);
+    assertEquals("012345678901234567890123456789", Protocol.readBulkString(in));
+    assertEquals("OK", Protocol.readBulkString(in));
+  }
+
+  @Test
+  public void nullBulkReplyAsString() {
+    InputStream is = new ByteArrayInputStream("$-1\r\n".getBytes());
+    assertNull(Protocol.readBulkString(new RedisInputStream(is)));
+  }
+
+  @Test
+  public void bulkReplyToSink() {
+    FragmentedByteArrayInputStream fis = new FragmentedByteArrayInputStream(
+        "$30\r\n012345678901234567890123456789\r\n$-1\r\n".getBytes());
+    RedisInputStream in = new RedisInputStream(fis, 8);
+    ByteArrayOutputStream sink = new ByteArrayOutputStream();
+    assertEquals(30, Protocol.readBulkReply(in, sink));
+    assertArrayEquals(SafeEncoder.encode("012345678901234567890123456789"), sink.toByteArray());
+    assertEquals(-1, Protocol.readBulkReply(in, sink));
+  }
+
+  @Test
+  public void scanReply() {
+    byte[] replies = ("+OK\r\n$5\r\nab\r\nc\r\n*2\r\n$-1\r\n*1\r\n:42\r\n-ERR x\r\n")
+        .getBytes();
+    assertEquals(5, Protocol.scanReply(replies, 0, replies.length));
+    assertEquals(16, Protocol.scanReply(replies, 5, replies.length));
+    assertEquals(34, Protocol.scanReply(replies, 16, replies.length));
+    assertEquals(replies.length, Protocol.scanReply(replies, 34, replies.length));
+    for (int limit = 17; limit < 34; limit++) {
+      assertEquals(-1, Protocol.scanReply(replies, 16, limit));
+    }
+  }
+
+  @Test
+  public void replyScannerResumesWherePreviousCallStopped() {
+    byte[] reply = "*3\r\n$3\r\nabc\r\n:1\r\n*1\r\n+OK\r\n".getBytes();
+    Protocol.ReplyScanner scanner = new Protocol.ReplyScanner();
+    for (int limit = 0; limit < reply.length; limit++) {
+      assertEquals(-1, scanner.scan(reply, 0, limit));
+    }
+    assertEquals(reply.length, scanner.scan(reply, 0, reply.length));
+
+    // a compacted buffer: the partial reply moved to the front between calls
+    byte[] shifted = new byte[reply.length + 4];
+    System.arraycopy(reply, 0, shifted, 4, reply.length);
+    assertEquals(-1, scanner.scan(shifted, 4, 4 + 12));
+    byte[] compacted = Arrays.copyOf(reply, reply.length);
+    assertEquals(reply.length, scanner.scan(compacted, 0, reply.length));
+  }
+
   @Test
   public void nullBulkReply() {
     InputStream is = new ByteArrayInputStream("$-1\r\n".getBytes());
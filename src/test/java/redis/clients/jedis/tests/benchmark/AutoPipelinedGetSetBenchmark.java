@@ -0,0 +1,78 @@
+package redis.clients.jedis.tests.benchmark;
+
+import java.io.IOException;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import redis.clients.jedis.AutoPipelinedConnection;
+import redis.clients.jedis.HostAndPort;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.tests.HostAndPortUtil;
+
+/**
+ * Same workload as {@link PipelinedGetSetBenchmark}, but issued as single blocking GET/SET calls
+ * from many threads over one {@link AutoPipelinedConnection}, next to the explicit pipeline.
+ */
+public class AutoPipelinedGetSetBenchmark {
+  private static HostAndPort hnp = HostAndPortUtil.getRedisServers().get(0);
+  private static final int TOTAL_OPERATIONS = 200000;
+  private static final int THREADS = 50;
+
+  public static void main(String[] args) throws UnknownHostException, IOException,
+      InterruptedException {
+    Jedis jedis = new Jedis(hnp.getHost(), hnp.getPort());
+    jedis.connect();
+    jedis.auth("foobared");
+    jedis.flushAll();
+
+    long begin = Calendar.getInstance().getTimeInMillis();
+
+    Pipeline p = jedis.pipelined();
+    for (int n = 0; n <= TOTAL_OPERATIONS; n++) {
+      String key = "foo" + n;
+      p.set(key, "bar" + n);
+      p.get(key);
+    }
+    p.sync();
+
+    long elapsed = Calendar.getInstance().getTimeInMillis() - begin;
+    System.out.println(((1000 * 2 * TOTAL_OPERATIONS) / elapsed) + " ops (explicit pipeline)");
+
+    jedis.flushAll();
+    jedis.disconnect();
+
+    final AutoPipelinedConnection connection = new AutoPipelinedConnection(hnp.getHost(),
+        hnp.getPort(), 2000, "foobared");
+    final AtomicInteger ind = new AtomicInteger();
+    List<Thread> tds = new ArrayList<Thread>();
+
+    begin = Calendar.getInstance().getTimeInMillis();
+
+    for (int i = 0; i < THREADS; i++) {
+      Thread hj = new Thread(new Runnable() {
+        public void run() {
+          for (int n = 0; (n = ind.getAndIncrement()) <= TOTAL_OPERATIONS;) {
+            String key = "foo" + n;
+            connection.set(key, "bar" + n);
+            connection.get(key);
+          }
+        }
+      });
+      tds.add(hj);
+      hj.start();
+    }
+    for (Thread t : tds) {
+      t.join();
+    }
+
+    elapsed = Calendar.getInstance().getTimeInMillis() - begin;
+    connection.close();
+
+    System.out.println(((1000 * 2 * TOTAL_OPERATIONS) / elapsed) + " ops (auto pipeline, "
+        + THREADS + " threads)");
+  }
+}
@@ -0,0 +1,81 @@
+package redis.clients.jedis.tests.benchmark;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import redis.clients.lppz.jedis.LatencyHistogram;
+
+/**
+ * Compares LatencyHistogram.record, whose counts are striped by thread, with a single shared
+ * AtomicLongArray of the same buckets, for an increasing number of threads that all record the
+ * same few latencies, as threads hitting one shard do. No server is needed.
+ */
+public class LatencyHistogramBenchmark {
+  private static final int OPERATIONS_PER_THREAD = 20000000;
+  private static final int MAX_THREADS = Math.max(4, Runtime.getRuntime().availableProcessors());
+
+  private interface Recorder {
+    void record(long micros);
+  }
+
+  public static void main(String[] args) throws Exception {
+    final LatencyHistogram striped = new LatencyHistogram();
+    final AtomicLongArray shared = new AtomicLongArray(488);
+    Recorder stripedRecorder = new Recorder() {
+      @Override
+      public void record(long micros) {
+        striped.record(micros);
+      }
+    };
+    Recorder sharedRecorder = new Recorder() {
+      @Override
+      public void record(long micros) {
+        shared.incrementAndGet(bucketOf(micros));
+      }
+    };
+
+    measure(stripedRecorder, 1);
+    measure(sharedRecorder, 1);
+    for (int threads = 1; threads <= MAX_THREADS; threads *= 2) {
+      System.out.println(threads + " threads: striped " + measure(stripedRecorder, threads)
+          + " ops, shared " + measure(sharedRecorder, threads) + " ops");
+    }
+  }
+
+  // the bucket layout of LatencyHistogram: 8 sub-buckets per power of two
+  private static int bucketOf(long micros) {
+    if (micros < 8) {
+      return (int) micros;
+    }
+    int exponent = 63 - Long.numberOfLeadingZeros(micros);
+    int sub = (int) (micros >>> (exponent - 3)) & 7;
+    return (exponent - 2) * 8 + sub;
+  }
+
+  private static long measure(final Recorder recorder, int threads) throws InterruptedException {
+    final CountDownLatch start = new CountDownLatch(1);
+    final CountDownLatch done = new CountDownLatch(threads);
+    for (int t = 0; t < threads; t++) {
+      new Thread(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            start.await();
+          } catch (InterruptedException e) {
+            return;
+          }
+          for (int n = 0; n < OPERATIONS_PER_THREAD; n++) {
+            // 100-103us, the same bucket most of the time
+            recorder.record(100 + (n & 3));
+          }
+          done.countDown();
+        }
+      }).start();
+    }
+    long begin = System.nanoTime();
+    start.countDown();
+    done.await();
+    long elapsed = System.nanoTime() - begin;
+    return (long) threads * OPERATIONS_PER_THREAD * 1000000000L / elapsed;
+  }
+}
@@ -0,0 +1,108 @@
+package redis.clients.jedis.tests.benchmark;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+
+import net.sf.cglib.proxy.Enhancer;
+import net.sf.cglib.proxy.MethodInterceptor;
+import net.sf.cglib.proxy.MethodProxy;
+
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+
+import redis.clients.jedis.HostAndPort;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.Protocol;
+import redis.clients.jedis.tests.HostAndPortUtil;
+import redis.clients.lppz.config.LpJedisInit;
+import redis.clients.lppz.config.ShardingFunction;
+import redis.clients.lppz.jedis.LpJedis;
+
+/**
+ * Average GET/SET latency through LpJedis, next to the cglib proxy it used to dispatch through
+ * (refused-command lookup by method name, then Method.invoke on a pooled connection). Both go to
+ * the same pool. On Java 9 and later cglib needs --add-opens java.base/java.lang=ALL-UNNAMED.
+ */
+public class LpJedisDispatchBenchmark {
+  private static HostAndPort hnp = HostAndPortUtil.getRedisServers().get(0);
+  private static final int WARMUP_OPERATIONS = 20000;
+  private static final int TOTAL_OPERATIONS = 100000;
+
+  private static final ShardingFunction SHARD = new ShardingFunction() {
+    @Override
+    public int getShardingIndex() {
+      return 0;
+    }
+  };
+
+  private interface Client {
+    void setAndGet(String key, String value);
+  }
+
+  public static void main(String[] args) throws Exception {
+    final JedisPool pool = new JedisPool(new GenericObjectPoolConfig(), hnp.getHost(),
+        hnp.getPort(), Protocol.DEFAULT_TIMEOUT, "foobared");
+    Jedis jedis = pool.getResource();
+    jedis.flushAll();
+    jedis.close();
+
+    final LpJedis direct = new LpJedis();
+    direct.setShardPools(Arrays.asList(pool));
+    final Jedis proxied = proxy(pool);
+
+    Client directClient = new Client() {
+      @Override
+      public void setAndGet(String key, String value) {
+        direct.set(SHARD, key, value);
+        direct.get(SHARD, key);
+      }
+    };
+    Client proxiedClient = new Client() {
+      @Override
+      public void setAndGet(String key, String value) {
+        proxied.set(key, value);
+        proxied.get(key);
+      }
+    };
+
+    measure(directClient, WARMUP_OPERATIONS);
+    measure(proxiedClient, WARMUP_OPERATIONS);
+    System.out.println("direct  " + measure(directClient, TOTAL_OPERATIONS) + " ns/op");
+    System.out.println("proxied " + measure(proxiedClient, TOTAL_OPERATIONS) + " ns/op");
+
+    pool.destroy();
+  }
+
+  private static long measure(Client client, int operations) {
+    long begin = System.nanoTime();
+    for (int n = 0; n < operations; n++) {
+      String key = "foo" + n;
+      client.setAndGet(key, "bar" + n);
+    }
+    return (System.nanoTime() - begin) / (2L * operations);
+  }
+
+  private static Jedis proxy(final JedisPool pool) {
+    final List<String> refused = LpJedisInit.refuse_multi_commands;
+    Enhancer enhancer = new Enhancer();
+    enhancer.setSuperclass(Jedis.class);
+    enhancer.setCallback(new MethodInterceptor() {
+      @Override
+      public Object intercept(Object proxy, Method method, Object[] args, MethodProxy methodProxy)
+          throws Throwable {
+        if (refused.indexOf(method.getName()) > -1) {
+          throw new RuntimeException("not support command");
+        }
+        Jedis jedis = pool.getResource();
+        try {
+          return method.invoke(jedis, args);
+        } finally {
+          jedis.close();
+        }
+      }
+    });
+    enhancer.setClassLoader(Jedis.class.getClassLoader());
+    return (Jedis) enhancer.create();
+  }
+}
@@ -3,11 +3,13 @@ package redis.clients.jedis.tests.benchmark;
 import redis.clients.jedis.Protocol;
 import redis.clients.util.RedisInputStream;
 import redis.clients.util.RedisOutputStream;
+import redis.clients.util.SafeEncoder;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.management.ManagementFactory;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -48,6 +50,12 @@ public class ProtocolBenchmark {
     }
 
     System.out.println((total / 5) + " avg");
+
+    byte[] bulk = bulkReply(2048);
+    measureBulkAllocation(bulk, true);
+    measureBulkAllocation(bulk, false);
+    System.out.println(measureBulkAllocation(bulk, true) + " bytes/reply (copying)");
+    System.out.println(measureBulkAllocation(bulk, false) + " bytes/reply (in place)");
   }
 
   private static long measureInputMulti() throws Exception {
@@ -83,6 +91,37 @@ public class ProtocolBenchmark {
     return duration;
   }
 
+  private static byte[] bulkReply(int size) {
+    StringBuilder sb = new StringBuilder().append('$').append(size).append("\r\n");
+    for (int i = 0; i < size; i++) {
+      sb.append((char) ('a' + i % 26));
+    }
+    return sb.append("\r\n").toString().getBytes();
+  }
+
+  /**
+   * Bytes allocated by the reading thread per decoded bulk reply, comparing the byte[] copy plus
+   * SafeEncoder path against decoding straight from the RedisInputStream buffer.
+   */
+  private static long measureBulkAllocation(byte[] reply, boolean copying) throws Exception {
+    com.sun.management.ThreadMXBean mx = (com.sun.management.ThreadMXBean) ManagementFactory
+        .getThreadMXBean();
+    long tid = Thread.currentThread().getId();
+
+    InputStream is = new ByteArrayInputStream(reply);
+    RedisInputStream in = new RedisInputStream(is);
+    long before = mx.getThreadAllocatedBytes(tid);
+    for (int n = 0; n < TOTAL_OPERATIONS; n++) {
+      if (copying) {
+        SafeEncoder.encode((byte[]) Protocol.read(in));
+      } else {
+        Protocol.readBulkString(in);
+      }
+      in.reset();
+    }
+    return (mx.getThreadAllocatedBytes(tid) - before) / TOTAL_OPERATIONS;
+  }
+
   private static long measureCommand() throws Exception {
     long duration = 0;
 
@@ -0,0 +1,115 @@
+package redis.clients.jedis.tests.benchmark;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+
+import redis.clients.jedis.BinaryJedisCluster;
+import redis.clients.jedis.HostAndPort;
+import redis.clients.jedis.JedisClusterInfoCache;
+import redis.clients.jedis.JedisPool;
+
+/**
+ * Compares JedisClusterInfoCache.getSlotPool with the read-locked HashMap lookup it replaced, for
+ * an increasing number of threads. No server is needed: the pools are never used.
+ */
+public class SlotLookupBenchmark {
+  private static final int OPERATIONS_PER_THREAD = 20000000;
+  private static final int MAX_THREADS = Runtime.getRuntime().availableProcessors();
+
+  private interface SlotTable {
+    JedisPool get(int slot);
+  }
+
+  public static void main(String[] args) throws Exception {
+    final JedisClusterInfoCache cache = new JedisClusterInfoCache(new GenericObjectPoolConfig(),
+        2000);
+    final LockedSlotTable locked = new LockedSlotTable();
+    final int perNode = BinaryJedisCluster.HASHSLOTS / 3;
+    for (int node = 0; node < 3; node++) {
+      List<Integer> slots = new ArrayList<Integer>();
+      for (int slot = node * perNode; slot < (node == 2 ? BinaryJedisCluster.HASHSLOTS
+          : (node + 1) * perNode); slot++) {
+        slots.add(slot);
+      }
+      HostAndPort hnp = new HostAndPort("127.0.0.1", 7379 + node);
+      cache.assignSlotsToNode(slots, hnp);
+      locked.assign(slots, cache.getSlotPool(slots.get(0)));
+    }
+
+    SlotTable array = new SlotTable() {
+      @Override
+      public JedisPool get(int slot) {
+        return cache.getSlotPool(slot);
+      }
+    };
+
+    for (int threads = 1; threads <= MAX_THREADS; threads *= 2) {
+      System.out.println(threads + " threads: array " + measure(array, threads) + " ops, locked "
+          + measure(locked, threads) + " ops");
+    }
+  }
+
+  private static long measure(final SlotTable table, int threads) throws InterruptedException {
+    final CountDownLatch start = new CountDownLatch(1);
+    final CountDownLatch done = new CountDownLatch(threads);
+    for (int t = 0; t < threads; t++) {
+      new Thread(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            start.await();
+          } catch (InterruptedException e) {
+            return;
+          }
+          int found = 0;
+          for (int n = 0; n < OPERATIONS_PER_THREAD; n++) {
+            if (table.get(n & (BinaryJedisCluster.HASHSLOTS - 1)) != null) {
+              found++;
+            }
+          }
+          if (found != OPERATIONS_PER_THREAD) {
+            throw new IllegalStateException("missing slots");
+          }
+          done.countDown();
+        }
+      }).start();
+    }
+    long begin = System.nanoTime();
+    start.countDown();
+    done.await();
+    long elapsed = System.nanoTime() - begin;
+    return (long) threads * OPERATIONS_PER_THREAD * 1000000000L / elapsed;
+  }
+
+  private static class LockedSlotTable implements SlotTable {
+    private final Map<Integer, JedisPool> slots = new HashMap<Integer, JedisPool>();
+    private final ReentrantReadWriteLock rwl = new ReentrantReadWriteLock();
+
+    void assign(List<Integer> targetSlots, JedisPool pool) {
+      rwl.writeLock().lock();
+      try {
+        for (Integer slot : targetSlots) {
+          slots.put(slot, pool);
+        }
+      } finally {
+        rwl.writeLock().unlock();
+      }
+    }
+
+    @Override
+    public JedisPool get(int slot) {
+      rwl.readLock().lock();
+      try {
+        return slots.get(slot);
+      } finally {
+        rwl.readLock().unlock();
+      }
+    }
+  }
+}
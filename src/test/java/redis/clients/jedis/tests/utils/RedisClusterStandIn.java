@@ -0,0 +1,318 @@
+package redis.clients.jedis.tests.utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import redis.clients.jedis.BinaryJedisCluster;
+import redis.clients.jedis.HostAndPort;
+import redis.clients.jedis.Protocol;
+import redis.clients.util.JedisClusterCRC16;
+import redis.clients.util.RedisOutputStream;
+import redis.clients.util.SafeEncoder;
+
+/**
+ * A few {@link RedisStandIn} nodes sharing a slot table, answering CLUSTER NODES and CLUSTER SLOTS
+ * and redirecting keys they do not own with MOVED, the way cluster masters do. Slots are spread
+ * evenly over the nodes at start; they can be moved at once with {@link #assign(int, int, int)}
+ * or migrated key by key with {@link #migrate(int, int)}. Masters may have replicas, listed by
+ * CLUSTER SLOTS, which copy every write synchronously and serve reads to READONLY connections.
+ */
+public class RedisClusterStandIn implements Closeable {
+  private final List<Node> nodes = new ArrayList<Node>();
+  private final List<Node> replicas = new CopyOnWriteArrayList<Node>();
+  private final int[] owners = new int[BinaryJedisCluster.HASHSLOTS];
+  private final int[] importers = new int[BinaryJedisCluster.HASHSLOTS];
+
+  public RedisClusterStandIn(int size) throws IOException {
+    this(size, 0);
+  }
+
+  public RedisClusterStandIn(int size, int replicasPerMaster) throws IOException {
+    for (int i = 0; i < size; i++) {
+      nodes.add(new Node(i, -1));
+    }
+    for (int i = 0; i < size; i++) {
+      for (int r = 0; r < replicasPerMaster; r++) {
+        replicas.add(new Node(size + replicas.size(), i));
+      }
+    }
+    Arrays.fill(importers, -1);
+    final int perNode = owners.length / size;
+    for (int i = 0; i < size; i++) {
+      assign(i * perNode, i == size - 1 ? owners.length - 1 : (i + 1) * perNode - 1, i);
+    }
+  }
+
+  public Node getNode(int index) {
+    return nodes.get(index);
+  }
+
+  public List<Node> getReplicas(Node master) {
+    List<Node> result = new ArrayList<Node>();
+    for (Node replica : replicas) {
+      if (replica.master == master.index) {
+        result.add(replica);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Takes a replica out of the cluster: it is shut down and no longer listed by CLUSTER SLOTS.
+   */
+  public void removeReplica(Node replica) {
+    replicas.remove(replica);
+    replica.close();
+  }
+
+  public Node getNodeForKey(String key) {
+    return nodes.get(owners[JedisClusterCRC16.getSlot(key)]);
+  }
+
+  public Set<HostAndPort> getStartNodes() {
+    Set<HostAndPort> startNodes = new HashSet<HostAndPort>();
+    startNodes.add(nodes.get(0).getHostAndPort());
+    return startNodes;
+  }
+
+  public synchronized void assign(int from, int to, int node) {
+    for (int slot = from; slot <= to; slot++) {
+      owners[slot] = node;
+    }
+  }
+
+  /**
+   * Starts migrating a slot: its owner answers ASK for keys it no longer holds, and the importing
+   * node serves them to clients that sent ASKING first.
+   */
+  public synchronized void migrate(int slot, int node) {
+    importers[slot] = node;
+  }
+
+  /**
+   * Commands answered by the masters.
+   */
+  public int getCommandCount() {
+    int count = 0;
+    for (Node node : nodes) {
+      count += node.getCommandCount();
+    }
+    return count;
+  }
+
+  public int getReplicaCommandCount() {
+    int count = 0;
+    for (Node replica : replicas) {
+      count += replica.getCommandCount();
+    }
+    return count;
+  }
+
+  synchronized int ownerOf(int slot) {
+    return owners[slot];
+  }
+
+  synchronized int importerOf(int slot) {
+    return importers[slot];
+  }
+
+  /**
+   * Contiguous slot ranges as {from, to, node} triples.
+   */
+  synchronized List<int[]> ranges() {
+    List<int[]> ranges = new ArrayList<int[]>();
+    int from = 0;
+    for (int slot = 1; slot <= owners.length; slot++) {
+      if (slot == owners.length || owners[slot] != owners[from]) {
+        ranges.add(new int[] { from, slot - 1, owners[from] });
+        from = slot;
+      }
+    }
+    return ranges;
+  }
+
+  @Override
+  public void close() {
+    for (Node node : nodes) {
+      node.close();
+    }
+    for (Node replica : replicas) {
+      replica.close();
+    }
+  }
+
+  public class Node extends RedisStandIn {
+    private final int index;
+    // index of the master for replicas, -1 for masters
+    private final int master;
+    // every client connection is served by its own thread
+    private final ThreadLocal<Boolean> asking = new ThreadLocal<Boolean>();
+    private final ThreadLocal<Boolean> readOnly = new ThreadLocal<Boolean>();
+
+    Node(int index, int master) throws IOException {
+      this.index = index;
+      this.master = master;
+    }
+
+    public boolean containsKey(String key) {
+      return data.containsKey(key);
+    }
+
+    @Override
+    protected void reply(List<byte[]> command, RedisOutputStream out) throws IOException {
+      String name = SafeEncoder.encode(command.get(0)).toUpperCase();
+      if ("CLUSTER".equals(name)) {
+        cluster(SafeEncoder.encode(command.get(1)).toUpperCase(), out);
+        return;
+      }
+
+      List<byte[]> keys = keysOf(name, command);
+      if (master >= 0) {
+        replicaReply(name, keys, command, out);
+        return;
+      }
+      if (!keys.isEmpty()) {
+        int slot = JedisClusterCRC16.getSlot(keys.get(0));
+        for (byte[] key : keys) {
+          if (JedisClusterCRC16.getSlot(key) != slot) {
+            error(out, "CROSSSLOT Keys in request don't hash to the same slot");
+            return;
+          }
+        }
+        boolean asked = Boolean.TRUE.equals(asking.get());
+        asking.remove();
+        int owner = ownerOf(slot);
+        int importer = importerOf(slot);
+        if (owner == index && importer >= 0 && !holdsAny(keys)) {
+          redirect(out, "ASK", slot, importer);
+          return;
+        }
+        if (owner != index && !(asked && importer == index)) {
+          redirect(out, "MOVED", slot, owner);
+          return;
+        }
+      } else if ("ASKING".equals(name)) {
+        asking.set(Boolean.TRUE);
+      }
+      super.reply(command, out);
+      if (!keys.isEmpty() && !isRead(name)) {
+        replicate(keys);
+      }
+    }
+
+    private void replicaReply(String name, List<byte[]> keys, List<byte[]> command,
+        RedisOutputStream out) throws IOException {
+      if ("READONLY".equals(name)) {
+        readOnly.set(Boolean.TRUE);
+      } else if (!keys.isEmpty()) {
+        int slot = JedisClusterCRC16.getSlot(keys.get(0));
+        int owner = ownerOf(slot);
+        if (owner != master || !isRead(name) || !Boolean.TRUE.equals(readOnly.get())) {
+          redirect(out, "MOVED", slot, owner);
+          return;
+        }
+      }
+      super.reply(command, out);
+    }
+
+    private void replicate(List<byte[]> keys) {
+      for (Node replica : getReplicas(this)) {
+        for (byte[] key : keys) {
+          String k = SafeEncoder.encode(key);
+          byte[] value = data.get(k);
+          if (value == null) {
+            replica.data.remove(k);
+          } else {
+            replica.data.put(k, value);
+          }
+        }
+      }
+    }
+
+    private boolean isRead(String name) {
+      return "GET".equals(name) || "MGET".equals(name);
+    }
+
+    private boolean holdsAny(List<byte[]> keys) {
+      for (byte[] key : keys) {
+        if (data.containsKey(SafeEncoder.encode(key))) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    private void redirect(RedisOutputStream out, String kind, int slot, int node)
+        throws IOException {
+      HostAndPort target = nodes.get(node).getHostAndPort();
+      error(out, kind + " " + slot + " " + target.getHost() + ":" + target.getPort());
+    }
+
+    private List<byte[]> keysOf(String name, List<byte[]> command) {
+      List<byte[]> keys = new ArrayList<byte[]>();
+      if ("GET".equals(name) || "SET".equals(name) || "INCR".equals(name)) {
+        keys.add(command.get(1));
+      } else if ("MGET".equals(name) || "DEL".equals(name)) {
+        keys.addAll(command.subList(1, command.size()));
+      } else if ("MSET".equals(name)) {
+        for (int i = 1; i < command.size(); i += 2) {
+          keys.add(command.get(i));
+        }
+      }
+      return keys;
+    }
+
+    private void cluster(String subcommand, RedisOutputStream out) throws IOException {
+      if ("NODES".equals(subcommand)) {
+        StringBuilder sb = new StringBuilder();
+        for (Node node : nodes) {
+          HostAndPort hnp = node.getHostAndPort();
+          sb.append("node").append(node.index).append(' ').append(hnp.getHost()).append(':')
+              .append(hnp.getPort()).append(node == this ? " myself,master" : " master")
+              .append(" - 0 0 ").append(node.index).append(" connected");
+          for (int[] range : ranges()) {
+            if (range[2] == node.index) {
+              sb.append(' ').append(range[0]).append('-').append(range[1]);
+            }
+          }
+          sb.append('\n');
+        }
+        bulk(out, SafeEncoder.encode(sb.toString()));
+      } else if ("SLOTS".equals(subcommand)) {
+        List<int[]> ranges = ranges();
+        array(out, ranges.size());
+        for (int[] range : ranges) {
+          HostAndPort hnp = nodes.get(range[2]).getHostAndPort();
+          List<Node> rangeReplicas = getReplicas(nodes.get(range[2]));
+          array(out, 3 + rangeReplicas.size());
+          integer(out, range[0]);
+          integer(out, range[1]);
+          array(out, 3);
+          bulk(out, SafeEncoder.encode(hnp.getHost()));
+          integer(out, hnp.getPort());
+          bulk(out, SafeEncoder.encode("node" + range[2]));
+          for (Node replica : rangeReplicas) {
+            HostAndPort replicaHnp = replica.getHostAndPort();
+            array(out, 3);
+            bulk(out, SafeEncoder.encode(replicaHnp.getHost()));
+            integer(out, replicaHnp.getPort());
+            bulk(out, SafeEncoder.encode("node" + replica.index));
+          }
+        }
+      } else {
+        error(out, "ERR unknown subcommand '" + subcommand + "'");
+      }
+    }
+
+    private void array(RedisOutputStream out, int size) throws IOException {
+      out.write(Protocol.ASTERISK_BYTE);
+      out.writeIntCrLf(size);
+    }
+  }
+}
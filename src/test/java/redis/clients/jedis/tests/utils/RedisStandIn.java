@@ -0,0 +1,255 @@
+package redis.clients.jedis.tests.utils;
+
+import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import redis.clients.jedis.HostAndPort;
+import redis.clients.jedis.Protocol;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.util.RedisInputStream;
+import redis.clients.util.RedisOutputStream;
+import redis.clients.util.SafeEncoder;
+
+/**
+ * A tiny in-process RESP server for tests that must run without a real Redis. It understands a
+ * handful of string commands; subclasses can override {@link #reply} to script other answers.
+ */
+public class RedisStandIn implements Closeable {
+  protected final Map<String, byte[]> data = new ConcurrentHashMap<String, byte[]>();
+  private final ServerSocket server;
+  private final Thread acceptor;
+  private final List<Socket> clients = new CopyOnWriteArrayList<Socket>();
+  private final AtomicInteger commands = new AtomicInteger();
+  private final AtomicInteger reads = new AtomicInteger();
+  private final AtomicInteger connections = new AtomicInteger();
+  private final AtomicBoolean dropNextCommand = new AtomicBoolean();
+
+  public RedisStandIn() throws IOException {
+    server = new ServerSocket(0, 50, InetAddress.getByName("127.0.0.1"));
+    acceptor = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        accept();
+      }
+    }, "redis-stand-in");
+    acceptor.setDaemon(true);
+    acceptor.start();
+  }
+
+  public HostAndPort getHostAndPort() {
+    return new HostAndPort("127.0.0.1", server.getLocalPort());
+  }
+
+  public int getCommandCount() {
+    return commands.get();
+  }
+
+  /**
+   * Number of socket reads that brought in request bytes, i.e. network round-trips.
+   */
+  public int getReadCount() {
+    return reads.get();
+  }
+
+  public int getConnectionCount() {
+    return connections.get();
+  }
+
+  /**
+   * Number of client sockets currently open, as opposed to the cumulative
+   * {@link #getConnectionCount()}.
+   */
+  public int getOpenConnectionCount() {
+    return clients.size();
+  }
+
+  private void accept() {
+    while (!server.isClosed()) {
+      try {
+        final Socket socket = server.accept();
+        clients.add(socket);
+        connections.incrementAndGet();
+        Thread worker = new Thread(new Runnable() {
+          @Override
+          public void run() {
+            serve(socket);
+          }
+        }, "redis-stand-in-client");
+        worker.setDaemon(true);
+        worker.start();
+      } catch (IOException e) {
+        return;
+      }
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private void serve(Socket socket) {
+    try {
+      StandInInputStream in = new StandInInputStream(socket.getInputStream());
+      RedisOutputStream out = new RedisOutputStream(socket.getOutputStream());
+      while (true) {
+        List<byte[]> command = (List<byte[]>) Protocol.read(in);
+        if (dropNextCommand.compareAndSet(true, false)) {
+          return;
+        }
+        commands.incrementAndGet();
+        reply(command, out);
+        // answer a pipelined batch in one write, like the real server does
+        if (!in.hasBuffered()) {
+          out.flush();
+        }
+      }
+    } catch (JedisConnectionException e) {
+      // client went away
+    } catch (IOException e) {
+      // client went away
+    } finally {
+      clients.remove(socket);
+      try {
+        socket.close();
+      } catch (IOException e) {
+        // ignored
+      }
+    }
+  }
+
+  protected void reply(List<byte[]> command, RedisOutputStream out) throws IOException {
+    String name = SafeEncoder.encode(command.get(0)).toUpperCase();
+    if ("PING".equals(name)) {
+      status(out, "PONG");
+    } else if ("SET".equals(name)) {
+      data.put(SafeEncoder.encode(command.get(1)), command.get(2));
+      status(out, "OK");
+    } else if ("GET".equals(name)) {
+      bulk(out, data.get(SafeEncoder.encode(command.get(1))));
+    } else if ("MGET".equals(name)) {
+      out.write(Protocol.ASTERISK_BYTE);
+      out.writeIntCrLf(command.size() - 1);
+      for (int i = 1; i < command.size(); i++) {
+        bulk(out, data.get(SafeEncoder.encode(command.get(i))));
+      }
+    } else if ("MSET".equals(name)) {
+      for (int i = 1; i + 1 < command.size(); i += 2) {
+        data.put(SafeEncoder.encode(command.get(i)), command.get(i + 1));
+      }
+      status(out, "OK");
+    } else if ("DEL".equals(name)) {
+      long removed = 0;
+      for (int i = 1; i < command.size(); i++) {
+        if (data.remove(SafeEncoder.encode(command.get(i))) != null) {
+          removed++;
+        }
+      }
+      integer(out, removed);
+    } else if ("INCR".equals(name)) {
+      String key = SafeEncoder.encode(command.get(1));
+      byte[] old = data.get(key);
+      long value = (old == null ? 0 : Long.parseLong(SafeEncoder.encode(old))) + 1;
+      data.put(key, SafeEncoder.encode(String.valueOf(value)));
+      integer(out, value);
+    } else if ("ECHO".equals(name)) {
+      bulk(out, command.get(1));
+    } else if ("AUTH".equals(name) || "SELECT".equals(name) || "ASKING".equals(name)
+        || "READONLY".equals(name)) {
+      status(out, "OK");
+    } else {
+      error(out, "ERR unknown command '" + name + "'");
+    }
+  }
+
+  protected static void status(RedisOutputStream out, String status) throws IOException {
+    out.write(Protocol.PLUS_BYTE);
+    out.write(SafeEncoder.encode(status));
+    out.writeCrLf();
+  }
+
+  protected static void error(RedisOutputStream out, String message) throws IOException {
+    out.write(Protocol.MINUS_BYTE);
+    out.write(SafeEncoder.encode(message));
+    out.writeCrLf();
+  }
+
+  protected static void integer(RedisOutputStream out, long value) throws IOException {
+    out.write(Protocol.COLON_BYTE);
+    out.write(SafeEncoder.encode(String.valueOf(value)));
+    out.writeCrLf();
+  }
+
+  protected static void bulk(RedisOutputStream out, byte[] value) throws IOException {
+    out.write(Protocol.DOLLAR_BYTE);
+    if (value == null) {
+      out.writeIntCrLf(-1);
+      return;
+    }
+    out.writeIntCrLf(value.length);
+    out.write(value);
+    out.writeCrLf();
+  }
+
+  private class StandInInputStream extends RedisInputStream {
+    StandInInputStream(InputStream in) {
+      super(new FilterInputStream(in) {
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+          int read = super.read(b, off, len);
+          if (read > 0) {
+            reads.incrementAndGet();
+          }
+          return read;
+        }
+      });
+    }
+
+    boolean hasBuffered() {
+      return count < limit;
+    }
+  }
+
+  /**
+   * Closes the connection that sends the next command without executing it, so the client loses
+   * the reply of a command the server never applied.
+   */
+  public void dropNextCommand() {
+    dropNextCommand.set(true);
+  }
+
+  /**
+   * Drops every client connection, as a crashed or restarted server would.
+   */
+  public void dropClients() {
+    for (Socket socket : clients) {
+      try {
+        socket.close();
+      } catch (IOException e) {
+        // ignored
+      }
+    }
+  }
+
+  @Override
+  public void close() {
+    try {
+      server.close();
+      // the listening socket is only released once the acceptor leaves accept(), and a client that
+      // connected in between must be dropped too
+      acceptor.join(1000);
+    } catch (IOException e) {
+      // ignored
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    dropClients();
+  }
+}